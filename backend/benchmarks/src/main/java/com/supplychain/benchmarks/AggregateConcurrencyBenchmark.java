@@ -0,0 +1,112 @@
+package com.supplychain.benchmarks;
+
+import com.supplychain.model.RevenueRollup;
+import com.supplychain.service.impl.ParallelQueries;
+import com.supplychain.service.impl.RevenueServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves bursts of concurrent revenue breakdown requests, each reading seven bucket ranges that
+ * block for a simulated database round trip. Requests run on a Tomcat-sized pool of platform
+ * threads or on a virtual thread each, and read their ranges one after another or through
+ * {@link ParallelQueries}. The score is the time to answer the whole burst; with a concurrency
+ * of 1 it is the latency of one request. The virtual-thread cases need Java 21.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregateConcurrencyBenchmark {
+
+    // server.tomcat.threads.max
+    private static final int TOMCAT_THREADS = 200;
+    // Runs of days and weeks at both ends and the months in between
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 3);
+    private static final LocalDate TO = LocalDate.of(2024, 6, 12);
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"sequential", "parallel"})
+    public String queries;
+
+    @Param({"1", "1000"})
+    public int concurrency;
+
+    @Param({"2000"})
+    public long latencyMicros;
+
+    private TaskExecutor requestThreads;
+    private ThreadPoolTaskExecutor platformRequestThreads;
+    private RevenueServiceImpl revenue;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = "virtual".equals(threads);
+        if (virtual) {
+            SimpleAsyncTaskExecutor perRequest = new SimpleAsyncTaskExecutor("request-");
+            perRequest.setVirtualThreads(true);
+            requestThreads = perRequest;
+        } else {
+            platformRequestThreads = new ThreadPoolTaskExecutor();
+            platformRequestThreads.setCorePoolSize(TOMCAT_THREADS);
+            platformRequestThreads.setMaxPoolSize(TOMCAT_THREADS);
+            platformRequestThreads.setThreadNamePrefix("request-");
+            platformRequestThreads.initialize();
+            requestThreads = platformRequestThreads;
+        }
+        ParallelQueries parallelQueries = "parallel".equals(queries)
+                ? Fixtures.parallelQueries(virtual) : Fixtures.sequentialQueries();
+        revenue = Fixtures.revenue(InMemoryRepositories.slowRollups(20, latencyMicros), parallelQueries);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (platformRequestThreads != null) {
+            platformRequestThreads.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void burst(Blackhole blackhole) throws InterruptedException {
+        CountDownLatch answered = new CountDownLatch(concurrency);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        for (int i = 0; i < concurrency; i++) {
+            requestThreads.execute(() -> {
+                try {
+                    blackhole.consume(revenue.getBreakdown(RevenueRollup.CATEGORY, FROM, TO, 20));
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    answered.countDown();
+                }
+            });
+        }
+        answered.await();
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.supplychain.benchmarks;
+
+import com.supplychain.model.Order;
+import com.supplychain.model.OrderSummary;
+import com.supplychain.repository.OrderRepository;
+import com.supplychain.service.impl.DashboardServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original dashboard summary (a full pass plus six counting passes)
+ * with the single-pass aggregation and the incrementally maintained counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class DashboardSummaryBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int orderCount;
+
+    private List<Order> orders;
+    private OrderRepository repository;
+    private DashboardServiceImpl dashboard;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orders = DataGenerator.orders(orderCount, 10_000, 42);
+        Map<String, Order> store = new ConcurrentHashMap<>();
+        orders.forEach(order -> store.put(order.getId(), order));
+        repository = Fixtures.orderRepository(store);
+        dashboard = Fixtures.dashboard(repository);
+        random = new Random(7);
+    }
+
+    /**
+     * The implementation DashboardController had before the counters, minus the database round trips.
+     */
+    @Benchmark
+    public Map<String, Object> sevenPasses() {
+        Map<String, Object> summary = new HashMap<>();
+        List<Order> allOrders = repository.findAll();
+        summary.put("totalOrders", allOrders.size());
+        summary.put("totalRevenue", allOrders.stream().mapToDouble(Order::getTotalAmount).sum());
+        summary.put("pendingOrders", repository.countByStatus("pending"));
+        summary.put("processingOrders", repository.countByStatus("processing"));
+        summary.put("shippedOrders", repository.countByStatus("shipped"));
+        summary.put("deliveredOrders", repository.countByStatus("delivered"));
+        summary.put("paidOrders", repository.countByPaymentStatus("paid"));
+        summary.put("unpaidOrders", repository.countByPaymentStatus("pending"));
+        return summary;
+    }
+
+    @Benchmark
+    public OrderSummary singlePass() {
+        return repository.summarize();
+    }
+
+    @Benchmark
+    public OrderSummary countersRead() {
+        return dashboard.getSummary();
+    }
+
+    @Benchmark
+    public Order countersWrite() {
+        Order existing = orders.get(random.nextInt(orders.size()));
+        Order before = new Order();
+        BeanUtils.copyProperties(existing, before);
+        existing.setStatus(DataGenerator.STATUSES[random.nextInt(DataGenerator.STATUSES.length)]);
+        dashboard.onOrderSaved(before, existing);
+        return existing;
+    }
+}
@@ -0,0 +1,85 @@
+package com.supplychain.benchmarks;
+
+import com.supplychain.model.Item;
+import com.supplychain.model.Order;
+import com.supplychain.model.OrderItem;
+import org.bson.types.ObjectId;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic items and orders, so runs on different commits see the same data.
+ */
+public final class DataGenerator {
+
+    static final String[] CATEGORIES = {"Electronics", "Furniture", "Clothing", "Food", "Tools", "Toys", "Books", "Sports"};
+    static final String[] SUPPLIERS = {"Acme", "Globex", "Initech", "Umbrella", "Hooli", "Stark", "Wayne", "Tyrell"};
+    static final String[] LOCATIONS = {"WH-1", "WH-2", "WH-3", "Store-A", "Store-B"};
+    static final String[] STATUSES = {"pending", "processing", "shipped", "delivered", "cancelled"};
+    static final String[] PAYMENT_STATUSES = {"paid", "pending"};
+
+    private DataGenerator() {}
+
+    public static List<Item> items(int count, long seed) {
+        Random random = new Random(seed);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Item item = new Item();
+            item.setId(new ObjectId().toHexString());
+            item.setName("Item " + i);
+            item.setSku(sku(i));
+            item.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            item.setSupplier(SUPPLIERS[random.nextInt(SUPPLIERS.length)]);
+            item.setLocation(LOCATIONS[random.nextInt(LOCATIONS.length)]);
+            item.setQuantity(random.nextInt(10) == 0 ? 0 : random.nextInt(500));
+            item.setMinQuantity(random.nextInt(50));
+            item.setPrice(Math.round(random.nextDouble() * 100_000) / 100.0);
+            item.setCreatedAt(base.plusMinutes(random.nextInt(500_000)));
+            item.setUpdatedAt(item.getCreatedAt().plusMinutes(random.nextInt(10_000)));
+            items.add(item);
+        }
+        return items;
+    }
+
+    public static List<Order> orders(int count, int skuCount, long seed) {
+        Random random = new Random(seed);
+        LocalDate base = LocalDate.of(2023, 1, 1);
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setId(new ObjectId().toHexString());
+            order.setCustomerName("Customer " + random.nextInt(10_000));
+            order.setCustomerEmail("customer" + i + "@example.com");
+            order.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+            order.setPaymentStatus(PAYMENT_STATUSES[random.nextInt(PAYMENT_STATUSES.length)]);
+            order.setOrderDate(base.plusDays(random.nextInt(730)));
+            order.setExpectedDelivery(order.getOrderDate().plusDays(3 + random.nextInt(10)));
+            order.setPaymentMethod("card");
+            List<OrderItem> lines = new ArrayList<>();
+            double total = 0;
+            int lineCount = 1 + random.nextInt(5);
+            for (int l = 0; l < lineCount; l++) {
+                OrderItem line = new OrderItem();
+                int index = random.nextInt(skuCount);
+                line.setSku(sku(index));
+                line.setName("Item " + index);
+                line.setQuantity(1 + random.nextInt(5));
+                line.setPrice(Math.round(random.nextDouble() * 10_000) / 100.0);
+                total += line.getPrice() * line.getQuantity();
+                lines.add(line);
+            }
+            order.setItems(lines);
+            order.setTotalAmount(total);
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    static String sku(int index) {
+        return String.format("SKU-%07d", index);
+    }
+}
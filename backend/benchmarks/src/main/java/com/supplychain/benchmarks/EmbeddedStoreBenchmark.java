@@ -0,0 +1,103 @@
+package com.supplychain.benchmarks;
+
+import com.supplychain.model.Item;
+import com.supplychain.model.Order;
+import com.supplychain.repository.ItemRepository;
+import com.supplychain.repository.OrderRepository;
+import com.supplychain.repository.embedded.EmbeddedStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write throughput of the embedded storage engine through the repository interfaces,
+ * including the log append. Compare with the same writes against MongoDB using a load
+ * test; the Mongo path can't run inside JMH without a server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Threads(4)
+public class EmbeddedStoreBenchmark {
+
+    @Param({"100000"})
+    public int itemCount;
+
+    private Path directory;
+    private EmbeddedStore store;
+    private ItemRepository items;
+    private OrderRepository orders;
+    private List<Item> seed;
+    private List<Order> orderSeed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("embedded-store-benchmark");
+        store = Fixtures.embeddedStore(directory);
+        items = Fixtures.embeddedRepository(store, "EmbeddedItemRepository");
+        orders = Fixtures.embeddedRepository(store, "EmbeddedOrderRepository");
+        seed = DataGenerator.items(itemCount, 42);
+        items.saveAll(seed);
+        orderSeed = DataGenerator.orders(1_000, itemCount, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Fixtures.closeEmbeddedStore(store);
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Item saveItem() {
+        Item item = seed.get(ThreadLocalRandom.current().nextInt(seed.size()));
+        Item copy = new Item();
+        copy.setId(item.getId());
+        copy.setName(item.getName());
+        copy.setSku(item.getSku());
+        copy.setCategory(item.getCategory());
+        copy.setQuantity(ThreadLocalRandom.current().nextInt(100));
+        copy.setMinQuantity(item.getMinQuantity());
+        copy.setPrice(item.getPrice());
+        return items.save(copy);
+    }
+
+    @Benchmark
+    public Item incrementQuantity() {
+        String id = seed.get(ThreadLocalRandom.current().nextInt(seed.size())).getId();
+        return items.incrementQuantity(id, ThreadLocalRandom.current().nextBoolean() ? 1 : -1);
+    }
+
+    @Benchmark
+    public Order insertOrder() {
+        Order template = orderSeed.get(ThreadLocalRandom.current().nextInt(orderSeed.size()));
+        Order order = new Order();
+        order.setCustomerName(template.getCustomerName());
+        order.setItems(template.getItems());
+        order.setTotalAmount(template.getTotalAmount());
+        order.setStatus(template.getStatus());
+        order.setPaymentStatus(template.getPaymentStatus());
+        order.setOrderDate(template.getOrderDate());
+        return orders.save(order);
+    }
+}
@@ -0,0 +1,269 @@
+package com.supplychain.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.supplychain.events.ClusterEventRelay;
+import com.supplychain.events.CollectionVersions;
+import com.supplychain.events.InProcessEventBus;
+import com.supplychain.events.InventoryEventPublisher;
+import com.supplychain.events.ItemChangeListener;
+import com.supplychain.events.LocationStockChangeListener;
+import com.supplychain.model.Item;
+import com.supplychain.model.Order;
+import com.supplychain.repository.ItemRepository;
+import com.supplychain.repository.LocationStockRepository;
+import com.supplychain.repository.OrderRepository;
+import com.supplychain.repository.RevenueRollupRepository;
+import com.supplychain.repository.embedded.EmbeddedStore;
+import com.supplychain.service.impl.DashboardServiceImpl;
+import com.supplychain.service.impl.ForecastServiceImpl;
+import com.supplychain.service.impl.ItemCache;
+import com.supplychain.service.impl.ItemSearchIndex;
+import com.supplychain.service.impl.ItemServiceImpl;
+import com.supplychain.service.impl.LocationStockWriter;
+import com.supplychain.service.impl.LocationTotals;
+import com.supplychain.service.impl.LowStockIndex;
+import com.supplychain.service.impl.ParallelQueries;
+import com.supplychain.service.impl.RevenueServiceImpl;
+import com.supplychain.service.impl.StockOverviewServiceImpl;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.util.ReflectionUtils;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wires the real service classes by hand against the in-memory repositories,
+ * the way Spring would wire them against MongoDB.
+ */
+final class Fixtures {
+
+    private Fixtures() {}
+
+    /**
+     * An ObjectMapper configured like the application's (see application.properties).
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    /**
+     * A relay on an in-process bus with no other nodes, so publishing costs what it does on a single node.
+     */
+    static ClusterEventRelay relay() {
+        ClusterEventRelay relay = new ClusterEventRelay();
+        inject(relay, "eventBus", new InProcessEventBus());
+        return relay;
+    }
+
+    static InventoryEventPublisher eventPublisher() {
+        InventoryEventPublisher publisher = new InventoryEventPublisher();
+        // Messages go nowhere; only the publisher's own bookkeeping is measured
+        inject(publisher, "messagingTemplate", new SimpMessagingTemplate((message, timeout) -> true));
+        inject(publisher, "objectMapper", objectMapper());
+        inject(publisher, "historySize", 10_000);
+        inject(publisher, "relay", relay());
+        return publisher;
+    }
+
+    static CollectionVersions versions() {
+        CollectionVersions versions = new CollectionVersions();
+        inject(versions, "historySize", 10_000);
+        return versions;
+    }
+
+    static StockOverviewServiceImpl stockOverview(ItemRepository items) {
+        StockOverviewServiceImpl overview = new StockOverviewServiceImpl();
+        inject(overview, "itemRepository", items);
+        inject(overview, "versions", versions());
+        overview.rebuild();
+        return overview;
+    }
+
+    static DashboardServiceImpl dashboard(OrderRepository orders) {
+        DashboardServiceImpl dashboard = new DashboardServiceImpl();
+        inject(dashboard, "orderRepository", orders);
+        inject(dashboard, "versions", versions());
+        dashboard.rebuild();
+        return dashboard;
+    }
+
+    static ItemCache itemCache(ItemRepository items) {
+        ItemCache cache = new ItemCache();
+        inject(cache, "itemRepository", items);
+        inject(cache, "maxSize", 10_000L);
+        inject(cache, "ttlSeconds", 300L);
+        invoke(cache, "init");
+        return cache;
+    }
+
+    /**
+     * A forecast service with its models fitted, configured like application.properties.
+     */
+    static ForecastServiceImpl forecast(ItemRepository items, OrderRepository orders) {
+        ForecastServiceImpl forecast = new ForecastServiceImpl();
+        inject(forecast, "itemRepository", items);
+        inject(forecast, "orderRepository", orders);
+        inject(forecast, "itemCache", itemCache(items));
+        inject(forecast, "historyDays", 120);
+        inject(forecast, "maxHorizon", 60);
+        inject(forecast, "parallelism", 0);
+        refitForecast(forecast);
+        return forecast;
+    }
+
+    /**
+     * Runs a full refit on the calling thread.
+     */
+    static void refitForecast(ForecastServiceImpl forecast) {
+        invoke(forecast, "refit");
+    }
+
+    /**
+     * Parallel queries configured like application.properties, on virtual threads if asked
+     * for (which needs Java 21) or else on the platform pool.
+     */
+    static ParallelQueries parallelQueries(boolean virtualThreads) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of("spring.threads.virtual.enabled", virtualThreads)));
+        ParallelQueries queries = new ParallelQueries();
+        inject(queries, "environment", environment);
+        inject(queries, "poolSize", 32);
+        inject(queries, "timeoutMillis", 10_000L);
+        invoke(queries, "init");
+        return queries;
+    }
+
+    /**
+     * Parallel queries that all run on the calling thread, one after another.
+     */
+    static ParallelQueries sequentialQueries() {
+        ParallelQueries queries = new ParallelQueries();
+        inject(queries, "executor", new SyncTaskExecutor());
+        inject(queries, "timeoutMillis", 10_000L);
+        return queries;
+    }
+
+    /**
+     * A revenue service reading its buckets from {@code rollups}; only the read paths are wired.
+     */
+    static RevenueServiceImpl revenue(RevenueRollupRepository rollups, ParallelQueries queries) {
+        RevenueServiceImpl revenue = new RevenueServiceImpl();
+        inject(revenue, "rollupRepository", rollups);
+        inject(revenue, "parallelQueries", queries);
+        return revenue;
+    }
+
+    static ItemSearchIndex searchIndex(ItemRepository items) {
+        ItemSearchIndex index = new ItemSearchIndex();
+        inject(index, "itemRepository", items);
+        index.rebuild();
+        return index;
+    }
+
+    static ItemServiceImpl itemService(Map<String, Item> store) {
+        ItemRepository items = InMemoryRepositories.items(store);
+        ItemCache cache = itemCache(items);
+
+        LowStockIndex lowStock = new LowStockIndex();
+        inject(lowStock, "itemRepository", items);
+        inject(lowStock, "eventPublisher", eventPublisher());
+        lowStock.rebuild();
+
+        CollectionVersions versions = versions();
+        LocationStockRepository stock = InMemoryRepositories.locationStock();
+        LocationTotals totals = new LocationTotals();
+        inject(totals, "itemRepository", items);
+        inject(totals, "stockRepository", stock);
+        ClusterEventRelay relay = relay();
+        LocationStockWriter locationStock = new LocationStockWriter();
+        inject(locationStock, "stockRepository", stock);
+        inject(locationStock, "listeners", List.<LocationStockChangeListener>of(totals, relay));
+        // Each item starts with its whole quantity at its home location, as reconciliation leaves it
+        store.values().forEach(locationStock::settleToTotal);
+        totals.rebuild();
+
+        List<ItemChangeListener> listeners = List.of(stockOverview(items), lowStock, cache, versions, totals, relay);
+        ItemServiceImpl service = new ItemServiceImpl();
+        inject(service, "itemRepository", items);
+        inject(service, "stockMovementRepository", InMemoryRepositories.movements());
+        inject(service, "changeListeners", listeners);
+        inject(service, "lowStockIndex", lowStock);
+        inject(service, "itemCache", cache);
+        inject(service, "versions", versions);
+        inject(service, "eventPublisher", eventPublisher());
+        inject(service, "locationStock", locationStock);
+        return service;
+    }
+
+    static OrderRepository orderRepository(Map<String, Order> store) {
+        return InMemoryRepositories.orders(store);
+    }
+
+    /**
+     * Opens an embedded store in {@code directory}, the way the "embedded" profile would.
+     */
+    static EmbeddedStore embeddedStore(Path directory) {
+        EmbeddedStore store = new EmbeddedStore();
+        inject(store, "dataDir", directory.toString());
+        inject(store, "segmentSizeMb", 64);
+        inject(store, "snapshotIntervalMs", 300_000L);
+        inject(store, "snapshotLogSizeMb", 256L);
+        invoke(store, "open");
+        return store;
+    }
+
+    /**
+     * One of the package-private embedded repositories, wired to {@code store}.
+     */
+    @SuppressWarnings("unchecked")
+    static <R> R embeddedRepository(EmbeddedStore store, String simpleName) {
+        Object repository = instantiate("com.supplychain.repository.embedded." + simpleName);
+        inject(repository, "store", store);
+        return (R) repository;
+    }
+
+    static void closeEmbeddedStore(EmbeddedStore store) {
+        invoke(store, "close");
+    }
+
+    private static Object instantiate(String className) {
+        try {
+            Constructor<?> constructor = Class.forName(className).getDeclaredConstructor();
+            ReflectionUtils.makeAccessible(constructor);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + className, e);
+        }
+    }
+
+    static void inject(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null) {
+            throw new IllegalStateException(target.getClass().getSimpleName() + " has no field " + name);
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    private static void invoke(Object target, String name) {
+        Method method = ReflectionUtils.findMethod(target.getClass(), name);
+        if (method == null) {
+            throw new IllegalStateException(target.getClass().getSimpleName() + " has no method " + name);
+        }
+        ReflectionUtils.makeAccessible(method);
+        ReflectionUtils.invokeMethod(method, target);
+    }
+}
@@ -0,0 +1,110 @@
+package com.supplychain.benchmarks;
+
+import com.supplychain.model.DemandForecast;
+import com.supplychain.model.Item;
+import com.supplychain.model.Order;
+import com.supplychain.service.ForecastService;
+import com.supplychain.service.impl.ForecastServiceImpl;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the nightly full refit of the demand models, a single-SKU forecast read,
+ * and what keeping the models current costs per order write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ForecastBenchmark {
+
+    @Param({"5000", "50000"})
+    public int skuCount;
+
+    // About 30 order lines per SKU over the four months of history
+    @Param({"10"})
+    public int ordersPerSku;
+
+    private ForecastServiceImpl forecast;
+    private List<Item> items;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = DataGenerator.items(skuCount, 42);
+        Map<String, Item> itemStore = new ConcurrentHashMap<>();
+        items.forEach(item -> itemStore.put(item.getId(), item));
+
+        LocalDate today = LocalDate.now();
+        Random dates = new Random(11);
+        Map<String, Order> orderStore = new ConcurrentHashMap<>();
+        for (Order order : DataGenerator.orders(skuCount * ordersPerSku, skuCount, 42)) {
+            order.setOrderDate(today.minusDays(dates.nextInt(120)));
+            orderStore.put(order.getId(), order);
+        }
+        forecast = Fixtures.forecast(InMemoryRepositories.items(itemStore), InMemoryRepositories.orders(orderStore));
+        random = new Random(7);
+    }
+
+    /**
+     * Streams the order history and fits every SKU and category model, as the nightly job does.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public ForecastServiceImpl fullRefit() {
+        Fixtures.refitForecast(forecast);
+        return forecast;
+    }
+
+    @Benchmark
+    public DemandForecast skuForecast() {
+        String sku = DataGenerator.sku(random.nextInt(skuCount));
+        return forecast.getForecast(ForecastService.SCOPE_SKU, sku, 30, 0.95).orElseThrow();
+    }
+
+    /**
+     * A new order for today: the lines accumulate on the open day of their SKU and category.
+     */
+    @Benchmark
+    public void orderCreated() {
+        Order order = DataGenerator.orders(1, skuCount, random.nextLong()).get(0);
+        order.setId(new ObjectId().toHexString());
+        order.setStatus("pending");
+        order.setOrderDate(LocalDate.now());
+        forecast.onOrderSaved(null, order);
+    }
+
+    /**
+     * A correction to an order from last month: each affected series is refitted from its history.
+     */
+    @Benchmark
+    public void pastOrderCorrected() {
+        Order order = DataGenerator.orders(1, skuCount, random.nextLong()).get(0);
+        order.setStatus("delivered");
+        order.setOrderDate(LocalDate.now().minusDays(30));
+        forecast.onOrderSaved(null, order);
+        forecast.onOrderDeleted(order);
+    }
+}
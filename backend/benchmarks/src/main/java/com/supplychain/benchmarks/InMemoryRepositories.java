@@ -0,0 +1,273 @@
+package com.supplychain.benchmarks;
+
+import com.supplychain.model.BulkWriteSummary;
+import com.supplychain.model.Item;
+import com.supplychain.model.LocationStock;
+import com.supplychain.model.Order;
+import com.supplychain.model.OrderSummary;
+import com.supplychain.model.RevenueRollup;
+import com.supplychain.model.StockMovement;
+import com.supplychain.repository.ItemRepository;
+import com.supplychain.repository.LocationStockRepository;
+import com.supplychain.repository.OrderRepository;
+import com.supplychain.repository.RevenueRollupRepository;
+import com.supplychain.repository.StockMovementRepository;
+import org.bson.types.ObjectId;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Map-backed stand-ins for the Mongo repositories, so services can be benchmarked
+ * without a database. Only the methods the services call are implemented; anything
+ * else throws {@link UnsupportedOperationException}.
+ */
+final class InMemoryRepositories {
+
+    private static final Comparator<Order> NEWEST_FIRST = Comparator
+            .comparing(Order::getOrderDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(Order::getId)
+            .reversed();
+
+    private InMemoryRepositories() {}
+
+    static ItemRepository items(Map<String, Item> store) {
+        return (ItemRepository) Proxy.newProxyInstance(ItemRepository.class.getClassLoader(),
+                new Class<?>[]{ItemRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findById": return Optional.ofNullable(store.get((String) args[0]));
+                        case "existsById": return store.containsKey((String) args[0]);
+                        case "findAll": return new ArrayList<>(store.values());
+                        case "count": return (long) store.size();
+                        case "findAllById": {
+                            List<Item> found = new ArrayList<>();
+                            for (Object id : (Iterable<?>) args[0]) {
+                                Item item = store.get((String) id);
+                                if (item != null) {
+                                    found.add(item);
+                                }
+                            }
+                            return found;
+                        }
+                        case "save": {
+                            Item item = (Item) args[0];
+                            if (item.getId() == null) {
+                                item.setId(new ObjectId().toHexString());
+                            }
+                            store.put(item.getId(), item);
+                            return item;
+                        }
+                        case "replace": {
+                            Item item = (Item) args[0];
+                            if (item.getId() == null) {
+                                item.setId(new ObjectId().toHexString());
+                            }
+                            Item before = store.put(item.getId(), item);
+                            if (before != null) {
+                                item.setVersion(before.getVersion() + 1);
+                            }
+                            return before;
+                        }
+                        case "deleteById": store.remove((String) args[0]); return null;
+                        case "streamAll": return store.values().stream();
+                        case "findBySkuIn": {
+                            Collection<?> skus = (Collection<?>) args[0];
+                            return store.values().stream().filter(i -> skus.contains(i.getSku())).collect(Collectors.toList());
+                        }
+                        case "findTop32ByUpdatedAtNotNullOrderByUpdatedAtDesc":
+                            return store.values().stream()
+                                    .filter(i -> i.getUpdatedAt() != null)
+                                    .sorted(Comparator.comparing(Item::getUpdatedAt).reversed())
+                                    .limit(32)
+                                    .collect(Collectors.toList());
+                        case "incrementQuantity": {
+                            int delta = (Integer) args[1];
+                            Item[] result = new Item[1];
+                            store.computeIfPresent((String) args[0], (id, item) -> {
+                                if (item.getQuantity() + delta >= 0 || delta >= 0) {
+                                    item.setQuantity(item.getQuantity() + delta);
+                                    item.setVersion(item.getVersion() + 1);
+                                    item.setUpdatedAt(LocalDateTime.now());
+                                    result[0] = item;
+                                }
+                                return item;
+                            });
+                            return result[0];
+                        }
+                        case "upsertAllBySku": {
+                            @SuppressWarnings("unchecked")
+                            List<Item> items = (List<Item>) args[0];
+                            items.forEach(item -> {
+                                if (item.getId() == null) {
+                                    item.setId(new ObjectId().toHexString());
+                                }
+                                store.put(item.getId(), item);
+                            });
+                            return new BulkWriteSummary(items.size(), 0, new HashMap<>());
+                        }
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals": return proxy == args[0];
+                        case "toString": return "InMemoryItemRepository";
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    static OrderRepository orders(Map<String, Order> store) {
+        return (OrderRepository) Proxy.newProxyInstance(OrderRepository.class.getClassLoader(),
+                new Class<?>[]{OrderRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findById": return Optional.ofNullable(store.get((String) args[0]));
+                        case "findAll": return new ArrayList<>(store.values());
+                        case "save": {
+                            Order order = (Order) args[0];
+                            if (order.getId() == null) {
+                                order.setId(new ObjectId().toHexString());
+                            }
+                            store.put(order.getId(), order);
+                            return order;
+                        }
+                        case "deleteAndReturn": return store.remove((String) args[0]);
+                        case "streamAll":
+                            // Newest first, like the Mongo query
+                            return store.values().stream().sorted(NEWEST_FIRST);
+                        case "countByStatus":
+                            return store.values().stream().filter(o -> Objects.equals(o.getStatus(), args[0])).count();
+                        case "countByPaymentStatus":
+                            return store.values().stream().filter(o -> Objects.equals(o.getPaymentStatus(), args[0])).count();
+                        case "summarize": {
+                            OrderSummary summary = new OrderSummary();
+                            store.values().forEach(o -> summary.apply(o.getStatus(), o.getPaymentStatus(), o.getTotalAmount(), 1));
+                            return summary;
+                        }
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals": return proxy == args[0];
+                        case "toString": return "InMemoryOrderRepository";
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    static LocationStockRepository locationStock() {
+        Map<String, LocationStock> store = new ConcurrentHashMap<>();
+        return (LocationStockRepository) Proxy.newProxyInstance(LocationStockRepository.class.getClassLoader(),
+                new Class<?>[]{LocationStockRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "increment": {
+                            String itemId = (String) args[0];
+                            String location = (String) args[1];
+                            int delta = (Integer) args[2];
+                            LocationStock[] result = new LocationStock[1];
+                            store.compute(LocationStock.id(itemId, location), (id, stock) -> {
+                                if (stock == null) {
+                                    if (delta < 0) {
+                                        return null;
+                                    }
+                                    stock = new LocationStock(itemId, location, 0);
+                                } else if (stock.getQuantity() + delta < 0) {
+                                    return stock;
+                                }
+                                stock.setQuantity(stock.getQuantity() + delta);
+                                stock.setUpdatedAt(LocalDateTime.now());
+                                result[0] = stock;
+                                return stock;
+                            });
+                            return result[0];
+                        }
+                        case "replaceQuantity": {
+                            LocationStock stock = new LocationStock((String) args[0], (String) args[1], (Integer) args[2]);
+                            stock.setUpdatedAt(LocalDateTime.now());
+                            return store.put(stock.getId(), stock);
+                        }
+                        case "findByItem": {
+                            String itemId = (String) args[0];
+                            return store.values().stream()
+                                    .filter(stock -> stock.getItemId().equals(itemId))
+                                    .sorted(Comparator.comparing(LocationStock::getId))
+                                    .collect(Collectors.toList());
+                        }
+                        case "deleteByItem": {
+                            String itemId = (String) args[0];
+                            long before = store.size();
+                            store.values().removeIf(stock -> stock.getItemId().equals(itemId));
+                            return before - store.size();
+                        }
+                        case "streamAll": return store.values().stream();
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals": return proxy == args[0];
+                        case "toString": return "InMemoryLocationStockRepository";
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    static StockMovementRepository movements() {
+        Map<String, StockMovement> store = new ConcurrentHashMap<>();
+        return (StockMovementRepository) Proxy.newProxyInstance(StockMovementRepository.class.getClassLoader(),
+                new Class<?>[]{StockMovementRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "insert": {
+                            // The ledger only grows; keep it bounded so long runs don't measure GC
+                            if (store.size() > 100_000) {
+                                store.clear();
+                            }
+                            if (args[0] instanceof Iterable) {
+                                for (Object movement : (Iterable<?>) args[0]) {
+                                    store.put(new ObjectId().toHexString(), (StockMovement) movement);
+                                }
+                            } else {
+                                store.put(new ObjectId().toHexString(), (StockMovement) args[0]);
+                            }
+                            return args[0];
+                        }
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals": return proxy == args[0];
+                        case "toString": return "InMemoryStockMovementRepository";
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * Revenue buckets for {@code keys} keys per period, answered after {@code latencyMicros} of
+     * blocking, the way a range query waits on the database.
+     */
+    static RevenueRollupRepository slowRollups(int keys, long latencyMicros) {
+        return (RevenueRollupRepository) Proxy.newProxyInstance(RevenueRollupRepository.class.getClassLoader(),
+                new Class<?>[]{RevenueRollupRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findBuckets": {
+                            TimeUnit.MICROSECONDS.sleep(latencyMicros);
+                            String granularity = (String) args[0];
+                            String dimension = (String) args[1];
+                            List<RevenueRollup> buckets = new ArrayList<>();
+                            for (LocalDate period = (LocalDate) args[2]; !period.isAfter((LocalDate) args[3]);
+                                 period = RevenueRollup.MONTH.equals(granularity) ? period.plusMonths(1)
+                                         : period.plusDays(RevenueRollup.WEEK.equals(granularity) ? 7 : 1)) {
+                                for (int key = 0; key < keys; key++) {
+                                    RevenueRollup bucket = new RevenueRollup(granularity, dimension, period, "key-" + key);
+                                    bucket.add(100.0 + key, 3, 1);
+                                    buckets.add(bucket);
+                                }
+                            }
+                            return buckets;
+                        }
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals": return proxy == args[0];
+                        case "toString": return "SlowRevenueRollupRepository";
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,118 @@
+package com.supplychain.benchmarks;
+
+import com.supplychain.model.Item;
+import com.supplychain.service.impl.ItemSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares filtering the whole item list, as the inventory pages did in the browser,
+ * with the search index, and measures what keeping the index current costs per write.
+ * Run with {@code -prof gc} to see the allocation per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemSearchBenchmark {
+
+    private static final String[] COLOURS = {"Black", "Blue", "Red", "Green", "Silver", "White", "Orange", "Grey"};
+    private static final String[] MATERIALS = {"Steel", "Oak", "Cotton", "Nylon", "Copper", "Bamboo", "Rubber"};
+    private static final String[] PRODUCTS = {"Bolt", "Hinge", "Shirt", "Cable", "Bluetooth Speaker", "Desk",
+            "Helmet", "Kettle", "Router", "Backpack", "Charger", "Hammer", "Lamp", "Notebook", "Racket"};
+
+    @Param({"100000", "1000000"})
+    public int itemCount;
+
+    private List<Item> items;
+    private ItemSearchIndex index;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random names = new Random(3);
+        items = DataGenerator.items(itemCount, 42);
+        Map<String, Item> store = new ConcurrentHashMap<>();
+        for (Item item : items) {
+            item.setName(productName(names));
+            store.put(item.getId(), item);
+        }
+        index = Fixtures.searchIndex(InMemoryRepositories.items(store));
+        random = new Random(7);
+    }
+
+    private static String productName(Random random) {
+        return COLOURS[random.nextInt(COLOURS.length)] + " " + MATERIALS[random.nextInt(MATERIALS.length)] + " "
+                + PRODUCTS[random.nextInt(PRODUCTS.length)] + " " + (100 + random.nextInt(900));
+    }
+
+    /**
+     * What the inventory page did in the browser, minus fetching the list.
+     */
+    @Benchmark
+    public List<Item> clientSideFilter() {
+        String term = "blue";
+        return items.stream()
+                .filter(item -> item.getName().toLowerCase(Locale.ROOT).contains(term)
+                        || item.getSku().toLowerCase(Locale.ROOT).contains(term))
+                .filter(item -> "Tools".equals(item.getCategory()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Map<String, Object> sku() {
+        return index.search(DataGenerator.sku(random.nextInt(itemCount)), null, null, null, null, 0, 20);
+    }
+
+    @Benchmark
+    public Map<String, Object> skuPrefix() {
+        return index.search("SKU-00012", null, null, null, null, 0, 20);
+    }
+
+    @Benchmark
+    public Map<String, Object> twoWords() {
+        return index.search("copper hinge 5", null, null, null, null, 0, 20);
+    }
+
+    @Benchmark
+    public Map<String, Object> substring() {
+        return index.search("ooth", null, null, null, null, 0, 20);
+    }
+
+    @Benchmark
+    public Map<String, Object> wordInCategory() {
+        return index.search("blue", "Tools", null, null, null, 0, 20);
+    }
+
+    @Benchmark
+    public Map<String, Object> browseCategory() {
+        return index.search("", "Tools", null, "WH-1", null, 0, 20);
+    }
+
+    @Benchmark
+    public Item write() {
+        Item item = items.get(random.nextInt(items.size()));
+        item.setName(productName(random));
+        index.onItemSaved(item);
+        return item;
+    }
+}
@@ -0,0 +1,78 @@
+package com.supplychain.benchmarks;
+
+import com.supplychain.model.Item;
+import com.supplychain.model.StockAdjustment;
+import com.supplychain.model.StockAdjustmentResult;
+import com.supplychain.service.impl.ItemServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-layer hot paths against the in-memory repositories: everything the
+ * services do around the database (caching, views, indexes, ledger) without the
+ * database itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ItemServiceBenchmark {
+
+    @Param({"10000", "100000"})
+    public int itemCount;
+
+    private List<Item> items;
+    private ItemServiceImpl service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = DataGenerator.items(itemCount, 42);
+        Map<String, Item> store = new ConcurrentHashMap<>();
+        items.forEach(item -> store.put(item.getId(), item));
+        service = Fixtures.itemService(store);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Item> getHotItemById() {
+        // 90% of reads go to 1% of the items
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int hot = Math.max(1, items.size() / 100);
+        int index = random.nextInt(10) < 9 ? random.nextInt(hot) : random.nextInt(items.size());
+        return service.getItemById(items.get(index).getId());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public StockAdjustmentResult adjustHotItem() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StockAdjustment adjustment = new StockAdjustment();
+        adjustment.setDelta(random.nextBoolean() ? 1 : -1);
+        adjustment.setReason("benchmark");
+        return service.adjustStock(items.get(random.nextInt(8)).getId(), adjustment);
+    }
+
+    @Benchmark
+    public List<Item> lowStockPage() {
+        return service.getLowStockItems(0, 50);
+    }
+}
@@ -0,0 +1,104 @@
+package com.supplychain.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.supplychain.model.Item;
+import com.supplychain.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost of list responses: one array written at once (the original
+ * controllers) versus document by document (the cursor-streaming controllers).
+ * Output goes to a counting sink so buffer growth isn't measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter unflushed;
+    private List<Item> items;
+    private List<Order> orders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Fixtures.objectMapper();
+        unflushed = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        items = DataGenerator.items(size, 42);
+        orders = DataGenerator.orders(size, 10_000, 42);
+    }
+
+    @Benchmark
+    public long itemsAsArray() throws IOException {
+        CountingSink sink = new CountingSink();
+        objectMapper.writeValue(sink, items);
+        return sink.count;
+    }
+
+    @Benchmark
+    public long itemsStreamed() throws IOException {
+        return streamed(items);
+    }
+
+    @Benchmark
+    public long ordersAsArray() throws IOException {
+        CountingSink sink = new CountingSink();
+        objectMapper.writeValue(sink, orders);
+        return sink.count;
+    }
+
+    @Benchmark
+    public long ordersStreamed() throws IOException {
+        return streamed(orders);
+    }
+
+    private long streamed(List<?> documents) throws IOException {
+        CountingSink sink = new CountingSink();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(sink)) {
+            generator.writeStartArray();
+            for (Object document : documents) {
+                unflushed.writeValue(generator, document);
+            }
+            generator.writeEndArray();
+        }
+        return sink.count;
+    }
+
+    private static final class CountingSink extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.supplychain.benchmarks;
+
+import com.supplychain.model.Item;
+import com.supplychain.service.impl.StockOverviewServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the original full-scan /stock-overview computation with the
+ * materialized view, and measures what keeping the view current costs per write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class StockOverviewBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int itemCount;
+
+    private List<Item> items;
+    private StockOverviewServiceImpl view;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = DataGenerator.items(itemCount, 42);
+        Map<String, Item> store = new ConcurrentHashMap<>();
+        items.forEach(item -> store.put(item.getId(), item));
+        view = Fixtures.stockOverview(InMemoryRepositories.items(store));
+        random = new Random(7);
+    }
+
+    /**
+     * The implementation ItemController.getStockOverview had before the view,
+     * minus the database read.
+     */
+    @Benchmark
+    public Map<String, Object> fullScan() {
+        Map<String, Object> overview = new HashMap<>();
+        overview.put("totalProducts", items.size());
+        double totalValue = items.stream()
+                .mapToDouble(i -> i.getPrice() * i.getQuantity())
+                .sum();
+        overview.put("totalStockValue", totalValue);
+        long lowStockCount = items.stream()
+                .filter(i -> i.getQuantity() <= i.getMinQuantity() && i.getQuantity() > 0)
+                .count();
+        overview.put("lowStockCount", lowStockCount);
+        List<Item> sortedItems = items.stream()
+                .filter(i -> i.getUpdatedAt() != null)
+                .sorted(Comparator.comparing(Item::getUpdatedAt).reversed())
+                .collect(Collectors.toList());
+        overview.put("recentStock", sortedItems.stream().limit(5).collect(Collectors.toList()));
+        return overview;
+    }
+
+    @Benchmark
+    public Map<String, Object> materializedRead() {
+        return view.getOverview();
+    }
+
+    @Benchmark
+    public Item materializedWrite() {
+        Item item = items.get(random.nextInt(items.size()));
+        item.setQuantity(random.nextInt(500));
+        item.setUpdatedAt(LocalDateTime.now());
+        view.onItemSaved(item);
+        return item;
+    }
+}
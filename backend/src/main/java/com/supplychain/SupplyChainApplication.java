@@ -2,11 +2,13 @@ package com.supplychain;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot Application class for Supply Chain Management System
  */
 @SpringBootApplication
+@EnableScheduling
 public class SupplyChainApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,347 @@
+package com.supplychain.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits how many requests of each expensive endpoint class run at once.
+ *
+ * Requests over a class's limit wait in a short bounded queue; when the queue is
+ * full or the wait times out they are answered with 503 and Retry-After straight
+ * away, so a burst of scans never takes every worker thread and database connection
+ * from the cheap endpoints. Identical GETs arriving while one is running can be
+ * collapsed: they wait for the running request and are sent a copy of its response.
+ * Endpoints in no class are never limited.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${admission.classes:}")
+    private List<String> classNames;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<EndpointClass> classes = new ArrayList<>();
+    private final Map<String, CompletableFuture<CapturedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        for (String name : classNames) {
+            if (name.isBlank()) {
+                continue;
+            }
+            EndpointClass endpointClass = new EndpointClass(name.trim());
+            classes.add(endpointClass);
+            Gauge.builder("admission.active", endpointClass,
+                            c -> c.maxConcurrent - c.permits.availablePermits())
+                    .description("Requests of an endpoint class running now")
+                    .tag("class", endpointClass.name)
+                    .register(meterRegistry);
+            Gauge.builder("admission.queued", endpointClass.waiting, AtomicInteger::get)
+                    .description("Requests of an endpoint class waiting for a slot or for an identical request")
+                    .tag("class", endpointClass.name)
+                    .register(meterRegistry);
+            log.info("Admission class {}: {} concurrent, {} queued, endpoints {}", endpointClass.name,
+                    endpointClass.maxConcurrent, endpointClass.maxQueued, endpointClass.endpoints);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || classes.isEmpty() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        if (endpointClass == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!endpointClass.collapse || !isCollapsible(request)) {
+            admit(endpointClass, request, response, chain);
+            return;
+        }
+
+        String key = collapseKey(request);
+        CompletableFuture<CapturedResponse> leader = new CompletableFuture<>();
+        CompletableFuture<CapturedResponse> running = inFlight.putIfAbsent(key, leader);
+        if (running == null) {
+            lead(endpointClass, key, leader, request, response, chain);
+        } else {
+            follow(endpointClass, running, request, response, chain);
+        }
+    }
+
+    private EndpointClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        for (EndpointClass endpointClass : classes) {
+            for (Endpoint endpoint : endpointClass.endpoints) {
+                if (endpoint.method.equals(method) && pathMatcher.match(endpoint.pattern, path)) {
+                    return endpointClass;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isCollapsible(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    // Everything the response can depend on: the URL, the cached version and the CORS origin
+    private static String collapseKey(HttpServletRequest request) {
+        return request.getMethod() + " " + request.getRequestURI()
+                + "?" + request.getQueryString()
+                + "|" + request.getHeader(HttpHeaders.IF_NONE_MATCH)
+                + "|" + request.getHeader(HttpHeaders.ORIGIN)
+                + "|" + request.getHeader(HttpHeaders.ACCEPT);
+    }
+
+    /**
+     * Runs the request within the class's concurrency limit, or rejects it.
+     */
+    private void admit(EndpointClass endpointClass, HttpServletRequest request, HttpServletResponse response,
+                       FilterChain chain) throws ServletException, IOException {
+        String rejection = acquire(endpointClass);
+        if (rejection != null) {
+            reject(endpointClass, rejection, response);
+            return;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                endpointClass.permits.release();
+            }
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streaming responses hold their slot until the last byte is written
+                request.getAsyncContext().addListener(new ReleasingListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private String acquire(EndpointClass endpointClass) {
+        try {
+            // Timed even when zero, so a free slot still goes to requests queued first
+            if (endpointClass.permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+            if (endpointClass.waiting.incrementAndGet() > endpointClass.maxQueued) {
+                endpointClass.waiting.decrementAndGet();
+                return "queue_full";
+            }
+            try {
+                return endpointClass.permits.tryAcquire(endpointClass.queueTimeoutMs, TimeUnit.MILLISECONDS)
+                        ? null : "queue_timeout";
+            } finally {
+                endpointClass.waiting.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        }
+    }
+
+    private void lead(EndpointClass endpointClass, String key, CompletableFuture<CapturedResponse> leader,
+                      HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper capturing = new ContentCachingResponseWrapper(response);
+        CapturedResponse captured = null;
+        try {
+            admit(endpointClass, request, capturing, chain);
+            if (request.isAsyncStarted()) {
+                // Nothing to share; the body is copied out once the async response completes
+                request.getAsyncContext().addListener(new ReleasingListener(() -> copyBody(capturing)));
+            } else {
+                captured = CapturedResponse.of(capturing);
+                capturing.copyBodyToResponse();
+            }
+        } finally {
+            inFlight.remove(key, leader);
+            // Followers of a failed or streamed request run it themselves
+            leader.complete(captured);
+        }
+    }
+
+    private void follow(EndpointClass endpointClass, CompletableFuture<CapturedResponse> running,
+                        HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Followers hold a worker thread too, so they count against the queue
+        if (endpointClass.waiting.incrementAndGet() > endpointClass.maxQueued) {
+            endpointClass.waiting.decrementAndGet();
+            reject(endpointClass, "queue_full", response);
+            return;
+        }
+        CapturedResponse captured;
+        try {
+            captured = running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(endpointClass, "interrupted", response);
+            return;
+        } catch (ExecutionException e) {
+            captured = null;
+        } finally {
+            endpointClass.waiting.decrementAndGet();
+        }
+        if (captured == null || captured.status >= 500) {
+            admit(endpointClass, request, response, chain);
+            return;
+        }
+        endpointClass.collapsed.increment();
+        captured.writeTo(response);
+    }
+
+    private void reject(EndpointClass endpointClass, String reason, HttpServletResponse response) throws IOException {
+        meterRegistry.counter("admission.rejected", "class", endpointClass.name, "reason", reason).increment();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(endpointClass.retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"Too many concurrent " + endpointClass.name
+                + " requests, retry later\",\"class\":\"" + endpointClass.name
+                + "\",\"reason\":\"" + reason + "\"}");
+    }
+
+    private static void copyBody(ContentCachingResponseWrapper capturing) {
+        try {
+            capturing.copyBodyToResponse();
+        } catch (IOException e) {
+            log.debug("Could not copy a streamed response body: {}", e.getMessage());
+        }
+    }
+
+    private final class EndpointClass {
+        final String name;
+        final List<Endpoint> endpoints = new ArrayList<>();
+        final int maxConcurrent;
+        final int maxQueued;
+        final long queueTimeoutMs;
+        final long retryAfterSeconds;
+        final boolean collapse;
+        final Semaphore permits;
+        final AtomicInteger waiting = new AtomicInteger();
+        final Counter collapsed;
+
+        EndpointClass(String name) {
+            this.name = name;
+            String prefix = "admission." + name + ".";
+            for (String endpoint : environment.getProperty(prefix + "endpoints", String[].class, new String[0])) {
+                String[] parts = endpoint.trim().split("\\s+", 2);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected \"METHOD /path\" in " + prefix + "endpoints: " + endpoint);
+                }
+                endpoints.add(new Endpoint(parts[0].toUpperCase(), parts[1]));
+            }
+            maxConcurrent = Math.max(1, environment.getProperty(prefix + "max-concurrent", Integer.class, 8));
+            maxQueued = Math.max(0, environment.getProperty(prefix + "max-queued", Integer.class, 16));
+            queueTimeoutMs = Math.max(0, environment.getProperty(prefix + "queue-timeout-ms", Long.class, 1000L));
+            retryAfterSeconds = Math.max(1, environment.getProperty(prefix + "retry-after-seconds", Long.class, 1L));
+            collapse = environment.getProperty(prefix + "collapse", Boolean.class, false);
+            permits = new Semaphore(maxConcurrent, true);
+            collapsed = Counter.builder("admission.collapsed")
+                    .description("Requests answered with the response of an identical request already running")
+                    .tag("class", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    private record Endpoint(String method, String pattern) {
+        @Override
+        public String toString() {
+            return method + " " + pattern;
+        }
+    }
+
+    private record CapturedResponse(int status, Map<String, List<String>> headers, String contentType, byte[] body) {
+
+        static CapturedResponse of(ContentCachingResponseWrapper response) {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (String name : response.getHeaderNames()) {
+                headers.put(name, new ArrayList<>(response.getHeaders(name)));
+            }
+            return new CapturedResponse(response.getStatus(), headers, response.getContentType(),
+                    response.getContentAsByteArray());
+        }
+
+        void writeTo(HttpServletResponse response) throws IOException {
+            response.setStatus(status);
+            headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private record ReleasingListener(Runnable action) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            action.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {}
+
+        @Override
+        public void onError(AsyncEvent event) {
+            action.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {}
+    }
+}
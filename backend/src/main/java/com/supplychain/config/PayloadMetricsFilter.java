@@ -0,0 +1,297 @@
+package com.supplychain.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records request and response body sizes per endpoint as the
+ * http.server.payload.size distribution.
+ *
+ * Bytes are counted as they pass through, so chunked uploads and
+ * streamed responses are measured without buffering them. Async requests
+ * are recorded when they complete, time out or fail, by a listener added
+ * as soon as async processing starts.
+ */
+@Component
+public class PayloadMetricsFilter extends OncePerRequestFilter {
+
+    static final String METRIC = "http.server.payload.size";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CountingRequest countingRequest = new CountingRequest(request);
+        CountingResponse countingResponse = new CountingResponse(response);
+        countingRequest.listener = new RecordingListener(request, countingRequest, countingResponse);
+        try {
+            chain.doFilter(countingRequest, countingResponse);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streaming bodies are written after this thread returns. The listener was added when
+                // async started, unless that bypassed the wrapper
+                if (!countingRequest.listening) {
+                    request.getAsyncContext().addListener(countingRequest.listener);
+                }
+            } else {
+                countingResponse.flushWriter();
+                countingRequest.listener.record();
+            }
+        }
+    }
+
+    /**
+     * Records an async request once, whichever of complete, timeout and error comes first.
+     */
+    private final class RecordingListener implements AsyncListener {
+        private final HttpServletRequest request;
+        private final CountingRequest countingRequest;
+        private final CountingResponse countingResponse;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        RecordingListener(HttpServletRequest request, CountingRequest countingRequest, CountingResponse countingResponse) {
+            this.request = request;
+            this.countingRequest = countingRequest;
+            this.countingResponse = countingResponse;
+        }
+
+        void record() {
+            if (recorded.compareAndSet(false, true)) {
+                PayloadMetricsFilter.this.record(request, countingRequest, countingResponse);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            record();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            record();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Listeners are dropped when async is started again on the same request
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private void record(HttpServletRequest request, CountingRequest countingRequest, CountingResponse countingResponse) {
+        // The matched pattern keeps the tag bounded (/api/items/{id}, not one tag per id)
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        long requestBytes = Math.max(countingRequest.count, request.getContentLengthLong());
+        if (requestBytes > 0) {
+            summary(uri, method, "request").record(requestBytes);
+        }
+        summary(uri, method, "response").record(countingResponse.count);
+    }
+
+    private DistributionSummary summary(String uri, String method, String direction) {
+        return DistributionSummary.builder(METRIC)
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(64.0)
+                .maximumExpectedValue(100.0 * 1024 * 1024)
+                .tag("uri", uri)
+                .tag("method", method)
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    private static final class CountingRequest extends HttpServletRequestWrapper {
+        private long count;
+        private ServletInputStream stream;
+        private BufferedReader reader;
+        private RecordingListener listener;
+        private volatile boolean listening;
+
+        CountingRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        // A fast async request can complete before the filter chain returns, so the listener
+        // is added here rather than after it
+        @Override
+        public AsyncContext startAsync() {
+            return listen(super.startAsync());
+        }
+
+        @Override
+        public AsyncContext startAsync(ServletRequest request, ServletResponse response) {
+            return listen(super.startAsync(request, response));
+        }
+
+        private AsyncContext listen(AsyncContext context) {
+            if (!listening) {
+                listening = true;
+                context.addListener(listener);
+            }
+            return context;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                ServletInputStream delegate = super.getInputStream();
+                stream = new ServletInputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        int b = delegate.read();
+                        if (b >= 0) {
+                            count++;
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        int n = delegate.read(b, off, len);
+                        if (n > 0) {
+                            count += n;
+                        }
+                        return n;
+                    }
+
+                    @Override
+                    public boolean isFinished() {
+                        return delegate.isFinished();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setReadListener(ReadListener listener) {
+                        delegate.setReadListener(listener);
+                    }
+                };
+            }
+            return stream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : "UTF-8";
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+            }
+            return reader;
+        }
+    }
+
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private long count;
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                stream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        count++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        count += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        delegate.setWriteListener(listener);
+                    }
+                };
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()), true);
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            flushWriter();
+            super.flushBuffer();
+        }
+
+        // The container only flushes its own writer, not this one
+        void flushWriter() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+    }
+}
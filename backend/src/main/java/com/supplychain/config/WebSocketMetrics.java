@@ -0,0 +1,90 @@
+package com.supplychain.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Exposes the STOMP broker's sessions, executor queue depths and message
+ * rates as metrics. WebSocketMessageBrokerStats only logs these as text.
+ */
+@Component
+public class WebSocketMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("subProtocolWebSocketHandler")
+    private WebSocketHandler webSocketHandler;
+
+    @Autowired
+    @Qualifier("clientInboundChannelExecutor")
+    private ThreadPoolTaskExecutor inboundExecutor;
+
+    @Autowired
+    @Qualifier("clientOutboundChannelExecutor")
+    private ThreadPoolTaskExecutor outboundExecutor;
+
+    @PostConstruct
+    void registerGauges() {
+        // The bean is wrapped in decorators; the stats live on the handler underneath
+        SubProtocolWebSocketHandler handler = (SubProtocolWebSocketHandler) WebSocketHandlerDecorator.unwrap(webSocketHandler);
+        SubProtocolWebSocketHandler.Stats stats = handler.getStats();
+        Gauge.builder("websocket.sessions", stats, SubProtocolWebSocketHandler.Stats::getTotalSessions)
+                .description("Open WebSocket and SockJS sessions")
+                .register(meterRegistry);
+        Gauge.builder("websocket.sessions.limit.exceeded", stats, SubProtocolWebSocketHandler.Stats::getLimitExceededSessions)
+                .description("Sessions closed for exceeding the send time or buffer limit")
+                .register(meterRegistry);
+        registerExecutor("inbound", inboundExecutor);
+        registerExecutor("outbound", outboundExecutor);
+    }
+
+    private void registerExecutor(String channel, ThreadPoolTaskExecutor executor) {
+        Gauge.builder("websocket.channel.queued", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Messages waiting for a channel thread")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts messages passing through a channel, by STOMP message type.
+     */
+    static ChannelInterceptor messageCounter(MeterRegistry registry, String channel) {
+        Map<SimpMessageType, Counter> counters = new EnumMap<>(SimpMessageType.class);
+        for (SimpMessageType type : SimpMessageType.values()) {
+            counters.put(type, Counter.builder("websocket.messages")
+                    .tag("channel", channel)
+                    .tag("type", type.name())
+                    .register(registry));
+        }
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel messageChannel) {
+                SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+                counters.get(type != null ? type : SimpMessageType.OTHER).increment();
+                return message;
+            }
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.supplychain.controller;
+
+import com.supplychain.service.VersionConflictException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Answers polls with 304 Not Modified when the client already holds the current version,
+ * so an unchanged collection is neither read nor serialized again, and versioned writes
+ * with 409 Conflict when the document has moved on.
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() {}
+
+    /**
+     * Returns 304 if the request's If-None-Match holds {@code etag}, otherwise the response
+     * built by {@code response}. Either way the ETag header is already set on the servlet
+     * response by {@link WebRequest#checkNotModified(String)}, so it is not repeated on the
+     * entity, which streaming bodies would add a second time. The tag has to be taken before the
+     * data is read, and every version is advanced only after its write is visible to reads (the
+     * collections once the write is stored, the views once they applied it), so a write racing
+     * the read can only give the client newer data under an older tag, which its next poll
+     * replaces, never older data under a newer tag.
+     */
+    static <T> ResponseEntity<T> ifNoneMatch(WebRequest request, String etag, Supplier<ResponseEntity<T>> response) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+        ResponseEntity<T> built = response.get();
+        return ResponseEntity.status(built.getStatusCode())
+                .headers(headers -> headers.addAll(built.getHeaders()))
+                .cacheControl(CacheControl.noCache())
+                .body(built.getBody());
+    }
+
+    /**
+     * The 409 answer to a patch naming a version the document no longer has, with the
+     * current version so the client can re-read and retry.
+     */
+    static ResponseEntity<Map<String, Object>> conflict(VersionConflictException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", e.getMessage());
+        body.put("id", e.getId());
+        body.put("currentVersion", e.getCurrentVersion());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+}
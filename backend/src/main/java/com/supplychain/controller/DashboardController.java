@@ -1,35 +1,48 @@
 package com.supplychain.controller;
 
-import com.supplychain.repository.OrderRepository;
-import com.supplychain.model.Order;
+import com.supplychain.events.CollectionVersions;
+import com.supplychain.model.OrderSummary;
+import com.supplychain.service.DashboardService;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.*;
 
 @RestController
 @RequestMapping("/api/dashboard")
 @CrossOrigin
 public class DashboardController {
-    private final OrderRepository orderRepository;
+    private final DashboardService dashboardService;
+    private final CollectionVersions versions;
 
-    public DashboardController(OrderRepository orderRepository) {
-        this.orderRepository = orderRepository;
+    public DashboardController(DashboardService dashboardService, CollectionVersions versions) {
+        this.dashboardService = dashboardService;
+        this.versions = versions;
     }
 
     @GetMapping("/summary")
-    public Map<String, Object> getDashboardSummary() {
+    public ResponseEntity<Map<String, Object>> getDashboardSummary(WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, versions.etag(CollectionVersions.DASHBOARD),
+                () -> ResponseEntity.ok(summarize()));
+    }
+
+    @PostMapping("/summary/verify")
+    public Map<String, Object> verifyDashboardSummary() {
+        return dashboardService.verifySummary();
+    }
+
+    private Map<String, Object> summarize() {
         Map<String, Object> summary = new HashMap<>();
-        List<Order> allOrders = orderRepository.findAll();
-
-        double totalRevenue = allOrders.stream().mapToDouble(Order::getTotalAmount).sum();
-
-        summary.put("totalOrders", allOrders.size());
-        summary.put("totalRevenue", totalRevenue);
-        summary.put("pendingOrders", orderRepository.countByStatus("pending"));
-        summary.put("processingOrders", orderRepository.countByStatus("processing"));
-        summary.put("shippedOrders", orderRepository.countByStatus("shipped"));
-        summary.put("deliveredOrders", orderRepository.countByStatus("delivered"));
-        summary.put("paidOrders", orderRepository.countByPaymentStatus("paid"));
-        summary.put("unpaidOrders", orderRepository.countByPaymentStatus("pending"));
+        OrderSummary orders = dashboardService.getSummary();
+
+        summary.put("totalOrders", orders.getTotalOrders());
+        summary.put("totalRevenue", orders.getTotalRevenue());
+        summary.put("pendingOrders", orders.countByStatus("pending"));
+        summary.put("processingOrders", orders.countByStatus("processing"));
+        summary.put("shippedOrders", orders.countByStatus("shipped"));
+        summary.put("deliveredOrders", orders.countByStatus("delivered"));
+        summary.put("paidOrders", orders.countByPaymentStatus("paid"));
+        summary.put("unpaidOrders", orders.countByPaymentStatus("pending"));
 
         return summary;
     }
@@ -0,0 +1,59 @@
+package com.supplychain.controller;
+
+import com.supplychain.repository.IndexReconciler;
+import com.supplychain.repository.QueryPlanInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.*;
+
+/**
+ * Index and query-plan checks against MongoDB; the embedded store has neither.
+ */
+@RestController
+@RequestMapping("/api/diagnostics")
+@CrossOrigin(origins = "http://localhost:3000")
+public class DiagnosticsController {
+
+    @Autowired private ObjectProvider<IndexReconciler> indexReconciler;
+    @Autowired private ObjectProvider<QueryPlanInspector> queryPlanInspector;
+
+    @GetMapping("/indexes")
+    public ResponseEntity<Map<String, Object>> getIndexes() {
+        IndexReconciler reconciler = indexReconciler.getIfAvailable();
+        if (reconciler == null) {
+            return notAvailable();
+        }
+        return ResponseEntity.ok(reconciler.getStatus());
+    }
+
+    /**
+     * Explains every repository query; answers 503 when a hot query scans its collection,
+     * so a smoke test can fail on it.
+     */
+    @GetMapping("/query-plans")
+    public ResponseEntity<Map<String, Object>> getQueryPlans() {
+        QueryPlanInspector inspector = queryPlanInspector.getIfAvailable();
+        if (inspector == null) {
+            return notAvailable();
+        }
+        List<QueryPlanInspector.QueryPlan> plans = inspector.explainAll();
+        List<String> violations = plans.stream()
+                .filter(QueryPlanInspector.QueryPlan::violation)
+                .map(plan -> plan.repository() + "." + plan.method())
+                .toList();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("ok", violations.isEmpty());
+        response.put("hotCollectionScans", violations);
+        response.put("plans", plans);
+        return ResponseEntity.status(violations.isEmpty() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(response);
+    }
+
+    private static ResponseEntity<Map<String, Object>> notAvailable() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Index diagnostics need MongoDB and are not available with embedded storage"));
+    }
+}
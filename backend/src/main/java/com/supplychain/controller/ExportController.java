@@ -0,0 +1,135 @@
+package com.supplychain.controller;
+
+import com.supplychain.model.ExportJob;
+import com.supplychain.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/exports")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ExportController {
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+    private static final String RETRY_AFTER_SECONDS = "30";
+
+    @Autowired private ExportService exportService;
+
+    /**
+     * Streams the orders of a date range (the last 30 days by default) as they are read.
+     * For large ranges, a job survives a dropped connection and can be downloaded in parts.
+     */
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(required = false) String from,
+                                                              @RequestParam(required = false) String to,
+                                                              @RequestParam(defaultValue = ExportService.FORMAT_CSV) String format) {
+        LocalDate toDate = to != null ? LocalDate.parse(to) : LocalDate.now();
+        LocalDate fromDate = from != null ? LocalDate.parse(from) : toDate.minusDays(29);
+        // Checked up front: once streaming has started the status can no longer change
+        checkFormat(format);
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return attachment(exportService.fileName(ExportService.TYPE_ORDERS, fromDate, toDate, format), format)
+                .body(out -> exportService.writeOrders(fromDate, toDate, format, out));
+    }
+
+    @GetMapping("/inventory")
+    public ResponseEntity<StreamingResponseBody> exportInventory(@RequestParam(defaultValue = ExportService.FORMAT_CSV) String format) {
+        checkFormat(format);
+        return attachment(exportService.fileName(ExportService.TYPE_INVENTORY, null, null, format), format)
+                .body(out -> exportService.writeInventory(format, out));
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<ExportJob> startJob(@RequestParam String type,
+                                              @RequestParam(required = false) String from,
+                                              @RequestParam(required = false) String to,
+                                              @RequestParam(defaultValue = ExportService.FORMAT_CSV) String format) {
+        LocalDate toDate = to != null ? LocalDate.parse(to) : LocalDate.now();
+        LocalDate fromDate = from != null ? LocalDate.parse(from) : toDate.minusDays(29);
+        ExportJob job = exportService.startJob(type, fromDate, toDate, format);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().replaceQuery(null)
+                        .path("/{id}").buildAndExpand(job.getId()).toUri())
+                .body(job);
+    }
+
+    @GetMapping("/jobs")
+    public List<ExportJob> getJobs() {
+        return exportService.getJobs();
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ExportJob> getJob(@PathVariable String id) {
+        return exportService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Downloads the file of a completed job. Range requests are answered with 206 and the
+     * ETag lets If-Range check that a resumed download continues the same file; a job that
+     * has not completed is answered with 409 and its status.
+     */
+    @GetMapping("/jobs/{id}/download")
+    public ResponseEntity<?> download(@PathVariable String id) {
+        Optional<ExportJob> job = exportService.getJob(id);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<Path> file = exportService.getFile(id);
+        if (file.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(job.get());
+        }
+        return attachment(job.get().getFileName(), job.get().getFormat())
+                .eTag(id + "-" + job.get().getBytes())
+                .body(new FileSystemResource(file.get()));
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<Void> deleteJob(@PathVariable String id) {
+        return exportService.deleteJob(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    private static ResponseEntity.BodyBuilder attachment(String fileName, String format) {
+        return ResponseEntity.ok()
+                .contentType(ExportService.FORMAT_CSV.equals(format) ? CSV : GZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString());
+    }
+
+    private static void checkFormat(String format) {
+        if (!ExportService.FORMAT_CSV.equals(format) && !ExportService.FORMAT_NDJSON_GZ.equals(format)) {
+            throw new IllegalArgumentException("format must be " + ExportService.FORMAT_CSV + " or "
+                    + ExportService.FORMAT_NDJSON_GZ);
+        }
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleRejected(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body("Too many exports are waiting, retry later");
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, DateTimeParseException.class})
+    public ResponseEntity<String> handleBadRequest(RuntimeException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
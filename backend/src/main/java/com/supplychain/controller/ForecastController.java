@@ -0,0 +1,61 @@
+package com.supplychain.controller;
+
+import com.supplychain.model.DemandForecast;
+import com.supplychain.service.ForecastService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/forecast")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ForecastController {
+    private static final int MAX_TOP = 100;
+
+    @Autowired private ForecastService forecastService;
+
+    @GetMapping
+    public Map<String, Object> getStatus() {
+        return forecastService.getStatus();
+    }
+
+    @GetMapping("/sku/{sku}")
+    public ResponseEntity<DemandForecast> getSkuForecast(@PathVariable String sku,
+                                                         @RequestParam(defaultValue = "30") int horizon,
+                                                         @RequestParam(defaultValue = "0.95") double confidence) {
+        return forecastService.getForecast(ForecastService.SCOPE_SKU, sku, horizon, confidence)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/category/{category}")
+    public ResponseEntity<DemandForecast> getCategoryForecast(@PathVariable String category,
+                                                              @RequestParam(defaultValue = "30") int horizon,
+                                                              @RequestParam(defaultValue = "0.95") double confidence) {
+        return forecastService.getForecast(ForecastService.SCOPE_CATEGORY, category, horizon, confidence)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/top")
+    public ResponseEntity<List<DemandForecast>> getTopForecasts(@RequestParam(defaultValue = "sku") String scope,
+                                                                @RequestParam(defaultValue = "30") int horizon,
+                                                                @RequestParam(defaultValue = "0.95") double confidence,
+                                                                @RequestParam(defaultValue = "10") int limit) {
+        if (!ForecastService.SCOPE_SKU.equals(scope) && !ForecastService.SCOPE_CATEGORY.equals(scope)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(forecastService.getTopForecasts(scope, horizon, confidence,
+                Math.max(1, Math.min(limit, MAX_TOP))));
+    }
+
+    @PostMapping("/refit")
+    public ResponseEntity<Map<String, Object>> refit() {
+        boolean started = forecastService.startRefit();
+        Map<String, Object> response = new HashMap<>(forecastService.getStatus());
+        response.put("started", started);
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
+    }
+}
@@ -1,5 +1,13 @@
 package com.supplychain.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.CompositeHealth;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -15,6 +23,9 @@ import java.util.Map;
 @RequestMapping("/api")
 public class HelloController {
 
+    @Autowired
+    private HealthEndpoint healthEndpoint;
+
     @GetMapping("/hello")
     public Map<String, Object> hello() {
         Map<String, Object> response = new HashMap<>();
@@ -27,15 +38,42 @@ public class HelloController {
         return response;
     }
 
+    /**
+     * Readiness check: runs the health indicators, which ping the database.
+     * Returns 503 when anything is down so load balancers stop routing here.
+     */
     @GetMapping("/health")
-    public Map<String, Object> health() {
+    public ResponseEntity<Map<String, Object>> health() {
+        HealthComponent overall = healthEndpoint.health();
+        // Taken from the overall result rather than asked for again, which would ping the database twice
+        Map<String, HealthComponent> components = overall instanceof CompositeHealth composite
+                ? composite.getComponents() : Map.of();
+        HealthComponent database = components.get("mongo");
+        String databaseName = "MongoDB";
+        if (database == null) {
+            // Running with the embedded profile
+            database = components.get("embeddedStore");
+            databaseName = "Embedded";
+        }
+
         Map<String, Object> response = new HashMap<>();
-        response.put("status", "UP");
+        response.put("status", overall.getStatus().getCode());
         response.put("timestamp", LocalDateTime.now());
         response.put("service", "Supply Chain Management Backend");
-        response.put("database", "MongoDB");
+        response.put("database", describe(databaseName, database));
         response.put("version", "1.0.0");
-        
-        return response;
+
+        HttpStatus status = Status.UP.equals(overall.getStatus()) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    private Map<String, Object> describe(String name, HealthComponent component) {
+        Map<String, Object> description = new HashMap<>();
+        description.put("name", name);
+        description.put("status", component != null ? component.getStatus().getCode() : Status.UNKNOWN.getCode());
+        if (component instanceof Health health && !health.getDetails().isEmpty()) {
+            description.put("details", health.getDetails());
+        }
+        return description;
     }
 }
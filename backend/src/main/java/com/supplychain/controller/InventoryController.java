@@ -0,0 +1,57 @@
+package com.supplychain.controller;
+
+import com.supplychain.model.CursorPage;
+import com.supplychain.model.LocationStock;
+import com.supplychain.model.StockTotals;
+import com.supplychain.service.LocationStockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/inventory")
+@CrossOrigin(origins = "http://localhost:3000")
+public class InventoryController {
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired private LocationStockService locationStockService;
+
+    @GetMapping("/locations")
+    public List<StockTotals> getLocationTotals() {
+        return locationStockService.getLocationTotals();
+    }
+
+    @GetMapping("/locations/{location}")
+    public ResponseEntity<StockTotals> getLocationTotals(@PathVariable String location) {
+        return locationStockService.getLocationTotals(location)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/locations/{location}/stock")
+    public CursorPage<LocationStock> getLocationStock(@PathVariable String location,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "50") int limit) {
+        return locationStockService.getLocationStock(location, cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    @GetMapping("/categories")
+    public List<StockTotals> getCategoryTotals() {
+        return locationStockService.getCategoryTotals();
+    }
+
+    @GetMapping("/status")
+    public Map<String, Object> getStatus() {
+        return locationStockService.getStatus();
+    }
+
+    @PostMapping("/reconcile")
+    public ResponseEntity<Map<String, Object>> reconcile() {
+        boolean started = locationStockService.startReconcile();
+        Map<String, Object> response = new HashMap<>(locationStockService.getStatus());
+        response.put("started", started);
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
+    }
+}
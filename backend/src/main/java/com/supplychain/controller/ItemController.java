@@ -1,25 +1,118 @@
 package com.supplychain.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplychain.model.ChangeSet;
+import com.supplychain.model.CursorPage;
+import com.supplychain.model.ImportResult;
 import com.supplychain.model.Item;
+import com.supplychain.model.ItemPatch;
+import com.supplychain.model.StockAdjustment;
+import com.supplychain.model.StockAdjustmentResult;
+import com.supplychain.model.StockMovement;
+import com.supplychain.model.StockTransfer;
+import com.supplychain.model.StockTransferResult;
+import com.supplychain.service.ImportService;
 import com.supplychain.service.ItemService;
+import com.supplychain.service.LocationStockService;
+import com.supplychain.service.StockOverviewService;
+import com.supplychain.service.VersionConflictException;
+import com.supplychain.events.CollectionVersions;
+import com.supplychain.events.InventoryChangeBatch;
 import com.supplychain.events.InventoryEventPublisher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/items")
 @CrossOrigin(origins = "http://localhost:3000")
 public class ItemController {
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_SEARCH_OFFSET = 1000;
+
     @Autowired private ItemService itemService;
     @Autowired private InventoryEventPublisher eventPublisher;
+    @Autowired private StockOverviewService stockOverviewService;
+    @Autowired private ImportService importService;
+    @Autowired private LocationStockService locationStockService;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private CollectionVersions versions;
 
     @GetMapping
-    public List<Item> getAllItems() {
-        return itemService.getAllItems();
+    public ResponseEntity<StreamingResponseBody> getAllItems(WebRequest request) {
+        // Same JSON array as before, but written from a cursor instead of a findAll() list
+        return ConditionalResponses.ifNoneMatch(request, versions.etag(CollectionVersions.ITEMS),
+                () -> StreamingResponses.jsonArray(objectMapper, () -> itemService.streamItems(null, null)));
+    }
+
+    @GetMapping("/page")
+    public CursorPage<Item> getItemsPage(@RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "50") int limit,
+                                         @RequestParam(required = false) String category,
+                                         @RequestParam(required = false) String supplier) {
+        return itemService.getItemsPage(cursor, category, supplier, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamItems(@RequestParam(required = false) String category,
+                                                             @RequestParam(required = false) String supplier) {
+        return StreamingResponses.ndjson(objectMapper, () -> itemService.streamItems(category, supplier));
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<InventoryChangeBatch> getChangesSince(@RequestParam(required = false) String epoch,
+                                                                @RequestParam long since) {
+        InventoryChangeBatch batch = eventPublisher.changesSince(epoch, since);
+        return batch.isResync()
+                ? ResponseEntity.status(HttpStatus.GONE).body(batch)
+                : ResponseEntity.ok(batch);
+    }
+
+    @GetMapping("/delta")
+    public ResponseEntity<ChangeSet<Item>> getDelta(@RequestParam String epoch, @RequestParam long since) {
+        ChangeSet<Item> changes = itemService.getChangesSince(epoch, since);
+        return changes.isResync()
+                ? ResponseEntity.status(HttpStatus.GONE).body(changes)
+                : ResponseEntity.ok(changes);
+    }
+
+    @GetMapping("/sku/{sku}")
+    public ResponseEntity<Item> getItemBySku(@PathVariable String sku) {
+        return itemService.getItemBySku(sku)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/search")
+    public Map<String, Object> searchItems(@RequestParam(defaultValue = "") String q,
+                                           @RequestParam(required = false) String category,
+                                           @RequestParam(required = false) String supplier,
+                                           @RequestParam(required = false) String location,
+                                           @RequestParam(required = false) String stock,
+                                           @RequestParam(defaultValue = "0") int offset,
+                                           @RequestParam(defaultValue = "20") int limit) {
+        return itemService.searchItems(q, category, supplier, location, stock,
+                Math.max(0, Math.min(offset, MAX_SEARCH_OFFSET)), Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+    }
+
+    @GetMapping("/search/stats")
+    public Map<String, Object> getSearchStats() {
+        return itemService.getSearchStats();
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, Object> getCacheStats() {
+        return itemService.getCacheStats();
     }
 
     @GetMapping("/{id}")
@@ -30,8 +123,15 @@ public class ItemController {
     }
     
     @GetMapping("/low-stock")
-    public List<Item> getLowStockItems(@RequestParam(defaultValue = "10") int threshold) {
-        return itemService.getLowStockItems(threshold);
+    public List<Item> getLowStockItems(@RequestParam(defaultValue = "0") int page,
+                                       @RequestParam(defaultValue = "50") int size) {
+        return itemService.getLowStockItems(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    @GetMapping("/out-of-stock")
+    public List<Item> getOutOfStockItems(@RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "50") int size) {
+        return itemService.getOutOfStockItems(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
     }
 
     @PostMapping
@@ -41,63 +141,111 @@ public class ItemController {
         item.setCreatedAt(now);
         item.setUpdatedAt(now);
         Item savedItem = itemService.saveItem(item);
-        eventPublisher.publishUpdate();
+        eventPublisher.publishCreated(savedItem);
         return savedItem;
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ImportResult importItems(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                    InputStream body) throws IOException {
+        // Read straight from the request stream; the upload is never buffered whole
+        return importService.importItems(body, contentType.startsWith("text/csv"));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Item> updateItem(@PathVariable String id, @RequestBody Item itemDetails) {
-        return itemService.getItemById(id).map(existingItem -> {
-            existingItem.setName(itemDetails.getName());
-            existingItem.setSku(itemDetails.getSku());
-            existingItem.setCategory(itemDetails.getCategory());
-            existingItem.setQuantity(itemDetails.getQuantity());
-            // --- পরিবর্তন এখানে ---
-            // بما أن minQuantity একটি int, তাই null চেক করার প্রয়োজন নেই
-            existingItem.setMinQuantity(itemDetails.getMinQuantity());
-            existingItem.setPrice(itemDetails.getPrice());
-            existingItem.setSupplier(itemDetails.getSupplier());
-            existingItem.setLocation(itemDetails.getLocation());
-            existingItem.setUpdatedAt(LocalDateTime.now());
-            
-            Item updatedItem = itemService.saveItem(existingItem);
-            eventPublisher.publishUpdate();
-            return ResponseEntity.ok(updatedItem);
-        }).orElse(ResponseEntity.notFound().build());
+        return itemService.updateItem(id, itemDetails)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Writes only the fields in the body, if the item is still at the body's {@code version};
+     * 409 with the current version otherwise.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Item> patchItem(@PathVariable String id, @RequestBody ItemPatch patch) {
+        if (patch.getVersion() == null) {
+            throw new IllegalArgumentException("version is required");
+        }
+        return itemService.patchItem(id, patch)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteItem(@PathVariable String id) {
         itemService.deleteItem(id);
-        eventPublisher.publishUpdate();
+        eventPublisher.publishDeleted(id);
         return ResponseEntity.noContent().build();
     }
 
+    @PatchMapping("/{id}/adjust")
+    public ResponseEntity<StockAdjustmentResult> adjustStock(@PathVariable String id, @RequestBody StockAdjustment adjustment) {
+        StockAdjustmentResult result = itemService.adjustStock(id, adjustment);
+        if (result.isApplied()) {
+            eventPublisher.publishQuantityChanged(result.getItem());
+        }
+        return ResponseEntity.status(statusFor(result.getStatus())).body(result);
+    }
+
+    @PatchMapping("/adjust")
+    public List<StockAdjustmentResult> adjustStockBatch(@RequestBody List<StockAdjustment> adjustments) {
+        List<StockAdjustmentResult> results = itemService.adjustStock(adjustments);
+        for (StockAdjustmentResult result : results) {
+            if (result.isApplied()) {
+                eventPublisher.publishQuantityChanged(result.getItem());
+            }
+        }
+        return results;
+    }
+
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<Map<String, Object>> getItemStock(@PathVariable String id) {
+        return locationStockService.getItemStock(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/transfers")
+    public ResponseEntity<StockTransferResult> transferStock(@PathVariable String id, @RequestBody StockTransfer transfer) {
+        StockTransferResult result = itemService.transferStock(id, transfer);
+        return ResponseEntity.status(statusFor(result.getStatus())).body(result);
+    }
+
+    @GetMapping("/{id}/movements")
+    public List<StockMovement> getStockMovements(@PathVariable String id) {
+        return itemService.getStockMovements(id);
+    }
+
+    private HttpStatus statusFor(String status) {
+        switch (status) {
+            case StockAdjustmentResult.APPLIED: return HttpStatus.OK;
+            case StockAdjustmentResult.NOT_FOUND: return HttpStatus.NOT_FOUND;
+            case StockAdjustmentResult.INSUFFICIENT_STOCK: return HttpStatus.CONFLICT;
+            default: return HttpStatus.BAD_REQUEST;
+        }
+    }
+
     @GetMapping("/stock-overview")
-    public Map<String, Object> getStockOverview() {
-        List<Item> items = itemService.getAllItems();
-        Map<String, Object> overview = new HashMap<>();
-        overview.put("totalProducts", items.size());
-        
-        // --- পরিবর্তন এখানে ---
-        // بما أن price এবং quantity primitive, তাই null চেক করার প্রয়োজন নেই
-        double totalValue = items.stream()
-            .mapToDouble(i -> i.getPrice() * i.getQuantity())
-            .sum();
-        overview.put("totalStockValue", totalValue);
-        
-        // --- পরিবর্তন এখানে ---
-        // بما أن quantity এবং minQuantity primitive, তাই null চেক করার প্রয়োজন নেই
-        long lowStockCount = items.stream()
-            .filter(i -> i.getQuantity() <= i.getMinQuantity() && i.getQuantity() > 0)
-            .count();
-        overview.put("lowStockCount", lowStockCount);
-
-        List<Item> sortedItems = items.stream()
-            .filter(i -> i.getUpdatedAt() != null)
-            .sorted(Comparator.comparing(Item::getUpdatedAt).reversed())
-            .collect(Collectors.toList());
-        overview.put("recentStock", sortedItems.stream().limit(5).collect(Collectors.toList()));
-        return overview;
-    }
-}
\ No newline at end of file
+    public ResponseEntity<Map<String, Object>> getStockOverview(WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, versions.etag(CollectionVersions.STOCK_OVERVIEW),
+                () -> ResponseEntity.ok(stockOverviewService.getOverview()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleVersionConflict(VersionConflictException e) {
+        return ConditionalResponses.conflict(e);
+    }
+
+    // SKUs are unique in MongoDB; a create or update reusing one is a conflict, not a server error
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<String> handleDuplicateSku(DuplicateKeyException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("An item with this SKU already exists");
+    }
+}
@@ -1,25 +1,79 @@
 package com.supplychain.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplychain.events.CollectionVersions;
+import com.supplychain.model.ChangeSet;
+import com.supplychain.model.CursorPage;
+import com.supplychain.model.ImportResult;
 import com.supplychain.model.Order;
+import com.supplychain.model.OrderPatch;
+import com.supplychain.model.OrderSubmission;
+import com.supplychain.model.OrderSubmissionResult;
+import com.supplychain.service.ImportService;
+import com.supplychain.service.InsufficientStockException;
 import com.supplychain.service.OrderService;
+import com.supplychain.service.VersionConflictException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
 @CrossOrigin(origins = "http://localhost:3000")
 public class OrderController {
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 500;
 
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private CollectionVersions versions;
+
     @GetMapping
-    public List<Order> getAllOrders() {
-        return orderService.getAllOrders();
+    public ResponseEntity<StreamingResponseBody> getAllOrders(WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, versions.etag(CollectionVersions.ORDERS),
+                () -> StreamingResponses.jsonArray(objectMapper, () -> orderService.streamOrders(null, null)));
+    }
+
+    @GetMapping("/page")
+    public CursorPage<Order> getOrdersPage(@RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "50") int limit,
+                                           @RequestParam(required = false) String status,
+                                           @RequestParam(required = false) String paymentStatus) {
+        return orderService.getOrdersPage(cursor, status, paymentStatus, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamOrders(@RequestParam(required = false) String status,
+                                                              @RequestParam(required = false) String paymentStatus) {
+        return StreamingResponses.ndjson(objectMapper, () -> orderService.streamOrders(status, paymentStatus));
     }
     
+    @GetMapping("/delta")
+    public ResponseEntity<ChangeSet<Order>> getDelta(@RequestParam String epoch, @RequestParam long since) {
+        ChangeSet<Order> changes = orderService.getChangesSince(epoch, since);
+        return changes.isResync()
+                ? ResponseEntity.status(HttpStatus.GONE).body(changes)
+                : ResponseEntity.ok(changes);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Order> getOrderById(@PathVariable String id) {
         return orderService.getOrderById(id)
@@ -32,6 +86,19 @@ public class OrderController {
         return orderService.saveOrder(order);
     }
 
+    @PostMapping("/batch")
+    public List<OrderSubmissionResult> submitOrders(@RequestBody List<OrderSubmission> submissions) {
+        if (submissions.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " orders per batch");
+        }
+        return orderService.submitOrders(submissions);
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ImportResult importOrders(InputStream body) throws IOException {
+        return importService.importOrders(body);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Order> updateOrder(@PathVariable String id, @RequestBody Order orderDetails) {
         return orderService.updateOrder(id, orderDetails)
@@ -39,9 +106,68 @@ public class OrderController {
             .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Writes only the fields in the body, if the order is still at the body's {@code version};
+     * 409 with the current version otherwise.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Order> patchOrder(@PathVariable String id, @RequestBody OrderPatch patch) {
+        if (patch.getVersion() == null) {
+            throw new IllegalArgumentException("version is required");
+        }
+        return orderService.patchOrder(id, patch)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Fast path for fulfillment status updates: one small conditional write, and a small
+     * response. {@code version} is optional here, since the status is set, not edited.
+     */
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<Map<String, Object>> updateStatus(@PathVariable String id,
+                                                            @RequestParam String status,
+                                                            @RequestParam(required = false) Long version) {
+        OrderPatch patch = new OrderPatch();
+        patch.setStatus(status);
+        patch.setVersion(version);
+        return orderService.patchOrder(id, patch).map(order -> {
+            Map<String, Object> response = new HashMap<>();
+            response.put("id", order.getId());
+            response.put("status", order.getStatus());
+            response.put("version", order.getVersion());
+            return ResponseEntity.ok(response);
+        }).orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable String id) {
         orderService.deleteOrder(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler({IllegalArgumentException.class, DateTimeParseException.class})
+    public ResponseEntity<String> handleBadCursor(RuntimeException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleVersionConflict(VersionConflictException e) {
+        return ConditionalResponses.conflict(e);
+    }
+
+    // Two creates racing with the same client-given id; the second must not overwrite the first
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<String> handleDuplicateOrder(DuplicateKeyException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("An order with this id already exists");
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Map<String, Object>> handleInsufficientStock(InsufficientStockException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", e.getMessage());
+        body.put("sku", e.getSku());
+        body.put("requested", e.getRequested());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+}
@@ -0,0 +1,64 @@
+package com.supplychain.controller;
+
+import com.supplychain.model.RevenueRollup;
+import com.supplychain.service.RevenueService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/revenue")
+@CrossOrigin(origins = "http://localhost:3000")
+public class RevenueController {
+    private static final int MAX_BREAKDOWN = 500;
+
+    @Autowired private RevenueService revenueService;
+
+    @GetMapping
+    public Map<String, Object> getRevenue(@RequestParam(required = false) String from,
+                                          @RequestParam(required = false) String to,
+                                          @RequestParam(required = false) String interval,
+                                          @RequestParam(defaultValue = RevenueRollup.TOTAL) String dimension,
+                                          @RequestParam(required = false) String key) {
+        LocalDate toDate = to != null ? LocalDate.parse(to) : LocalDate.now();
+        LocalDate fromDate = from != null ? LocalDate.parse(from) : toDate.minusDays(29);
+        if (interval == null) {
+            long days = ChronoUnit.DAYS.between(fromDate, toDate) + 1;
+            interval = days <= 31 ? RevenueRollup.DAY : days <= 182 ? RevenueRollup.WEEK : RevenueRollup.MONTH;
+        }
+        return revenueService.getRevenue(fromDate, toDate, interval, dimension, key);
+    }
+
+    @GetMapping("/breakdown")
+    public List<RevenueRollup> getBreakdown(@RequestParam(defaultValue = RevenueRollup.CATEGORY) String dimension,
+                                            @RequestParam(required = false) String from,
+                                            @RequestParam(required = false) String to,
+                                            @RequestParam(defaultValue = "20") int limit) {
+        LocalDate toDate = to != null ? LocalDate.parse(to) : LocalDate.now();
+        LocalDate fromDate = from != null ? LocalDate.parse(from) : toDate.minusDays(29);
+        return revenueService.getBreakdown(dimension, fromDate, toDate, Math.max(1, Math.min(limit, MAX_BREAKDOWN)));
+    }
+
+    @GetMapping("/backfill")
+    public Map<String, Object> getBackfillStatus() {
+        return revenueService.getBackfillStatus();
+    }
+
+    @PostMapping("/backfill")
+    public ResponseEntity<Map<String, Object>> backfill() {
+        boolean started = revenueService.startBackfill();
+        Map<String, Object> response = new HashMap<>(revenueService.getBackfillStatus());
+        response.put("started", started);
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, DateTimeParseException.class})
+    public ResponseEntity<String> handleBadRequest(RuntimeException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
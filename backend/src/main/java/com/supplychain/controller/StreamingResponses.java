@@ -0,0 +1,63 @@
+package com.supplychain.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes documents straight from a database cursor to the response,
+ * so the full result set is never held in memory.
+ */
+final class StreamingResponses {
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private StreamingResponses() {}
+
+    /**
+     * Streams the documents as a single JSON array, the same shape as a regular list response.
+     */
+    static <T> ResponseEntity<StreamingResponseBody> jsonArray(ObjectMapper objectMapper, Supplier<Stream<T>> source) {
+        ObjectWriter writer = unflushedWriter(objectMapper);
+        StreamingResponseBody body = out -> {
+            try (Stream<T> stream = source.get();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                for (T document : (Iterable<T>) stream::iterator) {
+                    writer.writeValue(generator, document);
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Streams the documents as newline-delimited JSON, one document per line.
+     */
+    static <T> ResponseEntity<StreamingResponseBody> ndjson(ObjectMapper objectMapper, Supplier<Stream<T>> source) {
+        ObjectWriter writer = unflushedWriter(objectMapper);
+        StreamingResponseBody body = out -> {
+            try (Stream<T> stream = source.get();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                for (T document : (Iterable<T>) stream::iterator) {
+                    writer.writeValue(generator, document);
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    // Flushing after every document would turn each one into its own network write
+    private static ObjectWriter unflushedWriter(ObjectMapper objectMapper) {
+        return objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+}
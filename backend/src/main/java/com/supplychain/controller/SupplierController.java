@@ -0,0 +1,57 @@
+package com.supplychain.controller;
+
+import com.supplychain.model.SupplierScorecard;
+import com.supplychain.service.SupplierService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/suppliers")
+@CrossOrigin(origins = "http://localhost:3000")
+public class SupplierController {
+
+    @Autowired private SupplierService supplierService;
+
+    @GetMapping
+    public List<SupplierScorecard> getScorecards(@RequestParam(required = false) String from,
+                                                 @RequestParam(required = false) String to) {
+        return supplierService.getScorecards(month(from), month(to));
+    }
+
+    @GetMapping("/{name}/scorecard")
+    public ResponseEntity<SupplierScorecard> getScorecard(@PathVariable String name,
+                                                          @RequestParam(required = false) String from,
+                                                          @RequestParam(required = false) String to) {
+        return supplierService.getScorecard(name, month(from), month(to))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/status")
+    public Map<String, Object> getStatus() {
+        return supplierService.getStatus();
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        boolean started = supplierService.startRebuild();
+        Map<String, Object> response = new HashMap<>(supplierService.getStatus());
+        response.put("started", started);
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
+    }
+
+    // Months as 2024-03
+    private static YearMonth month(String value) {
+        return value != null ? YearMonth.parse(value) : null;
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, DateTimeParseException.class})
+    public ResponseEntity<String> handleBadRequest(RuntimeException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
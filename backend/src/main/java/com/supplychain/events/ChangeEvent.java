@@ -0,0 +1,118 @@
+package com.supplychain.events;
+
+import com.supplychain.model.Item;
+import com.supplychain.model.LocationStock;
+import com.supplychain.model.Order;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A write made on one node, as sent to the others over the {@link EventBus}.
+ * {@code origin} identifies the node and its current run, and {@code sequence}
+ * numbers that node's events without gaps, so receivers can drop events they
+ * have already seen and notice ones they missed.
+ */
+public class ChangeEvent {
+    public static final String ITEM_SAVED = "item_saved";
+    public static final String ITEM_DELETED = "item_deleted";
+    public static final String ORDER_SAVED = "order_saved";
+    public static final String ORDER_DELETED = "order_deleted";
+    public static final String LOCATION_STOCK_CHANGED = "location_stock_changed";
+    // A change for /topic/inventory subscribers, as recorded by InventoryEventPublisher
+    public static final String INVENTORY_CHANGE = "inventory_change";
+
+    private String origin;
+    private long sequence;
+    private Instant timestamp;
+    private String type;
+    private Item item;
+    private String itemId;
+    private Order before;
+    private Order after;
+    private String changeType;
+    private Map<String, Object> changes;
+    private LocationStock stock;
+    private int delta;
+
+    public ChangeEvent() {}
+
+    public static ChangeEvent itemSaved(Item item) {
+        ChangeEvent event = new ChangeEvent(ITEM_SAVED);
+        event.setItem(item);
+        return event;
+    }
+
+    public static ChangeEvent itemDeleted(String id) {
+        ChangeEvent event = new ChangeEvent(ITEM_DELETED);
+        event.setItemId(id);
+        return event;
+    }
+
+    public static ChangeEvent orderSaved(Order before, Order after) {
+        ChangeEvent event = new ChangeEvent(ORDER_SAVED);
+        event.setBefore(before);
+        event.setAfter(after);
+        return event;
+    }
+
+    public static ChangeEvent orderDeleted(Order before) {
+        ChangeEvent event = new ChangeEvent(ORDER_DELETED);
+        event.setBefore(before);
+        return event;
+    }
+
+    public static ChangeEvent locationStockChanged(LocationStock stock, int delta) {
+        ChangeEvent event = new ChangeEvent(LOCATION_STOCK_CHANGED);
+        event.setStock(stock);
+        event.setDelta(delta);
+        return event;
+    }
+
+    public static ChangeEvent inventoryChange(String changeType, String itemId, Map<String, Object> changes) {
+        ChangeEvent event = new ChangeEvent(INVENTORY_CHANGE);
+        event.setChangeType(changeType);
+        event.setItemId(itemId);
+        event.setChanges(changes);
+        return event;
+    }
+
+    private ChangeEvent(String type) {
+        this.type = type;
+    }
+
+    public String getOrigin() { return origin; }
+    public void setOrigin(String origin) { this.origin = origin; }
+
+    public long getSequence() { return sequence; }
+    public void setSequence(long sequence) { this.sequence = sequence; }
+
+    public Instant getTimestamp() { return timestamp; }
+    public void setTimestamp(Instant timestamp) { this.timestamp = timestamp; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Item getItem() { return item; }
+    public void setItem(Item item) { this.item = item; }
+
+    public String getItemId() { return itemId; }
+    public void setItemId(String itemId) { this.itemId = itemId; }
+
+    public Order getBefore() { return before; }
+    public void setBefore(Order before) { this.before = before; }
+
+    public Order getAfter() { return after; }
+    public void setAfter(Order after) { this.after = after; }
+
+    public String getChangeType() { return changeType; }
+    public void setChangeType(String changeType) { this.changeType = changeType; }
+
+    public Map<String, Object> getChanges() { return changes; }
+    public void setChanges(Map<String, Object> changes) { this.changes = changes; }
+
+    public LocationStock getStock() { return stock; }
+    public void setStock(LocationStock stock) { this.stock = stock; }
+
+    public int getDelta() { return delta; }
+    public void setDelta(int delta) { this.delta = delta; }
+}
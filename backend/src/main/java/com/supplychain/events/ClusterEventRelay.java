@@ -0,0 +1,181 @@
+package com.supplychain.events;
+
+import com.supplychain.model.Item;
+import com.supplychain.model.LocationStock;
+import com.supplychain.model.Order;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keeps every node's in-memory views and WebSocket clients in step with writes made on
+ * other nodes. Local item, order and location stock writes, and the inventory changes sent to
+ * {@code /topic/inventory}, are numbered and published on the {@link EventBus}; events from
+ * other nodes are replayed into the local change listeners and the inventory publisher,
+ * exactly as if the write had been made here. Each node then serves its own WebSocket
+ * clients from the simple broker.
+ */
+@Component
+public class ClusterEventRelay implements ItemChangeListener, OrderChangeListener, LocationStockChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterEventRelay.class);
+
+    @Autowired
+    private EventBus eventBus;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Resolved per event: the listeners and publisher depend on this relay themselves
+    @Autowired
+    private ObjectProvider<ItemChangeListener> itemListeners;
+
+    @Autowired
+    private ObjectProvider<OrderChangeListener> orderListeners;
+
+    @Autowired
+    private ObjectProvider<LocationStockChangeListener> locationStockListeners;
+
+    @Autowired
+    private ObjectProvider<InventoryEventPublisher> inventoryPublisher;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private long sequence;
+    private final Map<String, Long> lastSequenceByOrigin = new HashMap<>();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong missed = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        eventBus.subscribe(this::receive);
+        FunctionCounter.builder("events.bus.applied", applied, AtomicLong::get)
+                .description("Events from other nodes applied to this node's views")
+                .register(meterRegistry);
+        FunctionCounter.builder("events.bus.duplicates", duplicates, AtomicLong::get)
+                .description("Events from other nodes received again and ignored")
+                .register(meterRegistry);
+        FunctionCounter.builder("events.bus.missed", missed, AtomicLong::get)
+                .description("Events from other nodes never received, found from gaps in their sequence")
+                .register(meterRegistry);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+        publish(ChangeEvent.itemSaved(item));
+    }
+
+    @Override
+    public void onItemDeleted(String id) {
+        publish(ChangeEvent.itemDeleted(id));
+    }
+
+    @Override
+    public void onOrderSaved(Order before, Order after) {
+        publish(ChangeEvent.orderSaved(before, after));
+    }
+
+    @Override
+    public void onOrderDeleted(Order before) {
+        publish(ChangeEvent.orderDeleted(before));
+    }
+
+    @Override
+    public void onLocationStockChanged(LocationStock stock, int delta) {
+        publish(ChangeEvent.locationStockChanged(stock, delta));
+    }
+
+    /**
+     * Sends an inventory change recorded on this node to the other nodes' subscribers.
+     */
+    public void publishInventoryChange(String changeType, String itemId, Map<String, Object> changes) {
+        publish(ChangeEvent.inventoryChange(changeType, itemId, changes));
+    }
+
+    private synchronized void publish(ChangeEvent event) {
+        // Numbered and handed over under one lock, so the bus receives them in sequence order
+        event.setOrigin(nodeId);
+        event.setSequence(++sequence);
+        event.setTimestamp(Instant.now());
+        eventBus.publish(event);
+    }
+
+    void receive(ChangeEvent event) {
+        if (nodeId.equals(event.getOrigin())) {
+            // Already applied by the write path
+            return;
+        }
+        synchronized (lastSequenceByOrigin) {
+            Long last = lastSequenceByOrigin.get(event.getOrigin());
+            if (last != null && event.getSequence() <= last) {
+                duplicates.incrementAndGet();
+                return;
+            }
+            if (last != null && event.getSequence() > last + 1) {
+                // Item views recover with the next write to the same item, which carries the whole
+                // item, and the item cache as its entries expire; order views need a rebuild
+                missed.addAndGet(event.getSequence() - last - 1);
+                log.warn("Missed {} events from node {}", event.getSequence() - last - 1, event.getOrigin());
+            }
+            lastSequenceByOrigin.put(event.getOrigin(), event.getSequence());
+        }
+        switch (event.getType()) {
+            case ChangeEvent.ITEM_SAVED -> forEachItemListener(listener -> listener.onItemSaved(event.getItem()));
+            case ChangeEvent.ITEM_DELETED -> forEachItemListener(listener -> listener.onItemDeleted(event.getItemId()));
+            case ChangeEvent.ORDER_SAVED ->
+                    forEachOrderListener(listener -> listener.onOrderSaved(event.getBefore(), event.getAfter()));
+            case ChangeEvent.ORDER_DELETED -> forEachOrderListener(listener -> listener.onOrderDeleted(event.getBefore()));
+            case ChangeEvent.LOCATION_STOCK_CHANGED -> forEachLocationStockListener(
+                    listener -> listener.onLocationStockChanged(event.getStock(), event.getDelta()));
+            case ChangeEvent.INVENTORY_CHANGE -> inventoryPublisher.getObject()
+                    .recordRemote(event.getChangeType(), event.getItemId(), event.getChanges());
+            default -> log.warn("Ignoring event of unknown type {}", event.getType());
+        }
+        applied.incrementAndGet();
+    }
+
+    // Remote writes are never published again
+    @Override
+    public boolean appliesRemoteItemWrites() {
+        return false;
+    }
+
+    @Override
+    public boolean appliesRemoteOrderWrites() {
+        return false;
+    }
+
+    @Override
+    public boolean appliesRemoteLocationStockWrites() {
+        return false;
+    }
+
+    private void forEachItemListener(Consumer<ItemChangeListener> action) {
+        itemListeners.orderedStream().filter(ItemChangeListener::appliesRemoteItemWrites).forEach(action);
+    }
+
+    private void forEachOrderListener(Consumer<OrderChangeListener> action) {
+        orderListeners.orderedStream().filter(OrderChangeListener::appliesRemoteOrderWrites).forEach(action);
+    }
+
+    private void forEachLocationStockListener(Consumer<LocationStockChangeListener> action) {
+        locationStockListeners.orderedStream()
+                .filter(LocationStockChangeListener::appliesRemoteLocationStockWrites)
+                .forEach(action);
+    }
+}
@@ -0,0 +1,127 @@
+package com.supplychain.events;
+
+import com.supplychain.model.Item;
+import com.supplychain.model.Order;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Version counters for the item and order collections, advanced here on every write, and
+ * for the in-memory views built from them, which each advance their own counter once they
+ * applied a write or were rebuilt. A counter's value, together with the
+ * epoch of this server run, is the ETag of everything read from it, so a poll that
+ * finds the version unchanged is answered with 304 before any data is read.
+ * The ids written under the most recent collection versions are kept so pollers
+ * can fetch only what changed since the version they hold.
+ */
+@Component
+public class CollectionVersions implements ItemChangeListener, OrderChangeListener {
+    public static final String ITEMS = "items";
+    public static final String ORDERS = "orders";
+    public static final String DASHBOARD = "dashboard";
+    public static final String STOCK_OVERVIEW = "stock-overview";
+
+    @Value("${versions.history-size:10000}")
+    private int historySize;
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final Map<String, Long> versions = new HashMap<>();
+    private final Map<String, ArrayDeque<Write>> histories = new HashMap<>();
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public synchronized long version(String name) {
+        return versions.getOrDefault(name, 0L);
+    }
+
+    /**
+     * The strong ETag for the current version of a collection or view, {@code "<epoch>-<version>"}.
+     */
+    public String etag(String name) {
+        return "\"" + epoch + "-" + version(name) + "\"";
+    }
+
+    /**
+     * Advances a view after its content changed. Views call this only once the change is
+     * visible to their readers, so a version never tags content older than itself.
+     */
+    public synchronized void advance(String name) {
+        versions.merge(name, 1L, Long::sum);
+    }
+
+    /**
+     * Returns the ids written after {@code sinceVersion}, split into those written last by
+     * a save and those deleted, or a set flagged {@code resync} when they are no longer
+     * retained or belong to another server run and the client has to reload.
+     */
+    public synchronized ChangedIds changedSince(String collection, String clientEpoch, long sinceVersion) {
+        long version = version(collection);
+        ArrayDeque<Write> history = histories.getOrDefault(collection, new ArrayDeque<>());
+        long oldest = history.isEmpty() ? version + 1 : history.peekFirst().version;
+        if (!epoch.equals(clientEpoch) || sinceVersion < oldest - 1 || sinceVersion > version) {
+            return new ChangedIds(version, List.of(), List.of(), true);
+        }
+        List<String> saved = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        // Newest first, so each id is reported by its last write only
+        Iterator<Write> newestFirst = history.descendingIterator();
+        while (newestFirst.hasNext()) {
+            Write write = newestFirst.next();
+            if (write.version <= sinceVersion) {
+                break;
+            }
+            if (seen.add(write.id)) {
+                (write.deleted ? deleted : saved).add(write.id);
+            }
+        }
+        return new ChangedIds(version, saved, deleted, false);
+    }
+
+    @Override
+    public synchronized void onItemSaved(Item item) {
+        record(ITEMS, item.getId(), false);
+    }
+
+    @Override
+    public synchronized void onItemDeleted(String id) {
+        record(ITEMS, id, true);
+    }
+
+    @Override
+    public synchronized void onOrderSaved(Order before, Order after) {
+        record(ORDERS, after.getId(), false);
+    }
+
+    @Override
+    public synchronized void onOrderDeleted(Order before) {
+        record(ORDERS, before.getId(), true);
+    }
+
+    private void record(String collection, String id, boolean deleted) {
+        advance(collection);
+        ArrayDeque<Write> history = histories.computeIfAbsent(collection, name -> new ArrayDeque<>());
+        history.addLast(new Write(version(collection), id, deleted));
+        while (history.size() > historySize) {
+            history.removeFirst();
+        }
+    }
+
+    /**
+     * The ids written to a collection after some version, up to {@code version}.
+     */
+    public record ChangedIds(long version, List<String> saved, List<String> deleted, boolean resync) {}
+
+    private record Write(long version, String id, boolean deleted) {}
+}
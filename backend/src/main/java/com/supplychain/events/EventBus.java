@@ -0,0 +1,22 @@
+package com.supplychain.events;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries change events between the nodes of a deployment. Every subscriber on every
+ * node receives every published event, including the publishing node's own, in one
+ * order shared by all nodes; events may be delivered more than once.
+ */
+public interface EventBus {
+
+    /**
+     * Publishes an event without waiting for it to be delivered.
+     * Events from one node are delivered in the order they were published.
+     */
+    void publish(ChangeEvent event);
+
+    /**
+     * Registers a subscriber, called from a single thread per bus.
+     */
+    void subscribe(Consumer<ChangeEvent> subscriber);
+}
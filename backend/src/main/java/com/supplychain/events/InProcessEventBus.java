@@ -0,0 +1,31 @@
+package com.supplychain.events;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers events to the subscribers in the same JVM, on the publishing thread.
+ * Used by the embedded profile, which is single-node by design; tests can share one
+ * instance between several relays to stand in for several nodes.
+ */
+@Component
+@Profile("embedded")
+public class InProcessEventBus implements EventBus {
+    private final List<Consumer<ChangeEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(ChangeEvent event) {
+        // Serialized so that subscribers see one order, as on a shared log
+        synchronized (subscribers) {
+            subscribers.forEach(subscriber -> subscriber.accept(event));
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ChangeEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
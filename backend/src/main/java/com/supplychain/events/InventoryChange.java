@@ -0,0 +1,42 @@
+package com.supplychain.events;
+
+import java.util.Map;
+
+/**
+ * A single versioned change to an item, as sent to WebSocket subscribers.
+ * {@code changes} holds the new values of the fields that changed; it is
+ * empty for deletes and holds the item count for bulk changes.
+ */
+public class InventoryChange {
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    // Many items were written at once; itemId is null and clients should reload
+    public static final String BULK = "bulk";
+
+    private long version;
+    private String type;
+    private String itemId;
+    private Map<String, Object> changes;
+
+    public InventoryChange() {}
+
+    public InventoryChange(long version, String type, String itemId, Map<String, Object> changes) {
+        this.version = version;
+        this.type = type;
+        this.itemId = itemId;
+        this.changes = changes;
+    }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getItemId() { return itemId; }
+    public void setItemId(String itemId) { this.itemId = itemId; }
+
+    public Map<String, Object> getChanges() { return changes; }
+    public void setChanges(Map<String, Object> changes) { this.changes = changes; }
+}
@@ -0,0 +1,41 @@
+package com.supplychain.events;
+
+import java.util.List;
+
+/**
+ * A frame of coalesced inventory changes.
+ * Clients remember {@code toVersion} and, after reconnecting, ask for the changes since it.
+ * {@code epoch} identifies the server run the versions belong to; when it changes
+ * the versions restarted and the client has to reload.
+ */
+public class InventoryChangeBatch {
+    private String epoch;
+    private long fromVersion;
+    private long toVersion;
+    private boolean resync;
+    private List<InventoryChange> changes;
+
+    public InventoryChangeBatch() {}
+
+    public InventoryChangeBatch(String epoch, long fromVersion, long toVersion, List<InventoryChange> changes) {
+        this.epoch = epoch;
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.changes = changes;
+    }
+
+    public String getEpoch() { return epoch; }
+    public void setEpoch(String epoch) { this.epoch = epoch; }
+
+    public long getFromVersion() { return fromVersion; }
+    public void setFromVersion(long fromVersion) { this.fromVersion = fromVersion; }
+
+    public long getToVersion() { return toVersion; }
+    public void setToVersion(long toVersion) { this.toVersion = toVersion; }
+
+    public boolean isResync() { return resync; }
+    public void setResync(boolean resync) { this.resync = resync; }
+
+    public List<InventoryChange> getChanges() { return changes; }
+    public void setChanges(List<InventoryChange> changes) { this.changes = changes; }
+}
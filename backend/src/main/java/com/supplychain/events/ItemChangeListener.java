@@ -0,0 +1,36 @@
+package com.supplychain.events;
+
+import com.supplychain.model.Item;
+
+/**
+ * Callback for in-process views that are maintained incrementally from item writes.
+ * Implementations are notified by the item service after each successful write and
+ * keep whatever per-item state they need to compute their own deltas.
+ *
+ * Concurrent writes to the same item are notified in no particular order, so views
+ * keep the item's {@code version} with their state and ignore a notification older
+ * than what they hold.
+ */
+public interface ItemChangeListener {
+
+    /**
+     * Called after an item was created, updated or had its stock adjusted.
+     * @param item The item as written, with the version the write gave it.
+     */
+    void onItemSaved(Item item);
+
+    /**
+     * Called after an item was deleted.
+     * @param id The id of the deleted item.
+     */
+    void onItemDeleted(String id);
+
+    /**
+     * Whether this listener is also called for item writes made on other nodes.
+     * Listeners that write shared state to the database must return false,
+     * or every write would be applied once per node.
+     */
+    default boolean appliesRemoteItemWrites() {
+        return true;
+    }
+}
@@ -0,0 +1,24 @@
+package com.supplychain.events;
+
+import com.supplychain.model.LocationStock;
+
+/**
+ * Callback for in-process views that are maintained incrementally from changes to the
+ * stock held at each location.
+ */
+public interface LocationStockChangeListener {
+
+    /**
+     * Called after the stock of an item at a location changed.
+     * @param stock The stock as written; a quantity of 0 after the item was deleted.
+     * @param delta The change in quantity.
+     */
+    void onLocationStockChanged(LocationStock stock, int delta);
+
+    /**
+     * Whether this listener is also called for location stock written on other nodes.
+     */
+    default boolean appliesRemoteLocationStockWrites() {
+        return true;
+    }
+}
@@ -0,0 +1,210 @@
+package com.supplychain.events;
+
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Event bus shared by all nodes through a capped MongoDB collection. Published events
+ * are queued and inserted in order by a writer thread; a reader thread follows the
+ * collection with a tailable cursor. The capped collection keeps insertion order, so
+ * every node sees events in the same order, and it needs no replica set, unlike a
+ * change stream. After the cursor is lost the reader resumes a little before the
+ * last event it saw, so events may repeat and subscribers have to deduplicate.
+ */
+@Component
+@Profile("!embedded")
+public class MongoEventBus implements EventBus {
+    static final String COLLECTION = "change_events";
+
+    private static final Logger log = LoggerFactory.getLogger(MongoEventBus.class);
+
+    // Covers clock skew between nodes when resuming by timestamp
+    private static final long RESUME_MARGIN_MS = 10_000;
+    private static final long RETRY_DELAY_MS = 1_000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${events.bus.capped-size-mb:64}")
+    private long cappedSizeMb;
+
+    @Value("${events.bus.batch-size:500}")
+    private int batchSize;
+
+    @Value("${events.bus.outbox-capacity:100000}")
+    private int outboxCapacity;
+
+    private final List<Consumer<ChangeEvent>> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private BlockingQueue<ChangeEvent> outbox;
+    private Thread writer;
+    private Thread reader;
+    private volatile boolean running;
+    private volatile Instant resumeFrom;
+
+    @PostConstruct
+    void start() {
+        outbox = new LinkedBlockingQueue<>(outboxCapacity);
+        resumeFrom = Instant.now();
+        running = true;
+        writer = new Thread(this::writeLoop, "event-bus-writer");
+        writer.setDaemon(true);
+        writer.start();
+        reader = new Thread(this::readLoop, "event-bus-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        Gauge.builder("events.bus.outbox", outbox, BlockingQueue::size)
+                .description("Events waiting to be written to the shared event collection")
+                .register(meterRegistry);
+        FunctionCounter.builder("events.bus.written", published, AtomicLong::get)
+                .register(meterRegistry);
+        FunctionCounter.builder("events.bus.dropped", dropped, AtomicLong::get)
+                .description("Events dropped because the outbox was full; other nodes see them as gaps")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        writer.interrupt();
+        reader.interrupt();
+    }
+
+    @Override
+    public void publish(ChangeEvent event) {
+        if (!outbox.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ChangeEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    private void writeLoop() {
+        List<ChangeEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    batch.add(outbox.take());
+                    outbox.drainTo(batch, batchSize - 1);
+                }
+                // Ordered, so one node's events land in the collection in sequence order
+                mongoTemplate.insert(batch, COLLECTION);
+                published.addAndGet(batch.size());
+                batch.clear();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // The batch is kept and retried; the outbox fills up meanwhile
+                log.warn("Could not write {} events to the event bus: {}", batch.size(), e.getMessage());
+                if (!sleep(RETRY_DELAY_MS)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void readLoop() {
+        while (running) {
+            try {
+                ensureCollection();
+                Date from = Date.from(resumeFrom.minusMillis(RESUME_MARGIN_MS));
+                try (MongoCursor<Document> cursor = mongoTemplate.getCollection(COLLECTION)
+                        .find(Filters.gte("timestamp", from))
+                        .cursorType(CursorType.TailableAwait)
+                        .maxAwaitTime(1, TimeUnit.SECONDS)
+                        .iterator()) {
+                    while (running) {
+                        Document document = cursor.tryNext();
+                        if (document == null) {
+                            if (cursor.getServerCursor() == null) {
+                                // Tailable cursors on an empty collection die immediately
+                                break;
+                            }
+                            continue;
+                        }
+                        ChangeEvent event = mongoTemplate.getConverter().read(ChangeEvent.class, document);
+                        if (event.getTimestamp() != null && event.getTimestamp().isAfter(resumeFrom)) {
+                            resumeFrom = event.getTimestamp();
+                        }
+                        deliver(event);
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Event bus cursor lost, resuming: {}", e.getMessage());
+            }
+            if (!sleep(RETRY_DELAY_MS)) {
+                return;
+            }
+        }
+    }
+
+    private void deliver(ChangeEvent event) {
+        for (Consumer<ChangeEvent> subscriber : subscribers) {
+            try {
+                subscriber.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("Event bus subscriber failed on a {} event: {}", event.getType(), e.getMessage());
+            }
+        }
+    }
+
+    private void ensureCollection() {
+        if (mongoTemplate.collectionExists(COLLECTION)) {
+            return;
+        }
+        try {
+            mongoTemplate.createCollection(COLLECTION,
+                    CollectionOptions.empty().capped().size(cappedSizeMb * 1024 * 1024));
+        } catch (RuntimeException e) {
+            // Another node created it first
+            if (!mongoTemplate.collectionExists(COLLECTION)) {
+                throw e;
+            }
+        }
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return running;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+}
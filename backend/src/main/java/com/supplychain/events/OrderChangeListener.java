@@ -0,0 +1,32 @@
+package com.supplychain.events;
+
+import com.supplychain.model.Order;
+
+/**
+ * Callback for in-process views that are maintained incrementally from order writes.
+ * Implementations are notified by the order service after each successful write.
+ */
+public interface OrderChangeListener {
+
+    /**
+     * Called after an order was created or updated.
+     * @param before The order as it was before the write, or null for a new order.
+     * @param after The order as written.
+     */
+    void onOrderSaved(Order before, Order after);
+
+    /**
+     * Called after an order was deleted.
+     * @param before The order as it was before the delete.
+     */
+    void onOrderDeleted(Order before);
+
+    /**
+     * Whether this listener is also called for order writes made on other nodes.
+     * Listeners that write shared state to the database must return false,
+     * or every write would be applied once per node.
+     */
+    default boolean appliesRemoteOrderWrites() {
+        return true;
+    }
+}
@@ -0,0 +1,31 @@
+package com.supplychain.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Outcome of an unordered bulk write.
+ * Failures are keyed by the position of the document in the submitted batch.
+ */
+public class BulkWriteSummary {
+    private int inserted;
+    private int modified;
+    private Map<Integer, String> failures = new HashMap<>();
+
+    public BulkWriteSummary() {}
+
+    public BulkWriteSummary(int inserted, int modified, Map<Integer, String> failures) {
+        this.inserted = inserted;
+        this.modified = modified;
+        this.failures = failures;
+    }
+
+    public int getInserted() { return inserted; }
+    public void setInserted(int inserted) { this.inserted = inserted; }
+
+    public int getModified() { return modified; }
+    public void setModified(int modified) { this.modified = modified; }
+
+    public Map<Integer, String> getFailures() { return failures; }
+    public void setFailures(Map<Integer, String> failures) { this.failures = failures; }
+}
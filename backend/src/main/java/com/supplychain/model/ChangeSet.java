@@ -0,0 +1,47 @@
+package com.supplychain.model;
+
+import java.util.List;
+
+/**
+ * The documents of a collection written after a version a poller already holds.
+ * {@code updated} holds the current state of every document saved since, {@code deleted}
+ * the ids of those removed since. When {@code resync} is set the changes are no longer
+ * retained, or the versions belong to an earlier server run, and the client has to reload.
+ */
+public class ChangeSet<T> {
+    private String epoch;
+    private long fromVersion;
+    private long toVersion;
+    private boolean resync;
+    private List<T> updated;
+    private List<String> deleted;
+
+    public ChangeSet() {}
+
+    public ChangeSet(String epoch, long fromVersion, long toVersion, boolean resync, List<T> updated, List<String> deleted) {
+        this.epoch = epoch;
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.resync = resync;
+        this.updated = updated;
+        this.deleted = deleted;
+    }
+
+    public String getEpoch() { return epoch; }
+    public void setEpoch(String epoch) { this.epoch = epoch; }
+
+    public long getFromVersion() { return fromVersion; }
+    public void setFromVersion(long fromVersion) { this.fromVersion = fromVersion; }
+
+    public long getToVersion() { return toVersion; }
+    public void setToVersion(long toVersion) { this.toVersion = toVersion; }
+
+    public boolean isResync() { return resync; }
+    public void setResync(boolean resync) { this.resync = resync; }
+
+    public List<T> getUpdated() { return updated; }
+    public void setUpdated(List<T> updated) { this.updated = updated; }
+
+    public List<String> getDeleted() { return deleted; }
+    public void setDeleted(List<String> deleted) { this.deleted = deleted; }
+}
@@ -0,0 +1,61 @@
+package com.supplychain.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Daily demand forecast for one SKU or category, with the recent history it was fitted on.
+ * {@code forecast}, {@code lower} and {@code upper} hold one value per day from {@code startDate};
+ * {@code history} holds one value per day up to the day before it.
+ */
+public class DemandForecast {
+    private String scope; // sku or category
+    private String key;
+    private LocalDate startDate;
+    private List<Double> history;
+    private List<Double> forecast;
+    private List<Double> lower;
+    private List<Double> upper;
+    private double confidence;
+    private double totalForecast;
+    private String trend; // increasing, decreasing or stable
+    private Double accuracy; // 1 - weighted absolute error of the one-step forecasts, null without demand
+    private double alpha;
+    private double beta;
+    private int observations;
+    private LocalDateTime fittedAt;
+
+    // --- Getters and Setters ---
+
+    public String getScope() { return scope; }
+    public void setScope(String scope) { this.scope = scope; }
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+    public List<Double> getHistory() { return history; }
+    public void setHistory(List<Double> history) { this.history = history; }
+    public List<Double> getForecast() { return forecast; }
+    public void setForecast(List<Double> forecast) { this.forecast = forecast; }
+    public List<Double> getLower() { return lower; }
+    public void setLower(List<Double> lower) { this.lower = lower; }
+    public List<Double> getUpper() { return upper; }
+    public void setUpper(List<Double> upper) { this.upper = upper; }
+    public double getConfidence() { return confidence; }
+    public void setConfidence(double confidence) { this.confidence = confidence; }
+    public double getTotalForecast() { return totalForecast; }
+    public void setTotalForecast(double totalForecast) { this.totalForecast = totalForecast; }
+    public String getTrend() { return trend; }
+    public void setTrend(String trend) { this.trend = trend; }
+    public Double getAccuracy() { return accuracy; }
+    public void setAccuracy(Double accuracy) { this.accuracy = accuracy; }
+    public double getAlpha() { return alpha; }
+    public void setAlpha(double alpha) { this.alpha = alpha; }
+    public double getBeta() { return beta; }
+    public void setBeta(double beta) { this.beta = beta; }
+    public int getObservations() { return observations; }
+    public void setObservations(int observations) { this.observations = observations; }
+    public LocalDateTime getFittedAt() { return fittedAt; }
+    public void setFittedAt(LocalDateTime fittedAt) { this.fittedAt = fittedAt; }
+}
@@ -0,0 +1,65 @@
+package com.supplychain.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * State of a background export. The file can be downloaded once the job is completed;
+ * {@code rows} and {@code progress} advance while it runs.
+ */
+public class ExportJob {
+    public static final String QUEUED = "queued";
+    public static final String RUNNING = "running";
+    public static final String COMPLETED = "completed";
+    public static final String FAILED = "failed";
+    public static final String CANCELLED = "cancelled";
+
+    private String id;
+    private String type; // orders or inventory
+    private String format; // csv or ndjson.gz
+    private LocalDate from; // order date range, inclusive; null for inventory
+    private LocalDate to;
+    private String status; // queued, running, completed, failed or cancelled
+    private long rows;
+    private long bytes; // written so far, compressed for ndjson.gz
+    private double progress; // 0 to 1
+    private double totalValue; // sum of line totals, or of stock value for inventory
+    private String fileName;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    // --- Getters and Setters ---
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public long getRows() { return rows; }
+    public void setRows(long rows) { this.rows = rows; }
+    public long getBytes() { return bytes; }
+    public void setBytes(long bytes) { this.bytes = bytes; }
+    public double getProgress() { return progress; }
+    public void setProgress(double progress) { this.progress = progress; }
+    public double getTotalValue() { return totalValue; }
+    public void setTotalValue(double totalValue) { this.totalValue = totalValue; }
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,57 @@
+package com.supplychain.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a bulk import.
+ * Row numbers are 1-based and count data rows only (not a CSV header).
+ * Only the first errors are listed; {@code failed} always has the full count.
+ */
+public class ImportResult {
+    private long rowsRead;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    public void recordError(long row, String message, int maxReported) {
+        failed++;
+        if (errors.size() < maxReported) {
+            errors.add(new RowError(row, message));
+        }
+    }
+
+    public long getRowsRead() { return rowsRead; }
+    public void setRowsRead(long rowsRead) { this.rowsRead = rowsRead; }
+
+    public long getInserted() { return inserted; }
+    public void setInserted(long inserted) { this.inserted = inserted; }
+
+    public long getUpdated() { return updated; }
+    public void setUpdated(long updated) { this.updated = updated; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public static class RowError {
+        private long row;
+        private String error;
+
+        public RowError() {}
+
+        public RowError(long row, String error) {
+            this.row = row;
+            this.error = error;
+        }
+
+        public long getRow() { return row; }
+        public void setRow(long row) { this.row = row; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+}
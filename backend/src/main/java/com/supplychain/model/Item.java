@@ -1,6 +1,7 @@
 package com.supplychain.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
@@ -9,8 +10,11 @@ public class Item {
     @Id
     private String id;
     private String name;
+    // Sparse, so items saved without a SKU don't collide
+    @Indexed(unique = true, sparse = true)
     private String sku;
     private String category;
+    @Indexed
     private int quantity;
     private int minQuantity;
     private double price;
@@ -18,6 +22,11 @@ public class Item {
     private String location;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Bumped by every write (update, patch, import and stock adjustment) in the same atomic
+    // update, and checked by PATCH. Views use it to drop notifications that arrive after a newer
+    // one. Kept by hand rather than with @Version so plain saves of items written before it
+    // existed keep working.
+    private long version;
 
     // --- Getter & Setter for all fields ---
     public String getId() { return id; }
@@ -52,4 +61,7 @@ public class Item {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
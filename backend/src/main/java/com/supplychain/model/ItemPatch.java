@@ -0,0 +1,66 @@
+package com.supplychain.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request body for a partial item update. Only the fields that are set are written;
+ * {@code version} is the version the client read, and the update is refused if the
+ * item has been edited since. Quantity is changed through stock adjustments, which
+ * record a movement, so it cannot be patched.
+ */
+public class ItemPatch {
+    private Long version;
+    private String name;
+    private String sku;
+    private String category;
+    private Integer minQuantity;
+    private Double price;
+    private String supplier;
+    private String location;
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public Integer getMinQuantity() { return minQuantity; }
+    public void setMinQuantity(Integer minQuantity) { this.minQuantity = minQuantity; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public String getSupplier() { return supplier; }
+    public void setSupplier(String supplier) { this.supplier = supplier; }
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+
+    /**
+     * The fields to write, by property name.
+     */
+    public Map<String, Object> fields() {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        putIfSet(fields, "name", name);
+        putIfSet(fields, "sku", sku);
+        putIfSet(fields, "category", category);
+        putIfSet(fields, "minQuantity", minQuantity);
+        putIfSet(fields, "price", price);
+        putIfSet(fields, "supplier", supplier);
+        putIfSet(fields, "location", location);
+        return fields;
+    }
+
+    private static void putIfSet(Map<String, Object> fields, String name, Object value) {
+        if (value != null) {
+            fields.put(name, value);
+        }
+    }
+}
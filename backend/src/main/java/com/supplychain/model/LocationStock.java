@@ -0,0 +1,63 @@
+package com.supplychain.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+/**
+ * The stock of one item at one location. The item's {@code quantity} is the sum over
+ * its locations.
+ *
+ * The id is {@code itemId|location}, so an item's locations are a single range scan on
+ * {@code _id} and a write to one location is addressed by id without a lookup.
+ */
+@Document(collection = "item_stock")
+@CompoundIndex(name = "location_id", def = "{'location': 1, '_id': 1}")
+public class LocationStock {
+    // Home location of items whose location is not set
+    public static final String UNASSIGNED = "unassigned";
+
+    @Id
+    private String id;
+    private String itemId;
+    private String location;
+    private int quantity;
+    private LocalDateTime updatedAt;
+
+    public LocationStock() {}
+
+    public LocationStock(String itemId, String location, int quantity) {
+        this.id = id(itemId, location);
+        this.itemId = itemId;
+        this.location = location;
+        this.quantity = quantity;
+    }
+
+    public static String id(String itemId, String location) {
+        return itemId + "|" + location;
+    }
+
+    /**
+     * The location stock changes go to when they don't name one.
+     */
+    public static String homeOf(Item item) {
+        String location = item.getLocation();
+        return location == null || location.isBlank() ? UNASSIGNED : location.trim();
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getItemId() { return itemId; }
+    public void setItemId(String itemId) { this.itemId = itemId; }
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -1,11 +1,20 @@
 package com.supplychain.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDate;
 import java.util.List;
 
 @Document(collection = "orders")
+// Newest first within each filter, matching the order pages and streams; also serves the status counts
+@CompoundIndexes({
+        @CompoundIndex(name = "status_orderDate", def = "{'status': 1, 'orderDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "paymentStatus_orderDate", def = "{'paymentStatus': 1, 'orderDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "orderDate", def = "{'orderDate': -1, '_id': -1}")
+})
 public class Order {
     @Id
     private String id;
@@ -17,10 +26,16 @@ public class Order {
     private String status; // e.g., pending, processing, shipped, delivered
     private LocalDate orderDate;
     private LocalDate expectedDelivery;
+    private LocalDate deliveredDate; // set when the order becomes delivered, unless given
     private String shippingAddress;
     private String paymentMethod;
     private String paymentStatus; // e.g., paid, pending
     private String notes;
+    private boolean stockReserved; // true while the order's line items are deducted from stock
+    private long version; // bumped by every update, patch and status change; checked by PATCH
+    // Key of the batch submission that created the order; unique, so a retry can't create it twice
+    @Indexed(unique = true, sparse = true)
+    private String idempotencyKey;
 
     // --- Getters and Setters ---
     // (আপনার IDE ব্যবহার করে এগুলো স্বয়ংক্রিয়ভাবে তৈরি করতে পারেন)
@@ -43,6 +58,8 @@ public class Order {
     public void setOrderDate(LocalDate orderDate) { this.orderDate = orderDate; }
     public LocalDate getExpectedDelivery() { return expectedDelivery; }
     public void setExpectedDelivery(LocalDate expectedDelivery) { this.expectedDelivery = expectedDelivery; }
+    public LocalDate getDeliveredDate() { return deliveredDate; }
+    public void setDeliveredDate(LocalDate deliveredDate) { this.deliveredDate = deliveredDate; }
     public String getShippingAddress() { return shippingAddress; }
     public void setShippingAddress(String shippingAddress) { this.shippingAddress = shippingAddress; }
     public String getPaymentMethod() { return paymentMethod; }
@@ -51,4 +68,10 @@ public class Order {
     public void setPaymentStatus(String paymentStatus) { this.paymentStatus = paymentStatus; }
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
+    public boolean isStockReserved() { return stockReserved; }
+    public void setStockReserved(boolean stockReserved) { this.stockReserved = stockReserved; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
 }
\ No newline at end of file
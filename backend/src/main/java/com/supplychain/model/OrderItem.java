@@ -6,6 +6,8 @@ public class OrderItem {
     private int quantity;
     private double price;
     private String sku;
+    // The SKU's category when the order was written, so revenue is taken back from where it was added
+    private String category;
 
     // --- Getters and Setters ---
     public String getName() { return name; }
@@ -16,4 +18,6 @@ public class OrderItem {
     public void setPrice(double price) { this.price = price; }
     public String getSku() { return sku; }
     public void setSku(String sku) { this.sku = sku; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.supplychain.model;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request body for a partial order update. Only the fields that are set are written;
+ * {@code version} is the version the client read, and the update is refused if the
+ * order has changed since. Line items move stock and are replaced through a full update.
+ */
+public class OrderPatch {
+    private Long version;
+    private String customerName;
+    private String customerEmail;
+    private String customerPhone;
+    private Double totalAmount;
+    private String status;
+    private LocalDate expectedDelivery;
+    private LocalDate deliveredDate;
+    private String shippingAddress;
+    private String paymentMethod;
+    private String paymentStatus;
+    private String notes;
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+    public String getCustomerEmail() { return customerEmail; }
+    public void setCustomerEmail(String customerEmail) { this.customerEmail = customerEmail; }
+    public String getCustomerPhone() { return customerPhone; }
+    public void setCustomerPhone(String customerPhone) { this.customerPhone = customerPhone; }
+    public Double getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(Double totalAmount) { this.totalAmount = totalAmount; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public LocalDate getExpectedDelivery() { return expectedDelivery; }
+    public void setExpectedDelivery(LocalDate expectedDelivery) { this.expectedDelivery = expectedDelivery; }
+    public LocalDate getDeliveredDate() { return deliveredDate; }
+    public void setDeliveredDate(LocalDate deliveredDate) { this.deliveredDate = deliveredDate; }
+    public String getShippingAddress() { return shippingAddress; }
+    public void setShippingAddress(String shippingAddress) { this.shippingAddress = shippingAddress; }
+    public String getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+    public String getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(String paymentStatus) { this.paymentStatus = paymentStatus; }
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    /**
+     * The fields to write, by property name.
+     */
+    public Map<String, Object> fields() {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        putIfSet(fields, "customerName", customerName);
+        putIfSet(fields, "customerEmail", customerEmail);
+        putIfSet(fields, "customerPhone", customerPhone);
+        putIfSet(fields, "totalAmount", totalAmount);
+        putIfSet(fields, "status", status);
+        putIfSet(fields, "expectedDelivery", expectedDelivery);
+        putIfSet(fields, "deliveredDate", deliveredDate);
+        putIfSet(fields, "shippingAddress", shippingAddress);
+        putIfSet(fields, "paymentMethod", paymentMethod);
+        putIfSet(fields, "paymentStatus", paymentStatus);
+        putIfSet(fields, "notes", notes);
+        return fields;
+    }
+
+    private static void putIfSet(Map<String, Object> fields, String name, Object value) {
+        if (value != null) {
+            fields.put(name, value);
+        }
+    }
+}
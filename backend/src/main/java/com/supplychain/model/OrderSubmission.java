@@ -0,0 +1,24 @@
+package com.supplychain.model;
+
+/**
+ * One order in a batch submission.
+ * Retrying a submission with the same {@code idempotencyKey} returns the order created the
+ * first time instead of creating it again; submissions without a key are never deduplicated.
+ */
+public class OrderSubmission {
+    private String idempotencyKey;
+    private Order order;
+
+    public OrderSubmission() {}
+
+    public OrderSubmission(String idempotencyKey, Order order) {
+        this.idempotencyKey = idempotencyKey;
+        this.order = order;
+    }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
+    public Order getOrder() { return order; }
+    public void setOrder(Order order) { this.order = order; }
+}
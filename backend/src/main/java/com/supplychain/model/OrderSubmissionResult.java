@@ -0,0 +1,43 @@
+package com.supplychain.model;
+
+/**
+ * Outcome of one order in a batch submission, in the position it was submitted.
+ * Only {@code created} and {@code duplicate} results hold an order id; every other
+ * outcome left nothing behind and the same key may be retried.
+ */
+public class OrderSubmissionResult {
+    public static final String CREATED = "created";
+    // The key was already used; orderId is the order created by the earlier submission
+    public static final String DUPLICATE = "duplicate";
+    // The key's first submission is still being written; retry later
+    public static final String IN_PROGRESS = "in_progress";
+    public static final String INSUFFICIENT_STOCK = "insufficient_stock";
+    public static final String INVALID = "invalid";
+    public static final String FAILED = "failed";
+
+    private String idempotencyKey;
+    private String status;
+    private String orderId;
+    private String error;
+
+    public OrderSubmissionResult() {}
+
+    public OrderSubmissionResult(String idempotencyKey, String status, String orderId, String error) {
+        this.idempotencyKey = idempotencyKey;
+        this.status = status;
+        this.orderId = orderId;
+        this.error = error;
+    }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getOrderId() { return orderId; }
+    public void setOrderId(String orderId) { this.orderId = orderId; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,87 @@
+package com.supplychain.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Order totals broken down by status and payment status.
+ * Used both as the result of the summary aggregation and as the
+ * incrementally maintained dashboard counters.
+ */
+public class OrderSummary {
+    private long totalOrders;
+    private double totalRevenue;
+    private Map<String, Long> ordersByStatus = new HashMap<>();
+    private Map<String, Long> ordersByPaymentStatus = new HashMap<>();
+
+    public OrderSummary() {}
+
+    public OrderSummary(OrderSummary other) {
+        this.totalOrders = other.totalOrders;
+        this.totalRevenue = other.totalRevenue;
+        this.ordersByStatus = new HashMap<>(other.ordersByStatus);
+        this.ordersByPaymentStatus = new HashMap<>(other.ordersByPaymentStatus);
+    }
+
+    /**
+     * Adds ({@code sign = 1}) or removes ({@code sign = -1}) an order's contribution.
+     */
+    public void apply(String status, String paymentStatus, double amount, int sign) {
+        totalOrders += sign;
+        totalRevenue += sign * amount;
+        adjust(ordersByStatus, status, sign);
+        adjust(ordersByPaymentStatus, paymentStatus, sign);
+    }
+
+    /**
+     * Adds a group of {@code count} orders sharing the same status and payment status.
+     */
+    public void add(String status, String paymentStatus, long count, double amount) {
+        totalOrders += count;
+        totalRevenue += amount;
+        adjust(ordersByStatus, status, count);
+        adjust(ordersByPaymentStatus, paymentStatus, count);
+    }
+
+    public long countByStatus(String status) {
+        return ordersByStatus.getOrDefault(status, 0L);
+    }
+
+    public long countByPaymentStatus(String paymentStatus) {
+        return ordersByPaymentStatus.getOrDefault(paymentStatus, 0L);
+    }
+
+    /**
+     * Compares counts exactly and revenue within a small tolerance for floating point error.
+     */
+    public boolean matches(OrderSummary other) {
+        return totalOrders == other.totalOrders
+                && Math.abs(totalRevenue - other.totalRevenue) < 0.01
+                && ordersByStatus.equals(other.ordersByStatus)
+                && ordersByPaymentStatus.equals(other.ordersByPaymentStatus);
+    }
+
+    private static void adjust(Map<String, Long> counts, String key, long delta) {
+        if (key == null) {
+            return;
+        }
+        long value = counts.getOrDefault(key, 0L) + delta;
+        if (value == 0) {
+            counts.remove(key);
+        } else {
+            counts.put(key, value);
+        }
+    }
+
+    public long getTotalOrders() { return totalOrders; }
+    public void setTotalOrders(long totalOrders) { this.totalOrders = totalOrders; }
+
+    public double getTotalRevenue() { return totalRevenue; }
+    public void setTotalRevenue(double totalRevenue) { this.totalRevenue = totalRevenue; }
+
+    public Map<String, Long> getOrdersByStatus() { return ordersByStatus; }
+    public void setOrdersByStatus(Map<String, Long> ordersByStatus) { this.ordersByStatus = ordersByStatus; }
+
+    public Map<String, Long> getOrdersByPaymentStatus() { return ordersByPaymentStatus; }
+    public void setOrdersByPaymentStatus(Map<String, Long> ordersByPaymentStatus) { this.ordersByPaymentStatus = ordersByPaymentStatus; }
+}
@@ -0,0 +1,77 @@
+package com.supplychain.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated revenue for one period (day, ISO week or month) and one key of a dimension
+ * (the order total, a SKU, a category or a payment status).
+ *
+ * The id is {@code granularity|dimension|periodStart|key}, so the buckets of one granularity and
+ * dimension sort by period and a date range is a single range scan on {@code _id}.
+ */
+@Document(collection = "revenue_rollups")
+public class RevenueRollup {
+    public static final String DAY = "day";
+    public static final String WEEK = "week";
+    public static final String MONTH = "month";
+
+    public static final String TOTAL = "total";
+    public static final String SKU = "sku";
+    public static final String CATEGORY = "category";
+    public static final String PAYMENT_STATUS = "paymentStatus";
+
+    @Id
+    private String id;
+    private String granularity;
+    private String dimension;
+    private LocalDate periodStart;
+    private String key;
+    private double revenue;
+    private long units;
+    private long orders;
+    private String generation; // the backfill that wrote this bucket, null if only incremented since
+
+    public RevenueRollup() {}
+
+    public RevenueRollup(String granularity, String dimension, LocalDate periodStart, String key) {
+        this.id = id(granularity, dimension, periodStart, key);
+        this.granularity = granularity;
+        this.dimension = dimension;
+        this.periodStart = periodStart;
+        this.key = key;
+    }
+
+    public static String id(String granularity, String dimension, LocalDate periodStart, String key) {
+        return granularity + "|" + dimension + "|" + periodStart + "|" + key;
+    }
+
+    /**
+     * Adds to this bucket's figures.
+     */
+    public void add(double revenue, long units, long orders) {
+        this.revenue += revenue;
+        this.units += units;
+        this.orders += orders;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getGranularity() { return granularity; }
+    public void setGranularity(String granularity) { this.granularity = granularity; }
+    public String getDimension() { return dimension; }
+    public void setDimension(String dimension) { this.dimension = dimension; }
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+    public double getRevenue() { return revenue; }
+    public void setRevenue(double revenue) { this.revenue = revenue; }
+    public long getUnits() { return units; }
+    public void setUnits(long units) { this.units = units; }
+    public long getOrders() { return orders; }
+    public void setOrders(long orders) { this.orders = orders; }
+    public String getGeneration() { return generation; }
+    public void setGeneration(String generation) { this.generation = generation; }
+}
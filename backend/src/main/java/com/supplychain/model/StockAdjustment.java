@@ -0,0 +1,31 @@
+package com.supplychain.model;
+
+/**
+ * Request body for a stock adjustment.
+ * Either a relative {@code delta} or an absolute {@code quantity} may be given;
+ * batch adjustments only accept deltas. With a {@code location} the adjustment applies to
+ * the stock at that location; without one, to the item's total, with increases going to the
+ * item's home location and decreases drawn from the home location first.
+ */
+public class StockAdjustment {
+    private String itemId;
+    private Integer delta;
+    private Integer quantity;
+    private String location;
+    private String reason;
+
+    public String getItemId() { return itemId; }
+    public void setItemId(String itemId) { this.itemId = itemId; }
+
+    public Integer getDelta() { return delta; }
+    public void setDelta(Integer delta) { this.delta = delta; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
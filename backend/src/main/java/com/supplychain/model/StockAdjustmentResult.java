@@ -0,0 +1,44 @@
+package com.supplychain.model;
+
+/**
+ * Outcome of applying a stock adjustment to one item.
+ */
+public class StockAdjustmentResult {
+    public static final String APPLIED = "applied";
+    public static final String NOT_FOUND = "not_found";
+    public static final String INSUFFICIENT_STOCK = "insufficient_stock";
+    public static final String INVALID = "invalid";
+
+    private String itemId;
+    private String status;
+    private Integer quantity;
+    private Item item;
+
+    public StockAdjustmentResult() {}
+
+    public StockAdjustmentResult(String itemId, String status) {
+        this.itemId = itemId;
+        this.status = status;
+    }
+
+    public static StockAdjustmentResult applied(Item item) {
+        StockAdjustmentResult result = new StockAdjustmentResult(item.getId(), APPLIED);
+        result.setQuantity(item.getQuantity());
+        result.setItem(item);
+        return result;
+    }
+
+    public boolean isApplied() { return APPLIED.equals(status); }
+
+    public String getItemId() { return itemId; }
+    public void setItemId(String itemId) { this.itemId = itemId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public Item getItem() { return item; }
+    public void setItem(Item item) { this.item = item; }
+}
@@ -0,0 +1,66 @@
+package com.supplychain.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import java.time.Instant;
+
+/**
+ * Append-only ledger entry recording a single stock movement.
+ * Field names are kept short because this collection grows with every adjustment.
+ */
+@Document(collection = "stock_movements")
+@CompoundIndex(name = "item_timestamp", def = "{'i': 1, 't': -1}")
+public class StockMovement {
+    @Id
+    private String id;
+    @Field("i")
+    private String itemId;
+    @Field("d")
+    private int delta;
+    @Field("q")
+    private int quantityAfter;
+    @Field("r")
+    private String reason;
+    @Field("t")
+    private Instant timestamp;
+    @Field("l")
+    private String location; // null for changes to the item's total; if set, quantityAfter is the quantity there
+
+    public StockMovement() {}
+
+    public StockMovement(String itemId, int delta, int quantityAfter, String reason, Instant timestamp) {
+        this.itemId = itemId;
+        this.delta = delta;
+        this.quantityAfter = quantityAfter;
+        this.reason = reason;
+        this.timestamp = timestamp;
+    }
+
+    public StockMovement(String itemId, String location, int delta, int quantityAfter, String reason, Instant timestamp) {
+        this(itemId, delta, quantityAfter, reason, timestamp);
+        this.location = location;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getItemId() { return itemId; }
+    public void setItemId(String itemId) { this.itemId = itemId; }
+
+    public int getDelta() { return delta; }
+    public void setDelta(int delta) { this.delta = delta; }
+
+    public int getQuantityAfter() { return quantityAfter; }
+    public void setQuantityAfter(int quantityAfter) { this.quantityAfter = quantityAfter; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public Instant getTimestamp() { return timestamp; }
+    public void setTimestamp(Instant timestamp) { this.timestamp = timestamp; }
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+}
@@ -0,0 +1,33 @@
+package com.supplychain.model;
+
+/**
+ * Stock held under one location or category: the SKUs with stock there, their units,
+ * and the units' value at current prices.
+ */
+public class StockTotals {
+    private String key;
+    private long skus;
+    private long quantity;
+    private double value;
+
+    public StockTotals() {}
+
+    public StockTotals(String key, long skus, long quantity, double value) {
+        this.key = key;
+        this.skus = skus;
+        this.quantity = quantity;
+        this.value = value;
+    }
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public long getSkus() { return skus; }
+    public void setSkus(long skus) { this.skus = skus; }
+
+    public long getQuantity() { return quantity; }
+    public void setQuantity(long quantity) { this.quantity = quantity; }
+
+    public double getValue() { return value; }
+    public void setValue(double value) { this.value = value; }
+}
@@ -0,0 +1,23 @@
+package com.supplychain.model;
+
+/**
+ * Request body for moving stock of one item from one location to another.
+ */
+public class StockTransfer {
+    private String from;
+    private String to;
+    private int quantity;
+    private String reason;
+
+    public String getFrom() { return from; }
+    public void setFrom(String from) { this.from = from; }
+
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
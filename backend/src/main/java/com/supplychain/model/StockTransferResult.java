@@ -0,0 +1,33 @@
+package com.supplychain.model;
+
+/**
+ * Outcome of a stock transfer, with the stock of both locations after it was applied.
+ * Uses the statuses of {@link StockAdjustmentResult}.
+ */
+public class StockTransferResult {
+    private String itemId;
+    private String status;
+    private LocationStock from;
+    private LocationStock to;
+
+    public StockTransferResult() {}
+
+    public StockTransferResult(String itemId, String status) {
+        this.itemId = itemId;
+        this.status = status;
+    }
+
+    public boolean isApplied() { return StockAdjustmentResult.APPLIED.equals(status); }
+
+    public String getItemId() { return itemId; }
+    public void setItemId(String itemId) { this.itemId = itemId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public LocationStock getFrom() { return from; }
+    public void setFrom(LocationStock from) { this.from = from; }
+
+    public LocationStock getTo() { return to; }
+    public void setTo(LocationStock to) { this.to = to; }
+}
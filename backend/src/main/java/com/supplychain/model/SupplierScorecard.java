@@ -0,0 +1,87 @@
+package com.supplychain.model;
+
+import java.time.YearMonth;
+
+/**
+ * Performance of one supplier over a window of whole months. Orders are attributed to the
+ * suppliers of their line items; order volume and cancellations count in the month the order
+ * was placed, deliveries in the month they were delivered. Percentiles are estimates within
+ * the accuracy of the sketches they come from.
+ */
+public class SupplierScorecard {
+    private String supplier;
+    private YearMonth from;
+    private YearMonth to;
+    private int items; // current stock, not limited to the window
+    private long stockUnits;
+    private double stockValue;
+    private int lowStockItems;
+    private long orders; // orders with at least one line of the supplier, placed in the window
+    private long orderedUnits;
+    private double orderedValue;
+    private long cancelledOrders;
+    private long cancelledUnits;
+    private long deliveredOrders; // delivered in the window
+    private long deliveredUnits;
+    private Double fillRate; // delivered units / (delivered + cancelled units), null before any order closed
+    private long onTimeDeliveries;
+    private long lateDeliveries;
+    private Double onTimeRate; // null without deliveries that had an expected date
+    private Double leadTimeP50; // days from orderDate to deliveredDate
+    private Double leadTimeP95;
+    private Double leadTimeAverage;
+    private Double delayP50; // days from expectedDelivery to deliveredDate; negative is early
+    private Double delayP95;
+    private Double delayAverage;
+
+    // --- Getters and Setters ---
+
+    public String getSupplier() { return supplier; }
+    public void setSupplier(String supplier) { this.supplier = supplier; }
+    public YearMonth getFrom() { return from; }
+    public void setFrom(YearMonth from) { this.from = from; }
+    public YearMonth getTo() { return to; }
+    public void setTo(YearMonth to) { this.to = to; }
+    public int getItems() { return items; }
+    public void setItems(int items) { this.items = items; }
+    public long getStockUnits() { return stockUnits; }
+    public void setStockUnits(long stockUnits) { this.stockUnits = stockUnits; }
+    public double getStockValue() { return stockValue; }
+    public void setStockValue(double stockValue) { this.stockValue = stockValue; }
+    public int getLowStockItems() { return lowStockItems; }
+    public void setLowStockItems(int lowStockItems) { this.lowStockItems = lowStockItems; }
+    public long getOrders() { return orders; }
+    public void setOrders(long orders) { this.orders = orders; }
+    public long getOrderedUnits() { return orderedUnits; }
+    public void setOrderedUnits(long orderedUnits) { this.orderedUnits = orderedUnits; }
+    public double getOrderedValue() { return orderedValue; }
+    public void setOrderedValue(double orderedValue) { this.orderedValue = orderedValue; }
+    public long getCancelledOrders() { return cancelledOrders; }
+    public void setCancelledOrders(long cancelledOrders) { this.cancelledOrders = cancelledOrders; }
+    public long getCancelledUnits() { return cancelledUnits; }
+    public void setCancelledUnits(long cancelledUnits) { this.cancelledUnits = cancelledUnits; }
+    public long getDeliveredOrders() { return deliveredOrders; }
+    public void setDeliveredOrders(long deliveredOrders) { this.deliveredOrders = deliveredOrders; }
+    public long getDeliveredUnits() { return deliveredUnits; }
+    public void setDeliveredUnits(long deliveredUnits) { this.deliveredUnits = deliveredUnits; }
+    public Double getFillRate() { return fillRate; }
+    public void setFillRate(Double fillRate) { this.fillRate = fillRate; }
+    public long getOnTimeDeliveries() { return onTimeDeliveries; }
+    public void setOnTimeDeliveries(long onTimeDeliveries) { this.onTimeDeliveries = onTimeDeliveries; }
+    public long getLateDeliveries() { return lateDeliveries; }
+    public void setLateDeliveries(long lateDeliveries) { this.lateDeliveries = lateDeliveries; }
+    public Double getOnTimeRate() { return onTimeRate; }
+    public void setOnTimeRate(Double onTimeRate) { this.onTimeRate = onTimeRate; }
+    public Double getLeadTimeP50() { return leadTimeP50; }
+    public void setLeadTimeP50(Double leadTimeP50) { this.leadTimeP50 = leadTimeP50; }
+    public Double getLeadTimeP95() { return leadTimeP95; }
+    public void setLeadTimeP95(Double leadTimeP95) { this.leadTimeP95 = leadTimeP95; }
+    public Double getLeadTimeAverage() { return leadTimeAverage; }
+    public void setLeadTimeAverage(Double leadTimeAverage) { this.leadTimeAverage = leadTimeAverage; }
+    public Double getDelayP50() { return delayP50; }
+    public void setDelayP50(Double delayP50) { this.delayP50 = delayP50; }
+    public Double getDelayP95() { return delayP95; }
+    public void setDelayP95(Double delayP95) { this.delayP95 = delayP95; }
+    public Double getDelayAverage() { return delayAverage; }
+    public void setDelayAverage(Double delayAverage) { this.delayAverage = delayAverage; }
+}
@@ -0,0 +1,18 @@
+package com.supplychain.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a repository query method that runs on a request path or for every write,
+ * so it must be served by an index. {@link QueryPlanInspector} reports a hot query
+ * planned as a collection scan as a failure.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface HotQuery {
+}
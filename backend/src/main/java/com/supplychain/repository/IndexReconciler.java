@@ -0,0 +1,255 @@
+package com.supplychain.repository;
+
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the indexes declared on the document classes ({@code @Indexed},
+ * {@code @CompoundIndex}) that are missing from the database. Automatic index creation
+ * is off, so a large build never blocks startup: the reconciler runs on its own thread
+ * once the application is ready, and retries while the database is unreachable.
+ *
+ * Indexes are matched by their keys, not their names. Indexes in the database that
+ * no class declares, and declared ones that have served no query for a while, are
+ * reported but never dropped.
+ */
+@Component
+@Profile("!embedded")
+public class IndexReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexReconciler.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    @Autowired
+    private QueryPlanInspector queryPlanInspector;
+
+    @Value("${indexes.reconcile:true}")
+    private boolean enabled;
+
+    @Value("${indexes.unused-after-hours:168}")
+    private long unusedAfterHours;
+
+    private final ExecutorService reconcileExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "index-reconciler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean reconciled;
+    private volatile Instant lastReconciledAt;
+    private final Map<String, List<String>> created = new HashMap<>();
+    private final Map<String, List<String>> failed = new HashMap<>();
+
+    /**
+     * Reconciles the indexes at startup, retrying while the database is unreachable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${inventory.views.rebuild-retry-ms:30000}",
+               initialDelayString = "${inventory.views.rebuild-retry-ms:30000}")
+    public void reconcileIfNeeded() {
+        if (!enabled || reconciled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        reconcileExecutor.execute(() -> {
+            try {
+                reconcile();
+                reconciled = true;
+                lastReconciledAt = Instant.now();
+                reportUnused();
+                reportCollectionScans();
+            } catch (DataAccessException e) {
+                log.warn("Indexes not reconciled, database unavailable: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Index reconciliation failed", e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reconcileExecutor.shutdownNow();
+    }
+
+    private void reconcile() {
+        for (MongoPersistentEntity<?> entity : documentEntities()) {
+            String collection = entity.getCollection();
+            IndexOperations indexOps = mongoTemplate.indexOps(collection);
+            Set<String> existing = new HashSet<>();
+            // Through the template, so driver errors arrive as DataAccessExceptions
+            List<Document> indexes = mongoTemplate.execute(collection,
+                    c -> c.listIndexes().into(new ArrayList<>()));
+            for (Document index : indexes) {
+                existing.add(keys(index.get("key", Document.class)));
+            }
+            for (IndexDefinition definition : declaredIndexes(entity)) {
+                String keys = keys(definition.getIndexKeys());
+                if (existing.contains(keys)) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                try {
+                    String name = indexOps.ensureIndex(definition);
+                    synchronized (this) {
+                        created.computeIfAbsent(collection, c -> new ArrayList<>()).add(name);
+                    }
+                    log.info("Created index {} {} on {} in {} ms", name, keys, collection,
+                            (System.nanoTime() - start) / 1_000_000);
+                } catch (DataAccessException e) {
+                    if (e instanceof DataAccessResourceFailureException) {
+                        throw e;
+                    }
+                    // E.g. duplicate SKUs blocking a unique index; the others are still created
+                    synchronized (this) {
+                        failed.computeIfAbsent(collection, c -> new ArrayList<>()).add(keys + ": " + e.getMessage());
+                    }
+                    log.error("Could not create index {} on {}: {}", keys, collection, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void reportUnused() {
+        for (Map<String, Object> index : indexUsage()) {
+            if (Boolean.TRUE.equals(index.get("unused"))) {
+                log.warn("Index {} on {} has served no queries since {}{}", index.get("name"), index.get("collection"),
+                        index.get("since"), Boolean.TRUE.equals(index.get("declared")) ? "" : " and is not declared");
+            } else if (!Boolean.TRUE.equals(index.get("declared"))) {
+                log.info("Index {} on {} is not declared on any document class", index.get("name"),
+                        index.get("collection"));
+            }
+        }
+    }
+
+    private void reportCollectionScans() {
+        for (QueryPlanInspector.QueryPlan plan : queryPlanInspector.explainAll()) {
+            if (plan.violation()) {
+                log.warn("Hot query {}.{} scans the whole {} collection", plan.repository(), plan.method(),
+                        plan.collection());
+            }
+        }
+    }
+
+    /**
+     * The reconciler's state and, for every index of every mapped collection, its keys,
+     * whether a class declares it, and its use since the server started counting.
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("reconciled", reconciled);
+        status.put("running", running.get());
+        status.put("lastReconciledAt", lastReconciledAt);
+        synchronized (this) {
+            status.put("created", new HashMap<>(created));
+            status.put("failed", new HashMap<>(failed));
+        }
+        status.put("unusedAfterHours", unusedAfterHours);
+        try {
+            status.put("indexes", indexUsage());
+        } catch (DataAccessException e) {
+            status.put("indexes", List.of());
+            status.put("error", "Database unavailable: " + e.getMessage());
+        }
+        return status;
+    }
+
+    private List<Map<String, Object>> indexUsage() {
+        List<Map<String, Object>> usage = new ArrayList<>();
+        Instant unusedBefore = Instant.now().minus(Duration.ofHours(unusedAfterHours));
+        for (MongoPersistentEntity<?> entity : documentEntities()) {
+            String collection = entity.getCollection();
+            Set<String> declared = declaredIndexes(entity).stream()
+                    .map(definition -> keys(definition.getIndexKeys()))
+                    .collect(Collectors.toSet());
+            List<Document> pipeline = List.of(new Document("$indexStats", new Document()));
+            List<Document> indexStats = mongoTemplate.execute(collection,
+                    c -> c.aggregate(pipeline).into(new ArrayList<>()));
+            for (Document stats : indexStats) {
+                String name = stats.getString("name");
+                String keys = keys(stats.get("key", Document.class));
+                Document accesses = stats.get("accesses", Document.class);
+                long ops = accesses != null ? ((Number) accesses.get("ops")).longValue() : 0;
+                Date since = accesses != null ? accesses.getDate("since") : null;
+                boolean isDeclared = "_id_".equals(name) || declared.contains(keys);
+                Map<String, Object> index = new LinkedHashMap<>();
+                index.put("collection", collection);
+                index.put("name", name);
+                index.put("keys", keys);
+                index.put("declared", isDeclared);
+                index.put("ops", ops);
+                index.put("since", since != null ? since.toInstant() : null);
+                // Only flagged once the counters have run long enough to mean something
+                index.put("unused", !"_id_".equals(name) && ops == 0
+                        && since != null && since.toInstant().isBefore(unusedBefore));
+                usage.add(index);
+            }
+        }
+        return usage;
+    }
+
+    private List<MongoPersistentEntity<?>> documentEntities() {
+        List<MongoPersistentEntity<?>> entities = new ArrayList<>();
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    private List<IndexDefinition> declaredIndexes(MongoPersistentEntity<?> entity) {
+        List<IndexDefinition> definitions = new ArrayList<>();
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        resolver.resolveIndexFor(entity.getTypeInformation()).forEach(definitions::add);
+        return definitions;
+    }
+
+    // Key order matters for compound indexes, so keys are compared as "field:direction" in order
+    private static String keys(Document keys) {
+        return keys.entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + normalizeDirection(entry.getValue()))
+                .collect(Collectors.joining(","));
+    }
+
+    private static String normalizeDirection(Object direction) {
+        return direction instanceof Number number ? String.valueOf(number.intValue()) : String.valueOf(direction);
+    }
+}
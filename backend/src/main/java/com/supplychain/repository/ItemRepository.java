@@ -2,12 +2,13 @@ package com.supplychain.repository;
 
 import com.supplychain.model.Item;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repository interface for Item entity operations
  */
-public interface ItemRepository extends MongoRepository<Item, String> {
+public interface ItemRepository extends MongoRepository<Item, String>, ItemRepositoryCustom {
 
     /**
      * Finds items where the quantity is less than or equal to the given threshold.
@@ -15,6 +16,7 @@ public interface ItemRepository extends MongoRepository<Item, String> {
      * @param threshold The stock quantity threshold.
      * @return A list of items at or below the stock threshold.
      */
+    @HotQuery
     List<Item> findByQuantityLessThanEqual(int threshold);
 
     /**
@@ -23,5 +25,22 @@ public interface ItemRepository extends MongoRepository<Item, String> {
      * @param quantity The exact stock quantity to find.
      * @return A list of items with the specified stock quantity.
      */
+    @HotQuery
     List<Item> findByQuantity(int quantity);
-}
\ No newline at end of file
+
+    /**
+     * Finds the most recently updated items.
+     * This is used to refill the stock overview's recent list after deletes.
+     * @return Up to 32 items, newest update first.
+     */
+    List<Item> findTop32ByUpdatedAtNotNullOrderByUpdatedAtDesc();
+
+    /**
+     * Finds the items for a set of SKUs in a single query.
+     * This is used to resolve order line items to items.
+     * @param skus The SKUs to look up.
+     * @return The items that exist for those SKUs.
+     */
+    @HotQuery
+    List<Item> findBySkuIn(Collection<String> skus);
+}
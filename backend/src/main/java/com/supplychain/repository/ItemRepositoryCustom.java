@@ -0,0 +1,74 @@
+package com.supplychain.repository;
+
+import com.supplychain.model.BulkWriteSummary;
+import com.supplychain.model.Item;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Item operations that need server-side atomic updates rather than derived queries
+ */
+public interface ItemRepositoryCustom {
+
+    /**
+     * Atomically adds {@code delta} to an item's quantity without reading it first, and bumps its version.
+     * The update only applies if the resulting quantity would not go below zero.
+     * @param id The item to adjust.
+     * @param delta The relative change in quantity.
+     * @return The item after the update, or null if it does not exist or has too little stock.
+     */
+    Item incrementQuantity(String id, int delta);
+
+    /**
+     * Atomically sets an item's quantity and bumps its version.
+     * @param id The item to adjust.
+     * @param quantity The new absolute quantity.
+     * @return The item as it was before the update, or null if it does not exist.
+     */
+    Item replaceQuantity(String id, int quantity);
+
+    /**
+     * Atomically writes the given fields and bumps the item's version, in one conditional update.
+     * @param id The item to update.
+     * @param expectedVersion The version the item must still have, or null to accept any.
+     * @param fields The new values by property name.
+     * @return The item as it was before the update, or null if it does not exist or has another version.
+     */
+    Item updateFields(String id, Long expectedVersion, Map<String, Object> fields);
+
+    /**
+     * Writes the whole item, inserting it if it does not exist yet, and returns what it replaced
+     * from the same write. Replacing bumps the stored version, which is set on {@code item}.
+     * @param item The item to write; an id is assigned if it has none.
+     * @return The item as it was before the write, or null if it was inserted.
+     */
+    Item replace(Item item);
+
+    /**
+     * Reads one page of items in {@code _id} order, starting after the given id.
+     * @param afterId The last id of the previous page, or null for the first page.
+     * @param category Optional category filter.
+     * @param supplier Optional supplier filter.
+     * @param limit The maximum number of items to return.
+     * @return Up to {@code limit} items.
+     */
+    List<Item> findPage(String afterId, String category, String supplier, int limit);
+
+    /**
+     * Streams matching items straight from a database cursor.
+     * The caller must close the stream.
+     * @param category Optional category filter.
+     * @param supplier Optional supplier filter.
+     * @return A lazily populated stream of items in {@code _id} order.
+     */
+    Stream<Item> streamAll(String category, String supplier);
+
+    /**
+     * Inserts or updates items keyed on SKU with a single unordered bulk write.
+     * Items whose SKU already exists have their fields replaced; {@code createdAt} is only set on insert.
+     * @param items The items to write; each must have a SKU.
+     * @return Counts of inserted and modified items, and the failures by position in {@code items}.
+     */
+    BulkWriteSummary upsertAllBySku(List<Item> items);
+}
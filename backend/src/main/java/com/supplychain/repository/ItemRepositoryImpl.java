@@ -0,0 +1,158 @@
+package com.supplychain.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.supplychain.model.BulkWriteSummary;
+import com.supplychain.model.Item;
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * MongoDB implementation of {@link ItemRepositoryCustom}
+ */
+class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    ItemRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Item incrementQuantity(String id, int delta) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (delta < 0) {
+            criteria = criteria.and("quantity").gte(-delta);
+        }
+        Update update = new Update()
+                .inc("quantity", delta)
+                .inc("version", 1)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), Item.class);
+    }
+
+    @Override
+    public Item replaceQuantity(String id, int quantity) {
+        Update update = new Update()
+                .set("quantity", quantity)
+                .inc("version", 1)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(id)), update,
+                FindAndModifyOptions.options().returnNew(false), Item.class);
+    }
+
+    @Override
+    public Item updateFields(String id, Long expectedVersion, Map<String, Object> fields) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (expectedVersion != null && expectedVersion == 0) {
+            // Documents written before they carried a version have none, and read back as version 0
+            criteria = criteria.and("version").in(0L, null);
+        } else if (expectedVersion != null) {
+            criteria = criteria.and("version").is(expectedVersion);
+        }
+        Update update = new Update().inc("version", 1);
+        fields.forEach(update::set);
+        return mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(false), Item.class);
+    }
+
+    @Override
+    public Item replace(Item item) {
+        if (item.getId() == null) {
+            // Nothing to replace; the driver assigns the id
+            mongoTemplate.insert(item);
+            return null;
+        }
+        // Every field is set and the version bumped by one upsert, which also returns the old document
+        Document fields = new Document();
+        mongoTemplate.getConverter().write(item, fields);
+        fields.remove("_id");
+        fields.remove("version");
+        Update update = new Update().inc("version", 1);
+        fields.forEach(update::set);
+        // Properties the converter left out are null, and a replacement doesn't keep them
+        mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Item.class)
+                .doWithProperties((MongoPersistentProperty property) -> {
+                    if (!property.isIdProperty() && !fields.containsKey(property.getFieldName())
+                            && !"version".equals(property.getFieldName())) {
+                        update.unset(property.getFieldName());
+                    }
+                });
+        Item previous = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(item.getId())), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(false), Item.class);
+        item.setVersion(previous != null ? previous.getVersion() + 1 : 1);
+        return previous;
+    }
+
+    @Override
+    public List<Item> findPage(String afterId, String category, String supplier, int limit) {
+        Criteria criteria = filter(category, supplier);
+        if (afterId != null) {
+            criteria = criteria.and("_id").gt(MongoIds.toKey(afterId));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Item.class);
+    }
+
+    @Override
+    public Stream<Item> streamAll(String category, String supplier) {
+        Query query = new Query(filter(category, supplier))
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+        return mongoTemplate.stream(query, Item.class);
+    }
+
+    @Override
+    public BulkWriteSummary upsertAllBySku(List<Item> items) {
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Item.class);
+        for (Item item : items) {
+            Update update = new Update()
+                    .set("name", item.getName())
+                    .set("category", item.getCategory())
+                    .set("quantity", item.getQuantity())
+                    .set("minQuantity", item.getMinQuantity())
+                    .set("price", item.getPrice())
+                    .set("supplier", item.getSupplier())
+                    .set("location", item.getLocation())
+                    .set("updatedAt", now)
+                    .inc("version", 1)
+                    .setOnInsert("createdAt", now);
+            bulk.upsert(new Query(Criteria.where("sku").is(item.getSku())), update);
+        }
+        try {
+            BulkWriteResult result = bulk.execute();
+            return new BulkWriteSummary(result.getUpserts().size(), result.getModifiedCount(), new HashMap<>());
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failures = new HashMap<>();
+            e.getErrors().forEach(error -> failures.put(error.getIndex(), error.getMessage()));
+            BulkWriteResult result = e.getResult();
+            return new BulkWriteSummary(result.getUpserts().size(), result.getModifiedCount(), failures);
+        }
+    }
+
+    private Criteria filter(String category, String supplier) {
+        Criteria criteria = new Criteria();
+        if (category != null) {
+            criteria = criteria.and("category").is(category);
+        }
+        if (supplier != null) {
+            criteria = criteria.and("supplier").is(supplier);
+        }
+        return criteria;
+    }
+}
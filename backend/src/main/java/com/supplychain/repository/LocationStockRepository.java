@@ -0,0 +1,10 @@
+package com.supplychain.repository;
+
+import com.supplychain.model.LocationStock;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Repository for the stock each item holds at each location
+ */
+public interface LocationStockRepository extends MongoRepository<LocationStock, String>, LocationStockRepositoryCustom {
+}
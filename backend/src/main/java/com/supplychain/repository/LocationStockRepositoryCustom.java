@@ -0,0 +1,53 @@
+package com.supplychain.repository;
+
+import com.supplychain.model.LocationStock;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Location stock writes that have to be atomic on the server, and range reads over stock ids
+ */
+public interface LocationStockRepositoryCustom {
+
+    /**
+     * Atomically adds to the stock of an item at a location. An increase creates the
+     * location's stock if it has none; a decrease only applies if the location holds enough.
+     * @param itemId The item.
+     * @param location The location.
+     * @param delta The change in quantity.
+     * @return The stock as written, or null if a decrease found too little stock.
+     */
+    LocationStock increment(String itemId, String location, int delta);
+
+    /**
+     * Sets the stock of an item at a location, creating it if needed.
+     * @return The stock before the write, or null if the location had none.
+     */
+    LocationStock replaceQuantity(String itemId, String location, int quantity);
+
+    /**
+     * Reads the stock of one item at all its locations.
+     * @return The stock in location order.
+     */
+    List<LocationStock> findByItem(String itemId);
+
+    /**
+     * Reads the stock held at one location, in id order after a cursor.
+     * @param location The location.
+     * @param afterId The id of the last stock of the previous page, or null for the first page.
+     * @param limit The maximum number of results.
+     */
+    List<LocationStock> findPageByLocation(String location, String afterId, int limit);
+
+    /**
+     * Streams all stock in id order, so each item's locations come together.
+     * The caller must close the stream.
+     */
+    Stream<LocationStock> streamAll();
+
+    /**
+     * Deletes the stock of one item at all its locations.
+     * @return The number deleted.
+     */
+    long deleteByItem(String itemId);
+}
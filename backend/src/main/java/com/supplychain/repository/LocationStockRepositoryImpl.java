@@ -0,0 +1,82 @@
+package com.supplychain.repository;
+
+import com.supplychain.model.LocationStock;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * MongoDB implementation of {@link LocationStockRepositoryCustom}
+ */
+class LocationStockRepositoryImpl implements LocationStockRepositoryCustom {
+
+    private static final Sort ID_ORDER = Sort.by(Sort.Direction.ASC, "_id");
+
+    private final MongoTemplate mongoTemplate;
+
+    LocationStockRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public LocationStock increment(String itemId, String location, int delta) {
+        Criteria criteria = Criteria.where("_id").is(LocationStock.id(itemId, location));
+        if (delta < 0) {
+            criteria = criteria.and("quantity").gte(-delta);
+        }
+        Update update = new Update()
+                .inc("quantity", delta)
+                .set("updatedAt", LocalDateTime.now())
+                .setOnInsert("itemId", itemId)
+                .setOnInsert("location", location);
+        // Only an increase may create the document; a decrease that finds nothing fails
+        return mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true).upsert(delta >= 0), LocationStock.class);
+    }
+
+    @Override
+    public LocationStock replaceQuantity(String itemId, String location, int quantity) {
+        Update update = new Update()
+                .set("quantity", quantity)
+                .set("updatedAt", LocalDateTime.now())
+                .setOnInsert("itemId", itemId)
+                .setOnInsert("location", location);
+        return mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(LocationStock.id(itemId, location))),
+                update, FindAndModifyOptions.options().returnNew(false).upsert(true), LocationStock.class);
+    }
+
+    @Override
+    public List<LocationStock> findByItem(String itemId) {
+        return mongoTemplate.find(new Query(ofItem(itemId)).with(ID_ORDER), LocationStock.class);
+    }
+
+    @Override
+    public List<LocationStock> findPageByLocation(String location, String afterId, int limit) {
+        Criteria criteria = Criteria.where("location").is(location);
+        if (afterId != null) {
+            criteria = criteria.and("_id").gt(afterId);
+        }
+        return mongoTemplate.find(new Query(criteria).with(ID_ORDER).limit(limit), LocationStock.class);
+    }
+
+    @Override
+    public Stream<LocationStock> streamAll() {
+        return mongoTemplate.stream(new Query().with(ID_ORDER), LocationStock.class);
+    }
+
+    @Override
+    public long deleteByItem(String itemId) {
+        return mongoTemplate.remove(new Query(ofItem(itemId)), LocationStock.class).getDeletedCount();
+    }
+
+    // '}' sorts right after '|', so this is exactly the ids starting with "itemId|"
+    static Criteria ofItem(String itemId) {
+        return Criteria.where("_id").gte(LocationStock.id(itemId, "")).lt(itemId + "}");
+    }
+}
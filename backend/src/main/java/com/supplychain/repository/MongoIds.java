@@ -0,0 +1,19 @@
+package com.supplychain.repository;
+
+import org.bson.types.ObjectId;
+
+/**
+ * Helpers for comparing against generated {@code _id} values in range queries
+ */
+final class MongoIds {
+
+    private MongoIds() {}
+
+    /**
+     * Range operators are not converted by the query mapper, so ids that were
+     * generated by MongoDB have to be compared as ObjectIds explicitly.
+     */
+    static Object toKey(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
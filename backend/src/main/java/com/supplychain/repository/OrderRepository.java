@@ -2,14 +2,16 @@ package com.supplychain.repository;
 
 import com.supplychain.model.Order;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Optional;
 
-public interface OrderRepository extends MongoRepository<Order, String> {
+public interface OrderRepository extends MongoRepository<Order, String>, OrderRepositoryCustom {
 
     /**
      * Counts the number of orders with a specific status.
      * @param status The status to count (e.g., "pending", "processing").
      * @return The number of orders with the given status.
      */
+    @HotQuery
     long countByStatus(String status);
 
     /**
@@ -17,5 +19,13 @@ public interface OrderRepository extends MongoRepository<Order, String> {
      * @param paymentStatus The payment status to count (e.g., "paid", "pending").
      * @return The number of orders with the given payment status.
      */
+    @HotQuery
     long countByPaymentStatus(String paymentStatus);
+
+    /**
+     * Finds the order created by a batch submission with the given idempotency key.
+     * @param idempotencyKey The key the submission carried.
+     * @return The order, if one was created under the key.
+     */
+    Optional<Order> findByIdempotencyKey(String idempotencyKey);
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.supplychain.repository;
+
+import com.supplychain.model.BulkWriteSummary;
+import com.supplychain.model.Order;
+import com.supplychain.model.OrderSummary;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Order queries that need explicit sorting, keyset ranges or cursors
+ */
+public interface OrderRepositoryCustom {
+
+    // Status conditions for updateFields
+    Pattern CANCELLED = Pattern.compile("^cancell?ed$", Pattern.CASE_INSENSITIVE);
+    Pattern CANCELLED_OR_DELIVERED = Pattern.compile("^(cancell?ed|delivered)$", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Reads one page of orders, newest {@code orderDate} first with {@code _id} as a tie breaker.
+     * @param afterDate The order date of the last order on the previous page (null if it had none).
+     * @param afterId The id of the last order on the previous page, or null for the first page.
+     * @param status Optional status filter.
+     * @param paymentStatus Optional payment status filter.
+     * @param limit The maximum number of orders to return.
+     * @return Up to {@code limit} orders.
+     */
+    List<Order> findPage(LocalDate afterDate, String afterId, String status, String paymentStatus, int limit);
+
+    /**
+     * Streams matching orders straight from a database cursor.
+     * The caller must close the stream.
+     * @param status Optional status filter.
+     * @param paymentStatus Optional payment status filter.
+     * @return A lazily populated stream of orders in page order.
+     */
+    Stream<Order> streamAll(String status, String paymentStatus);
+
+    /**
+     * Streams the orders dated within a range straight from a database cursor.
+     * The caller must close the stream.
+     * @param from The first order date to include.
+     * @param until The first order date after the range.
+     * @return A lazily populated stream of orders in page order.
+     */
+    Stream<Order> streamByOrderDate(LocalDate from, LocalDate until);
+
+    /**
+     * Finds the oldest order date.
+     * @return The earliest {@code orderDate}, or null if no order has one.
+     */
+    LocalDate findEarliestOrderDate();
+
+    /**
+     * Finds the newest order date.
+     * @return The latest {@code orderDate}, or null if no order has one.
+     */
+    LocalDate findLatestOrderDate();
+
+    /**
+     * Computes order count, revenue and status breakdowns in a single aggregation.
+     * @return The summary of all orders.
+     */
+    OrderSummary summarize();
+
+    /**
+     * Deletes an order and returns it in the same round trip.
+     * @param id The order to delete.
+     * @return The deleted order, or null if it did not exist.
+     */
+    Order deleteAndReturn(String id);
+
+    /**
+     * Atomically writes the given fields and bumps the order's version, in one conditional update.
+     * @param id The order to update.
+     * @param expectedVersion The version the order must still have, or null to accept any.
+     * @param unlessStatus If set, the update only applies to an order whose status does not match.
+     * @param fields The new values by property name.
+     * @return The order as it was before the update, or null if it does not exist or a condition failed.
+     */
+    Order updateFields(String id, Long expectedVersion, Pattern unlessStatus, Map<String, Object> fields);
+
+    /**
+     * Inserts orders with a single unordered bulk write, so one bad document
+     * does not stop the rest of the batch.
+     * @param orders The orders to insert.
+     * @return The number inserted and the failures by position in {@code orders}.
+     */
+    BulkWriteSummary bulkInsert(List<Order> orders);
+}
@@ -0,0 +1,151 @@
+package com.supplychain.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.supplychain.model.BulkWriteSummary;
+import com.supplychain.model.Order;
+import com.supplychain.model.OrderSummary;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * MongoDB implementation of {@link OrderRepositoryCustom}
+ */
+class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    private static final Sort PAGE_ORDER = Sort.by(Sort.Direction.DESC, "orderDate", "_id");
+
+    private final MongoTemplate mongoTemplate;
+
+    OrderRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Order> findPage(LocalDate afterDate, String afterId, String status, String paymentStatus, int limit) {
+        Criteria criteria = filter(status, paymentStatus);
+        if (afterId != null) {
+            Object key = MongoIds.toKey(afterId);
+            if (afterDate == null) {
+                // Orders without a date sort last, so only the id range is left
+                criteria = criteria.andOperator(
+                        Criteria.where("orderDate").is(null),
+                        Criteria.where("_id").lt(key));
+            } else {
+                criteria = criteria.orOperator(
+                        Criteria.where("orderDate").lt(afterDate),
+                        Criteria.where("orderDate").is(afterDate).and("_id").lt(key),
+                        Criteria.where("orderDate").is(null));
+            }
+        }
+        Query query = new Query(criteria).with(PAGE_ORDER).limit(limit);
+        return mongoTemplate.find(query, Order.class);
+    }
+
+    @Override
+    public Stream<Order> streamAll(String status, String paymentStatus) {
+        return mongoTemplate.stream(new Query(filter(status, paymentStatus)).with(PAGE_ORDER), Order.class);
+    }
+
+    @Override
+    public Stream<Order> streamByOrderDate(LocalDate from, LocalDate until) {
+        Query query = new Query(Criteria.where("orderDate").gte(from).lt(until)).with(PAGE_ORDER);
+        return mongoTemplate.stream(query, Order.class);
+    }
+
+    @Override
+    public LocalDate findEarliestOrderDate() {
+        return findBoundaryOrderDate(Sort.Direction.ASC);
+    }
+
+    @Override
+    public LocalDate findLatestOrderDate() {
+        return findBoundaryOrderDate(Sort.Direction.DESC);
+    }
+
+    @Override
+    public OrderSummary summarize() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("status", "paymentStatus")
+                        .count().as("count")
+                        .sum("totalAmount").as("amount"));
+        OrderSummary summary = new OrderSummary();
+        for (Document group : mongoTemplate.aggregate(aggregation, Order.class, Document.class)) {
+            Document key = group.get("_id", Document.class);
+            summary.add(key.getString("status"), key.getString("paymentStatus"),
+                    ((Number) group.get("count")).longValue(),
+                    ((Number) group.get("amount")).doubleValue());
+        }
+        return summary;
+    }
+
+    @Override
+    public Order deleteAndReturn(String id) {
+        return mongoTemplate.findAndRemove(new Query(Criteria.where("_id").is(id)), Order.class);
+    }
+
+    @Override
+    public Order updateFields(String id, Long expectedVersion, Pattern unlessStatus, Map<String, Object> fields) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (expectedVersion != null && expectedVersion == 0) {
+            // Documents written before they carried a version have none, and read back as version 0
+            criteria = criteria.and("version").in(0L, null);
+        } else if (expectedVersion != null) {
+            criteria = criteria.and("version").is(expectedVersion);
+        }
+        if (unlessStatus != null) {
+            criteria = criteria.and("status").not().regex(unlessStatus);
+        }
+        Update update = new Update().inc("version", 1);
+        fields.forEach(update::set);
+        return mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(false), Order.class);
+    }
+
+    @Override
+    public BulkWriteSummary bulkInsert(List<Order> orders) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+        bulk.insert(orders);
+        try {
+            BulkWriteResult result = bulk.execute();
+            return new BulkWriteSummary(result.getInsertedCount(), 0, new HashMap<>());
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failures = new HashMap<>();
+            e.getErrors().forEach(error -> failures.put(error.getIndex(), error.getMessage()));
+            return new BulkWriteSummary(e.getResult().getInsertedCount(), 0, failures);
+        }
+    }
+
+    private LocalDate findBoundaryOrderDate(Sort.Direction direction) {
+        Query query = new Query(Criteria.where("orderDate").ne(null))
+                .with(Sort.by(direction, "orderDate"))
+                .limit(1);
+        query.fields().include("orderDate");
+        Order order = mongoTemplate.findOne(query, Order.class);
+        return order != null ? order.getOrderDate() : null;
+    }
+
+    private Criteria filter(String status, String paymentStatus) {
+        Criteria criteria = new Criteria();
+        if (status != null) {
+            criteria = criteria.and("status").is(status);
+        }
+        if (paymentStatus != null) {
+            criteria = criteria.and("paymentStatus").is(paymentStatus);
+        }
+        return criteria;
+    }
+}
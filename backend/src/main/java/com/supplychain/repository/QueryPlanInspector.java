@@ -0,0 +1,212 @@
+package com.supplychain.repository;
+
+import com.mongodb.client.FindIterable;
+import com.supplychain.model.Item;
+import com.supplychain.model.LocationStock;
+import com.supplychain.model.Order;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Explains every derived query method of the repositories, and the hot queries built
+ * by the custom implementations, against the live collections. The winning plan's
+ * stages show whether a query is served by an index or scans the whole collection;
+ * a scan is only a failure for methods marked {@link HotQuery}.
+ */
+@Component
+@Profile("!embedded")
+public class QueryPlanInspector {
+
+    private static final Sort PAGE_ORDER = Sort.by(Sort.Direction.DESC, "orderDate", "_id");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    public List<QueryPlan> explainAll() {
+        List<QueryPlan> plans = new ArrayList<>();
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> domainType : repositories) {
+            repositories.getRepositoryInformationFor(domainType).ifPresent(information -> {
+                String repository = information.getRepositoryInterface().getSimpleName();
+                for (Method method : information.getQueryMethods()) {
+                    plans.add(explainDerived(repository, method, domainType));
+                }
+            });
+        }
+        // Mirrors the queries built in ItemRepositoryImpl, OrderRepositoryImpl and LocationStockRepositoryImpl
+        plans.add(explain("ItemRepository", "upsertAllBySku", true, Item.class,
+                new Query(Criteria.where("sku").is(""))));
+        plans.add(explain("OrderRepository", "findPage(status)", true, Order.class,
+                new Query(Criteria.where("status").is("")).with(PAGE_ORDER).limit(50)));
+        plans.add(explain("OrderRepository", "findPage(paymentStatus)", true, Order.class,
+                new Query(Criteria.where("paymentStatus").is("")).with(PAGE_ORDER).limit(50)));
+        plans.add(explain("OrderRepository", "streamByOrderDate", true, Order.class,
+                new Query(Criteria.where("orderDate").gte(LocalDate.now().minusDays(30)).lt(LocalDate.now()))
+                        .with(PAGE_ORDER)));
+        plans.add(explain("LocationStockRepository", "findByItem", true, LocationStock.class,
+                new Query(LocationStockRepositoryImpl.ofItem("")).with(Sort.by("_id"))));
+        plans.add(explain("LocationStockRepository", "findPageByLocation", true, LocationStock.class,
+                new Query(Criteria.where("location").is("").and("_id").gt("")).with(Sort.by("_id")).limit(50)));
+        plans.add(explain("OrderRepository", "findEarliestOrderDate", false, Order.class,
+                new Query(Criteria.where("orderDate").ne(null)).with(Sort.by("orderDate")).limit(1)));
+        return plans;
+    }
+
+    private QueryPlan explainDerived(String repository, Method method, Class<?> domainType) {
+        boolean hot = method.isAnnotationPresent(HotQuery.class);
+        PartTree tree;
+        try {
+            tree = new PartTree(method.getName(), domainType);
+        } catch (RuntimeException e) {
+            return QueryPlan.failed(repository, method.getName(), hot, "Not a derived query: " + e.getMessage());
+        }
+        List<Criteria> alternatives = new ArrayList<>();
+        for (PartTree.OrPart orPart : tree) {
+            List<Criteria> conditions = new ArrayList<>();
+            for (Part part : orPart) {
+                conditions.add(condition(part));
+            }
+            alternatives.add(conditions.size() == 1 ? conditions.get(0)
+                    : new Criteria().andOperator(conditions.toArray(new Criteria[0])));
+        }
+        Query query = new Query(alternatives.size() == 1 ? alternatives.get(0)
+                : new Criteria().orOperator(alternatives.toArray(new Criteria[0])));
+        query.with(tree.getSort());
+        if (tree.getMaxResults() != null) {
+            query.limit(tree.getMaxResults());
+        }
+        return explain(repository, method.getName(), hot, domainType, query);
+    }
+
+    // The plan depends on the fields and operators, not on the values, so any value of the right type will do
+    private static Criteria condition(Part part) {
+        Criteria field = Criteria.where(part.getProperty().toDotPath());
+        Object value = sampleValue(part.getProperty().getLeafType());
+        return switch (part.getType()) {
+            case SIMPLE_PROPERTY -> field.is(value);
+            case NEGATING_SIMPLE_PROPERTY -> field.ne(value);
+            case LESS_THAN, BEFORE -> field.lt(value);
+            case LESS_THAN_EQUAL -> field.lte(value);
+            case GREATER_THAN, AFTER -> field.gt(value);
+            case GREATER_THAN_EQUAL -> field.gte(value);
+            case BETWEEN -> field.gt(value).lt(value);
+            case IN -> field.in(List.of(value));
+            case NOT_IN -> field.nin(List.of(value));
+            case IS_NULL -> field.is(null);
+            case IS_NOT_NULL -> field.ne(null);
+            case TRUE -> field.is(true);
+            case FALSE -> field.is(false);
+            default -> field.exists(true);
+        };
+    }
+
+    private static Object sampleValue(Class<?> type) {
+        if (type == String.class) {
+            return "";
+        } else if (type == int.class || type == Integer.class) {
+            return 0;
+        } else if (type == long.class || type == Long.class) {
+            return 0L;
+        } else if (type == double.class || type == Double.class) {
+            return 0.0;
+        } else if (type == boolean.class || type == Boolean.class) {
+            return false;
+        } else if (type == LocalDate.class) {
+            return LocalDate.now();
+        } else if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        } else if (type == Instant.class) {
+            return Instant.now();
+        }
+        return "";
+    }
+
+    private QueryPlan explain(String repository, String method, boolean hot, Class<?> domainType, Query query) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(domainType);
+        QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+        Document filter = mapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = mapper.getMappedSort(query.getSortObject(), entity);
+        try {
+            Document explained = mongoTemplate.execute(entity.getCollection(), collection -> {
+                FindIterable<Document> find = collection.find(filter).sort(sort);
+                if (query.getLimit() > 0) {
+                    find.limit(query.getLimit());
+                }
+                return find.explain();
+            });
+            Set<String> stages = new LinkedHashSet<>();
+            Set<String> indexes = new LinkedHashSet<>();
+            Document queryPlanner = explained.get("queryPlanner", Document.class);
+            collectStages(queryPlanner != null ? queryPlanner.get("winningPlan") : null, stages, indexes);
+            return new QueryPlan(repository, method, hot, entity.getCollection(), filter.toJson(), sort.toJson(),
+                    List.copyOf(stages), List.copyOf(indexes), stages.contains("COLLSCAN"), null);
+        } catch (RuntimeException e) {
+            return new QueryPlan(repository, method, hot, entity.getCollection(), filter.toJson(), sort.toJson(),
+                    List.of(), List.of(), false, e.getMessage());
+        }
+    }
+
+    // Walks the plan tree of classic, slot-based and sharded explain output
+    private static void collectStages(Object node, Set<String> stages, Set<String> indexes) {
+        if (node instanceof Document plan) {
+            if (plan.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            if (plan.get("indexName") instanceof String indexName) {
+                indexes.add(indexName);
+            }
+            for (String child : List.of("queryPlan", "inputStage", "inputStages", "shards", "winningPlan")) {
+                collectStages(plan.get(child), stages, indexes);
+            }
+        } else if (node instanceof Collection<?> children) {
+            for (Object child : children) {
+                collectStages(child, stages, indexes);
+            }
+        }
+    }
+
+    /**
+     * The winning plan of one query: its stages, the indexes it uses, and whether it
+     * scans the collection.
+     */
+    public record QueryPlan(String repository, String method, boolean hot, String collection, String filter,
+                            String sort, List<String> stages, List<String> indexes, boolean collectionScan,
+                            String error) {
+
+        static QueryPlan failed(String repository, String method, boolean hot, String error) {
+            return new QueryPlan(repository, method, hot, null, null, null, List.of(), List.of(), false, error);
+        }
+
+        /**
+         * Whether this plan fails the check: a hot query scanning the collection.
+         */
+        public boolean violation() {
+            return hot && collectionScan;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.supplychain.repository;
+
+import com.supplychain.model.RevenueRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Repository for the pre-aggregated revenue buckets
+ */
+public interface RevenueRollupRepository extends MongoRepository<RevenueRollup, String>, RevenueRollupRepositoryCustom {
+}
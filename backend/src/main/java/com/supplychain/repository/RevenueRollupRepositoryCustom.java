@@ -0,0 +1,58 @@
+package com.supplychain.repository;
+
+import com.supplychain.model.RevenueRollup;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Revenue bucket writes that have to be server-side increments, and range reads over bucket ids
+ */
+public interface RevenueRollupRepositoryCustom {
+
+    /**
+     * Adds each delta's revenue, units and orders to its bucket, creating missing buckets,
+     * with a single unordered bulk write.
+     * @param deltas The changes, one per bucket id.
+     */
+    void increment(Collection<RevenueRollup> deltas);
+
+    /**
+     * Reads the buckets of one granularity and dimension whose period starts within a date range.
+     * @param granularity day, week or month.
+     * @param dimension total, sku, category or paymentStatus.
+     * @param from The first period start to include.
+     * @param to The last period start to include.
+     * @return The buckets in period order.
+     */
+    List<RevenueRollup> findBuckets(String granularity, String dimension, LocalDate from, LocalDate to);
+
+    /**
+     * Writes complete buckets from a backfill, replacing any existing bucket with the same id.
+     * @param buckets The buckets, each tagged with the backfill's generation.
+     */
+    void replaceAll(List<RevenueRollup> buckets);
+
+    /**
+     * Deletes the buckets that a backfill did not write.
+     * @param generation The generation of the backfill that just completed.
+     * @return The number of buckets deleted.
+     */
+    long deleteOtherGenerations(String generation);
+
+    /**
+     * Takes or renews the lease that makes one node the only writer of the buckets. The lease
+     * is kept outside the bucket collection, so a backfill never deletes it.
+     * @param owner The node asking.
+     * @param until When the lease lapses unless renewed.
+     * @return The node that held the lease before ({@code owner} itself for a renewal, or if no
+     *         node ever held it), or null if another node holds it.
+     */
+    String claimWriterLease(String owner, Instant until);
+
+    /**
+     * Lets the lease lapse now if {@code owner} holds it, so another node can take over at once.
+     */
+    void releaseWriterLease(String owner);
+}
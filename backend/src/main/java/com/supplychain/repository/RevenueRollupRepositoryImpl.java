@@ -0,0 +1,103 @@
+package com.supplychain.repository;
+
+import com.supplychain.model.RevenueRollup;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * MongoDB implementation of {@link RevenueRollupRepositoryCustom}
+ */
+class RevenueRollupRepositoryImpl implements RevenueRollupRepositoryCustom {
+
+    private static final String LEASE_COLLECTION = "revenue_rollup_leases";
+    private static final String WRITER_LEASE = "writer";
+
+    private final MongoTemplate mongoTemplate;
+
+    RevenueRollupRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void increment(Collection<RevenueRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RevenueRollup.class);
+        for (RevenueRollup delta : deltas) {
+            Update update = new Update()
+                    .inc("revenue", delta.getRevenue())
+                    .inc("units", delta.getUnits())
+                    .inc("orders", delta.getOrders())
+                    .setOnInsert("granularity", delta.getGranularity())
+                    .setOnInsert("dimension", delta.getDimension())
+                    .setOnInsert("periodStart", delta.getPeriodStart())
+                    .setOnInsert("key", delta.getKey());
+            bulk.upsert(new Query(Criteria.where("_id").is(delta.getId())), update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public List<RevenueRollup> findBuckets(String granularity, String dimension, LocalDate from, LocalDate to) {
+        // Ids sort by granularity, dimension and period, so the _id index answers the range
+        Criteria criteria = Criteria.where("_id")
+                .gte(RevenueRollup.id(granularity, dimension, from, ""))
+                .lt(RevenueRollup.id(granularity, dimension, to.plusDays(1), ""));
+        return mongoTemplate.find(new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")), RevenueRollup.class);
+    }
+
+    @Override
+    public void replaceAll(List<RevenueRollup> buckets) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RevenueRollup.class);
+        for (RevenueRollup bucket : buckets) {
+            bulk.replaceOne(new Query(Criteria.where("_id").is(bucket.getId())), bucket,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public long deleteOtherGenerations(String generation) {
+        return mongoTemplate.remove(new Query(Criteria.where("generation").ne(generation)), RevenueRollup.class)
+                .getDeletedCount();
+    }
+
+    @Override
+    public String claimWriterLease(String owner, Instant until) {
+        // Matches only if the lease is ours or has lapsed; otherwise the upsert collides with the
+        // holder's document on _id
+        Query query = new Query(Criteria.where("_id").is(WRITER_LEASE).orOperator(
+                Criteria.where("owner").is(owner), Criteria.where("expiresAt").lt(new Date())));
+        Update update = new Update().set("owner", owner).set("expiresAt", Date.from(until));
+        try {
+            Document previous = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true), Document.class, LEASE_COLLECTION);
+            return previous == null ? owner : previous.getString("owner");
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void releaseWriterLease(String owner) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(WRITER_LEASE).and("owner").is(owner)),
+                new Update().set("expiresAt", new Date(0)), LEASE_COLLECTION);
+    }
+}
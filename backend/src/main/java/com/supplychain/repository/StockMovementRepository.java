@@ -0,0 +1,19 @@
+package com.supplychain.repository;
+
+import com.supplychain.model.StockMovement;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.List;
+
+/**
+ * Repository for the append-only stock movement ledger
+ */
+public interface StockMovementRepository extends MongoRepository<StockMovement, String> {
+
+    /**
+     * Finds the most recent movements recorded for an item.
+     * @param itemId The item whose ledger to read.
+     * @return Up to 100 movements, newest first.
+     */
+    @HotQuery
+    List<StockMovement> findTop100ByItemIdOrderByTimestampDesc(String itemId);
+}
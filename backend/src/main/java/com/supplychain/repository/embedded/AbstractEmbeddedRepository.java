@@ -0,0 +1,255 @@
+package com.supplychain.repository.embedded;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The generic {@link MongoRepository} operations on top of an {@link EmbeddedCollection}.
+ *
+ * Ids are generated as ObjectId strings, the same as MongoDB assigns them, so ids and
+ * cursors look the same under either backend. Sorted and query-by-example reads are not
+ * used by the application and are not supported.
+ * @param <T> The document type.
+ */
+abstract class AbstractEmbeddedRepository<T> implements MongoRepository<T, String> {
+
+    @Autowired
+    protected EmbeddedStore store;
+
+    protected abstract EmbeddedCollection<T, ?> collection();
+
+    protected abstract String idOf(T document);
+
+    protected abstract void assignId(T document, String id);
+
+    @Override
+    public <S extends T> S save(S entity) {
+        store.put(collection(), ensureId(entity), entity);
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> documents = toList(entities);
+        List<String> ids = new ArrayList<>(documents.size());
+        documents.forEach(document -> ids.add(ensureId(document)));
+        store.putAll(collection(), ids, new ArrayList<T>(documents));
+        return documents;
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        return insert(List.of(entity)).get(0);
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        List<S> documents = toList(entities);
+        List<String> ids = new ArrayList<>(documents.size());
+        documents.forEach(document -> ids.add(ensureId(document)));
+        store.write(() -> {
+            for (String id : ids) {
+                if (collection().contains(id)) {
+                    throw new DuplicateKeyException("Duplicate key in " + collection().name + ": _id " + id);
+                }
+            }
+            store.putAll(collection(), ids, new ArrayList<T>(documents));
+            return null;
+        });
+        return documents;
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(decode(store.read(() -> collection().bytes(id))));
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return store.read(() -> collection().contains(id));
+    }
+
+    @Override
+    public List<T> findAll() {
+        return decodeAll(store.read(() -> collection().documents.values().stream()
+                .map(entry -> entry.bytes)
+                .collect(Collectors.toList())));
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> ids) {
+        return findAllByIdIn(toList(ids));
+    }
+
+    @Override
+    public long count() {
+        return store.read(() -> collection().size());
+    }
+
+    @Override
+    public void deleteById(String id) {
+        store.remove(collection(), id);
+    }
+
+    @Override
+    public void delete(T entity) {
+        if (idOf(entity) != null) {
+            deleteById(idOf(entity));
+        }
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        store.clear(collection());
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        if (sort.isSorted()) {
+            throw unsupported("Sorted reads are");
+        }
+        return findAll();
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        if (pageable.getSort().isSorted()) {
+            throw unsupported("Sorted reads are");
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll());
+        }
+        List<byte[]> page = new ArrayList<>(pageable.getPageSize());
+        long total = store.read(() -> {
+            collection().documents.values().stream()
+                    .skip(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .forEach(entry -> page.add(entry.bytes));
+            return (long) collection().size();
+        });
+        return new PageImpl<>(decodeAll(page), pageable, total);
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw unsupported("Query by example is");
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw unsupported("Query by example is");
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw unsupported("Query by example is");
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw unsupported("Query by example is");
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw unsupported("Query by example is");
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw unsupported("Query by example is");
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw unsupported("Query by example is");
+    }
+
+    /**
+     * Looks up documents by id, skipping ids that don't exist.
+     */
+    protected List<T> findAllByIdIn(List<String> ids) {
+        return decodeAll(store.read(() -> {
+            List<byte[]> found = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                byte[] bytes = collection().bytes(id);
+                if (bytes != null) {
+                    found.add(bytes);
+                }
+            }
+            return found;
+        }));
+    }
+
+    /**
+     * Like {@link #findAllByIdIn}, but each document is only decoded when the stream reaches it,
+     * so a large result holds references to the stored bytes rather than decoded documents.
+     */
+    protected Stream<T> streamAllByIdIn(List<String> ids) {
+        List<byte[]> found = store.read(() -> {
+            List<byte[]> bytes = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                byte[] document = collection().bytes(id);
+                if (document != null) {
+                    bytes.add(document);
+                }
+            }
+            return bytes;
+        });
+        return found.stream().map(collection()::decode);
+    }
+
+    /**
+     * Decodes outside the lock; stored bytes are never modified, only replaced.
+     */
+    protected List<T> decodeAll(List<byte[]> encoded) {
+        List<T> documents = new ArrayList<>(encoded.size());
+        encoded.forEach(bytes -> documents.add(collection().decode(bytes)));
+        return documents;
+    }
+
+    protected T decode(byte[] bytes) {
+        return bytes != null ? collection().decode(bytes) : null;
+    }
+
+    protected String ensureId(T document) {
+        if (idOf(document) == null) {
+            assignId(document, new ObjectId().toHexString());
+        }
+        return idOf(document);
+    }
+
+    private static <S> List<S> toList(Iterable<S> iterable) {
+        return StreamSupport.stream(iterable.spliterator(), false).collect(Collectors.toList());
+    }
+
+    private UnsupportedOperationException unsupported(String what) {
+        return new UnsupportedOperationException(what + " not supported by the embedded store");
+    }
+}
@@ -0,0 +1,209 @@
+package com.supplychain.repository.embedded;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only write-ahead log made of numbered, preallocated segment files
+ * written through a memory mapping.
+ *
+ * A record is in the page cache as soon as {@link #append} returns, so it survives
+ * a process crash; {@link #force} makes it survive a power loss as well.
+ * Not thread safe: the store serializes all calls except {@link #force} and
+ * {@link #deleteSegmentsBefore}, which don't touch the segment being written.
+ */
+final class AppendLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AppendLog.class);
+
+    private static final String PREFIX = "log-";
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentSize;
+
+    private long sequence;
+    private FileChannel channel;
+    // Read without the store's lock by the periodic flush
+    private volatile MappedByteBuffer buffer;
+    private long bytesSinceRotation;
+
+    AppendLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Replays every segment numbered {@code fromSequence} or later, oldest first, then
+     * opens a fresh segment for appending.
+     *
+     * A torn record at the end of the newest segment (a write cut off by a crash) is
+     * dropped and the segment truncated to its last complete record. Damage anywhere
+     * else would silently lose committed writes, so it fails recovery instead.
+     * @return The number of records replayed.
+     */
+    long open(long fromSequence, Consumer<LogRecord> replay) throws IOException {
+        List<Long> segments = segments();
+        long replayed = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            long segment = segments.get(i);
+            if (segment < fromSequence) {
+                continue;
+            }
+            Path file = segmentFile(segment);
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+            LogRecord record;
+            while ((record = LogRecord.readFrom(data)) != null) {
+                replay.accept(record);
+                replayed++;
+            }
+            boolean newest = i == segments.size() - 1;
+            if (!isZeroFilled(data)) {
+                if (!newest) {
+                    throw new IOException("Corrupt record in " + file + " at offset " + data.position());
+                }
+                log.warn("Dropping torn record at the end of {} (offset {})", file, data.position());
+            }
+            if (newest) {
+                try (FileChannel truncate = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    truncate.truncate(data.position());
+                }
+            }
+        }
+        long latest = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+        sequence = Math.max(latest, fromSequence - 1);
+        rotate();
+        return replayed;
+    }
+
+    /**
+     * Appends a record to the current segment, starting a new one when it is full.
+     */
+    void append(LogRecord record) throws IOException {
+        int size = record.size();
+        // Leave room for a zero length word so readers can tell where the data ends
+        if (buffer.remaining() < size + 4) {
+            rotate(size + 4);
+        }
+        record.writeTo(buffer);
+        bytesSinceRotation += size;
+    }
+
+    /**
+     * Starts a new segment; records appended after this go into it.
+     * @return The new segment's sequence number.
+     */
+    long rotate() throws IOException {
+        return rotate(0);
+    }
+
+    private long rotate(int minimumSize) throws IOException {
+        closeSegment();
+        sequence++;
+        channel = FileChannel.open(segmentFile(sequence),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, minimumSize));
+        bytesSinceRotation = 0;
+        return sequence;
+    }
+
+    /**
+     * Flushes the current segment's mapped pages to disk.
+     */
+    void force() {
+        MappedByteBuffer current = buffer;
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    /**
+     * Deletes segments that a snapshot has made redundant.
+     * Files that can't be deleted yet (still mapped on some platforms) are retried next time.
+     */
+    void deleteSegmentsBefore(long sequence) throws IOException {
+        for (long segment : segments()) {
+            if (segment < sequence) {
+                try {
+                    Files.deleteIfExists(segmentFile(segment));
+                } catch (IOException e) {
+                    log.debug("Could not delete log segment {} yet: {}", segment, e.getMessage());
+                }
+            }
+        }
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    /**
+     * @return The number of the oldest segment on disk, or 0 if there is none.
+     */
+    long oldestSegment() throws IOException {
+        List<Long> segments = segments();
+        return segments.isEmpty() ? 0 : segments.get(0);
+    }
+
+    long bytesSinceRotation() {
+        return bytesSinceRotation;
+    }
+
+    void close() throws IOException {
+        closeSegment();
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            // Trim the preallocated tail so a closed segment holds only records
+            int written = buffer.position();
+            buffer = null;
+            try {
+                channel.truncate(written);
+            } catch (IOException e) {
+                // Some platforms refuse to truncate a mapped file; readers stop at the zero tail anyway
+                log.debug("Could not trim log segment {}: {}", sequence, e.getMessage());
+            }
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private List<Long> segments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private Path segmentFile(long sequence) {
+        return directory.resolve(String.format("%s%016d%s", PREFIX, sequence, SUFFIX));
+    }
+
+    private static boolean isZeroFilled(ByteBuffer data) {
+        for (int i = data.position(); i < data.limit(); i++) {
+            if (data.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,167 @@
+package com.supplychain.repository.embedded;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * One collection of the embedded store: documents keyed by id in id order, like the
+ * {@code _id} index, plus whatever secondary indexes the subclass maintains.
+ *
+ * Documents are held in their encoded form, so nothing handed out to callers can change
+ * stored state, and a snapshot only has to copy references. Each document also keeps a
+ * small row of the fields its indexes need, so updates never decode the previous version.
+ * Callers hold the store's lock: the read lock for lookups, the write lock for changes.
+ * @param <T> The document type.
+ * @param <R> The row of indexed fields kept per document.
+ */
+abstract class EmbeddedCollection<T, R> {
+
+    static final class Entry<R> {
+        final byte[] bytes;
+        final R row;
+
+        Entry(byte[] bytes, R row) {
+            this.bytes = bytes;
+            this.row = row;
+        }
+    }
+
+    final byte code;
+    final String name;
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    protected final TreeMap<String, Entry<R>> documents = new TreeMap<>();
+
+    EmbeddedCollection(byte code, String name, Class<T> type, ObjectMapper objectMapper) {
+        this.code = code;
+        this.name = name;
+        this.reader = objectMapper.readerFor(type);
+        this.writer = objectMapper.writerFor(type);
+    }
+
+    /**
+     * Extracts the fields the secondary indexes need.
+     */
+    protected abstract R row(T document);
+
+    protected abstract void index(String id, R row);
+
+    protected abstract void unindex(String id, R row);
+
+    protected abstract void clearIndexes();
+
+    /**
+     * Throws {@link DuplicateKeyException} if a row stored under {@code id} would break one of the
+     * unique indexes; collections without one accept every row.
+     */
+    protected void checkUnique(String id, R row) {
+    }
+
+    byte[] encode(T document) {
+        try {
+            return writer.writeValueAsBytes(document);
+        } catch (IOException e) {
+            throw new InvalidDataAccessApiUsageException("Could not encode " + name + " document", e);
+        }
+    }
+
+    T decode(byte[] bytes) {
+        try {
+            return reader.readValue(bytes);
+        } catch (IOException e) {
+            throw new DataRetrievalFailureException("Could not decode " + name + " document", e);
+        }
+    }
+
+    byte[] bytes(String id) {
+        Entry<R> entry = documents.get(id);
+        return entry != null ? entry.bytes : null;
+    }
+
+    R rowOf(String id) {
+        Entry<R> entry = documents.get(id);
+        return entry != null ? entry.row : null;
+    }
+
+    boolean contains(String id) {
+        return documents.containsKey(id);
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    /**
+     * Checks a write against the unique indexes. Called under the write lock before the write
+     * is logged, so a rejected write leaves nothing behind.
+     */
+    void checkWrite(String id, T document) {
+        checkUnique(id, row(document));
+    }
+
+    void put(String id, byte[] bytes, T document) {
+        R row = row(document);
+        Entry<R> previous = documents.put(id, new Entry<>(bytes, row));
+        if (previous != null) {
+            unindex(id, previous.row);
+        }
+        index(id, row);
+    }
+
+    boolean remove(String id) {
+        Entry<R> previous = documents.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        unindex(id, previous.row);
+        return true;
+    }
+
+    void clear() {
+        documents.clear();
+        clearIndexes();
+    }
+
+    /**
+     * Applies a record from the log or a snapshot.
+     */
+    void apply(LogRecord record) {
+        switch (record.op) {
+            case LogRecord.PUT -> put(record.id, record.payload, decode(record.payload));
+            case LogRecord.DELETE -> remove(record.id);
+            case LogRecord.CLEAR -> clear();
+            default -> throw new IllegalStateException("Unknown log operation " + record.op);
+        }
+    }
+
+    /**
+     * Removes an id from a multi-valued index, dropping the key once it has no ids left.
+     */
+    protected static <K> void removeFrom(Map<K, Set<String>> index, K key, String id) {
+        Set<String> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * The encoded documents in id order, for writing a snapshot.
+     */
+    List<Map.Entry<String, byte[]>> encodedDocuments() {
+        List<Map.Entry<String, byte[]>> copy = new ArrayList<>(documents.size());
+        documents.forEach((id, entry) -> copy.add(Map.entry(id, entry.bytes)));
+        return copy;
+    }
+}
@@ -0,0 +1,190 @@
+package com.supplychain.repository.embedded;
+
+import com.supplychain.model.BulkWriteSummary;
+import com.supplychain.model.Item;
+import com.supplychain.repository.ItemRepository;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * {@link ItemRepository} backed by the embedded store
+ */
+@Repository
+@Profile("embedded")
+class EmbeddedItemRepository extends AbstractEmbeddedRepository<Item> implements ItemRepository {
+
+    @Override
+    protected ItemCollection collection() {
+        return store.items();
+    }
+
+    @Override
+    protected String idOf(Item item) {
+        return item.getId();
+    }
+
+    @Override
+    protected void assignId(Item item, String id) {
+        item.setId(id);
+    }
+
+    @Override
+    public List<Item> findByQuantityLessThanEqual(int threshold) {
+        return findAllByIdIn(store.read(() -> collection().idsWithQuantityAtMost(threshold)));
+    }
+
+    @Override
+    public List<Item> findByQuantity(int quantity) {
+        return findAllByIdIn(store.read(() -> collection().idsWithQuantity(quantity)));
+    }
+
+    @Override
+    public List<Item> findTop32ByUpdatedAtNotNullOrderByUpdatedAtDesc() {
+        return findAllByIdIn(store.read(() -> collection().newestUpdated(32)));
+    }
+
+    @Override
+    public List<Item> findBySkuIn(Collection<String> skus) {
+        return findAllByIdIn(store.read(() -> collection().idsBySku(skus)));
+    }
+
+    @Override
+    public Item incrementQuantity(String id, int delta) {
+        return store.write(() -> {
+            Item item = decode(collection().bytes(id));
+            if (item == null || delta < 0 && item.getQuantity() < -delta) {
+                return null;
+            }
+            item.setQuantity(item.getQuantity() + delta);
+            item.setVersion(item.getVersion() + 1);
+            item.setUpdatedAt(LocalDateTime.now());
+            store.put(collection(), id, item);
+            return item;
+        });
+    }
+
+    @Override
+    public Item replaceQuantity(String id, int quantity) {
+        return store.write(() -> {
+            byte[] before = collection().bytes(id);
+            if (before == null) {
+                return null;
+            }
+            Item item = decode(before);
+            item.setQuantity(quantity);
+            item.setVersion(item.getVersion() + 1);
+            item.setUpdatedAt(LocalDateTime.now());
+            store.put(collection(), id, item);
+            return decode(before);
+        });
+    }
+
+    @Override
+    public Item updateFields(String id, Long expectedVersion, Map<String, Object> fields) {
+        return store.write(() -> {
+            byte[] before = collection().bytes(id);
+            if (before == null) {
+                return null;
+            }
+            Item item = decode(before);
+            if (expectedVersion != null && item.getVersion() != expectedVersion) {
+                return null;
+            }
+            PropertyAccessorFactory.forBeanPropertyAccess(item).setPropertyValues(fields);
+            item.setVersion(item.getVersion() + 1);
+            store.put(collection(), id, item);
+            return decode(before);
+        });
+    }
+
+    @Override
+    public Item replace(Item item) {
+        String id = ensureId(item);
+        return store.write(() -> {
+            Item before = decode(collection().bytes(id));
+            if (before != null) {
+                item.setVersion(before.getVersion() + 1);
+            }
+            store.put(collection(), id, item);
+            return before;
+        });
+    }
+
+    @Override
+    public List<Item> findPage(String afterId, String category, String supplier, int limit) {
+        return findAllByIdIn(store.read(() -> collection().page(afterId, category, supplier, limit)));
+    }
+
+    @Override
+    public Stream<Item> streamAll(String category, String supplier) {
+        // Only references are copied under the lock; documents are decoded as the stream is consumed
+        List<byte[]> matching = store.read(() -> {
+            List<byte[]> bytes = new ArrayList<>();
+            collection().documents.values().forEach(entry -> {
+                if (ItemCollection.matches(entry.row, category, supplier)) {
+                    bytes.add(entry.bytes);
+                }
+            });
+            return bytes;
+        });
+        return matching.stream().map(collection()::decode);
+    }
+
+    @Override
+    public BulkWriteSummary upsertAllBySku(List<Item> items) {
+        LocalDateTime now = LocalDateTime.now();
+        return store.write(() -> {
+            int inserted = 0;
+            int modified = 0;
+            Map<Integer, String> failures = new HashMap<>();
+            for (int i = 0; i < items.size(); i++) {
+                Item item = items.get(i);
+                if (item.getSku() == null) {
+                    failures.put(i, "sku is required");
+                    continue;
+                }
+                String existingId = collection().firstIdBySku(item.getSku());
+                Item target;
+                if (existingId != null) {
+                    target = decode(collection().bytes(existingId));
+                } else {
+                    target = new Item();
+                    ensureId(target);
+                    target.setSku(item.getSku());
+                    target.setCreatedAt(now);
+                }
+                target.setName(item.getName());
+                target.setCategory(item.getCategory());
+                target.setQuantity(item.getQuantity());
+                target.setMinQuantity(item.getMinQuantity());
+                target.setPrice(item.getPrice());
+                target.setSupplier(item.getSupplier());
+                target.setLocation(item.getLocation());
+                target.setUpdatedAt(now);
+                target.setVersion(target.getVersion() + 1);
+                try {
+                    store.put(collection(), target.getId(), target);
+                } catch (DuplicateKeyException e) {
+                    failures.put(i, e.getMessage());
+                    continue;
+                }
+                if (existingId != null) {
+                    modified++;
+                } else {
+                    inserted++;
+                }
+            }
+            return new BulkWriteSummary(inserted, modified, failures);
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package com.supplychain.repository.embedded;
+
+import com.supplychain.model.LocationStock;
+import com.supplychain.repository.LocationStockRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@link LocationStockRepository} backed by the embedded store
+ */
+@Repository
+@Profile("embedded")
+class EmbeddedLocationStockRepository extends AbstractEmbeddedRepository<LocationStock> implements LocationStockRepository {
+
+    @Override
+    protected StockCollection collection() {
+        return store.stock();
+    }
+
+    @Override
+    protected String idOf(LocationStock stock) {
+        return stock.getId();
+    }
+
+    @Override
+    protected void assignId(LocationStock stock, String id) {
+        stock.setId(id);
+    }
+
+    @Override
+    public LocationStock increment(String itemId, String location, int delta) {
+        String id = LocationStock.id(itemId, location);
+        return store.write(() -> {
+            LocationStock stock = decode(collection().bytes(id));
+            if (stock == null) {
+                if (delta < 0) {
+                    return null;
+                }
+                stock = new LocationStock(itemId, location, 0);
+            } else if (delta < 0 && stock.getQuantity() < -delta) {
+                return null;
+            }
+            stock.setQuantity(stock.getQuantity() + delta);
+            stock.setUpdatedAt(LocalDateTime.now());
+            store.put(collection(), id, stock);
+            return stock;
+        });
+    }
+
+    @Override
+    public LocationStock replaceQuantity(String itemId, String location, int quantity) {
+        String id = LocationStock.id(itemId, location);
+        return store.write(() -> {
+            LocationStock previous = decode(collection().bytes(id));
+            LocationStock stock = new LocationStock(itemId, location, quantity);
+            stock.setUpdatedAt(LocalDateTime.now());
+            store.put(collection(), id, stock);
+            return previous;
+        });
+    }
+
+    @Override
+    public List<LocationStock> findByItem(String itemId) {
+        return findAllByIdIn(store.read(() -> collection().idsOfItem(itemId)));
+    }
+
+    @Override
+    public List<LocationStock> findPageByLocation(String location, String afterId, int limit) {
+        return findAllByIdIn(store.read(() -> collection().pageByLocation(location, afterId, limit)));
+    }
+
+    @Override
+    public Stream<LocationStock> streamAll() {
+        // Only references are copied under the lock; documents are decoded as the stream is consumed
+        List<byte[]> all = store.read(() -> {
+            List<byte[]> bytes = new ArrayList<>(collection().size());
+            collection().documents.values().forEach(entry -> bytes.add(entry.bytes));
+            return bytes;
+        });
+        return all.stream().map(collection()::decode);
+    }
+
+    @Override
+    public long deleteByItem(String itemId) {
+        return store.write(() -> {
+            List<String> ids = collection().idsOfItem(itemId);
+            ids.forEach(id -> store.remove(collection(), id));
+            return (long) ids.size();
+        });
+    }
+}
@@ -0,0 +1,143 @@
+package com.supplychain.repository.embedded;
+
+import com.supplychain.model.BulkWriteSummary;
+import com.supplychain.model.Order;
+import com.supplychain.model.OrderSummary;
+import com.supplychain.repository.OrderRepository;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * {@link OrderRepository} backed by the embedded store
+ */
+@Repository
+@Profile("embedded")
+class EmbeddedOrderRepository extends AbstractEmbeddedRepository<Order> implements OrderRepository {
+
+    @Override
+    protected OrderCollection collection() {
+        return store.orders();
+    }
+
+    @Override
+    protected String idOf(Order order) {
+        return order.getId();
+    }
+
+    @Override
+    protected void assignId(Order order, String id) {
+        order.setId(id);
+    }
+
+    @Override
+    public long countByStatus(String status) {
+        return store.read(() -> collection().countByStatus(status));
+    }
+
+    @Override
+    public long countByPaymentStatus(String paymentStatus) {
+        return store.read(() -> collection().countByPaymentStatus(paymentStatus));
+    }
+
+    @Override
+    public List<Order> findPage(LocalDate afterDate, String afterId, String status, String paymentStatus, int limit) {
+        return findAllByIdIn(store.read(() -> collection().page(afterDate, afterId, status, paymentStatus, limit)));
+    }
+
+    @Override
+    public Stream<Order> streamAll(String status, String paymentStatus) {
+        return streamAllByIdIn(store.read(() -> collection().page(null, null, status, paymentStatus, Integer.MAX_VALUE)));
+    }
+
+    @Override
+    public Stream<Order> streamByOrderDate(LocalDate from, LocalDate until) {
+        return streamAllByIdIn(store.read(() -> collection().idsByOrderDate(from, until)));
+    }
+
+    @Override
+    public LocalDate findEarliestOrderDate() {
+        return store.read(() -> collection().earliestOrderDate());
+    }
+
+    @Override
+    public LocalDate findLatestOrderDate() {
+        return store.read(() -> collection().latestOrderDate());
+    }
+
+    @Override
+    public Optional<Order> findByIdempotencyKey(String idempotencyKey) {
+        return Optional.ofNullable(decode(store.read(() -> {
+            String id = collection().idByIdempotencyKey(idempotencyKey);
+            return id != null ? collection().bytes(id) : null;
+        })));
+    }
+
+    @Override
+    public OrderSummary summarize() {
+        return store.read(() -> collection().summary());
+    }
+
+    @Override
+    public Order deleteAndReturn(String id) {
+        return store.write(() -> {
+            byte[] bytes = collection().bytes(id);
+            if (bytes == null) {
+                return null;
+            }
+            store.remove(collection(), id);
+            return decode(bytes);
+        });
+    }
+
+    @Override
+    public Order updateFields(String id, Long expectedVersion, Pattern unlessStatus, Map<String, Object> fields) {
+        return store.write(() -> {
+            byte[] before = collection().bytes(id);
+            if (before == null) {
+                return null;
+            }
+            Order order = decode(before);
+            if (expectedVersion != null && order.getVersion() != expectedVersion
+                    || unlessStatus != null && order.getStatus() != null && unlessStatus.matcher(order.getStatus()).matches()) {
+                return null;
+            }
+            PropertyAccessorFactory.forBeanPropertyAccess(order).setPropertyValues(fields);
+            order.setVersion(order.getVersion() + 1);
+            store.put(collection(), id, order);
+            return decode(before);
+        });
+    }
+
+    @Override
+    public BulkWriteSummary bulkInsert(List<Order> orders) {
+        return store.write(() -> {
+            int inserted = 0;
+            Map<Integer, String> failures = new HashMap<>();
+            for (int i = 0; i < orders.size(); i++) {
+                Order order = orders.get(i);
+                String id = ensureId(order);
+                if (collection().contains(id)) {
+                    failures.put(i, "Duplicate key in orders: _id " + id);
+                    continue;
+                }
+                try {
+                    store.put(collection(), id, order);
+                    inserted++;
+                } catch (DuplicateKeyException e) {
+                    failures.put(i, e.getMessage());
+                }
+            }
+            return new BulkWriteSummary(inserted, 0, failures);
+        });
+    }
+}
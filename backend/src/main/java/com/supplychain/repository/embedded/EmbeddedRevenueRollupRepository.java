@@ -0,0 +1,91 @@
+package com.supplychain.repository.embedded;
+
+import com.supplychain.model.RevenueRollup;
+import com.supplychain.repository.RevenueRollupRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link RevenueRollupRepository} backed by the embedded store
+ */
+@Repository
+@Profile("embedded")
+class EmbeddedRevenueRollupRepository extends AbstractEmbeddedRepository<RevenueRollup> implements RevenueRollupRepository {
+
+    @Override
+    protected RollupCollection collection() {
+        return store.rollups();
+    }
+
+    @Override
+    protected String idOf(RevenueRollup rollup) {
+        return rollup.getId();
+    }
+
+    @Override
+    protected void assignId(RevenueRollup rollup, String id) {
+        rollup.setId(id);
+    }
+
+    @Override
+    public void increment(Collection<RevenueRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // Read-modify-write of every bucket under one write lock, like the server-side $inc
+        store.write(() -> {
+            List<String> ids = new ArrayList<>(deltas.size());
+            List<RevenueRollup> buckets = new ArrayList<>(deltas.size());
+            for (RevenueRollup delta : deltas) {
+                RevenueRollup bucket = decode(collection().bytes(delta.getId()));
+                if (bucket == null) {
+                    bucket = new RevenueRollup(delta.getGranularity(), delta.getDimension(),
+                            delta.getPeriodStart(), delta.getKey());
+                }
+                bucket.add(delta.getRevenue(), delta.getUnits(), delta.getOrders());
+                ids.add(bucket.getId());
+                buckets.add(bucket);
+            }
+            store.putAll(collection(), ids, buckets);
+            return null;
+        });
+    }
+
+    @Override
+    public List<RevenueRollup> findBuckets(String granularity, String dimension, LocalDate from, LocalDate to) {
+        return decodeAll(store.read(() -> collection().range(
+                RevenueRollup.id(granularity, dimension, from, ""),
+                RevenueRollup.id(granularity, dimension, to.plusDays(1), ""))));
+    }
+
+    @Override
+    public void replaceAll(List<RevenueRollup> buckets) {
+        saveAll(buckets);
+    }
+
+    @Override
+    public long deleteOtherGenerations(String generation) {
+        return store.write(() -> {
+            List<String> ids = collection().idsOutsideGeneration(generation);
+            ids.forEach(id -> store.remove(collection(), id));
+            return (long) ids.size();
+        });
+    }
+
+    @Override
+    public String claimWriterLease(String owner, Instant until) {
+        // The store belongs to this process alone, so this node is always the writer
+        return owner;
+    }
+
+    @Override
+    public void releaseWriterLease(String owner) {
+        // Never contended, see claimWriterLease
+    }
+}
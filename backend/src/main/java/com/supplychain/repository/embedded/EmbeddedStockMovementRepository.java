@@ -0,0 +1,36 @@
+package com.supplychain.repository.embedded;
+
+import com.supplychain.model.StockMovement;
+import com.supplychain.repository.StockMovementRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * {@link StockMovementRepository} backed by the embedded store
+ */
+@Repository
+@Profile("embedded")
+class EmbeddedStockMovementRepository extends AbstractEmbeddedRepository<StockMovement> implements StockMovementRepository {
+
+    @Override
+    protected MovementCollection collection() {
+        return store.movements();
+    }
+
+    @Override
+    protected String idOf(StockMovement movement) {
+        return movement.getId();
+    }
+
+    @Override
+    protected void assignId(StockMovement movement, String id) {
+        movement.setId(id);
+    }
+
+    @Override
+    public List<StockMovement> findTop100ByItemIdOrderByTimestampDesc(String itemId) {
+        return findAllByIdIn(store.read(() -> collection().newestForItem(itemId, 100)));
+    }
+}
@@ -0,0 +1,530 @@
+package com.supplychain.repository.embedded;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Embedded storage engine used instead of MongoDB under the "embedded" profile.
+ *
+ * All documents live in memory. Every write is appended to a memory-mapped log before
+ * it becomes visible, and the log is flushed to disk every {@code embedded.sync-interval-ms}.
+ * Snapshots of the whole store are written in the background so that recovery only
+ * replays the log written since the latest one, and older log segments can be deleted.
+ * A new snapshot is read back before anything is deleted, and the one before it is kept
+ * together with the log written since, so a newest snapshot that can't be read at startup
+ * falls back to it. If that fallback would miss log that is already gone, startup fails.
+ *
+ * Writes are serialized by one lock, which also keeps the log in the order changes were
+ * applied; lookups share a read lock.
+ */
+@Component
+@Profile("embedded")
+public class EmbeddedStore implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedStore.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x53434d53; // "SCMS"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    @Value("${embedded.data-dir:data/embedded}")
+    private String dataDir;
+
+    @Value("${embedded.log-segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${embedded.snapshot-interval-ms:300000}")
+    private long snapshotIntervalMs;
+
+    @Value("${embedded.snapshot-log-size-mb:256}")
+    private long snapshotLogSizeMb;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            // Persist fields like the Mongo mapping does, not computed getters
+            .visibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .visibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final ItemCollection items = new ItemCollection(objectMapper);
+    private final OrderCollection orders = new OrderCollection(objectMapper);
+    private final MovementCollection movements = new MovementCollection(objectMapper);
+    private final RollupCollection rollups = new RollupCollection(objectMapper);
+    private final StockCollection stock = new StockCollection(objectMapper);
+    private final List<EmbeddedCollection<?, ?>> collections = List.of(items, orders, movements, rollups, stock);
+
+    private final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "embedded-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+
+    private Path directory;
+    private volatile AppendLog appendLog;
+    private long bytesSinceSnapshot;
+    private volatile Instant lastSnapshot;
+    private volatile long snapshotClock;
+    private volatile String failure;
+
+    @PostConstruct
+    void open() throws IOException {
+        directory = Paths.get(dataDir).toAbsolutePath();
+        Files.createDirectories(directory);
+        long started = System.nanoTime();
+        appendLog = new AppendLog(directory, segmentSizeMb * 1024 * 1024);
+        long snapshotSequence = loadLatestSnapshot();
+        long replayed = appendLog.open(snapshotSequence, record -> {
+            apply(record);
+            bytesSinceSnapshot += record.size();
+        });
+        deleteBeforePrevious(snapshotSequence);
+        snapshotClock = System.currentTimeMillis();
+        log.info("Embedded store opened in {} ms from {}: {} items, {} orders, {} stock movements, {} revenue buckets,"
+                        + " {} location stocks ({} log records replayed)",
+                (System.nanoTime() - started) / 1_000_000, directory,
+                items.size(), orders.size(), movements.size(), rollups.size(), stock.size(), replayed);
+    }
+
+    @PreDestroy
+    void close() throws IOException, InterruptedException {
+        snapshotWriter.shutdown();
+        snapshotWriter.awaitTermination(1, TimeUnit.MINUTES);
+        lock.writeLock().lock();
+        try {
+            if (bytesSinceSnapshot > 0) {
+                // A snapshot on shutdown makes the next start a plain load with nothing to replay
+                writeSnapshot(appendLog.rotate(), copyDocuments());
+            }
+            appendLog.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    ItemCollection items() {
+        return items;
+    }
+
+    OrderCollection orders() {
+        return orders;
+    }
+
+    MovementCollection movements() {
+        return movements;
+    }
+
+    RollupCollection rollups() {
+        return rollups;
+    }
+
+    StockCollection stock() {
+        return stock;
+    }
+
+    ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Runs a lookup under the read lock.
+     */
+    <X> X read(Supplier<X> lookup) {
+        lock.readLock().lock();
+        try {
+            return lookup.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a read-modify-write sequence atomically with respect to all other writes.
+     */
+    <X> X write(Supplier<X> change) {
+        lock.writeLock().lock();
+        try {
+            return change.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Logs and applies a document write. The document is encoded before the lock is taken.
+     */
+    <T> void put(EmbeddedCollection<T, ?> collection, String id, T document) {
+        byte[] bytes = collection.encode(document);
+        lock.writeLock().lock();
+        try {
+            collection.checkWrite(id, document);
+            append(new LogRecord(LogRecord.PUT, collection.code, id, bytes));
+            collection.put(id, bytes, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Logs and applies a batch of document writes under one lock acquisition.
+     */
+    <T> void putAll(EmbeddedCollection<T, ?> collection, List<String> ids, List<T> documents) {
+        List<byte[]> encoded = new ArrayList<>(documents.size());
+        documents.forEach(document -> encoded.add(collection.encode(document)));
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < documents.size(); i++) {
+                // Each after the ones before it are applied, so duplicates within the batch are caught
+                collection.checkWrite(ids.get(i), documents.get(i));
+                append(new LogRecord(LogRecord.PUT, collection.code, ids.get(i), encoded.get(i)));
+                collection.put(ids.get(i), encoded.get(i), documents.get(i));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Logs and applies a delete.
+     * @return True if the document existed.
+     */
+    boolean remove(EmbeddedCollection<?, ?> collection, String id) {
+        lock.writeLock().lock();
+        try {
+            if (!collection.contains(id)) {
+                return false;
+            }
+            append(new LogRecord(LogRecord.DELETE, collection.code, id, null));
+            return collection.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear(EmbeddedCollection<?, ?> collection) {
+        lock.writeLock().lock();
+        try {
+            append(new LogRecord(LogRecord.CLEAR, collection.code, "", null));
+            collection.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes the log to disk. Between flushes, writes survive a process crash
+     * but not a power loss.
+     */
+    @Scheduled(fixedDelayString = "${embedded.sync-interval-ms:200}")
+    public void sync() {
+        AppendLog current = appendLog;
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    /**
+     * Starts a background snapshot when enough log has built up or enough time has passed.
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void snapshotIfDue() {
+        boolean due;
+        lock.readLock().lock();
+        try {
+            long sinceLast = System.currentTimeMillis() - snapshotClock;
+            due = bytesSinceSnapshot >= snapshotLogSizeMb * 1024 * 1024
+                    || (bytesSinceSnapshot > 0 && sinceLast >= snapshotIntervalMs);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (due) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Captures the current state and writes it out on the snapshot thread.
+     * Only the copy of document references happens under the write lock.
+     */
+    public void snapshot() {
+        if (!snapshotRunning.compareAndSet(false, true)) {
+            return;
+        }
+        long sequence;
+        List<List<Map.Entry<String, byte[]>>> state;
+        lock.writeLock().lock();
+        try {
+            sequence = appendLog.rotate();
+            state = copyDocuments();
+            bytesSinceSnapshot = 0;
+        } catch (IOException e) {
+            snapshotRunning.set(false);
+            throw failed("Could not start a snapshot", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        snapshotWriter.execute(() -> {
+            try {
+                writeSnapshot(sequence, state);
+            } catch (IOException e) {
+                failure = "Snapshot failed: " + e.getMessage();
+                log.error("Embedded store snapshot {} failed", sequence, e);
+            } finally {
+                snapshotRunning.set(false);
+            }
+        });
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = failure == null ? Health.up() : Health.down().withDetail("error", failure);
+        return read(() -> health
+                .withDetail("items", items.size())
+                .withDetail("orders", orders.size())
+                .withDetail("stockMovements", movements.size())
+                .withDetail("revenueBuckets", rollups.size())
+                .withDetail("locationStocks", stock.size())
+                .withDetail("logSegment", appendLog.sequence())
+                .withDetail("lastSnapshot", lastSnapshot != null ? lastSnapshot.toString() : "none")
+                .build());
+    }
+
+    private void append(LogRecord record) {
+        try {
+            appendLog.append(record);
+            bytesSinceSnapshot += record.size();
+        } catch (IOException e) {
+            throw failed("Could not append to the embedded store log", e);
+        }
+    }
+
+    private void apply(LogRecord record) {
+        for (EmbeddedCollection<?, ?> collection : collections) {
+            if (collection.code == record.collection) {
+                collection.apply(record);
+                return;
+            }
+        }
+        throw new IllegalStateException("Unknown collection " + record.collection);
+    }
+
+    private List<List<Map.Entry<String, byte[]>>> copyDocuments() {
+        List<List<Map.Entry<String, byte[]>>> state = new ArrayList<>(collections.size());
+        collections.forEach(collection -> state.add(collection.encodedDocuments()));
+        return state;
+    }
+
+    private void writeSnapshot(long sequence, List<List<Map.Entry<String, byte[]>>> state) throws IOException {
+        long started = System.nanoTime();
+        Path target = snapshotFile(sequence);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+            buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putLong(sequence);
+            for (int i = 0; i < collections.size(); i++) {
+                byte code = collections.get(i).code;
+                for (Map.Entry<String, byte[]> document : state.get(i)) {
+                    LogRecord record = new LogRecord(LogRecord.PUT, code, document.getKey(), document.getValue());
+                    if (buffer.remaining() < record.size()) {
+                        drain(channel, buffer);
+                        if (buffer.capacity() < record.size()) {
+                            buffer = ByteBuffer.allocate(record.size());
+                        }
+                    }
+                    record.writeTo(buffer);
+                    count++;
+                }
+            }
+            if (buffer.remaining() < 12) {
+                drain(channel, buffer);
+            }
+            // A zero length ends the records; the count guards against a truncated file
+            buffer.putInt(0).putLong(count);
+            drain(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        try {
+            readSnapshot(target, record -> { });
+        } catch (IOException e) {
+            // The snapshot before it and the log since stay the recovery point
+            Files.deleteIfExists(target);
+            throw new IOException("Snapshot " + sequence + " did not read back", e);
+        }
+        lastSnapshot = Instant.now();
+        snapshotClock = lastSnapshot.toEpochMilli();
+        failure = null;
+        deleteBeforePrevious(sequence);
+        log.info("Embedded store snapshot {} written: {} documents in {} ms",
+                sequence, count, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Loads the newest snapshot that reads back completely, falling back to older ones as long
+     * as the log written since the one loaded is still there.
+     * @return The log sequence the snapshot was taken at, or 0 if there is none.
+     * @throws IOException If no snapshot can be loaded without losing writes.
+     */
+    private long loadLatestSnapshot() throws IOException {
+        List<Long> sequences = snapshotSequences();
+        List<Path> unreadable = new ArrayList<>();
+        long loaded = 0;
+        for (int i = sequences.size() - 1; i >= 0; i--) {
+            Path file = snapshotFile(sequences.get(i));
+            try {
+                readSnapshot(file, this::apply);
+                lastSnapshot = Files.getLastModifiedTime(file).toInstant();
+                loaded = sequences.get(i);
+                break;
+            } catch (IOException e) {
+                log.warn("Skipping unreadable snapshot {}: {}", file, e.getMessage());
+                unreadable.add(file);
+                collections.forEach(EmbeddedCollection::clear);
+            }
+        }
+        if (unreadable.isEmpty()) {
+            return loaded;
+        }
+        long oldest = appendLog.oldestSegment();
+        if (oldest == 0 || oldest > Math.max(loaded, 1)) {
+            collections.forEach(EmbeddedCollection::clear);
+            throw new IOException("Snapshot " + unreadable.get(0) + " is unreadable and the log since "
+                    + (loaded > 0 ? "snapshot " + loaded : "the start") + " is no longer there");
+        }
+        // Set aside, so they are neither tried again nor taken for the snapshot to fall back to
+        for (Path file : unreadable) {
+            Files.move(file, file.resolveSibling(file.getFileName() + ".unreadable"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return loaded;
+    }
+
+    /**
+     * Deletes the snapshots and log segments from before the snapshot preceding {@code sequence},
+     * which is kept with the log since as the fallback.
+     */
+    private void deleteBeforePrevious(long sequence) throws IOException {
+        long previous = 0;
+        for (long older : snapshotSequences()) {
+            if (older < sequence) {
+                previous = older;
+            }
+        }
+        deleteSnapshotsBefore(previous);
+        appendLog.deleteSegmentsBefore(previous);
+    }
+
+    private void readSnapshot(Path file, Consumer<LogRecord> consumer) throws IOException {
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file), 1 << 20);
+             DataInputStream in = new DataInputStream(stream)) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not a snapshot file");
+            }
+            in.readLong();
+            long count = 0;
+            while (true) {
+                int length = in.readInt();
+                if (length == 0) {
+                    break;
+                }
+                ByteBuffer recordBuffer = ByteBuffer.allocate(LogRecord.HEADER_SIZE + length);
+                recordBuffer.putInt(length);
+                in.readFully(recordBuffer.array(), 4, recordBuffer.capacity() - 4);
+                LogRecord record = LogRecord.readFrom(recordBuffer.rewind());
+                if (record == null) {
+                    throw new IOException("Corrupt record " + count);
+                }
+                consumer.accept(record);
+                count++;
+            }
+            if (in.readLong() != count) {
+                throw new IOException("Record count mismatch");
+            }
+        } catch (EOFException e) {
+            throw new IOException("Snapshot is truncated", e);
+        }
+    }
+
+    private void deleteSnapshotsBefore(long sequence) throws IOException {
+        for (long older : snapshotSequences()) {
+            if (older < sequence) {
+                Files.deleteIfExists(snapshotFile(older));
+            }
+        }
+    }
+
+    private List<Long> snapshotSequences() throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                sequences.add(Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length())));
+            }
+        }
+        sequences.sort(null);
+        return sequences;
+    }
+
+    private Path snapshotFile(long sequence) {
+        return directory.resolve(String.format("%s%016d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+    }
+
+    private DataAccessResourceFailureException failed(String message, IOException cause) {
+        failure = message + ": " + cause.getMessage();
+        return new DataAccessResourceFailureException(message, cause);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,138 @@
+package com.supplychain.repository.embedded;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplychain.model.Item;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Items, indexed by SKU and by quantity. SKUs are unique, like the sparse unique index on the
+ * collection in MongoDB; logs written before that was enforced may still hold duplicates, which
+ * the SKU index keeps loading.
+ */
+final class ItemCollection extends EmbeddedCollection<Item, ItemCollection.Row> {
+
+    record Row(String sku, int quantity, String category, String supplier, LocalDateTime updatedAt) {}
+
+    private final Map<String, Set<String>> bySku = new HashMap<>();
+    private final TreeMap<Integer, Set<String>> byQuantity = new TreeMap<>();
+
+    ItemCollection(ObjectMapper objectMapper) {
+        super((byte) 1, "items", Item.class, objectMapper);
+    }
+
+    @Override
+    protected Row row(Item item) {
+        return new Row(item.getSku(), item.getQuantity(), item.getCategory(), item.getSupplier(), item.getUpdatedAt());
+    }
+
+    @Override
+    protected void checkUnique(String id, Row row) {
+        Set<String> ids = row.sku() == null ? null : bySku.get(row.sku());
+        if (ids != null && ids.stream().anyMatch(other -> !other.equals(id))) {
+            throw new DuplicateKeyException("Duplicate key in " + name + ": sku " + row.sku());
+        }
+    }
+
+    @Override
+    protected void index(String id, Row row) {
+        if (row.sku() != null) {
+            bySku.computeIfAbsent(row.sku(), sku -> new HashSet<>(2)).add(id);
+        }
+        byQuantity.computeIfAbsent(row.quantity(), quantity -> new HashSet<>()).add(id);
+    }
+
+    @Override
+    protected void unindex(String id, Row row) {
+        if (row.sku() != null) {
+            removeFrom(bySku, row.sku(), id);
+        }
+        removeFrom(byQuantity, row.quantity(), id);
+    }
+
+    @Override
+    protected void clearIndexes() {
+        bySku.clear();
+        byQuantity.clear();
+    }
+
+    List<String> idsBySku(Collection<String> skus) {
+        List<String> ids = new ArrayList<>();
+        for (String sku : new HashSet<>(skus)) {
+            ids.addAll(bySku.getOrDefault(sku, Set.of()));
+        }
+        return ids;
+    }
+
+    String firstIdBySku(String sku) {
+        Set<String> ids = bySku.get(sku);
+        return ids == null || ids.isEmpty() ? null : ids.iterator().next();
+    }
+
+    List<String> idsWithQuantityAtMost(int threshold) {
+        List<String> ids = new ArrayList<>();
+        byQuantity.headMap(threshold, true).values().forEach(ids::addAll);
+        return ids;
+    }
+
+    List<String> idsWithQuantity(int quantity) {
+        return new ArrayList<>(byQuantity.getOrDefault(quantity, Set.of()));
+    }
+
+    /**
+     * Ids of the most recently updated items, newest first.
+     */
+    List<String> newestUpdated(int limit) {
+        Comparator<Map.Entry<String, Entry<Row>>> oldestFirst = Comparator
+                .comparing((Map.Entry<String, Entry<Row>> e) -> e.getValue().row.updatedAt())
+                .thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+        PriorityQueue<Map.Entry<String, Entry<Row>>> newest = new PriorityQueue<>(limit + 1, oldestFirst);
+        for (Map.Entry<String, Entry<Row>> entry : documents.entrySet()) {
+            if (entry.getValue().row.updatedAt() == null) {
+                continue;
+            }
+            newest.add(entry);
+            if (newest.size() > limit) {
+                newest.poll();
+            }
+        }
+        List<String> ids = new ArrayList<>(newest.size());
+        while (!newest.isEmpty()) {
+            ids.add(0, newest.poll().getKey());
+        }
+        return ids;
+    }
+
+    /**
+     * Ids in id order after {@code afterId}, filtered on the indexed category and supplier.
+     */
+    List<String> page(String afterId, String category, String supplier, int limit) {
+        Map<String, Entry<Row>> range = afterId != null ? documents.tailMap(afterId, false) : documents;
+        List<String> ids = new ArrayList<>(Math.min(limit, 1024));
+        for (Map.Entry<String, Entry<Row>> entry : range.entrySet()) {
+            if (ids.size() >= limit) {
+                break;
+            }
+            if (matches(entry.getValue().row, category, supplier)) {
+                ids.add(entry.getKey());
+            }
+        }
+        return ids;
+    }
+
+    static boolean matches(Row row, String category, String supplier) {
+        return (category == null || category.equals(row.category()))
+                && (supplier == null || supplier.equals(row.supplier()));
+    }
+}
@@ -0,0 +1,92 @@
+package com.supplychain.repository.embedded;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * One write to a collection, as stored in the append log and in snapshots.
+ *
+ * Layout: {@code int length, int crc32c, byte op, byte collection, short idLength, id, payload}
+ * where length and checksum cover everything after the checksum. A zero length marks the
+ * end of the written part of a preallocated log segment.
+ */
+final class LogRecord {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    static final byte CLEAR = 3;
+
+    static final int HEADER_SIZE = 8;
+
+    final byte op;
+    final byte collection;
+    final String id;
+    final byte[] payload;
+
+    private final byte[] idBytes;
+
+    LogRecord(byte op, byte collection, String id, byte[] payload) {
+        this.op = op;
+        this.collection = collection;
+        this.id = id;
+        this.payload = payload != null ? payload : new byte[0];
+        this.idBytes = id.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Bytes this record takes up, header included.
+     */
+    int size() {
+        return HEADER_SIZE + bodySize();
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.putInt(bodySize());
+        buffer.putInt(0);
+        buffer.put(op).put(collection).putShort((short) idBytes.length).put(idBytes).put(payload);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(start + HEADER_SIZE).limit(buffer.position()));
+        buffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    /**
+     * Reads the record at the buffer's position and advances past it.
+     * @return The record, or null at the end of the written data or at a torn or corrupt record,
+     *         in which case the position is left unchanged.
+     */
+    static LogRecord readFrom(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int length = buffer.getInt(start);
+        int checksum = buffer.getInt(start + 4);
+        if (length < 4 || length > buffer.remaining() - HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer body = buffer.duplicate().position(start + HEADER_SIZE).limit(start + HEADER_SIZE + length);
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        byte op = body.get();
+        byte collection = body.get();
+        int idLength = Short.toUnsignedInt(body.getShort());
+        if (idLength > body.remaining()) {
+            return null;
+        }
+        byte[] id = new byte[idLength];
+        body.get(id);
+        byte[] payload = new byte[body.remaining()];
+        body.get(payload);
+        buffer.position(start + HEADER_SIZE + length);
+        return new LogRecord(op, collection, new String(id, StandardCharsets.UTF_8), payload);
+    }
+
+    private int bodySize() {
+        return 4 + idBytes.length + payload.length;
+    }
+}
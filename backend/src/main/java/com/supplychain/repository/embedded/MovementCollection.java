@@ -0,0 +1,64 @@
+package com.supplychain.repository.embedded;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplychain.model.StockMovement;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The stock movement ledger, indexed by item in timestamp order.
+ */
+final class MovementCollection extends EmbeddedCollection<StockMovement, MovementCollection.Row> {
+
+    record Row(String itemId, Instant timestamp, String id) {}
+
+    private static final Comparator<Row> OLDEST_FIRST = Comparator
+            .comparing(Row::timestamp, Comparator.nullsFirst(Comparator.<Instant>naturalOrder()))
+            .thenComparing(Row::id);
+
+    private final Map<String, TreeSet<Row>> byItem = new HashMap<>();
+
+    MovementCollection(ObjectMapper objectMapper) {
+        super((byte) 3, "stock_movements", StockMovement.class, objectMapper);
+    }
+
+    @Override
+    protected Row row(StockMovement movement) {
+        return new Row(movement.getItemId(), movement.getTimestamp(), movement.getId());
+    }
+
+    @Override
+    protected void index(String id, Row row) {
+        byItem.computeIfAbsent(row.itemId(), itemId -> new TreeSet<>(OLDEST_FIRST)).add(row);
+    }
+
+    @Override
+    protected void unindex(String id, Row row) {
+        TreeSet<Row> rows = byItem.get(row.itemId());
+        if (rows != null && rows.remove(row) && rows.isEmpty()) {
+            byItem.remove(row.itemId());
+        }
+    }
+
+    @Override
+    protected void clearIndexes() {
+        byItem.clear();
+    }
+
+    List<String> newestForItem(String itemId, int limit) {
+        List<String> ids = new ArrayList<>(limit);
+        for (Row row : byItem.getOrDefault(itemId, new TreeSet<>(OLDEST_FIRST)).descendingSet()) {
+            if (ids.size() >= limit) {
+                break;
+            }
+            ids.add(row.id());
+        }
+        return ids;
+    }
+}
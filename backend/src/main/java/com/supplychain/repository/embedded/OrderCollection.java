@@ -0,0 +1,154 @@
+package com.supplychain.repository.embedded;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplychain.model.Order;
+import com.supplychain.model.OrderSummary;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Orders, indexed by status and payment status and kept in page order
+ * (newest {@code orderDate} first, undated orders last, then id descending).
+ * Idempotency keys are unique, like the sparse unique index on the collection in MongoDB.
+ * The summary by status and payment status is maintained on every write.
+ */
+final class OrderCollection extends EmbeddedCollection<Order, OrderCollection.Row> {
+
+    record Row(String status, String paymentStatus, double totalAmount, LocalDate orderDate, String idempotencyKey) {}
+
+    private record PageKey(LocalDate orderDate, String id) {}
+
+    private static final Comparator<PageKey> PAGE_ORDER = Comparator
+            .comparing(PageKey::orderDate, Comparator.nullsLast(Comparator.<LocalDate>reverseOrder()))
+            .thenComparing(PageKey::id, Comparator.reverseOrder());
+
+    private static final String ID_ABOVE_ALL = "\uffff";
+
+    private final Map<String, Set<String>> byStatus = new HashMap<>();
+    private final Map<String, Set<String>> byPaymentStatus = new HashMap<>();
+    private final TreeSet<PageKey> pageOrder = new TreeSet<>(PAGE_ORDER);
+    private final Map<String, String> byIdempotencyKey = new HashMap<>();
+    private OrderSummary summary = new OrderSummary();
+
+    OrderCollection(ObjectMapper objectMapper) {
+        super((byte) 2, "orders", Order.class, objectMapper);
+    }
+
+    @Override
+    protected Row row(Order order) {
+        return new Row(order.getStatus(), order.getPaymentStatus(), order.getTotalAmount(),
+                order.getOrderDate(), order.getIdempotencyKey());
+    }
+
+    @Override
+    protected void checkUnique(String id, Row row) {
+        String owner = row.idempotencyKey() == null ? null : byIdempotencyKey.get(row.idempotencyKey());
+        if (owner != null && !owner.equals(id)) {
+            throw new DuplicateKeyException("Duplicate key in " + name + ": idempotencyKey " + row.idempotencyKey());
+        }
+    }
+
+    @Override
+    protected void index(String id, Row row) {
+        byStatus.computeIfAbsent(row.status(), status -> new HashSet<>()).add(id);
+        byPaymentStatus.computeIfAbsent(row.paymentStatus(), status -> new HashSet<>()).add(id);
+        pageOrder.add(new PageKey(row.orderDate(), id));
+        if (row.idempotencyKey() != null) {
+            byIdempotencyKey.put(row.idempotencyKey(), id);
+        }
+        summary.apply(row.status(), row.paymentStatus(), row.totalAmount(), 1);
+    }
+
+    @Override
+    protected void unindex(String id, Row row) {
+        removeFrom(byStatus, row.status(), id);
+        removeFrom(byPaymentStatus, row.paymentStatus(), id);
+        pageOrder.remove(new PageKey(row.orderDate(), id));
+        if (row.idempotencyKey() != null) {
+            byIdempotencyKey.remove(row.idempotencyKey(), id);
+        }
+        summary.apply(row.status(), row.paymentStatus(), row.totalAmount(), -1);
+    }
+
+    @Override
+    protected void clearIndexes() {
+        byStatus.clear();
+        byPaymentStatus.clear();
+        pageOrder.clear();
+        byIdempotencyKey.clear();
+        summary = new OrderSummary();
+    }
+
+    long countByStatus(String status) {
+        return byStatus.getOrDefault(status, Set.of()).size();
+    }
+
+    long countByPaymentStatus(String paymentStatus) {
+        return byPaymentStatus.getOrDefault(paymentStatus, Set.of()).size();
+    }
+
+    String idByIdempotencyKey(String idempotencyKey) {
+        return byIdempotencyKey.get(idempotencyKey);
+    }
+
+    OrderSummary summary() {
+        return new OrderSummary(summary);
+    }
+
+    /**
+     * Ids of the orders dated from {@code from} (inclusive) to {@code until} (exclusive), in page order.
+     */
+    List<String> idsByOrderDate(LocalDate from, LocalDate until) {
+        // Ids run in descending order within a date, so a key above every id starts a date
+        List<String> ids = new ArrayList<>();
+        for (PageKey key : pageOrder.subSet(new PageKey(until.minusDays(1), ID_ABOVE_ALL), true,
+                new PageKey(from.minusDays(1), ID_ABOVE_ALL), false)) {
+            ids.add(key.id());
+        }
+        return ids;
+    }
+
+    LocalDate earliestOrderDate() {
+        for (PageKey key : pageOrder.descendingSet()) {
+            if (key.orderDate() != null) {
+                return key.orderDate();
+            }
+        }
+        return null;
+    }
+
+    LocalDate latestOrderDate() {
+        return pageOrder.isEmpty() ? null : pageOrder.first().orderDate();
+    }
+
+    /**
+     * Ids in page order after the given position, filtered on status and payment status.
+     */
+    List<String> page(LocalDate afterDate, String afterId, String status, String paymentStatus, int limit) {
+        NavigableSet<PageKey> range = afterId != null
+                ? pageOrder.tailSet(new PageKey(afterDate, afterId), false)
+                : pageOrder;
+        List<String> ids = new ArrayList<>(Math.min(limit, 1024));
+        for (PageKey key : range) {
+            if (ids.size() >= limit) {
+                break;
+            }
+            Row row = rowOf(key.id());
+            if ((status == null || status.equals(row.status()))
+                    && (paymentStatus == null || paymentStatus.equals(row.paymentStatus()))) {
+                ids.add(key.id());
+            }
+        }
+        return ids;
+    }
+}
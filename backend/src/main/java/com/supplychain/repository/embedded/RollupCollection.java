@@ -0,0 +1,57 @@
+package com.supplychain.repository.embedded;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplychain.model.RevenueRollup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Revenue buckets. Their ids already sort by granularity, dimension and period, so the
+ * id order of the documents serves range reads and no secondary index is kept; the row
+ * only remembers which backfill wrote each bucket.
+ */
+final class RollupCollection extends EmbeddedCollection<RevenueRollup, String> {
+
+    RollupCollection(ObjectMapper objectMapper) {
+        super((byte) 4, "revenue_rollups", RevenueRollup.class, objectMapper);
+    }
+
+    @Override
+    protected String row(RevenueRollup rollup) {
+        return rollup.getGeneration();
+    }
+
+    @Override
+    protected void index(String id, String generation) {
+    }
+
+    @Override
+    protected void unindex(String id, String generation) {
+    }
+
+    @Override
+    protected void clearIndexes() {
+    }
+
+    /**
+     * Encoded buckets with ids from {@code fromId} (inclusive) to {@code toId} (exclusive).
+     */
+    List<byte[]> range(String fromId, String toId) {
+        List<byte[]> found = new ArrayList<>();
+        documents.subMap(fromId, toId).values().forEach(entry -> found.add(entry.bytes));
+        return found;
+    }
+
+    List<String> idsOutsideGeneration(String generation) {
+        List<String> ids = new ArrayList<>();
+        for (Map.Entry<String, Entry<String>> document : documents.entrySet()) {
+            if (!Objects.equals(document.getValue().row, generation)) {
+                ids.add(document.getKey());
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,71 @@
+package com.supplychain.repository.embedded;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplychain.model.LocationStock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Stock per item and location. Ids start with the item id, so the id order of the
+ * documents serves an item's locations; a secondary index lists each location's stock
+ * in id order.
+ */
+final class StockCollection extends EmbeddedCollection<LocationStock, String> {
+
+    private final Map<String, TreeSet<String>> byLocation = new HashMap<>();
+
+    StockCollection(ObjectMapper objectMapper) {
+        super((byte) 5, "item_stock", LocationStock.class, objectMapper);
+    }
+
+    @Override
+    protected String row(LocationStock stock) {
+        return stock.getLocation();
+    }
+
+    @Override
+    protected void index(String id, String location) {
+        byLocation.computeIfAbsent(location, key -> new TreeSet<>()).add(id);
+    }
+
+    @Override
+    protected void unindex(String id, String location) {
+        TreeSet<String> ids = byLocation.get(location);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            byLocation.remove(location);
+        }
+    }
+
+    @Override
+    protected void clearIndexes() {
+        byLocation.clear();
+    }
+
+    /**
+     * Ids of one item's stock, in location order.
+     */
+    List<String> idsOfItem(String itemId) {
+        return new ArrayList<>(documents.subMap(LocationStock.id(itemId, ""), itemId + "}").keySet());
+    }
+
+    List<String> pageByLocation(String location, String afterId, int limit) {
+        TreeSet<String> ids = byLocation.get(location);
+        if (ids == null) {
+            return List.of();
+        }
+        NavigableSet<String> range = afterId != null ? ids.tailSet(afterId, false) : ids;
+        List<String> page = new ArrayList<>(Math.min(limit, 1024));
+        for (String id : range) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(id);
+        }
+        return page;
+    }
+}
@@ -0,0 +1,20 @@
+package com.supplychain.service;
+
+import com.supplychain.model.OrderSummary;
+import java.util.Map;
+
+/**
+ * Service interface for dashboard figures
+ */
+public interface DashboardService {
+
+    /**
+     * Get the current order summary from the in-process counters
+     */
+    OrderSummary getSummary();
+
+    /**
+     * Recompute the summary with the aggregation pipeline and rebuild the counters if they drifted
+     */
+    Map<String, Object> verifySummary();
+}
@@ -0,0 +1,63 @@
+package com.supplychain.service;
+
+import com.supplychain.model.ExportJob;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for order and inventory exports, streamed from a database cursor
+ */
+public interface ExportService {
+
+    String TYPE_ORDERS = "orders";
+    String TYPE_INVENTORY = "inventory";
+    String FORMAT_CSV = "csv";
+    String FORMAT_NDJSON_GZ = "ndjson.gz";
+
+    /**
+     * Write the orders placed from {@code from} to {@code to} (inclusive), one row per line item
+     * @param format {@link #FORMAT_CSV} or {@link #FORMAT_NDJSON_GZ}
+     * @return The number of rows written
+     */
+    long writeOrders(LocalDate from, LocalDate to, String format, OutputStream out) throws IOException;
+
+    /**
+     * Write an inventory valuation snapshot, one row per item with its stock value
+     * @return The number of rows written
+     */
+    long writeInventory(String format, OutputStream out) throws IOException;
+
+    /**
+     * Start writing an export to a file in the background
+     * @param from Ignored for inventory
+     * @throws java.util.concurrent.RejectedExecutionException if too many exports are waiting
+     */
+    ExportJob startJob(String type, LocalDate from, LocalDate to, String format);
+
+    Optional<ExportJob> getJob(String id);
+
+    /**
+     * Get all jobs still retained, newest first
+     */
+    List<ExportJob> getJobs();
+
+    /**
+     * Get the file of a completed job
+     */
+    Optional<Path> getFile(String id);
+
+    /**
+     * Cancel a job if it has not finished, and delete it and its file
+     * @return false if there is no such job
+     */
+    boolean deleteJob(String id);
+
+    /**
+     * File name for an export, e.g. orders-2024-01-01-2024-03-31.csv
+     */
+    String fileName(String type, LocalDate from, LocalDate to, String format);
+}
@@ -0,0 +1,44 @@
+package com.supplychain.service;
+
+import com.supplychain.model.DemandForecast;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service interface for demand forecasts per SKU and per category
+ */
+public interface ForecastService {
+
+    String SCOPE_SKU = "sku";
+    String SCOPE_CATEGORY = "category";
+
+    /**
+     * Get the forecast for one SKU or category from the precomputed models
+     * @param scope {@link #SCOPE_SKU} or {@link #SCOPE_CATEGORY}
+     * @param horizon Number of days to forecast, starting today
+     * @param confidence Coverage of the prediction band, e.g. 0.95
+     */
+    Optional<DemandForecast> getForecast(String scope, String key, int horizon, double confidence);
+
+    /**
+     * Get the keys of a scope with the highest forecast demand over the horizon, highest first
+     */
+    List<DemandForecast> getTopForecasts(String scope, int horizon, double confidence, int limit);
+
+    /**
+     * Longest horizon the models are precomputed for
+     */
+    int getMaxHorizon();
+
+    /**
+     * Start refitting every model from the order history in the background
+     * @return false if a refit is already running
+     */
+    boolean startRefit();
+
+    /**
+     * Number of models, last refit time and duration
+     */
+    Map<String, Object> getStatus();
+}
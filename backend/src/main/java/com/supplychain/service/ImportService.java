@@ -0,0 +1,21 @@
+package com.supplychain.service;
+
+import com.supplychain.model.ImportResult;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Service interface for bulk imports
+ */
+public interface ImportService {
+
+    /**
+     * Stream items from CSV (with a header row) or NDJSON and upsert them on SKU in batches
+     */
+    ImportResult importItems(InputStream input, boolean csv) throws IOException;
+
+    /**
+     * Stream orders from NDJSON and insert them in batches, without reserving stock
+     */
+    ImportResult importOrders(InputStream input) throws IOException;
+}
@@ -0,0 +1,31 @@
+package com.supplychain.service;
+
+import java.util.Map;
+
+/**
+ * Thrown when stock cannot be reserved because a SKU is unknown or has too little stock.
+ * Nothing has been deducted when this is thrown.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, Integer> requested;
+    private final String sku;
+
+    public InsufficientStockException(String sku, Map<String, Integer> requested, String message) {
+        super(message);
+        this.sku = sku;
+        this.requested = requested;
+    }
+
+    /**
+     * The SKU that could not be reserved.
+     */
+    public String getSku() { return sku; }
+
+    /**
+     * The quantities that were requested per SKU.
+     */
+    public Map<String, Integer> getRequested() { return requested; }
+}
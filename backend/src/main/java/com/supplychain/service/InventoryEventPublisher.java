@@ -1,15 +1,193 @@
 package com.supplychain.events;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplychain.model.Item;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 
+/**
+ * Publishes typed, versioned inventory changes to {@code /topic/inventory}.
+ * Changes are buffered and sent as one frame per coalescing window, with repeated
+ * changes to the same item merged. The most recent changes are kept so clients
+ * can catch up on what they missed after reconnecting. Changes are shared with the
+ * other nodes through the {@link ClusterEventRelay}, so every node's subscribers see
+ * all of them; versions and the epoch are still per node.
+ */
 @Component
 public class InventoryEventPublisher {
+    private static final TypeReference<Map<String, Object>> FIELDS = new TypeReference<>() {};
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
-    public void publishUpdate() {
-        messagingTemplate.convertAndSend("/topic/inventory", "update");
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClusterEventRelay relay;
+
+    @Value("${inventory.events.history-size:10000}")
+    private int historySize;
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final ArrayDeque<InventoryChange> history = new ArrayDeque<>();
+    private final Map<String, InventoryChange> pending = new LinkedHashMap<>();
+    private long version;
+    private long pendingFromVersion;
+
+    public void publishCreated(Item item) {
+        record(InventoryChange.CREATED, item.getId(), fields(item));
+    }
+
+    public void publishUpdated(Item before, Item after) {
+        Map<String, Object> previous = fields(before);
+        Map<String, Object> current = fields(after);
+        Map<String, Object> changes = new HashMap<>();
+        Set<String> names = new HashSet<>(previous.keySet());
+        names.addAll(current.keySet());
+        for (String name : names) {
+            if (!Objects.equals(previous.get(name), current.get(name))) {
+                changes.put(name, current.get(name));
+            }
+        }
+        if (!changes.isEmpty()) {
+            record(InventoryChange.UPDATED, after.getId(), changes);
+        }
+    }
+
+    /**
+     * Publishes a stock adjustment, which only ever changes the quantity.
+     */
+    public void publishQuantityChanged(Item item) {
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("quantity", item.getQuantity());
+        changes.put("updatedAt", item.getUpdatedAt());
+        record(InventoryChange.UPDATED, item.getId(), changes);
+    }
+
+    public void publishDeleted(String id) {
+        record(InventoryChange.DELETED, id, Collections.emptyMap());
+    }
+
+    /**
+     * Publishes one change for a whole batch of written items, telling clients to reload
+     * rather than sending a change per item.
+     */
+    public void publishBulkChange(int count) {
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("count", count);
+        record(InventoryChange.BULK, null, changes);
+    }
+
+    /**
+     * Returns the changes after {@code sinceVersion}, or a batch flagged {@code resync}
+     * when they are no longer retained and the client has to reload.
+     */
+    public synchronized InventoryChangeBatch changesSince(String clientEpoch, long sinceVersion) {
+        long oldest = history.isEmpty() ? version + 1 : history.peekFirst().getVersion();
+        if (!epoch.equals(clientEpoch) || sinceVersion < oldest - 1 || sinceVersion > version) {
+            InventoryChangeBatch batch = new InventoryChangeBatch(epoch, version, version, Collections.emptyList());
+            batch.setResync(true);
+            return batch;
+        }
+        List<InventoryChange> missed = new ArrayList<>();
+        Iterator<InventoryChange> newestFirst = history.descendingIterator();
+        while (newestFirst.hasNext()) {
+            InventoryChange change = newestFirst.next();
+            if (change.getVersion() <= sinceVersion) {
+                break;
+            }
+            missed.add(change);
+        }
+        Collections.reverse(missed);
+        return new InventoryChangeBatch(epoch, sinceVersion + 1, version, missed);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.events.coalesce-window-ms:100}")
+    public void flush() {
+        InventoryChangeBatch batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new InventoryChangeBatch(epoch, pendingFromVersion, version, new ArrayList<>(pending.values()));
+            pending.clear();
+        }
+        messagingTemplate.convertAndSend("/topic/inventory", batch);
+    }
+
+    /**
+     * Notifies subscribers that an item crossed its own minimum quantity,
+     * either dropping to it ({@code low: true}) or being restocked above it.
+     */
+    public void publishLowStockCrossing(Item item, boolean low) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("itemId", item.getId());
+        payload.put("sku", item.getSku());
+        payload.put("name", item.getName());
+        payload.put("quantity", item.getQuantity());
+        payload.put("minQuantity", item.getMinQuantity());
+        payload.put("low", low);
+        messagingTemplate.convertAndSend("/topic/inventory/low-stock", payload);
+    }
+
+    /**
+     * Records a change made on another node for this node's subscribers, without sending it on.
+     */
+    public void recordRemote(String type, String itemId, Map<String, Object> changes) {
+        append(type, itemId, changes);
+    }
+
+    private void record(String type, String itemId, Map<String, Object> changes) {
+        append(type, itemId, changes);
+        relay.publishInventoryChange(type, itemId, changes);
+    }
+
+    private synchronized void append(String type, String itemId, Map<String, Object> changes) {
+        InventoryChange change = new InventoryChange(++version, type, itemId, changes);
+        history.addLast(change);
+        while (history.size() > historySize) {
+            history.removeFirst();
+        }
+        if (pending.isEmpty()) {
+            pendingFromVersion = change.getVersion();
+        }
+        pending.merge(itemId, change, InventoryEventPublisher::coalesce);
+    }
+
+    private static InventoryChange coalesce(InventoryChange earlier, InventoryChange later) {
+        if (InventoryChange.BULK.equals(later.getType())) {
+            Map<String, Object> changes = new HashMap<>();
+            changes.put("count", (Integer) earlier.getChanges().get("count") + (Integer) later.getChanges().get("count"));
+            return new InventoryChange(later.getVersion(), InventoryChange.BULK, null, changes);
+        }
+        if (InventoryChange.DELETED.equals(later.getType())) {
+            return later;
+        }
+        Map<String, Object> changes = new HashMap<>(earlier.getChanges());
+        changes.putAll(later.getChanges());
+        // An item created within the window is still a creation to clients that never saw it
+        String type = InventoryChange.CREATED.equals(earlier.getType()) ? InventoryChange.CREATED : later.getType();
+        return new InventoryChange(later.getVersion(), type, later.getItemId(), changes);
+    }
+
+    private Map<String, Object> fields(Item item) {
+        return objectMapper.convertValue(item, FIELDS);
     }
-}
\ No newline at end of file
+}
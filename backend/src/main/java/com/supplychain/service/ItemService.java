@@ -1,8 +1,18 @@
 package com.supplychain.service;
 
+import com.supplychain.model.ChangeSet;
+import com.supplychain.model.CursorPage;
 import com.supplychain.model.Item;
+import com.supplychain.model.ItemPatch;
+import com.supplychain.model.StockAdjustment;
+import com.supplychain.model.StockAdjustmentResult;
+import com.supplychain.model.StockMovement;
+import com.supplychain.model.StockTransfer;
+import com.supplychain.model.StockTransferResult;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Service interface for Item business logic
@@ -14,29 +24,111 @@ public interface ItemService {
      */
     List<Item> getAllItems();
 
+    /**
+     * Get one keyset-paginated page of items, optionally filtered by category and supplier
+     */
+    CursorPage<Item> getItemsPage(String cursor, String category, String supplier, int limit);
+
+    /**
+     * Stream items from a database cursor; the caller must close the stream
+     */
+    Stream<Item> streamItems(String category, String supplier);
+
+    /**
+     * Get the items saved and deleted since a collection version taken from an earlier response's ETag
+     */
+    ChangeSet<Item> getChangesSince(String epoch, long sinceVersion);
+
     /**
      * Get item by ID
      */
     Optional<Item> getItemById(String id);
 
+    /**
+     * Get item by SKU
+     */
+    Optional<Item> getItemBySku(String sku);
+
+    /**
+     * Search items by name, SKU, category, supplier and location, optionally restricted to one
+     * category, supplier, location and stock status, with facet counts over all hits
+     */
+    Map<String, Object> searchItems(String query, String category, String supplier, String location, String stock,
+                                    int offset, int limit);
+
+    /**
+     * Get term and item counts of the search index
+     */
+    Map<String, Object> getSearchStats();
+
+    /**
+     * Get hit rate, eviction and load latency figures for the item cache
+     */
+    Map<String, Object> getCacheStats();
+
     /**
 
      * Create or update item
      */
     Item saveItem(Item item);
 
+    /**
+     * Replaces the editable fields of an item with those of {@code details} and bumps its
+     * version, in one atomic update. Returns the item after the update, or empty if it
+     * does not exist
+     */
+    Optional<Item> updateItem(String id, Item details);
+
+    /**
+     * Writes only the fields set in the patch, in one conditional update, if the item
+     * still has the patch's version. Returns the item after the update, or empty if it
+     * does not exist; throws {@link VersionConflictException} if it was edited since.
+     */
+    Optional<Item> patchItem(String id, ItemPatch patch);
+
     /**
      * Delete item by ID
      */
     void deleteItem(String id);
 
     /**
-     * Get low stock items based on a threshold
+     * Get items at or below their own minimum quantity, most critical first
+     */
+    List<Item> getLowStockItems(int page, int size);
+
+    /**
+     * Get out of stock items, most critical first
+     */
+    List<Item> getOutOfStockItems(int page, int size);
+
+    /**
+     * Apply a single stock adjustment atomically and record it in the movement ledger.
+     * An adjustment naming a location changes the stock there and the item's total together
+     */
+    StockAdjustmentResult adjustStock(String id, StockAdjustment adjustment);
+
+    /**
+     * Apply a batch of relative stock adjustments, one result per distinct item and location
+     */
+    List<StockAdjustmentResult> adjustStock(List<StockAdjustment> adjustments);
+
+    /**
+     * Move stock of an item from one location to another; fails if the source holds too little.
+     * The item's total is unchanged
+     */
+    StockTransferResult transferStock(String id, StockTransfer transfer);
+
+    /**
+     * Get the most recent stock movements for an item
      */
-    List<Item> getLowStockItems(int threshold);
+    List<StockMovement> getStockMovements(String itemId);
 
     /**
-     * Get out of stock items
+     * Apply stock deltas to several SKUs as one all-or-nothing operation.
+     * Negative deltas deduct stock and fail if any SKU is unknown or would go below zero,
+     * in which case every deduction already made is rolled back. Positive deltas for
+     * SKUs that no longer exist are skipped.
+     * @throws InsufficientStockException if the deltas could not all be applied
      */
-    List<Item> getOutOfStockItems();
-}
\ No newline at end of file
+    List<Item> adjustStockBySku(Map<String, Integer> deltasBySku, String reason);
+}
@@ -0,0 +1,50 @@
+package com.supplychain.service;
+
+import com.supplychain.model.CursorPage;
+import com.supplychain.model.LocationStock;
+import com.supplychain.model.StockTotals;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service interface for stock per location: where each item's stock is, and totals per location and category
+ */
+public interface LocationStockService {
+
+    /**
+     * Get an item's stock at each of its locations, with its total quantity and value
+     */
+    Optional<Map<String, Object>> getItemStock(String itemId);
+
+    /**
+     * Get the SKUs, units and value held at every location
+     */
+    List<StockTotals> getLocationTotals();
+
+    /**
+     * Get the SKUs, units and value held at one location
+     */
+    Optional<StockTotals> getLocationTotals(String location);
+
+    /**
+     * Get one keyset-paginated page of the stock held at a location
+     */
+    CursorPage<LocationStock> getLocationStock(String location, String cursor, int limit);
+
+    /**
+     * Get the SKUs, units and value held in every category
+     */
+    List<StockTotals> getCategoryTotals();
+
+    /**
+     * Start reconciling the locations with the item totals, then rebuilding the totals, in the background
+     * @return false if a reconciliation is already running
+     */
+    boolean startReconcile();
+
+    /**
+     * State of the totals and the outcome of the last reconciliation
+     */
+    Map<String, Object> getStatus();
+}
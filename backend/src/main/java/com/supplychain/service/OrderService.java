@@ -1,13 +1,30 @@
 package com.supplychain.service;
 
+import com.supplychain.model.ChangeSet;
+import com.supplychain.model.CursorPage;
 import com.supplychain.model.Order;
+import com.supplychain.model.OrderPatch;
+import com.supplychain.model.OrderSubmission;
+import com.supplychain.model.OrderSubmissionResult;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderService {
     List<Order> getAllOrders();
+    CursorPage<Order> getOrdersPage(String cursor, String status, String paymentStatus, int limit);
+    Stream<Order> streamOrders(String status, String paymentStatus);
+    ChangeSet<Order> getChangesSince(String epoch, long sinceVersion);
     Optional<Order> getOrderById(String id);
     Order saveOrder(Order order);
+    List<OrderSubmissionResult> submitOrders(List<OrderSubmission> submissions);
     Optional<Order> updateOrder(String id, Order orderDetails);
+    /**
+     * Writes only the fields set in the patch, in one conditional update, if the order still
+     * has the patch's version (any version when it has none). Cancelling releases the order's
+     * stock and reactivating reserves it again. Returns the order after the update, or empty
+     * if it does not exist; throws {@link VersionConflictException} if it changed since.
+     */
+    Optional<Order> patchOrder(String id, OrderPatch patch);
     void deleteOrder(String id);
 }
\ No newline at end of file
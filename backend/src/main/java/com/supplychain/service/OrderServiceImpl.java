@@ -1,25 +1,117 @@
 package com.supplychain.service.impl;
 
+import com.supplychain.events.CollectionVersions;
+import com.supplychain.events.InventoryEventPublisher;
+import com.supplychain.events.OrderChangeListener;
+import com.supplychain.model.BulkWriteSummary;
+import com.supplychain.model.Item;
+import com.supplychain.model.ChangeSet;
+import com.supplychain.model.CursorPage;
 import com.supplychain.model.Order;
+import com.supplychain.model.OrderItem;
+import com.supplychain.model.OrderPatch;
+import com.supplychain.model.OrderSubmission;
+import com.supplychain.model.OrderSubmissionResult;
 import com.supplychain.repository.OrderRepository;
+import com.supplychain.service.InsufficientStockException;
+import com.supplychain.service.ItemService;
 import com.supplychain.service.OrderService;
+import com.supplychain.service.VersionConflictException;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    // Full updates racing other writes to the same order are retried this often before giving up
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
+    /**
+     * The stock moves of an order write: the deductions already applied and the releases
+     * to apply once the write succeeded.
+     */
+    private record Reservation(Map<String, Integer> deducted, Map<String, Integer> released) {}
+
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private List<OrderChangeListener> changeListeners;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryEventPublisher eventPublisher;
+
+    @Autowired
+    private CollectionVersions versions;
+
+    @Autowired
+    private IdempotencyKeys idempotencyKeys;
+
+    @Autowired
+    private ItemCache itemCache;
+
     @Override
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
 
+    @Override
+    public CursorPage<Order> getOrdersPage(String cursor, String status, String paymentStatus, int limit) {
+        // Cursor format: "<orderDate>|<id>", with an empty date for undated orders
+        LocalDate afterDate = null;
+        String afterId = null;
+        if (cursor != null) {
+            int separator = cursor.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor: " + cursor);
+            }
+            String date = cursor.substring(0, separator);
+            afterDate = date.isEmpty() ? null : LocalDate.parse(date);
+            afterId = cursor.substring(separator + 1);
+        }
+        List<Order> orders = orderRepository.findPage(afterDate, afterId, status, paymentStatus, limit + 1);
+        if (orders.size() <= limit) {
+            return new CursorPage<>(orders, null);
+        }
+        List<Order> page = orders.subList(0, limit);
+        Order last = page.get(limit - 1);
+        String next = (last.getOrderDate() == null ? "" : last.getOrderDate().toString()) + "|" + last.getId();
+        return new CursorPage<>(page, next);
+    }
+
+    @Override
+    public Stream<Order> streamOrders(String status, String paymentStatus) {
+        return orderRepository.streamAll(status, paymentStatus);
+    }
+
+    @Override
+    public ChangeSet<Order> getChangesSince(String epoch, long sinceVersion) {
+        CollectionVersions.ChangedIds changed = versions.changedSince(CollectionVersions.ORDERS, epoch, sinceVersion);
+        List<Order> updated = changed.saved().isEmpty()
+                ? Collections.emptyList()
+                : orderRepository.findAllById(changed.saved());
+        long fromVersion = changed.resync() ? changed.version() : sinceVersion + 1;
+        return new ChangeSet<>(versions.getEpoch(), fromVersion, changed.version(), changed.resync(),
+                updated, changed.deleted());
+    }
+
     @Override
     public Optional<Order> getOrderById(String id) {
         return orderRepository.findById(id);
@@ -27,33 +119,433 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public Order saveOrder(Order order) {
+        if (order.getId() != null) {
+            // An existing order is replaced by the versioned update, never overwritten
+            Optional<Order> updated = updateOrder(order.getId(), order);
+            if (updated.isPresent()) {
+                return updated.get();
+            }
+        }
         // নতুন অর্ডার তৈরির সময় orderDate সেট করা হচ্ছে
         if (order.getOrderDate() == null) {
             order.setOrderDate(LocalDate.now());
         }
-        return orderRepository.save(order);
+        if (order.getId() == null) {
+            // Assigned up front so the stock ledger can reference the order
+            order.setId(new ObjectId().toHexString());
+        }
+        // Versions only ever come from writes, not from the client, and idempotency keys from batch submissions
+        order.setVersion(0);
+        order.setIdempotencyKey(null);
+        stampDelivery(null, order);
+        recordCategories(order);
+        Reservation reserved = reconcileReservation(null, order);
+        Order saved;
+        try {
+            // Fails rather than overwrites if an order with this id was created meanwhile
+            saved = orderRepository.insert(order);
+        } catch (RuntimeException e) {
+            undoReservation(order.getId(), reserved);
+            throw e;
+        }
+        changeListeners.forEach(listener -> listener.onOrderSaved(null, saved));
+        return saved;
     }
     
+    @Override
+    public List<OrderSubmissionResult> submitOrders(List<OrderSubmission> submissions) {
+        OrderSubmissionResult[] results = new OrderSubmissionResult[submissions.size()];
+        // A key repeated within the batch gets the outcome of its first use
+        Map<String, Integer> firstByKey = new HashMap<>();
+        List<Integer> positions = new ArrayList<>();
+        List<Order> batch = new ArrayList<>();
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < submissions.size(); i++) {
+            String key = submissions.get(i).getIdempotencyKey();
+            Order order = submissions.get(i).getOrder();
+            if (order == null || (key != null && key.isBlank())) {
+                String error = order == null ? "order is required" : "idempotencyKey must not be blank";
+                results[i] = new OrderSubmissionResult(key, OrderSubmissionResult.INVALID, null, error);
+                continue;
+            }
+            if (key != null) {
+                if (firstByKey.putIfAbsent(key, i) != null) {
+                    continue;
+                }
+                String existing = idempotencyKeys.claim(key);
+                if (existing != null) {
+                    results[i] = existing.isEmpty()
+                            ? new OrderSubmissionResult(key, OrderSubmissionResult.IN_PROGRESS, null, null)
+                            : new OrderSubmissionResult(key, OrderSubmissionResult.DUPLICATE, existing, null);
+                    continue;
+                }
+            }
+            // Batches only create orders; ids are assigned here like in saveOrder
+            order.setId(new ObjectId().toHexString());
+            // Stored with the order, where the unique index rejects a second order under the key
+            // even if this instance never saw the first one
+            order.setIdempotencyKey(key);
+            if (order.getOrderDate() == null) {
+                order.setOrderDate(LocalDate.now());
+            }
+            stampDelivery(null, order);
+            try {
+                // Inside the try: the lookup can reach the database, and a failure must release the key
+                recordCategories(order);
+                reservations.add(reconcileReservation(null, order));
+            } catch (RuntimeException e) {
+                release(key);
+                String status = e instanceof InsufficientStockException
+                        ? OrderSubmissionResult.INSUFFICIENT_STOCK
+                        : OrderSubmissionResult.FAILED;
+                results[i] = new OrderSubmissionResult(key, status, null, e.getMessage());
+                continue;
+            }
+            positions.add(i);
+            batch.add(order);
+        }
+
+        if (!batch.isEmpty()) {
+            BulkWriteSummary summary;
+            try {
+                summary = orderRepository.bulkInsert(batch);
+            } catch (RuntimeException e) {
+                for (int b = 0; b < batch.size(); b++) {
+                    undoReservation(batch.get(b).getId(), reservations.get(b));
+                    release(submissions.get(positions.get(b)).getIdempotencyKey());
+                }
+                throw e;
+            }
+            for (int b = 0; b < batch.size(); b++) {
+                int position = positions.get(b);
+                String key = submissions.get(position).getIdempotencyKey();
+                Order order = batch.get(b);
+                String failure = summary.getFailures().get(b);
+                if (failure != null) {
+                    undoReservation(order.getId(), reservations.get(b));
+                    String existing = orderCreatedUnder(key);
+                    if (existing != null) {
+                        idempotencyKeys.complete(key, existing);
+                        results[position] = new OrderSubmissionResult(key, OrderSubmissionResult.DUPLICATE, existing, null);
+                        continue;
+                    }
+                    release(key);
+                    results[position] = new OrderSubmissionResult(key, OrderSubmissionResult.FAILED, null, failure);
+                    continue;
+                }
+                if (key != null) {
+                    idempotencyKeys.complete(key, order.getId());
+                }
+                changeListeners.forEach(listener -> listener.onOrderSaved(null, order));
+                results[position] = new OrderSubmissionResult(key, OrderSubmissionResult.CREATED, order.getId(), null);
+            }
+        }
+
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                String key = submissions.get(i).getIdempotencyKey();
+                OrderSubmissionResult first = results[firstByKey.get(key)];
+                results[i] = OrderSubmissionResult.CREATED.equals(first.getStatus())
+                        ? new OrderSubmissionResult(key, OrderSubmissionResult.DUPLICATE, first.getOrderId(), null)
+                        : new OrderSubmissionResult(key, first.getStatus(), first.getOrderId(), first.getError());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
     @Override
     public Optional<Order> updateOrder(String id, Order orderDetails) {
-        return orderRepository.findById(id).map(existingOrder -> {
-            existingOrder.setCustomerName(orderDetails.getCustomerName());
-            existingOrder.setCustomerEmail(orderDetails.getCustomerEmail());
-            existingOrder.setCustomerPhone(orderDetails.getCustomerPhone());
-            existingOrder.setItems(orderDetails.getItems());
-            existingOrder.setTotalAmount(orderDetails.getTotalAmount());
-            existingOrder.setStatus(orderDetails.getStatus());
-            existingOrder.setExpectedDelivery(orderDetails.getExpectedDelivery());
-            existingOrder.setShippingAddress(orderDetails.getShippingAddress());
-            existingOrder.setPaymentMethod(orderDetails.getPaymentMethod());
-            existingOrder.setPaymentStatus(orderDetails.getPaymentStatus());
-            existingOrder.setNotes(orderDetails.getNotes());
-            return orderRepository.save(existingOrder);
-        });
+        for (int attempt = 1; ; attempt++) {
+            Optional<Order> current = orderRepository.findById(id);
+            if (current.isEmpty()) {
+                return Optional.empty();
+            }
+            Order before = current.get();
+            Order target = new Order();
+            BeanUtils.copyProperties(before, target);
+            target.setCustomerName(orderDetails.getCustomerName());
+            target.setCustomerEmail(orderDetails.getCustomerEmail());
+            target.setCustomerPhone(orderDetails.getCustomerPhone());
+            target.setItems(orderDetails.getItems());
+            target.setTotalAmount(orderDetails.getTotalAmount());
+            target.setStatus(orderDetails.getStatus());
+            target.setExpectedDelivery(orderDetails.getExpectedDelivery());
+            target.setDeliveredDate(orderDetails.getDeliveredDate());
+            target.setShippingAddress(orderDetails.getShippingAddress());
+            target.setPaymentMethod(orderDetails.getPaymentMethod());
+            target.setPaymentStatus(orderDetails.getPaymentStatus());
+            target.setNotes(orderDetails.getNotes());
+            stampDelivery(before, target);
+            recordCategories(target);
+            Reservation reserved = reconcileReservation(before, target);
+            // Written only if the order is still at the version the reservation was worked out for,
+            // with the version and stockReserved changed by the same update
+            Map<String, Object> fields = replacedFields(target);
+            Order stored;
+            try {
+                stored = orderRepository.updateFields(id, before.getVersion(), null, fields);
+            } catch (RuntimeException e) {
+                undoReservation(id, reserved);
+                throw e;
+            }
+            if (stored == null) {
+                undoReservation(id, reserved);
+                if (attempt < MAX_UPDATE_ATTEMPTS) {
+                    continue;
+                }
+                Optional<Order> latest = orderRepository.findById(id);
+                if (latest.isEmpty()) {
+                    return Optional.empty();
+                }
+                throw new VersionConflictException(id, latest.get().getVersion());
+            }
+            completeReservation(id, reserved);
+            Order previous = stored;
+            Order after = patched(previous, fields);
+            changeListeners.forEach(listener -> listener.onOrderSaved(previous, after));
+            return Optional.of(after);
+        }
+    }
+
+    // Everything a full update writes, by property name
+    private static Map<String, Object> replacedFields(Order order) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("customerName", order.getCustomerName());
+        fields.put("customerEmail", order.getCustomerEmail());
+        fields.put("customerPhone", order.getCustomerPhone());
+        fields.put("items", order.getItems());
+        fields.put("totalAmount", order.getTotalAmount());
+        fields.put("status", order.getStatus());
+        fields.put("expectedDelivery", order.getExpectedDelivery());
+        fields.put("deliveredDate", order.getDeliveredDate());
+        fields.put("shippingAddress", order.getShippingAddress());
+        fields.put("paymentMethod", order.getPaymentMethod());
+        fields.put("paymentStatus", order.getPaymentStatus());
+        fields.put("notes", order.getNotes());
+        fields.put("stockReserved", order.isStockReserved());
+        return fields;
+    }
+
+    @Override
+    public Optional<Order> patchOrder(String id, OrderPatch patch) {
+        Map<String, Object> fields = patch.fields();
+        boolean statusChange = patch.getStatus() != null;
+        boolean cancelling = statusChange && isCancelled(patch.getStatus());
+        boolean delivering = statusChange && isDelivered(patch.getStatus()) && patch.getDeliveredDate() == null;
+        if (cancelling) {
+            // Cleared by the same write that cancels, so only one request ever releases the stock
+            fields.put("stockReserved", false);
+        }
+        if (delivering) {
+            fields.put("deliveredDate", LocalDate.now());
+        }
+        // A status change on an active order keeps its reservation unless it cancels, so it is
+        // one conditional write; a cancelled order falls through to the path that reserves again,
+        // and an order delivered before to the path that keeps its delivery date
+        Order before = orderRepository.updateFields(id, patch.getVersion(),
+                !statusChange ? null : delivering ? OrderRepository.CANCELLED_OR_DELIVERED : OrderRepository.CANCELLED,
+                fields);
+        if (before == null) {
+            Optional<Order> current = orderRepository.findById(id);
+            if (current.isEmpty()) {
+                return Optional.empty();
+            }
+            if (patch.getVersion() != null && current.get().getVersion() != patch.getVersion()) {
+                throw new VersionConflictException(id, current.get().getVersion());
+            }
+            Order target = patched(current.get(), patch.fields());
+            stampDelivery(current.get(), target);
+            Map<String, Object> retry = patch.fields();
+            if (target.getDeliveredDate() != null) {
+                retry.put("deliveredDate", target.getDeliveredDate());
+            }
+            return Optional.of(patchWithReservation(current.get(), retry));
+        }
+        if (cancelling && before.isStockReserved()) {
+            applyStockDeltas(id, lineQuantities(before, 1), "order:" + id + ":release");
+        }
+        Order after = patched(before, fields);
+        changeListeners.forEach(listener -> listener.onOrderSaved(before, after));
+        return Optional.of(after);
+    }
+
+    /**
+     * Patches an order whose reservation may change, such as a cancelled order being
+     * reactivated: stock is deducted first, then the patch is written if the order is still
+     * at the version that was read, and the deductions undone if it is not. Stock the
+     * order no longer holds is only released once the patch is written.
+     */
+    private Order patchWithReservation(Order current, Map<String, Object> fields) {
+        Order target = patched(current, fields);
+        Reservation reserved = reconcileReservation(current, target);
+        fields.put("stockReserved", target.isStockReserved());
+        Order before;
+        try {
+            before = orderRepository.updateFields(current.getId(), current.getVersion(), null, fields);
+        } catch (RuntimeException e) {
+            undoReservation(current.getId(), reserved);
+            throw e;
+        }
+        if (before == null) {
+            undoReservation(current.getId(), reserved);
+            throw new VersionConflictException(current.getId(),
+                    orderRepository.findById(current.getId()).map(Order::getVersion).orElse(current.getVersion()));
+        }
+        completeReservation(current.getId(), reserved);
+        Order after = patched(before, fields);
+        changeListeners.forEach(listener -> listener.onOrderSaved(before, after));
+        return after;
+    }
+
+    // The written state follows from the old one; it is not read back
+    private static Order patched(Order before, Map<String, Object> fields) {
+        Order after = new Order();
+        BeanUtils.copyProperties(before, after);
+        PropertyAccessorFactory.forBeanPropertyAccess(after).setPropertyValues(fields);
+        after.setVersion(before.getVersion() + 1);
+        return after;
     }
 
     @Override
     public void deleteOrder(String id) {
-        orderRepository.deleteById(id);
+        Order deleted = orderRepository.deleteAndReturn(id);
+        if (deleted != null) {
+            if (deleted.isStockReserved()) {
+                applyStockDeltas(id, lineQuantities(deleted, 1), "order:" + id + ":release");
+            }
+            changeListeners.forEach(listener -> listener.onOrderDeleted(deleted));
+        }
+    }
+
+    /**
+     * Works out the stock moves that make stock match what {@code after} should hold, given
+     * what {@code before} held, and sets {@code after.stockReserved} accordingly.
+     * New orders reserve their line items, cancelling releases them, reactivating a
+     * cancelled order reserves them again, and editing a reserved order's lines only
+     * moves the net difference per SKU. Orders from before reservations existed are
+     * left alone.
+     *
+     * Deductions are applied here, so a write that can't be backed by stock is refused
+     * before it is made. Releases are left to {@link #completeReservation} once the write
+     * that changes {@code stockReserved} succeeded, so a write that loses to a concurrent
+     * one never releases stock its order still holds.
+     * @return The deductions applied, to undo if the write fails, and the releases still due.
+     */
+    private Reservation reconcileReservation(Order before, Order after) {
+        boolean heldBefore = before != null && before.isStockReserved();
+        boolean holdAfter = !isCancelled(after) && (before == null || heldBefore || isCancelled(before));
+
+        Map<String, Integer> deltas = new HashMap<>();
+        if (holdAfter) {
+            lineQuantities(after, -1).forEach((sku, qty) -> deltas.merge(sku, qty, Integer::sum));
+        }
+        if (heldBefore) {
+            lineQuantities(before, 1).forEach((sku, qty) -> deltas.merge(sku, qty, Integer::sum));
+        }
+        Map<String, Integer> deducted = new HashMap<>();
+        Map<String, Integer> released = new HashMap<>();
+        deltas.forEach((sku, qty) -> {
+            if (qty < 0) {
+                deducted.put(sku, qty);
+            } else if (qty > 0) {
+                released.put(sku, qty);
+            }
+        });
+        applyStockDeltas(after.getId(), deducted, "order:" + after.getId());
+        after.setStockReserved(holdAfter);
+        return new Reservation(deducted, released);
+    }
+
+    private void completeReservation(String orderId, Reservation reservation) {
+        applyStockDeltas(orderId, reservation.released(), "order:" + orderId);
+    }
+
+    private void undoReservation(String orderId, Reservation reservation) {
+        Map<String, Integer> inverse = new HashMap<>();
+        reservation.deducted().forEach((sku, qty) -> inverse.put(sku, -qty));
+        applyStockDeltas(orderId, inverse, "order:" + orderId + ":rollback");
+    }
+
+    /**
+     * The id of the order an earlier submission created under a key, which is why an insert
+     * carrying the same key failed; null if there is none or it can't be looked up.
+     */
+    private String orderCreatedUnder(String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return null;
+        }
+        try {
+            return orderRepository.findByIdempotencyKey(idempotencyKey).map(Order::getId).orElse(null);
+        } catch (DataAccessException e) {
+            // Reported as the failed insert; the key is released, so the retry finds out
+            return null;
+        }
+    }
+
+    private void release(String idempotencyKey) {
+        if (idempotencyKey != null) {
+            idempotencyKeys.release(idempotencyKey);
+        }
+    }
+
+    private void applyStockDeltas(String orderId, Map<String, Integer> deltas, String reason) {
+        List<Item> updated = itemService.adjustStockBySku(deltas, reason);
+        updated.forEach(eventPublisher::publishQuantityChanged);
+    }
+
+    private static Map<String, Integer> lineQuantities(Order order, int sign) {
+        Map<String, Integer> quantities = new HashMap<>();
+        if (order.getItems() != null) {
+            for (OrderItem line : order.getItems()) {
+                if (line.getSku() != null && line.getQuantity() > 0) {
+                    quantities.merge(line.getSku(), sign * line.getQuantity(), Integer::sum);
+                }
+            }
+        }
+        return quantities;
+    }
+
+    /**
+     * Records each line's SKU category on the line, for the revenue rollups to take the line
+     * back from the same category later. Lines of SKUs that no longer exist keep what they have.
+     */
+    private void recordCategories(Order order) {
+        if (order.getItems() == null) {
+            return;
+        }
+        List<String> skus = new ArrayList<>();
+        for (OrderItem line : order.getItems()) {
+            if (line.getSku() != null) {
+                skus.add(line.getSku());
+            }
+        }
+        Map<String, String> categories = itemCache.getCategoriesBySku(skus);
+        for (OrderItem line : order.getItems()) {
+            if (line.getSku() != null && categories.containsKey(line.getSku())) {
+                line.setCategory(categories.get(line.getSku()));
+            }
+        }
+    }
+
+    /**
+     * Dates a delivery the caller gave no date for: the day the order first became delivered.
+     */
+    private static void stampDelivery(Order before, Order after) {
+        if (after.getDeliveredDate() == null && isDelivered(after.getStatus())) {
+            after.setDeliveredDate(before != null && isDelivered(before.getStatus()) && before.getDeliveredDate() != null
+                    ? before.getDeliveredDate() : LocalDate.now());
+        }
+    }
+
+    private static boolean isDelivered(String status) {
+        return "delivered".equalsIgnoreCase(status);
+    }
+
+    private static boolean isCancelled(Order order) {
+        return isCancelled(order.getStatus());
+    }
+
+    private static boolean isCancelled(String status) {
+        return "cancelled".equalsIgnoreCase(status) || "canceled".equalsIgnoreCase(status);
     }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.supplychain.service;
+
+import com.supplychain.model.RevenueRollup;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service interface for revenue over date ranges, answered from pre-aggregated buckets
+ */
+public interface RevenueService {
+
+    /**
+     * Get revenue, units and orders over a date range, with one point per interval
+     * @param from First day of the range
+     * @param to Last day of the range (inclusive)
+     * @param interval day, week or month
+     * @param dimension total, sku, category or paymentStatus
+     * @param key The SKU, category or payment status; required unless the dimension is total
+     */
+    Map<String, Object> getRevenue(LocalDate from, LocalDate to, String interval, String dimension, String key);
+
+    /**
+     * Get the keys of a dimension with the most revenue in a date range, highest first
+     */
+    List<RevenueRollup> getBreakdown(String dimension, LocalDate from, LocalDate to, int limit);
+
+    /**
+     * Start rebuilding every bucket from the order history in the background
+     * @return false if a backfill is already running
+     */
+    boolean startBackfill();
+
+    /**
+     * Whether a backfill is running, and the outcome of the last one
+     */
+    Map<String, Object> getBackfillStatus();
+}
@@ -0,0 +1,19 @@
+package com.supplychain.service;
+
+import java.util.Map;
+
+/**
+ * Service interface for the inventory stock overview
+ */
+public interface StockOverviewService {
+
+    /**
+     * Get totals, low/out-of-stock counts and the most recently updated items
+     */
+    Map<String, Object> getOverview();
+
+    /**
+     * Rebuild the overview from the item collection
+     */
+    void rebuild();
+}
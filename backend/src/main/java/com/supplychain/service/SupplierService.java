@@ -0,0 +1,36 @@
+package com.supplychain.service;
+
+import com.supplychain.model.SupplierScorecard;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service interface for supplier scorecards: stock, order volume, fill rate, on-time rate and lead times
+ */
+public interface SupplierService {
+
+    /**
+     * Get the scorecard of one supplier, merged from the months in the window
+     * @param from First month of the window, or null for the default window ending at {@code to}
+     * @param to Last month of the window (inclusive), or null for the current month
+     */
+    Optional<SupplierScorecard> getScorecard(String supplier, YearMonth from, YearMonth to);
+
+    /**
+     * Get the scorecards of all suppliers for the window, most ordered units first
+     */
+    List<SupplierScorecard> getScorecards(YearMonth from, YearMonth to);
+
+    /**
+     * Start rebuilding the scorecards from the items and order history in the background
+     * @return false if a rebuild is already running
+     */
+    boolean startRebuild();
+
+    /**
+     * Number of suppliers and sketches, last rebuild time and duration
+     */
+    Map<String, Object> getStatus();
+}
@@ -0,0 +1,29 @@
+package com.supplychain.service;
+
+/**
+ * Thrown when a conditional update names a version the document no longer has.
+ * Nothing has been written when this is thrown.
+ */
+public class VersionConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+    private final long currentVersion;
+
+    public VersionConflictException(String id, long currentVersion) {
+        super("Document " + id + " was changed concurrently; its version is now " + currentVersion);
+        this.id = id;
+        this.currentVersion = currentVersion;
+    }
+
+    /**
+     * The document that was changed.
+     */
+    public String getId() { return id; }
+
+    /**
+     * The version the document has now, to re-read and retry against.
+     */
+    public long getCurrentVersion() { return currentVersion; }
+}
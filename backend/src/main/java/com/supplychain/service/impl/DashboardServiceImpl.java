@@ -0,0 +1,237 @@
+package com.supplychain.service.impl;
+
+import com.supplychain.events.CollectionVersions;
+import com.supplychain.events.OrderChangeListener;
+import com.supplychain.model.Order;
+import com.supplychain.model.OrderSummary;
+import com.supplychain.repository.OrderRepository;
+import com.supplychain.service.DashboardService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the dashboard order summary in memory and applies the delta of every
+ * order write, so reading the dashboard needs no database call. Each order keeps a
+ * small entry (status, payment status, total and version), so a notification that
+ * arrives after the build already read its write, or after a newer write to the same
+ * order, is recognized by its version and not counted twice. The counters are built
+ * by streaming the orders at startup and periodically checked against the aggregation
+ * pipeline; a drift found there is reported and repaired by another build.
+ */
+@Service
+public class DashboardServiceImpl implements DashboardService, OrderChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardServiceImpl.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CollectionVersions versions;
+
+    private OrderSummary counters;
+    private Map<String, Entry> entries;
+    // Changes seen while a build is streaming the collection, replayed onto the new counters
+    private List<Object> pendingChanges;
+    private long writeSequence;
+
+    @Override
+    public OrderSummary getSummary() {
+        synchronized (this) {
+            if (counters != null) {
+                return new OrderSummary(counters);
+            }
+        }
+        // Not built yet (startup still running): answer from the pipeline directly
+        return orderRepository.summarize();
+    }
+
+    @Override
+    public Map<String, Object> verifySummary() {
+        long sequence;
+        synchronized (this) {
+            sequence = writeSequence;
+        }
+        OrderSummary computed = orderRepository.summarize();
+
+        Map<String, Object> report = new HashMap<>();
+        OrderSummary previous;
+        synchronized (this) {
+            if (writeSequence != sequence) {
+                // Writes landed while the pipeline ran, so the two can't be compared reliably
+                report.put("status", "skipped");
+                return report;
+            }
+            if (counters != null && counters.matches(computed)) {
+                report.put("status", "consistent");
+                report.put("summary", new OrderSummary(counters));
+                return report;
+            }
+            previous = counters == null ? null : new OrderSummary(counters);
+        }
+        // The pipeline's result may already hold a write whose notification is still on its
+        // way, so it is never installed as is; the counters are rebuilt from the orders instead
+        if (previous != null) {
+            log.warn("Dashboard counters drifted from the database, rebuilding");
+            report.put("previous", previous);
+        }
+        rebuild();
+        report.put("status", "rebuilt");
+        report.put("summary", getSummary());
+        return report;
+    }
+
+    /**
+     * Builds the counters at startup, retrying while the database is unreachable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${inventory.views.rebuild-retry-ms:30000}",
+               initialDelayString = "${inventory.views.rebuild-retry-ms:30000}")
+    public void buildIfNeeded() {
+        synchronized (this) {
+            if (counters != null) {
+                return;
+            }
+        }
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Dashboard counters not built, database unavailable: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.consistency-check-interval-ms:300000}",
+               initialDelayString = "${dashboard.consistency-check-interval-ms:300000}")
+    public void scheduledConsistencyCheck() {
+        verifySummary();
+    }
+
+    /**
+     * Rebuilds the counters from the orders; writes seen meanwhile are replayed onto them.
+     */
+    public void rebuild() {
+        synchronized (this) {
+            if (pendingChanges != null) {
+                // Another build is running and will install what this one would
+                return;
+            }
+            pendingChanges = new ArrayList<>();
+        }
+        OrderSummary rebuilt = new OrderSummary();
+        Map<String, Entry> rebuiltEntries = new HashMap<>();
+        try (Stream<Order> orders = orderRepository.streamAll(null, null)) {
+            orders.forEach(order -> apply(rebuilt, rebuiltEntries, order));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            for (Object change : pendingChanges) {
+                if (change instanceof Order) {
+                    apply(rebuilt, rebuiltEntries, (Order) change);
+                } else {
+                    remove(rebuilt, rebuiltEntries, (String) change);
+                }
+            }
+            pendingChanges = null;
+            counters = rebuilt;
+            entries = rebuiltEntries;
+            versions.advance(CollectionVersions.DASHBOARD);
+        }
+    }
+
+    @Override
+    public synchronized void onOrderSaved(Order before, Order after) {
+        writeSequence++;
+        if (pendingChanges != null) {
+            pendingChanges.add(after);
+        }
+        if (counters != null && !apply(counters, entries, after)) {
+            // Already counted, or a newer write to the same order was
+            return;
+        }
+        // Only once the change is in, so a poll never gets the new ETag with the old summary
+        versions.advance(CollectionVersions.DASHBOARD);
+    }
+
+    @Override
+    public synchronized void onOrderDeleted(Order before) {
+        writeSequence++;
+        if (pendingChanges != null) {
+            pendingChanges.add(before.getId());
+        }
+        if (counters != null) {
+            remove(counters, entries, before.getId());
+        }
+        versions.advance(CollectionVersions.DASHBOARD);
+    }
+
+    /**
+     * Replaces an order's contribution with that of {@code order}, unless what is counted
+     * for it is as new already.
+     * @return Whether the counters changed.
+     */
+    private static boolean apply(OrderSummary summary, Map<String, Entry> entries, Order order) {
+        Entry previous = entries.get(order.getId());
+        if (previous != null && previous.version >= order.getVersion()) {
+            return false;
+        }
+        Entry entry = new Entry(order);
+        if (previous != null) {
+            if (previous.sameContribution(entry)) {
+                entries.put(order.getId(), entry);
+                // Edits that leave status, payment status and total alone don't change the dashboard
+                return false;
+            }
+            summary.apply(previous.status, previous.paymentStatus, previous.totalAmount, -1);
+        }
+        summary.apply(entry.status, entry.paymentStatus, entry.totalAmount, 1);
+        entries.put(order.getId(), entry);
+        return true;
+    }
+
+    private static void remove(OrderSummary summary, Map<String, Entry> entries, String id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            summary.apply(previous.status, previous.paymentStatus, previous.totalAmount, -1);
+        }
+    }
+
+    /**
+     * Per-order contribution to the counters.
+     */
+    private static final class Entry {
+        final String status;
+        final String paymentStatus;
+        final double totalAmount;
+        final long version;
+
+        Entry(Order order) {
+            // Interned, since a handful of distinct values is shared by every order
+            this.status = order.getStatus() == null ? null : order.getStatus().intern();
+            this.paymentStatus = order.getPaymentStatus() == null ? null : order.getPaymentStatus().intern();
+            this.totalAmount = order.getTotalAmount();
+            this.version = order.getVersion();
+        }
+
+        boolean sameContribution(Entry other) {
+            return Objects.equals(status, other.status)
+                    && Objects.equals(paymentStatus, other.paymentStatus)
+                    && totalAmount == other.totalAmount;
+        }
+    }
+}
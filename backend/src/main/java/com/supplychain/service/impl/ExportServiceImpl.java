@@ -0,0 +1,399 @@
+package com.supplychain.service.impl;
+
+import com.supplychain.model.ExportJob;
+import com.supplychain.model.Item;
+import com.supplychain.model.Order;
+import com.supplychain.model.OrderItem;
+import com.supplychain.repository.ItemRepository;
+import com.supplychain.repository.OrderRepository;
+import com.supplychain.service.ExportService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Order and inventory exports, read from a database cursor and written row by row, so memory
+ * use does not depend on the size of the export.
+ *
+ * Orders are flattened to one row per line item (an order without lines still gets one row)
+ * and selected by order date. The inventory export is a valuation snapshot: one row per item
+ * with its stock value, each item as it was when the cursor reached it.
+ *
+ * Exports are either streamed straight into a response, or run as background jobs on
+ * {@code exports.max-concurrent} threads that write to a file under {@code exports.dir}. A job
+ * reports its rows and progress while it runs; once completed its file can be downloaded, in
+ * ranges if a download has to be resumed. Jobs and their files are kept in memory and on this
+ * node for {@code exports.retention-hours}.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportServiceImpl.class);
+
+    private static final String[] ORDER_COLUMNS = {"orderId", "orderDate", "status", "paymentStatus",
+            "paymentMethod", "customerName", "customerEmail", "expectedDelivery", "deliveredDate", "sku", "itemName",
+            "quantity", "unitPrice", "lineTotal", "orderTotal"};
+    private static final String[] INVENTORY_COLUMNS = {"itemId", "sku", "name", "category", "supplier", "location",
+            "quantity", "minQuantity", "price", "value", "lowStock", "updatedAt"};
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Value("${exports.dir:${java.io.tmpdir}/scm-exports}")
+    private String directory;
+
+    @Value("${exports.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${exports.max-queued:20}")
+    private int maxQueued;
+
+    @Value("${exports.retention-hours:24}")
+    private long retentionHours;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private Path exportDir;
+    private ThreadPoolExecutor jobExecutor;
+
+    @PostConstruct
+    void init() throws IOException {
+        exportDir = Paths.get(directory);
+        Files.createDirectories(exportDir);
+        // Jobs don't survive a restart, so files left by an earlier run can no longer be downloaded
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(exportDir, "*.{csv,gz,part}")) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+        AtomicInteger threads = new AtomicInteger();
+        jobExecutor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueued), runnable -> {
+                    Thread thread = new Thread(runnable, "export-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    @Override
+    public long writeOrders(LocalDate from, LocalDate to, String format, OutputStream out) throws IOException {
+        checkRange(from, to);
+        return exportOrders(from, to, ExportWriter.open(format, out, ORDER_COLUMNS), new Job(null)).rows;
+    }
+
+    @Override
+    public long writeInventory(String format, OutputStream out) throws IOException {
+        return exportInventory(ExportWriter.open(format, out, INVENTORY_COLUMNS), new Job(null)).rows;
+    }
+
+    @Override
+    public ExportJob startJob(String type, LocalDate from, LocalDate to, String format) {
+        if (TYPE_ORDERS.equals(type)) {
+            checkRange(from, to);
+        } else if (TYPE_INVENTORY.equals(type)) {
+            from = null;
+            to = null;
+        } else {
+            throw new IllegalArgumentException("type must be " + TYPE_ORDERS + " or " + TYPE_INVENTORY);
+        }
+        if (!FORMAT_CSV.equals(format) && !FORMAT_NDJSON_GZ.equals(format)) {
+            throw new IllegalArgumentException("format must be " + FORMAT_CSV + " or " + FORMAT_NDJSON_GZ);
+        }
+        ExportJob state = new ExportJob();
+        state.setId(new ObjectId().toHexString());
+        state.setType(type);
+        state.setFormat(format);
+        state.setFrom(from);
+        state.setTo(to);
+        state.setStatus(ExportJob.QUEUED);
+        state.setFileName(fileName(type, from, to, format));
+        state.setCreatedAt(LocalDateTime.now());
+        Job job = new Job(state);
+        jobs.put(state.getId(), job);
+        try {
+            jobExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(state.getId());
+            throw e;
+        }
+        return job.snapshot();
+    }
+
+    @Override
+    public Optional<ExportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::snapshot);
+    }
+
+    @Override
+    public List<ExportJob> getJobs() {
+        List<ExportJob> snapshots = new ArrayList<>(jobs.size());
+        jobs.values().forEach(job -> snapshots.add(job.snapshot()));
+        snapshots.sort(Comparator.comparing(ExportJob::getCreatedAt).reversed());
+        return snapshots;
+    }
+
+    @Override
+    public Optional<Path> getFile(String id) {
+        Job job = jobs.get(id);
+        if (job == null || !ExportJob.COMPLETED.equals(job.snapshot().getStatus())) {
+            return Optional.empty();
+        }
+        return Optional.of(file(job.state));
+    }
+
+    @Override
+    public boolean deleteJob(String id) {
+        Job job = jobs.remove(id);
+        if (job == null) {
+            return false;
+        }
+        // A running job stops at its next row and removes its partial file itself
+        job.cancelled = true;
+        deleteQuietly(file(job.state));
+        return true;
+    }
+
+    @Override
+    public String fileName(String type, LocalDate from, LocalDate to, String format) {
+        String name = TYPE_ORDERS.equals(type)
+                ? type + "-" + from + "-" + to
+                : type + "-" + LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).toString().replace(":", "");
+        return name + "." + format;
+    }
+
+    /**
+     * Drops finished jobs and their files once they are older than the retention period.
+     */
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 3_600_000)
+    public void removeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        jobs.values().removeIf(job -> {
+            ExportJob state = job.snapshot();
+            boolean expired = state.getFinishedAt() != null && state.getFinishedAt().isBefore(cutoff);
+            if (expired) {
+                deleteQuietly(file(job.state));
+            }
+            return expired;
+        });
+    }
+
+    private void run(Job job) {
+        if (job.cancelled) {
+            return;
+        }
+        ExportJob state = job.state;
+        synchronized (job) {
+            state.setStatus(ExportJob.RUNNING);
+            state.setStartedAt(LocalDateTime.now());
+        }
+        Path partial = exportDir.resolve(state.getId() + "." + state.getFormat() + PARTIAL_SUFFIX);
+        try {
+            try (OutputStream out = new CountingOutputStream(Files.newOutputStream(partial), job)) {
+                if (TYPE_ORDERS.equals(state.getType())) {
+                    exportOrders(state.getFrom(), state.getTo(),
+                            ExportWriter.open(state.getFormat(), out, ORDER_COLUMNS), job);
+                } else {
+                    exportInventory(ExportWriter.open(state.getFormat(), out, INVENTORY_COLUMNS), job);
+                }
+            }
+            Files.move(partial, file(state), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.finish(ExportJob.COMPLETED, null);
+            log.info("Export {} wrote {} rows ({} bytes) to {}", state.getId(), job.rows, job.bytes,
+                    state.getFileName());
+        } catch (CancellationException e) {
+            job.finish(ExportJob.CANCELLED, null);
+        } catch (IOException | RuntimeException e) {
+            job.finish(ExportJob.FAILED, e.getMessage());
+            log.warn("Export {} failed: {}", state.getId(), e.getMessage());
+        } finally {
+            deleteQuietly(partial);
+            if (job.cancelled) {
+                // Deleted while it was being moved into place
+                deleteQuietly(file(state));
+            }
+        }
+    }
+
+    private Job exportOrders(LocalDate from, LocalDate to, ExportWriter writer, Job job) throws IOException {
+        double days = ChronoUnit.DAYS.between(from, to) + 1;
+        try (writer; Stream<Order> orders = orderRepository.streamByOrderDate(from, to.plusDays(1))) {
+            for (Order order : (Iterable<Order>) orders::iterator) {
+                job.checkCancelled();
+                List<OrderItem> lines = order.getItems() != null && !order.getItems().isEmpty()
+                        ? order.getItems() : null;
+                if (lines == null) {
+                    writer.row(orderColumns(order, null));
+                    job.rows++;
+                } else {
+                    for (OrderItem line : lines) {
+                        writer.row(orderColumns(order, line));
+                        job.rows++;
+                        job.value += line.getQuantity() * line.getPrice();
+                    }
+                }
+                if (order.getOrderDate() != null) {
+                    // Newest first, so the order date walks back from the end of the range
+                    job.progress = Math.max(job.progress,
+                            Math.min(1, (ChronoUnit.DAYS.between(order.getOrderDate(), to) + 1) / days));
+                }
+            }
+        }
+        return job;
+    }
+
+    private static Object[] orderColumns(Order order, OrderItem line) {
+        return new Object[] {order.getId(), order.getOrderDate(), order.getStatus(), order.getPaymentStatus(),
+                order.getPaymentMethod(), order.getCustomerName(), order.getCustomerEmail(),
+                order.getExpectedDelivery(), order.getDeliveredDate(),
+                line != null ? line.getSku() : null,
+                line != null ? line.getName() : null,
+                line != null ? line.getQuantity() : null,
+                line != null ? line.getPrice() : null,
+                line != null ? line.getQuantity() * line.getPrice() : null,
+                order.getTotalAmount()};
+    }
+
+    private Job exportInventory(ExportWriter writer, Job job) throws IOException {
+        double total = Math.max(1, itemRepository.count());
+        try (writer; Stream<Item> items = itemRepository.streamAll(null, null)) {
+            for (Item item : (Iterable<Item>) items::iterator) {
+                job.checkCancelled();
+                double value = item.getQuantity() * item.getPrice();
+                writer.row(item.getId(), item.getSku(), item.getName(), item.getCategory(), item.getSupplier(),
+                        item.getLocation(), item.getQuantity(), item.getMinQuantity(), item.getPrice(), value,
+                        item.getQuantity() <= item.getMinQuantity(), item.getUpdatedAt());
+                job.rows++;
+                job.value += value;
+                job.progress = Math.min(1, job.rows / total);
+            }
+        }
+        return job;
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("from and to are required");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+    }
+
+    private Path file(ExportJob state) {
+        return exportDir.resolve(state.getId() + "." + state.getFormat());
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * A running export: its counters are written by the one thread running it and read by
+     * status requests, which see them through {@link #snapshot}.
+     */
+    private static final class Job {
+        final ExportJob state;
+        volatile boolean cancelled;
+        volatile long rows;
+        volatile long bytes;
+        volatile double progress;
+        volatile double value;
+
+        Job(ExportJob state) {
+            this.state = state;
+        }
+
+        void checkCancelled() {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+        }
+
+        synchronized void finish(String status, String error) {
+            state.setStatus(status);
+            state.setError(error);
+            state.setFinishedAt(LocalDateTime.now());
+            if (ExportJob.COMPLETED.equals(status)) {
+                progress = 1;
+            }
+        }
+
+        synchronized ExportJob snapshot() {
+            ExportJob copy = new ExportJob();
+            BeanUtils.copyProperties(state, copy);
+            copy.setRows(rows);
+            copy.setBytes(bytes);
+            copy.setProgress(Math.round(progress * 1000) / 1000.0);
+            copy.setTotalValue(Math.round(value * 100) / 100.0);
+            return copy;
+        }
+    }
+
+    /**
+     * Buffers writes to the file and counts the bytes that reach it.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private final Job job;
+
+        CountingOutputStream(OutputStream out, Job job) {
+            super(new BufferedOutputStream(out, 64 * 1024));
+            this.job = job;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            job.bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            job.bytes += len;
+        }
+    }
+}
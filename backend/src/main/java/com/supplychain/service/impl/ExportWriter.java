@@ -0,0 +1,133 @@
+package com.supplychain.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.supplychain.service.ExportService;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes export rows as CSV with a header row, or as gzip-compressed NDJSON with one object
+ * per row. Rows are written through a fixed-size buffer as they come and nothing is kept, so
+ * an export of any size runs in constant memory. Values are strings, numbers, booleans or null;
+ * anything else is written as its {@code toString()}. {@link #close} finishes the format and
+ * closes the output.
+ */
+abstract class ExportWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    final String[] columns;
+
+    private ExportWriter(String[] columns) {
+        this.columns = columns;
+    }
+
+    static ExportWriter open(String format, OutputStream out, String... columns) throws IOException {
+        if (ExportService.FORMAT_CSV.equals(format)) {
+            return new Csv(out, columns);
+        }
+        if (ExportService.FORMAT_NDJSON_GZ.equals(format)) {
+            return new GzipNdjson(out, columns);
+        }
+        throw new IllegalArgumentException("format must be " + ExportService.FORMAT_CSV + " or "
+                + ExportService.FORMAT_NDJSON_GZ);
+    }
+
+    /**
+     * Writes one row; the values are in the order of the columns.
+     */
+    abstract void row(Object... values) throws IOException;
+
+    private static final class Csv extends ExportWriter {
+        private final Writer writer;
+
+        Csv(OutputStream out, String[] columns) throws IOException {
+            super(columns);
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            write(columns);
+        }
+
+        @Override
+        void row(Object... values) throws IOException {
+            write(values);
+        }
+
+        private void write(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writeField(values[i]);
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(Object value) throws IOException {
+            String text = value.toString();
+            // Text starting like a formula would be run by spreadsheets; a leading quote keeps it text
+            if (!(value instanceof Number) && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+                text = "'" + text;
+            }
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static final class GzipNdjson extends ExportWriter {
+        private final JsonGenerator generator;
+
+        GzipNdjson(OutputStream out, String[] columns) throws IOException {
+            super(columns);
+            generator = JSON.createGenerator(new GZIPOutputStream(out, BUFFER_SIZE));
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void row(Object... values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                generator.writeFieldName(columns[i]);
+                Object value = values[i];
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Integer || value instanceof Long) {
+                    generator.writeNumber(((Number) value).longValue());
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.doubleValue());
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Also finishes the gzip stream and closes the output
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,582 @@
+package com.supplychain.service.impl;
+
+import com.supplychain.events.OrderChangeListener;
+import com.supplychain.model.DemandForecast;
+import com.supplychain.model.Item;
+import com.supplychain.model.Order;
+import com.supplychain.model.OrderItem;
+import com.supplychain.repository.ItemRepository;
+import com.supplychain.repository.OrderRepository;
+import com.supplychain.service.ForecastService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Daily demand forecasts per SKU and per category, built from order line items.
+ *
+ * A full refit streams the last {@code forecast.history-days} of orders once, builds every
+ * daily series and fits one {@link HoltModel} per series in parallel. It runs nightly and at
+ * startup. Between refits each order write updates the affected series: demand for the current
+ * day accumulates, and when a later day arrives the finished days are stepped into the model, so
+ * the forecast moves on without a refit. Writes that change an already finished day replay only
+ * that series from its retained history, keeping its fitted weights until the next full refit.
+ * Reads are served from the precomputed forecasts.
+ * Orders are counted on their order date; cancelled orders and orders dated in the future are
+ * not demand.
+ */
+@Service
+public class ForecastServiceImpl implements ForecastService, OrderChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastServiceImpl.class);
+
+    // Relative change over the horizon below which a forecast counts as flat
+    private static final double STABLE_TREND = 0.05;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Value("${forecast.history-days:120}")
+    private int historyDays;
+
+    @Value("${forecast.max-horizon:60}")
+    private int maxHorizon;
+
+    @Value("${forecast.parallelism:0}")
+    private int parallelism;
+
+    private final ExecutorService refitExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "forecast-refit");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean refitRunning = new AtomicBoolean();
+
+    // Replaced as a whole by each refit; null until the first one completes
+    private volatile Models models;
+    // Orders written while a refit streams the history: the version before the first write and after the last
+    private Map<String, Order[]> pendingChanges;
+    // The version of each pending order that the refit's stream read, if it read one after the order became pending
+    private Map<String, Order> seenByRefit;
+    private volatile long lastRefitMillis;
+    private volatile long lastRefitOrderLines;
+
+    @Override
+    public Optional<DemandForecast> getForecast(String scope, String key, int horizon, double confidence) {
+        Models current = models;
+        if (current == null) {
+            return Optional.empty();
+        }
+        Series series = current.scope(scope).get(key);
+        if (series == null) {
+            return Optional.empty();
+        }
+        return Optional.of(series.toForecast(scope, key, clampHorizon(horizon), clampConfidence(confidence),
+                today(), current.fittedAt));
+    }
+
+    @Override
+    public List<DemandForecast> getTopForecasts(String scope, int horizon, double confidence, int limit) {
+        Models current = models;
+        if (current == null || limit <= 0) {
+            return List.of();
+        }
+        int days = clampHorizon(horizon);
+        long today = today();
+        PriorityQueue<Map.Entry<String, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        current.scope(scope).forEach((key, series) -> {
+            double total = series.total(days, today);
+            if (top.size() < limit) {
+                top.add(Map.entry(key, total));
+            } else if (total > top.peek().getValue()) {
+                top.poll();
+                top.add(Map.entry(key, total));
+            }
+        });
+        double level = clampConfidence(confidence);
+        List<DemandForecast> forecasts = new ArrayList<>(top.size());
+        top.forEach(entry -> forecasts.add(current.scope(scope).get(entry.getKey())
+                .toForecast(scope, entry.getKey(), days, level, today, current.fittedAt)));
+        forecasts.sort(Comparator.comparingDouble(DemandForecast::getTotalForecast).reversed());
+        return forecasts;
+    }
+
+    @Override
+    public int getMaxHorizon() {
+        return maxHorizon;
+    }
+
+    @Override
+    public Map<String, Object> getStatus() {
+        Models current = models;
+        Map<String, Object> status = new HashMap<>();
+        status.put("ready", current != null);
+        status.put("refitting", refitRunning.get());
+        status.put("skus", current != null ? current.skus.size() : 0);
+        status.put("categories", current != null ? current.categories.size() : 0);
+        status.put("lastRefitAt", current != null ? current.fittedAt : null);
+        status.put("lastRefitMillis", lastRefitMillis);
+        status.put("lastRefitOrderLines", lastRefitOrderLines);
+        status.put("historyDays", historyDays);
+        status.put("maxHorizon", maxHorizon);
+        return status;
+    }
+
+    /**
+     * Fits the models at startup, retrying while the database is unreachable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${inventory.views.rebuild-retry-ms:30000}",
+               initialDelayString = "${inventory.views.rebuild-retry-ms:30000}")
+    public void buildIfNeeded() {
+        if (models == null) {
+            startRefit();
+        }
+    }
+
+    @Scheduled(cron = "${forecast.refit-cron:0 30 2 * * *}")
+    public void nightlyRefit() {
+        startRefit();
+    }
+
+    @Override
+    public boolean startRefit() {
+        if (!refitRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        // Off the scheduler thread, which the other scheduled jobs share
+        refitExecutor.execute(() -> {
+            try {
+                refit();
+            } catch (DataAccessException e) {
+                log.warn("Forecast models not refitted, database unavailable: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Forecast refit failed", e);
+            } finally {
+                refitRunning.set(false);
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refitExecutor.shutdownNow();
+    }
+
+    @Override
+    public void onOrderSaved(Order before, Order after) {
+        apply(after.getId(), before, after);
+    }
+
+    @Override
+    public void onOrderDeleted(Order before) {
+        apply(before.getId(), before, null);
+    }
+
+    private void apply(String id, Order before, Order after) {
+        Models current;
+        synchronized (this) {
+            if (pendingChanges != null) {
+                pendingChanges.computeIfAbsent(id, key -> new Order[] {before, null})[1] = after;
+            }
+            current = models;
+        }
+        if (current != null && !sameDemand(before, after)) {
+            current.add(before, -1);
+            current.add(after, 1);
+        }
+    }
+
+    private void refit() {
+        long started = System.currentTimeMillis();
+        synchronized (this) {
+            pendingChanges = new LinkedHashMap<>();
+            seenByRefit = new HashMap<>();
+        }
+        try {
+            long today = today();
+            Models rebuilt = new Models(LocalDateTime.now());
+            try (Stream<Item> items = itemRepository.streamAll(null, null)) {
+                items.forEach(item -> {
+                    if (item.getSku() != null && item.getCategory() != null) {
+                        rebuilt.categoryBySku.put(item.getSku(), item.getCategory());
+                    }
+                });
+            }
+            long firstDay = today - historyDays + 1;
+            LongAdder lines = new LongAdder();
+            try (Stream<Order> orders = orderRepository.streamAll(null, null)) {
+                // Newest first, so the stream can stop at the first order older than the window
+                orders.takeWhile(order -> order.getOrderDate() == null || order.getOrderDate().toEpochDay() >= firstDay)
+                        .forEach(order -> {
+                            recordSeen(order);
+                            lines.add(rebuilt.accumulate(order, today));
+                        });
+            }
+            fitAll(rebuilt);
+            synchronized (this) {
+                for (Map.Entry<String, Order[]> change : pendingChanges.entrySet()) {
+                    // Orders the stream passed before they changed were read in their first pending version
+                    Order seen = seenByRefit.get(change.getKey());
+                    rebuilt.add(seen != null ? seen : change.getValue()[0], -1);
+                    rebuilt.add(change.getValue()[1], 1);
+                }
+                models = rebuilt;
+            }
+            lastRefitMillis = System.currentTimeMillis() - started;
+            lastRefitOrderLines = lines.sum();
+            log.info("Forecast models fitted for {} SKUs and {} categories from {} order lines in {} ms",
+                    rebuilt.skus.size(), rebuilt.categories.size(), lastRefitOrderLines, lastRefitMillis);
+        } finally {
+            synchronized (this) {
+                pendingChanges = null;
+                seenByRefit = null;
+            }
+        }
+    }
+
+    private void fitAll(Models rebuilt) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            // A parallel stream started inside a pool runs on that pool's workers
+            pool.submit(() -> Stream.concat(rebuilt.skus.values().stream(), rebuilt.categories.values().stream())
+                    .parallel()
+                    .forEach(Series::refit)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fitting forecast models", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                    : new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private synchronized void recordSeen(Order order) {
+        if (pendingChanges.containsKey(order.getId())) {
+            seenByRefit.put(order.getId(), order);
+        }
+    }
+
+    private int clampHorizon(int horizon) {
+        return Math.max(1, Math.min(horizon, maxHorizon));
+    }
+
+    private static double clampConfidence(double confidence) {
+        return Math.max(0.5, Math.min(confidence, 0.999));
+    }
+
+    private static long today() {
+        return LocalDate.now().toEpochDay();
+    }
+
+    /**
+     * Whether a write left an order's demand as it was, as status and payment updates do.
+     */
+    private static boolean sameDemand(Order before, Order after) {
+        if (before == null || after == null || isCancelled(before) != isCancelled(after)
+                || !Objects.equals(before.getOrderDate(), after.getOrderDate())) {
+            return false;
+        }
+        List<OrderItem> beforeLines = before.getItems() != null ? before.getItems() : List.of();
+        List<OrderItem> afterLines = after.getItems() != null ? after.getItems() : List.of();
+        if (beforeLines.size() != afterLines.size()) {
+            return false;
+        }
+        for (int i = 0; i < beforeLines.size(); i++) {
+            if (!Objects.equals(beforeLines.get(i).getSku(), afterLines.get(i).getSku())
+                    || beforeLines.get(i).getQuantity() != afterLines.get(i).getQuantity()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCancelled(Order order) {
+        return "cancelled".equalsIgnoreCase(order.getStatus()) || "canceled".equalsIgnoreCase(order.getStatus());
+    }
+
+    /**
+     * Standard normal quantile for a two-sided band covering {@code confidence}
+     * (Abramowitz and Stegun 26.2.23, accurate to 4.5e-4).
+     */
+    static double zScore(double confidence) {
+        double t = Math.sqrt(-2 * Math.log((1 - confidence) / 2));
+        return t - (2.515517 + 0.802853 * t + 0.010328 * t * t)
+                / (1 + 1.432788 * t + 0.189269 * t * t + 0.001308 * t * t * t);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    /**
+     * One generation of models, from a full refit plus the order writes since.
+     */
+    private final class Models {
+        final Map<String, Series> skus = new ConcurrentHashMap<>();
+        final Map<String, Series> categories = new ConcurrentHashMap<>();
+        final Map<String, String> categoryBySku = new ConcurrentHashMap<>();
+        final LocalDateTime fittedAt;
+
+        Models(LocalDateTime fittedAt) {
+            this.fittedAt = fittedAt;
+        }
+
+        Map<String, Series> scope(String scope) {
+            if (SCOPE_SKU.equals(scope)) {
+                return skus;
+            }
+            if (SCOPE_CATEGORY.equals(scope)) {
+                return categories;
+            }
+            throw new IllegalArgumentException("Unknown forecast scope: " + scope);
+        }
+
+        /**
+         * Adds an order's lines to the raw series during a refit, before any model is fitted.
+         * @return The number of lines counted.
+         */
+        int accumulate(Order order, long today) {
+            if (!isDemand(order, today)) {
+                return 0;
+            }
+            long day = order.getOrderDate().toEpochDay();
+            int counted = 0;
+            for (OrderItem line : order.getItems()) {
+                if (line.getSku() == null || line.getQuantity() <= 0) {
+                    continue;
+                }
+                skus.computeIfAbsent(line.getSku(), sku -> new Series(today)).accumulate(day, line.getQuantity());
+                String category = categoryBySku.get(line.getSku());
+                if (category != null) {
+                    categories.computeIfAbsent(category, key -> new Series(today)).accumulate(day, line.getQuantity());
+                }
+                counted++;
+            }
+            return counted;
+        }
+
+        /**
+         * Adds ({@code sign} 1) or takes back ({@code sign} -1) an order's lines on the fitted models.
+         */
+        void add(Order order, int sign) {
+            long today = today();
+            if (!isDemand(order, today)) {
+                return;
+            }
+            long day = order.getOrderDate().toEpochDay();
+            for (OrderItem line : order.getItems()) {
+                if (line.getSku() == null || line.getQuantity() <= 0) {
+                    continue;
+                }
+                double quantity = sign * line.getQuantity();
+                series(skus, line.getSku(), sign, today).ifPresent(series -> series.add(day, quantity));
+                String category = categoryOf(line.getSku());
+                if (category != null) {
+                    series(categories, category, sign, today).ifPresent(series -> series.add(day, quantity));
+                }
+            }
+        }
+
+        private Optional<Series> series(Map<String, Series> scope, String key, int sign, long today) {
+            return Optional.ofNullable(sign > 0 ? scope.computeIfAbsent(key, k -> new Series(today)) : scope.get(key));
+        }
+
+        private String categoryOf(String sku) {
+            String category = categoryBySku.get(sku);
+            if (category == null) {
+                // A SKU first seen since the refit
+                category = itemCache.getBySku(sku).map(Item::getCategory).orElse(null);
+                if (category != null) {
+                    categoryBySku.put(sku, category);
+                }
+            }
+            return category;
+        }
+
+        private boolean isDemand(Order order, long today) {
+            return order != null && !isCancelled(order) && order.getItems() != null
+                    && order.getOrderDate() != null && order.getOrderDate().toEpochDay() <= today;
+        }
+    }
+
+    /**
+     * The recent daily demand of one SKU or category, its model and the forecast precomputed from it.
+     * The current day is open: its demand is still accumulating and only enters the model once a
+     * later day starts.
+     */
+    private final class Series {
+        // Daily demand for the window of days ending at the open day, indexed by epoch day modulo the window
+        final float[] history = new float[historyDays];
+        final float[] point = new float[maxHorizon];
+        final float[] standardDeviation = new float[maxHorizon];
+        HoltModel model;
+        long openDay;
+        long firstDay = Long.MAX_VALUE;
+
+        Series(long today) {
+            this.openDay = today;
+            refit();
+        }
+
+        synchronized void accumulate(long day, double quantity) {
+            if (day > openDay - history.length) {
+                history[index(day)] += quantity;
+                firstDay = Math.min(firstDay, day);
+            }
+        }
+
+        synchronized void add(long day, double quantity) {
+            advanceTo(day);
+            if (day <= openDay - history.length) {
+                return;
+            }
+            history[index(day)] += quantity;
+            if (quantity > 0) {
+                firstDay = Math.min(firstDay, day);
+            }
+            if (day < openDay) {
+                // A finished day changed; replay this series alone from the retained days
+                model = HoltModel.fit(finishedDays(), model.alpha, model.beta);
+                model.forecast(point, standardDeviation);
+            }
+        }
+
+        /**
+         * Refits the model to the finished days from the first day with demand.
+         */
+        synchronized void refit() {
+            model = HoltModel.fit(finishedDays());
+            model.forecast(point, standardDeviation);
+        }
+
+        synchronized double total(int horizon, long today) {
+            advanceTo(today);
+            double total = 0;
+            for (int h = 0; h < horizon; h++) {
+                total += point[h];
+            }
+            return total;
+        }
+
+        synchronized DemandForecast toForecast(String scope, String key, int horizon, double confidence,
+                                               long today, LocalDateTime fittedAt) {
+            advanceTo(today);
+            double z = zScore(confidence);
+            List<Double> forecast = new ArrayList<>(horizon);
+            List<Double> lower = new ArrayList<>(horizon);
+            List<Double> upper = new ArrayList<>(horizon);
+            double total = 0;
+            for (int h = 0; h < horizon; h++) {
+                double margin = z * standardDeviation[h];
+                forecast.add(round(point[h]));
+                lower.add(round(Math.max(0, point[h] - margin)));
+                upper.add(round(point[h] + margin));
+                total += point[h];
+            }
+            int historyLength = Math.min(horizon, history.length - 1);
+            List<Double> recent = new ArrayList<>(historyLength);
+            for (long day = openDay - historyLength; day < openDay; day++) {
+                recent.add(round(history[index(day)]));
+            }
+
+            DemandForecast result = new DemandForecast();
+            result.setScope(scope);
+            result.setKey(key);
+            result.setStartDate(LocalDate.ofEpochDay(openDay));
+            result.setHistory(recent);
+            result.setForecast(forecast);
+            result.setLower(lower);
+            result.setUpper(upper);
+            result.setConfidence(confidence);
+            result.setTotalForecast(round(total));
+            result.setTrend(trend(point[0], point[horizon - 1]));
+            double error = model.weightedAbsoluteError();
+            result.setAccuracy(Double.isNaN(error) ? null : round(Math.max(0, 1 - error)));
+            result.setAlpha(model.alpha);
+            result.setBeta(model.beta);
+            result.setObservations(model.observations());
+            result.setFittedAt(fittedAt);
+            return result;
+        }
+
+        /**
+         * Closes the open day and any days without demand up to {@code day}, stepping each into the model.
+         */
+        private void advanceTo(long day) {
+            if (day <= openDay) {
+                return;
+            }
+            if (firstDay == Long.MAX_VALUE) {
+                // Nothing to model yet; just move the window
+                Arrays.fill(history, 0);
+                openDay = day;
+                return;
+            }
+            for (; openDay < day; openDay++) {
+                model.step(history[index(openDay)]);
+                history[index(openDay + 1)] = 0;
+            }
+            model.forecast(point, standardDeviation);
+        }
+
+        private float[] finishedDays() {
+            long from = Math.max(firstDay, openDay - history.length + 1);
+            int days = (int) Math.max(0, openDay - from);
+            float[] finished = new float[days];
+            for (int i = 0; i < days; i++) {
+                finished[i] = history[index(from + i)];
+            }
+            return finished;
+        }
+
+        private int index(long day) {
+            return (int) Math.floorMod(day, (long) history.length);
+        }
+
+        private String trend(double first, double last) {
+            double change = last - first;
+            if (Math.abs(change) <= STABLE_TREND * Math.max(first, 1e-9)) {
+                return "stable";
+            }
+            return change > 0 ? "increasing" : "decreasing";
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.supplychain.service.impl;
+
+/**
+ * Exponential smoothing with a damped additive trend (Holt's method) for one daily demand series.
+ *
+ * {@link #fit} picks the smoothing weights by a small grid search on one-step-ahead squared error.
+ * After that the model is advanced one day at a time with {@link #step}, so a new day costs O(1)
+ * instead of a refit. Prediction intervals use the exact h-step variance of the equivalent
+ * ETS(A,Ad,N) state space model, with the error variance tracked as a decaying average so the
+ * bands follow recent volatility. Not thread safe.
+ */
+final class HoltModel {
+
+    static final double DAMPING = 0.98;
+
+    private static final double[] ALPHAS = {0.05, 0.1, 0.2, 0.3, 0.5, 0.8};
+    private static final double[] BETAS = {0.0, 0.02, 0.05, 0.1, 0.2};
+    private static final double DEFAULT_ALPHA = 0.2;
+    private static final double DEFAULT_BETA = 0.05;
+    private static final int MIN_FIT_DAYS = 14;
+    private static final int INITIAL_LEVEL_DAYS = 7;
+    private static final double ERROR_DECAY = 0.98;
+
+    final double alpha;
+    final double beta;
+    private double level;
+    private double trend;
+    private double squaredError;
+    private double absoluteError;
+    private double actual;
+    private double weight;
+    private int observations;
+
+    private HoltModel(double alpha, double beta, double level) {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.level = level;
+    }
+
+    /**
+     * Fits a model to a series of daily demand, oldest first.
+     * Short series get default weights rather than weights chosen on too little data.
+     */
+    static HoltModel fit(float[] series) {
+        double bestAlpha = DEFAULT_ALPHA;
+        double bestBeta = DEFAULT_BETA;
+        if (series.length >= MIN_FIT_DAYS) {
+            double initialLevel = initialLevel(series);
+            double bestError = Double.MAX_VALUE;
+            for (double alpha : ALPHAS) {
+                for (double beta : BETAS) {
+                    double error = sumOfSquaredErrors(series, alpha, beta, initialLevel);
+                    if (error < bestError) {
+                        bestError = error;
+                        bestAlpha = alpha;
+                        bestBeta = beta;
+                    }
+                }
+            }
+        }
+        return fit(series, bestAlpha, bestBeta);
+    }
+
+    /**
+     * Fits a model to a series of daily demand, oldest first, with the given smoothing weights.
+     */
+    static HoltModel fit(float[] series, double alpha, double beta) {
+        HoltModel model = new HoltModel(alpha, beta, initialLevel(series));
+        for (float demand : series) {
+            model.step(demand);
+        }
+        return model;
+    }
+
+    /**
+     * Feeds the next day's demand into the model.
+     */
+    void step(double demand) {
+        double forecast = level + DAMPING * trend;
+        double error = demand - forecast;
+        level = forecast + alpha * error;
+        trend = DAMPING * trend + alpha * beta * error;
+        squaredError = ERROR_DECAY * squaredError + error * error;
+        absoluteError = ERROR_DECAY * absoluteError + Math.abs(error);
+        actual = ERROR_DECAY * actual + Math.abs(demand);
+        weight = ERROR_DECAY * weight + 1;
+        observations++;
+    }
+
+    /**
+     * Fills the point forecasts and their standard deviations for the next {@code point.length} days.
+     * Demand can't be negative, so point forecasts are clipped at zero.
+     */
+    void forecast(float[] point, float[] standardDeviation) {
+        double variance = weight > 0 ? squaredError / weight : level * level;
+        double dampingPower = 1;
+        double dampingSum = 0;
+        double accumulated = 1;
+        for (int h = 0; h < point.length; h++) {
+            dampingPower *= DAMPING;
+            dampingSum += dampingPower;
+            point[h] = (float) Math.max(0, level + dampingSum * trend);
+            standardDeviation[h] = (float) Math.sqrt(variance * accumulated);
+            double c = alpha * (1 + beta * dampingSum);
+            accumulated += c * c;
+        }
+    }
+
+    double level() {
+        return level;
+    }
+
+    double trend() {
+        return trend;
+    }
+
+    int observations() {
+        return observations;
+    }
+
+    /**
+     * Weighted absolute percentage error of the one-step forecasts, or NaN before any demand was seen.
+     */
+    double weightedAbsoluteError() {
+        return actual > 0 ? absoluteError / actual : Double.NaN;
+    }
+
+    private static double sumOfSquaredErrors(float[] series, double alpha, double beta, double level) {
+        double trend = 0;
+        double sum = 0;
+        for (float demand : series) {
+            double forecast = level + DAMPING * trend;
+            double error = demand - forecast;
+            level = forecast + alpha * error;
+            trend = DAMPING * trend + alpha * beta * error;
+            sum += error * error;
+        }
+        return sum;
+    }
+
+    private static double initialLevel(float[] series) {
+        int days = Math.min(series.length, INITIAL_LEVEL_DAYS);
+        double sum = 0;
+        for (int i = 0; i < days; i++) {
+            sum += series[i];
+        }
+        return days > 0 ? sum / days : 0;
+    }
+}
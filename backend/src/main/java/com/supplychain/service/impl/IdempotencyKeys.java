@@ -0,0 +1,60 @@
+package com.supplychain.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+
+/**
+ * Bounded store of the idempotency keys of recently submitted orders and the order each
+ * created. A key is claimed before its order is written, so a retry racing the first
+ * attempt is told it is still in progress rather than creating a second order. Keys are
+ * kept per instance and expire; this is only the fast path, since each order also stores
+ * its key under a unique index, which rejects a retry this instance does not know about.
+ */
+@Component
+public class IdempotencyKeys {
+    // Value of a claimed key whose order is still being written
+    private static final String PENDING = "";
+
+    @Value("${orders.idempotency.max-keys:100000}")
+    private long maxKeys;
+
+    @Value("${orders.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    private Cache<String, String> orderIds;
+
+    @PostConstruct
+    void init() {
+        orderIds = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Claims a key for a new order.
+     * @return Null if the caller now owns the key; otherwise the id of the order created
+     *         under it, or an empty string while that order is still being written.
+     */
+    public String claim(String key) {
+        return orderIds.asMap().putIfAbsent(key, PENDING);
+    }
+
+    /**
+     * Records the order created under a claimed key.
+     */
+    public void complete(String key, String orderId) {
+        orderIds.put(key, orderId);
+    }
+
+    /**
+     * Gives up a claimed key whose order was not created, so the submission can be retried.
+     */
+    public void release(String key) {
+        orderIds.asMap().remove(key, PENDING);
+    }
+}
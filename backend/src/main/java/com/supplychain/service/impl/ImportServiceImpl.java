@@ -0,0 +1,249 @@
+package com.supplychain.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplychain.events.InventoryEventPublisher;
+import com.supplychain.events.ItemChangeListener;
+import com.supplychain.events.OrderChangeListener;
+import com.supplychain.model.BulkWriteSummary;
+import com.supplychain.model.ImportResult;
+import com.supplychain.model.Item;
+import com.supplychain.model.Order;
+import com.supplychain.model.OrderItem;
+import com.supplychain.repository.ItemRepository;
+import com.supplychain.repository.OrderRepository;
+import com.supplychain.service.ImportService;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams import files row by row and writes them in fixed-size batches with
+ * unordered bulk writes, so memory use depends on the batch size rather than
+ * the size of the upload.
+ */
+@Service
+public class ImportServiceImpl implements ImportService {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private List<ItemChangeListener> itemChangeListeners;
+
+    @Autowired
+    private List<OrderChangeListener> orderChangeListeners;
+
+    @Autowired
+    private InventoryEventPublisher eventPublisher;
+
+    @Autowired
+    private LocationStockWriter locationStock;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Override
+    public ImportResult importItems(InputStream input, boolean csv) throws IOException {
+        ImportResult result = new ImportResult();
+        // Keyed on SKU so a batch never holds two upserts for the same SKU; the last row wins
+        Map<String, Item> batch = new LinkedHashMap<>();
+        Map<String, Long> rowsBySku = new HashMap<>();
+        readRecords(input, csv, Item.class, result, (row, item) -> {
+            validate(item);
+            batch.put(item.getSku(), item);
+            rowsBySku.put(item.getSku(), row);
+            if (batch.size() >= batchSize) {
+                writeItems(batch, rowsBySku, result);
+            }
+        });
+        writeItems(batch, rowsBySku, result);
+        return result;
+    }
+
+    @Override
+    public ImportResult importOrders(InputStream input) throws IOException {
+        ImportResult result = new ImportResult();
+        List<Order> batch = new ArrayList<>();
+        List<Long> rows = new ArrayList<>();
+        readRecords(input, false, Order.class, result, (row, order) -> {
+            validate(order);
+            batch.add(order);
+            rows.add(row);
+            if (batch.size() >= batchSize) {
+                writeOrders(batch, rows, result);
+            }
+        });
+        writeOrders(batch, rows, result);
+        return result;
+    }
+
+    private void writeItems(Map<String, Item> batch, Map<String, Long> rowsBySku, ImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Item> items = new ArrayList<>(batch.values());
+        BulkWriteSummary summary = itemRepository.upsertAllBySku(items);
+        result.setInserted(result.getInserted() + summary.getInserted());
+        result.setUpdated(result.getUpdated() + summary.getModified());
+        List<String> written = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            String failure = summary.getFailures().get(i);
+            if (failure == null) {
+                written.add(items.get(i).getSku());
+            } else {
+                result.recordError(rowsBySku.get(items.get(i).getSku()), failure, maxReportedErrors);
+            }
+        }
+        // Upserts don't return documents, so read the batch back once to refresh the in-memory views
+        for (Item item : itemRepository.findBySkuIn(written)) {
+            itemChangeListeners.forEach(listener -> listener.onItemSaved(item));
+            // Imported quantities replace the total; the previous one is only known from the locations
+            locationStock.settleToTotal(item);
+        }
+        eventPublisher.publishBulkChange(written.size());
+        batch.clear();
+        rowsBySku.clear();
+    }
+
+    private void writeOrders(List<Order> batch, List<Long> rows, ImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<String> skus = new ArrayList<>();
+        for (Order order : batch) {
+            // Ids are assigned here so the orders that were written can be told apart
+            order.setId(new ObjectId().toHexString());
+            order.setStockReserved(false);
+            if (order.getItems() != null) {
+                order.getItems().forEach(line -> skus.add(line.getSku()));
+            }
+        }
+        // Recorded on the lines like for orders written one at a time, resolved once per batch
+        skus.removeIf(sku -> sku == null);
+        Map<String, String> categories = itemCache.getCategoriesBySku(skus);
+        for (Order order : batch) {
+            if (order.getItems() != null) {
+                order.getItems().forEach(line -> line.setCategory(categories.getOrDefault(line.getSku(), line.getCategory())));
+            }
+        }
+        BulkWriteSummary summary = orderRepository.bulkInsert(batch);
+        result.setInserted(result.getInserted() + summary.getInserted());
+        for (int i = 0; i < batch.size(); i++) {
+            String failure = summary.getFailures().get(i);
+            if (failure == null) {
+                Order order = batch.get(i);
+                orderChangeListeners.forEach(listener -> listener.onOrderSaved(null, order));
+            } else {
+                result.recordError(rows.get(i), failure, maxReportedErrors);
+            }
+        }
+        batch.clear();
+        rows.clear();
+    }
+
+    private <T> void readRecords(InputStream input, boolean csv, Class<T> type, ImportResult result,
+                                 RecordHandler<T> handler) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        long row = 0;
+        if (csv) {
+            CsvReader csvReader = new CsvReader(reader);
+            String[] header = csvReader.next();
+            if (header == null) {
+                return;
+            }
+            String[] fields;
+            while ((fields = csvReader.next()) != null) {
+                row++;
+                result.setRowsRead(row);
+                Map<String, String> values = new HashMap<>();
+                for (int i = 0; i < header.length && i < fields.length; i++) {
+                    if (!fields[i].isEmpty()) {
+                        values.put(header[i].trim(), fields[i].trim());
+                    }
+                }
+                try {
+                    handler.handle(row, objectMapper.convertValue(values, type));
+                } catch (IllegalArgumentException e) {
+                    result.recordError(row, e.getMessage(), maxReportedErrors);
+                }
+            }
+            return;
+        }
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            result.setRowsRead(row);
+            try {
+                handler.handle(row, objectMapper.readValue(line, type));
+            } catch (JsonProcessingException e) {
+                result.recordError(row, e.getOriginalMessage(), maxReportedErrors);
+            } catch (IllegalArgumentException e) {
+                result.recordError(row, e.getMessage(), maxReportedErrors);
+            }
+        }
+    }
+
+    private static void validate(Item item) {
+        if (item.getSku() == null || item.getSku().isBlank()) {
+            throw new IllegalArgumentException("sku is required");
+        }
+        if (item.getName() == null || item.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (item.getQuantity() < 0 || item.getMinQuantity() < 0 || item.getPrice() < 0) {
+            throw new IllegalArgumentException("quantity, minQuantity and price must not be negative");
+        }
+    }
+
+    private static void validate(Order order) {
+        if (order.getTotalAmount() < 0) {
+            throw new IllegalArgumentException("totalAmount must not be negative");
+        }
+        if (order.getItems() != null) {
+            for (OrderItem line : order.getItems()) {
+                if (line.getQuantity() <= 0) {
+                    throw new IllegalArgumentException("line item quantities must be positive");
+                }
+            }
+        }
+        if (order.getStatus() == null) {
+            order.setStatus("pending");
+        }
+        if (order.getOrderDate() == null) {
+            order.setOrderDate(LocalDate.now());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordHandler<T> {
+        void handle(long row, T record);
+    }
+}
@@ -0,0 +1,187 @@
+package com.supplychain.service.impl;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.supplychain.events.ItemChangeListener;
+import com.supplychain.model.Item;
+import com.supplychain.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Bounded read-through cache of items by id, with a secondary SKU to id mapping.
+ * Entries are refreshed from the write path, and expire after a while so writes
+ * made by other instances are picked up eventually. Callers always get their own
+ * copy of an item, since controllers modify the items they read.
+ */
+@Component
+public class ItemCache implements ItemChangeListener {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Value("${items.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${items.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private LoadingCache<String, Item> byId;
+    private LoadingCache<String, String> idsBySku;
+
+    @PostConstruct
+    void init() {
+        byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build(id -> itemRepository.findById(id).orElse(null));
+        idsBySku = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build(new CacheLoader<String, String>() {
+                    @Override
+                    public String load(String sku) {
+                        return loadIdsBySku(Set.of(sku)).get(sku);
+                    }
+
+                    @Override
+                    public Map<String, String> loadAll(Set<? extends String> skus) {
+                        return loadIdsBySku(skus);
+                    }
+                });
+    }
+
+    public Optional<Item> getById(String id) {
+        return Optional.ofNullable(byId.get(id)).map(ItemCache::copy);
+    }
+
+    public Optional<Item> getBySku(String sku) {
+        String id = idsBySku.get(sku);
+        if (id == null) {
+            return Optional.empty();
+        }
+        Item item = byId.get(id);
+        if (item == null || !sku.equals(item.getSku())) {
+            // The item was deleted or re-labelled since the mapping was cached
+            idsBySku.invalidate(sku);
+            id = idsBySku.get(sku);
+            item = id == null ? null : byId.get(id);
+        }
+        return Optional.ofNullable(item).map(ItemCache::copy);
+    }
+
+    /**
+     * Resolves several SKUs at once, loading all misses with a single query.
+     * @return The ids of the SKUs that exist.
+     */
+    public Map<String, String> getIdsBySku(Collection<String> skus) {
+        return idsBySku.getAll(skus);
+    }
+
+    /**
+     * The categories of several SKUs, loading all misses with a single query.
+     * @return The category of each SKU that exists and has one.
+     */
+    public Map<String, String> getCategoriesBySku(Collection<String> skus) {
+        Map<String, String> categories = new HashMap<>();
+        getIdsBySku(skus).forEach((sku, id) -> {
+            Item item = byId.get(id);
+            if (item != null && item.getCategory() != null) {
+                categories.put(sku, item.getCategory());
+            }
+        });
+        return categories;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("byId", describe(byId.stats(), byId.estimatedSize()));
+        stats.put("bySku", describe(idsBySku.stats(), idsBySku.estimatedSize()));
+        return stats;
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+        Item previous = byId.getIfPresent(item.getId());
+        if (previous != null && item.getVersion() < previous.getVersion()) {
+            // Notified after a newer write to the same item
+            return;
+        }
+        if (previous != null && previous.getSku() != null && !previous.getSku().equals(item.getSku())) {
+            idsBySku.invalidate(previous.getSku());
+        }
+        putIfNewer(item);
+        if (item.getSku() != null) {
+            idsBySku.put(item.getSku(), item.getId());
+        }
+    }
+
+    @Override
+    public void onItemDeleted(String id) {
+        Item previous = byId.getIfPresent(id);
+        byId.invalidate(id);
+        if (previous != null && previous.getSku() != null) {
+            idsBySku.invalidate(previous.getSku());
+        }
+    }
+
+    private Map<String, String> loadIdsBySku(Set<? extends String> skus) {
+        Map<String, String> ids = new HashMap<>();
+        for (Item item : itemRepository.findBySkuIn(new ArrayList<>(skus))) {
+            ids.put(item.getSku(), item.getId());
+            // Warm the id cache too, the caller is about to look these items up
+            putIfNewer(item);
+        }
+        return ids;
+    }
+
+    /**
+     * Caches an item unless a newer version of it is already cached, in a single atomic step.
+     */
+    private void putIfNewer(Item item) {
+        byId.asMap().compute(item.getId(), (id, cached) ->
+                cached != null && cached.getVersion() > item.getVersion() ? cached : copy(item));
+    }
+
+    private static Map<String, Object> describe(CacheStats stats, long size) {
+        Map<String, Object> description = new HashMap<>();
+        description.put("size", size);
+        description.put("hitRate", stats.hitRate());
+        description.put("hits", stats.hitCount());
+        description.put("misses", stats.missCount());
+        description.put("evictions", stats.evictionCount());
+        description.put("loads", stats.loadCount());
+        description.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        return description;
+    }
+
+    private static Item copy(Item item) {
+        Item copy = new Item();
+        copy.setId(item.getId());
+        copy.setName(item.getName());
+        copy.setSku(item.getSku());
+        copy.setCategory(item.getCategory());
+        copy.setQuantity(item.getQuantity());
+        copy.setMinQuantity(item.getMinQuantity());
+        copy.setPrice(item.getPrice());
+        copy.setSupplier(item.getSupplier());
+        copy.setLocation(item.getLocation());
+        copy.setCreatedAt(item.getCreatedAt());
+        copy.setUpdatedAt(item.getUpdatedAt());
+        copy.setVersion(item.getVersion());
+        return copy;
+    }
+}
@@ -0,0 +1,958 @@
+package com.supplychain.service.impl;
+
+import com.supplychain.events.ItemChangeListener;
+import com.supplychain.model.Item;
+import com.supplychain.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory search index over item name, SKU, category, supplier and location.
+ *
+ * Field values are lower-cased and split into tokens of letters and digits. Each distinct token
+ * is a term with a posting list of the documents containing it; the terms themselves are indexed
+ * by trigram. A query token of three or more characters matches every term containing it (found
+ * through the trigram index), a shorter one every term starting with it. All query tokens must
+ * match, in any field. Hits are ranked by field (SKU, then name, then category and supplier, then
+ * location) and by how well the term matched (whole token, prefix, substring), then by name.
+ * Facet counts by category, supplier, location and stock status are computed over all hits.
+ *
+ * Documents get a new slot on every change of an indexed field and the old slot is only marked
+ * dead, so posting lists are append-only. Once the dead slots outnumber the live ones the index
+ * is rebuilt from the database in the background. Quantity updates only change the stock status.
+ * Query scratch space (per-slot score and match arrays) is pooled, so a query allocates little
+ * beyond its result.
+ */
+@Component
+public class ItemSearchIndex implements ItemChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+    // Fields are name, sku, category, supplier and location, in that order
+    private static final int NAME = 0;
+    private static final int FIELD_COUNT = 5;
+    // Score of a match in each field
+    private static final int[] FIELD_WEIGHTS = {4, 8, 2, 2, 1};
+    // Match kinds, each also the multiplier of the field weight
+    private static final int SUBSTRING = 1;
+    private static final int PREFIX = 2;
+    private static final int EXACT = 3;
+    // Facets and filters: the three fields as written, and the stock status from quantity and minQuantity
+    private static final String[] FACETS = {"category", "supplier", "location", "stock"};
+    // Stock status changes in place; the facets before it are fixed for the life of a slot
+    private static final int STOCK = 3;
+    static final String IN_STOCK = "in_stock";
+    static final String LOW_STOCK = "low_stock";
+    static final String OUT_OF_STOCK = "out_of_stock";
+    private static final int FACET_VALUES = 20;
+
+    static final int MAX_QUERY_TOKENS = 8;
+    // Postings are 8 entries per slot and field: slot << 3 | field
+    private static final int FIELD_BITS = 3;
+    // Checking a candidate's fields directly costs about as much as reading this many postings
+    private static final int VERIFY_COST = 16;
+    private static final int MIN_DEAD_FOR_REBUILD = 10_000;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuildRunning = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Queue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+
+    // Guarded by lock
+    private Segment segment = new Segment();
+    private boolean ready;
+    // Writes seen during a rebuild, replayed onto the rebuilt index; null values are deletes
+    private Map<String, Doc> pendingChanges;
+
+    /**
+     * Items matching every token of {@code query} and the given facet values, best first.
+     * @param query Free text; blank matches all items.
+     * @param category Optional category to restrict to, ignoring case; likewise supplier and location.
+     * @param stock Optional stock status to restrict to: in_stock, low_stock or out_of_stock.
+     * @return items, total, offset, limit and facets (value to count, highest first, per facet).
+     */
+    public Map<String, Object> search(String query, String category, String supplier, String location,
+                                      String stock, int offset, int limit) {
+        List<String> tokens = queryTokens(query);
+        String[] filters = {category, supplier, location, stock};
+        Hits hits = null;
+        lock.readLock().lock();
+        try {
+            if (ready) {
+                hits = search(segment, tokens, filters, offset + limit);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (hits == null) {
+            // Not built yet: index a snapshot for this query alone
+            Segment snapshot = new Segment();
+            try (Stream<Item> items = itemRepository.streamAll(null, null)) {
+                items.forEach(item -> snapshot.put(new Doc(item)));
+            }
+            hits = search(snapshot, tokens, filters, offset + limit);
+        }
+
+        List<String> ids = hits.ids.subList(Math.min(offset, hits.ids.size()), hits.ids.size());
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", load(ids));
+        response.put("total", hits.total);
+        response.put("offset", offset);
+        response.put("limit", limit);
+        response.put("facets", hits.facets);
+        return response;
+    }
+
+    /**
+     * Sizes of the index, for monitoring.
+     */
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("ready", ready);
+            stats.put("items", segment.liveCount);
+            stats.put("deadSlots", segment.slots - segment.liveCount);
+            stats.put("terms", segment.termIds.size());
+            stats.put("trigrams", segment.termsByGram.size());
+            stats.put("rebuilding", pendingChanges != null);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the index at startup, retrying while the database is unreachable.
+     * Until then each search indexes a snapshot of its own.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${inventory.views.rebuild-retry-ms:30000}",
+               initialDelayString = "${inventory.views.rebuild-retry-ms:30000}")
+    public void buildIfNeeded() {
+        lock.readLock().lock();
+        try {
+            if (ready) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Item search index not built, database unavailable: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Indexes all items from the database into a new index and swaps it in. Searches and writes
+     * continue on the current index meanwhile; writes are replayed onto the new one before the swap.
+     */
+    public void rebuild() {
+        if (!rebuildRunning.compareAndSet(false, true)) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = new LinkedHashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Segment rebuilt = new Segment();
+            try (Stream<Item> items = itemRepository.streamAll(null, null)) {
+                items.forEach(item -> rebuilt.put(new Doc(item)));
+            }
+            lock.writeLock().lock();
+            try {
+                pendingChanges.forEach((id, doc) -> {
+                    if (doc == null) {
+                        rebuilt.remove(id);
+                    } else {
+                        rebuilt.put(doc);
+                    }
+                });
+                segment = rebuilt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Item search index built: {} items, {} terms in {} ms",
+                    rebuilt.liveCount, rebuilt.termIds.size(), System.currentTimeMillis() - started);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            rebuildRunning.set(false);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+        Doc doc = new Doc(item);
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            if (!segment.put(doc)) {
+                return;
+            }
+            if (pendingChanges != null) {
+                pendingChanges.put(doc.id, doc);
+            }
+            compact = needsRebuild();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            startRebuild();
+        }
+    }
+
+    @Override
+    public void onItemDeleted(String id) {
+        lock.writeLock().lock();
+        try {
+            segment.remove(id);
+            if (pendingChanges != null) {
+                pendingChanges.put(id, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean needsRebuild() {
+        int dead = segment.slots - segment.liveCount;
+        return ready && pendingChanges == null && dead >= MIN_DEAD_FOR_REBUILD && dead > segment.liveCount;
+    }
+
+    private void startRebuild() {
+        if (rebuildRunning.get()) {
+            return;
+        }
+        rebuildExecutor.execute(() -> {
+            try {
+                rebuild();
+            } catch (DataAccessException e) {
+                log.warn("Item search index not compacted, database unavailable: {}", e.getMessage());
+            }
+        });
+    }
+
+    private Hits search(Segment index, List<String> tokens, String[] filters, int window) {
+        Scratch scratch = scratchPool.poll();
+        if (scratch == null) {
+            scratch = new Scratch();
+        }
+        try {
+            return index.search(tokens, filters, window, scratch);
+        } finally {
+            scratchPool.offer(scratch);
+        }
+    }
+
+    private List<Item> load(List<String> ids) {
+        // One lookup on _id for the page, returned in rank order
+        Map<String, Item> byId = new HashMap<>();
+        itemRepository.findAllById(ids).forEach(item -> byId.put(item.getId(), item));
+        List<Item> items = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Item item = byId.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    static List<String> queryTokens(String query) {
+        List<String> tokens = new ArrayList<>();
+        if (query != null) {
+            for (String token : tokens(query.toLowerCase(Locale.ROOT))) {
+                if (!tokens.contains(token) && tokens.size() < MAX_QUERY_TOKENS) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Splits lower-cased text into its runs of letters and digits.
+     */
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inToken = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inToken && start < 0) {
+                start = i;
+            } else if (!inToken && start >= 0) {
+                tokens.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static long gram(CharSequence text, int at) {
+        return (long) text.charAt(at) << 32 | (long) text.charAt(at + 1) << 16 | text.charAt(at + 2);
+    }
+
+    /**
+     * How well {@code token} matches any token of a field, summed over the field's tokens,
+     * scored the same way as term matches from the postings.
+     */
+    private static int fieldScore(String field, String token, int fieldIndex) {
+        if (field == null || field.length() < token.length()) {
+            return 0;
+        }
+        int score = 0;
+        int start = -1;
+        for (int i = 0; i <= field.length(); i++) {
+            boolean inToken = i < field.length() && Character.isLetterOrDigit(field.charAt(i));
+            if (inToken && start < 0) {
+                start = i;
+            } else if (!inToken && start >= 0) {
+                score += FIELD_WEIGHTS[fieldIndex] * termKind(field, start, i, token);
+                start = -1;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * The kind of match of {@code token} in the term {@code text[start, end)}, or 0 for none.
+     */
+    private static int termKind(String text, int start, int end, String token) {
+        int length = end - start;
+        if (length < token.length()) {
+            return 0;
+        }
+        if (text.startsWith(token, start)) {
+            return length == token.length() ? EXACT : PREFIX;
+        }
+        if (token.length() < 3) {
+            return 0;
+        }
+        int at = text.indexOf(token, start + 1);
+        return at >= 0 && at + token.length() <= end ? SUBSTRING : 0;
+    }
+
+    /**
+     * The searchable form of an item: its indexed fields lower-cased.
+     */
+    private static final class Doc {
+        final String id;
+        final long version;
+        final String[] text = new String[FIELD_COUNT];
+        final String[] facetValues = new String[FACETS.length];
+
+        Doc(Item item) {
+            this.id = item.getId();
+            this.version = item.getVersion();
+            String[] values = {item.getName(), item.getSku(), item.getCategory(), item.getSupplier(), item.getLocation()};
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                text[field] = values[field] != null ? values[field].toLowerCase(Locale.ROOT) : null;
+            }
+            facetValues[0] = item.getCategory();
+            facetValues[1] = item.getSupplier();
+            facetValues[2] = item.getLocation();
+            facetValues[STOCK] = item.getQuantity() <= 0 ? OUT_OF_STOCK
+                    : item.getQuantity() <= item.getMinQuantity() ? LOW_STOCK : IN_STOCK;
+        }
+    }
+
+    /**
+     * One generation of the index. Not thread-safe; guarded by the enclosing index's lock.
+     */
+    private static final class Segment {
+        int slots;
+        int liveCount;
+        String[] ids = new String[1024];
+        // The first four characters of the name, so most ties on score are broken without comparing strings
+        long[] nameKeys = new long[1024];
+        long[] versions = new long[1024];
+        final String[][] text = new String[FIELD_COUNT][1024];
+        final int[][] facetValues = new int[FACETS.length][1024];
+        final BitSet live = new BitSet();
+        final Map<String, Integer> slotById = new HashMap<>();
+
+        final TreeMap<String, Integer> termIds = new TreeMap<>();
+        String[] terms = new String[1024];
+        IntList[] postings = new IntList[1024];
+        final Map<Long, IntList> termsByGram = new HashMap<>();
+        final FacetValues[] facets = {new FacetValues(), new FacetValues(), new FacetValues(), new FacetValues()};
+
+        /**
+         * @return False if the slot already holds a newer version of the item.
+         */
+        boolean put(Doc doc) {
+            Integer previous = slotById.get(doc.id);
+            if (previous != null) {
+                if (doc.version < versions[previous]) {
+                    // Notified after a newer write to the same item
+                    return false;
+                }
+                if (sameText(previous, doc)) {
+                    // Stock changes only move the item between stock facet values
+                    setFacetValues(previous, doc);
+                    versions[previous] = doc.version;
+                    return true;
+                }
+                kill(previous);
+            }
+            int slot = slots++;
+            if (slot == ids.length) {
+                grow(slot * 2);
+            }
+            ids[slot] = doc.id;
+            nameKeys[slot] = nameKey(doc.text[NAME]);
+            versions[slot] = doc.version;
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                text[field][slot] = doc.text[field];
+                addPostings(field, slot, doc.text[field]);
+            }
+            setFacetValues(slot, doc);
+            for (int facet = 0; facet < STOCK; facet++) {
+                if (facetValues[facet][slot] >= 0) {
+                    facets[facet].slots.get(facetValues[facet][slot]).add(slot);
+                }
+            }
+            live.set(slot);
+            liveCount++;
+            slotById.put(doc.id, slot);
+            return true;
+        }
+
+        void remove(String id) {
+            Integer slot = slotById.remove(id);
+            if (slot != null) {
+                kill(slot);
+            }
+        }
+
+        private void setFacetValues(int slot, Doc doc) {
+            for (int facet = 0; facet < FACETS.length; facet++) {
+                facetValues[facet][slot] = doc.facetValues[facet] != null ? facets[facet].idOf(doc.facetValues[facet]) : -1;
+            }
+        }
+
+        private boolean sameText(int slot, Doc doc) {
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                if (!Objects.equals(text[field][slot], doc.text[field])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void kill(int slot) {
+            live.clear(slot);
+            liveCount--;
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                text[field][slot] = null;
+            }
+        }
+
+        private void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            nameKeys = Arrays.copyOf(nameKeys, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                text[field] = Arrays.copyOf(text[field], capacity);
+            }
+            for (int facet = 0; facet < FACETS.length; facet++) {
+                facetValues[facet] = Arrays.copyOf(facetValues[facet], capacity);
+            }
+        }
+
+        private void addPostings(int field, int slot, String value) {
+            if (value == null) {
+                return;
+            }
+            int posting = slot << FIELD_BITS | field;
+            for (String token : tokens(value)) {
+                int termId = termId(token);
+                IntList list = postings[termId];
+                // The same token twice in one field is one posting
+                if (list.size == 0 || list.values[list.size - 1] != posting) {
+                    list.add(posting);
+                }
+            }
+        }
+
+        private int termId(String term) {
+            Integer id = termIds.get(term);
+            if (id != null) {
+                return id;
+            }
+            int termId = termIds.size();
+            termIds.put(term, termId);
+            if (termId == terms.length) {
+                terms = Arrays.copyOf(terms, termId * 2);
+                postings = Arrays.copyOf(postings, termId * 2);
+            }
+            terms[termId] = term;
+            postings[termId] = new IntList();
+            for (int at = 0; at + 3 <= term.length(); at++) {
+                IntList list = termsByGram.computeIfAbsent(gram(term, at), key -> new IntList());
+                // A trigram repeated within the term is listed once
+                if (list.size == 0 || list.values[list.size - 1] != termId) {
+                    list.add(termId);
+                }
+            }
+            return termId;
+        }
+
+        /**
+         * Appends the terms a query token matches, and how, to the scratch lists.
+         * @return The number of postings of those terms.
+         */
+        private long expand(String token, Scratch scratch) {
+            long cost = 0;
+            if (token.length() < 3) {
+                for (Map.Entry<String, Integer> term
+                        : termIds.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+                    scratch.terms.add(term.getValue());
+                    scratch.kinds.add(term.getKey().length() == token.length() ? EXACT : PREFIX);
+                    cost += postings[term.getValue()].size;
+                }
+                return cost;
+            }
+            // Every term containing the token is listed under each of its trigrams; walk the shortest list
+            IntList candidates = null;
+            for (int at = 0; at + 3 <= token.length(); at++) {
+                IntList list = termsByGram.get(gram(token, at));
+                if (list == null) {
+                    return 0;
+                }
+                if (candidates == null || list.size < candidates.size) {
+                    candidates = list;
+                }
+            }
+            for (int i = 0; i < candidates.size; i++) {
+                int termId = candidates.values[i];
+                int kind = termKind(terms[termId], 0, terms[termId].length(), token);
+                if (kind > 0) {
+                    scratch.terms.add(termId);
+                    scratch.kinds.add(kind);
+                    cost += postings[termId].size;
+                }
+            }
+            return cost;
+        }
+
+        Hits search(List<String> tokens, String[] filters, int window, Scratch scratch) {
+            int[] filterIds = new int[FACETS.length];
+            for (int facet = 0; facet < FACETS.length; facet++) {
+                if (filters[facet] == null || filters[facet].isEmpty()) {
+                    filterIds[facet] = -1;
+                } else {
+                    Integer id = facets[facet].ids.get(filters[facet].toLowerCase(Locale.ROOT));
+                    if (id == null) {
+                        return Hits.EMPTY;
+                    }
+                    filterIds[facet] = id;
+                }
+            }
+            scratch.prepare(this, window);
+            try {
+                IntList browse = tokens.isEmpty() ? smallestFilter(filterIds) : null;
+                if (browse != null) {
+                    for (int i = 0; i < browse.size; i++) {
+                        int slot = browse.values[i];
+                        if (live.get(slot) && matchesFilters(slot, filterIds)) {
+                            collect(slot, 0, scratch);
+                        }
+                    }
+                } else if (tokens.isEmpty()) {
+                    for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                        if (matchesFilters(slot, filterIds)) {
+                            collect(slot, 0, scratch);
+                        }
+                    }
+                } else if (!match(tokens, filterIds, scratch)) {
+                    return Hits.EMPTY;
+                }
+                return scratch.hits(this);
+            } finally {
+                scratch.reset(this);
+            }
+        }
+
+        /**
+         * The slots, live or dead, having the rarest of the fixed facet values filtered on; null if none is.
+         */
+        private IntList smallestFilter(int[] filterIds) {
+            IntList smallest = null;
+            for (int facet = 0; facet < STOCK; facet++) {
+                if (filterIds[facet] >= 0) {
+                    IntList list = facets[facet].slots.get(filterIds[facet]);
+                    if (smallest == null || list.size < smallest.size) {
+                        smallest = list;
+                    }
+                }
+            }
+            return smallest;
+        }
+
+        /**
+         * Scores the slots matching all tokens and collects them.
+         * @return false if some token matches no term at all.
+         */
+        private boolean match(List<String> tokens, int[] filterIds, Scratch scratch) {
+            int tokenCount = tokens.size();
+            for (int t = 0; t < tokenCount; t++) {
+                scratch.tokenStart[t] = scratch.terms.size;
+                scratch.cost[t] = expand(tokens.get(t), scratch);
+                if (scratch.cost[t] == 0) {
+                    return false;
+                }
+                // Cheapest token first
+                int at = t;
+                while (at > 0 && scratch.cost[scratch.order[at - 1]] > scratch.cost[t]) {
+                    scratch.order[at] = scratch.order[at - 1];
+                    at--;
+                }
+                scratch.order[at] = t;
+            }
+            scratch.tokenStart[tokenCount] = scratch.terms.size;
+
+            // The cheapest token's postings are the candidates; mark counts the tokens a slot matched
+            int first = scratch.order[0];
+            for (int i = scratch.tokenStart[first]; i < scratch.tokenStart[first + 1]; i++) {
+                IntList list = postings[scratch.terms.values[i]];
+                int kind = scratch.kinds.values[i];
+                for (int p = 0; p < list.size; p++) {
+                    int slot = list.values[p] >>> FIELD_BITS;
+                    if (!live.get(slot) || !matchesFilters(slot, filterIds)) {
+                        continue;
+                    }
+                    if (scratch.mark[slot] == 0) {
+                        scratch.mark[slot] = 1;
+                        scratch.touched.add(slot);
+                    }
+                    scratch.score[slot] += FIELD_WEIGHTS[list.values[p] & 7] * kind;
+                }
+            }
+
+            for (int k = 1; k < tokenCount; k++) {
+                int token = scratch.order[k];
+                byte matchedBefore = (byte) k;
+                byte matchedNow = (byte) (k + 1);
+                if (scratch.cost[token] <= (long) scratch.touched.size * VERIFY_COST) {
+                    for (int i = scratch.tokenStart[token]; i < scratch.tokenStart[token + 1]; i++) {
+                        IntList list = postings[scratch.terms.values[i]];
+                        int kind = scratch.kinds.values[i];
+                        for (int p = 0; p < list.size; p++) {
+                            int slot = list.values[p] >>> FIELD_BITS;
+                            byte mark = scratch.mark[slot];
+                            if (mark == matchedBefore || mark == matchedNow) {
+                                scratch.mark[slot] = matchedNow;
+                                scratch.score[slot] += FIELD_WEIGHTS[list.values[p] & 7] * kind;
+                            }
+                        }
+                    }
+                } else {
+                    // Few candidates left: check their fields instead of reading a long posting list
+                    String text = tokens.get(token);
+                    for (int i = 0; i < scratch.touched.size; i++) {
+                        int slot = scratch.touched.values[i];
+                        if (scratch.mark[slot] != matchedBefore) {
+                            continue;
+                        }
+                        int score = 0;
+                        for (int field = 0; field < FIELD_COUNT; field++) {
+                            score += fieldScore(this.text[field][slot], text, field);
+                        }
+                        if (score > 0) {
+                            scratch.mark[slot] = matchedNow;
+                            scratch.score[slot] += score;
+                        }
+                    }
+                }
+            }
+
+            for (int i = 0; i < scratch.touched.size; i++) {
+                int slot = scratch.touched.values[i];
+                if (scratch.mark[slot] == tokenCount) {
+                    collect(slot, scratch.score[slot], scratch);
+                }
+            }
+            return true;
+        }
+
+        private boolean matchesFilters(int slot, int[] filterIds) {
+            for (int facet = 0; facet < FACETS.length; facet++) {
+                if (filterIds[facet] >= 0 && facetValues[facet][slot] != filterIds[facet]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void collect(int slot, int score, Scratch scratch) {
+            scratch.total++;
+            for (int facet = 0; facet < FACETS.length; facet++) {
+                int value = facetValues[facet][slot];
+                if (value >= 0) {
+                    scratch.facetCounts[facet][value]++;
+                }
+            }
+            scratch.offer(this, slot, score);
+        }
+
+        private static long nameKey(String name) {
+            if (name == null) {
+                return -1L;
+            }
+            long key = 0;
+            for (int i = 0; i < 4; i++) {
+                key = key << 16 | (i < name.length() ? name.charAt(i) : 0);
+            }
+            return key;
+        }
+
+        /**
+         * Whether slot {@code a} with score {@code scoreA} ranks before slot {@code b}.
+         */
+        boolean ranksBefore(int a, int scoreA, int b, int scoreB) {
+            if (scoreA != scoreB) {
+                return scoreA > scoreB;
+            }
+            if (nameKeys[a] != nameKeys[b]) {
+                return Long.compareUnsigned(nameKeys[a], nameKeys[b]) < 0;
+            }
+            String nameA = text[NAME][a];
+            String nameB = text[NAME][b];
+            if (!Objects.equals(nameA, nameB)) {
+                // Unnamed items last
+                return nameB == null || nameA != null && nameA.compareTo(nameB) < 0;
+            }
+            return ids[a].compareTo(ids[b]) < 0;
+        }
+    }
+
+    /**
+     * The distinct values of one facet, matched ignoring case and shown as first written.
+     */
+    private static final class FacetValues {
+        final Map<String, Integer> ids = new HashMap<>();
+        final List<String> values = new ArrayList<>();
+        // Every slot given each value, in slot order
+        final List<IntList> slots = new ArrayList<>();
+
+        int idOf(String value) {
+            return ids.computeIfAbsent(value.toLowerCase(Locale.ROOT), key -> {
+                values.add(value);
+                slots.add(new IntList());
+                return values.size() - 1;
+            });
+        }
+    }
+
+    private static final class Hits {
+        static final Hits EMPTY = new Hits(List.of(), 0, emptyFacets());
+
+        final List<String> ids;
+        final int total;
+        final Map<String, Map<String, Integer>> facets;
+
+        Hits(List<String> ids, int total, Map<String, Map<String, Integer>> facets) {
+            this.ids = ids;
+            this.total = total;
+            this.facets = facets;
+        }
+
+        private static Map<String, Map<String, Integer>> emptyFacets() {
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                facets.put(facet, Map.of());
+            }
+            return facets;
+        }
+    }
+
+    /**
+     * Per-query working memory, sized to the largest index it was used on and reused across queries.
+     * Only the entries a query touched are cleared afterwards.
+     */
+    private static final class Scratch {
+        int[] score = new int[0];
+        byte[] mark = new byte[0];
+        final IntList touched = new IntList();
+        final IntList terms = new IntList();
+        final IntList kinds = new IntList();
+        final int[] tokenStart = new int[MAX_QUERY_TOKENS + 1];
+        final long[] cost = new long[MAX_QUERY_TOKENS];
+        final int[] order = new int[MAX_QUERY_TOKENS];
+        final int[][] facetCounts = new int[FACETS.length][0];
+        int total;
+        // Min-heap of the best hits so far, the lowest ranked at the root
+        int[] heapSlots = new int[0];
+        int[] heapScores = new int[0];
+        int heapSize;
+        int window;
+
+        void prepare(Segment index, int window) {
+            if (score.length < index.slots) {
+                score = new int[index.ids.length];
+                mark = new byte[index.ids.length];
+            }
+            for (int facet = 0; facet < FACETS.length; facet++) {
+                if (facetCounts[facet].length < index.facets[facet].values.size()) {
+                    facetCounts[facet] = new int[index.facets[facet].values.size() * 2];
+                }
+            }
+            if (heapSlots.length < window) {
+                heapSlots = new int[window];
+                heapScores = new int[window];
+            }
+            this.window = window;
+        }
+
+        void offer(Segment index, int slot, int slotScore) {
+            if (window == 0) {
+                return;
+            }
+            if (heapSize < window) {
+                int at = heapSize++;
+                // Sift up while the parent ranks after the new hit
+                while (at > 0) {
+                    int parent = (at - 1) / 2;
+                    if (!index.ranksBefore(heapSlots[parent], heapScores[parent], slot, slotScore)) {
+                        break;
+                    }
+                    heapSlots[at] = heapSlots[parent];
+                    heapScores[at] = heapScores[parent];
+                    at = parent;
+                }
+                heapSlots[at] = slot;
+                heapScores[at] = slotScore;
+            } else if (index.ranksBefore(slot, slotScore, heapSlots[0], heapScores[0])) {
+                int at = 0;
+                while (true) {
+                    int child = 2 * at + 1;
+                    if (child >= heapSize) {
+                        break;
+                    }
+                    if (child + 1 < heapSize
+                            && index.ranksBefore(heapSlots[child], heapScores[child], heapSlots[child + 1], heapScores[child + 1])) {
+                        child++;
+                    }
+                    if (!index.ranksBefore(slot, slotScore, heapSlots[child], heapScores[child])) {
+                        break;
+                    }
+                    heapSlots[at] = heapSlots[child];
+                    heapScores[at] = heapScores[child];
+                    at = child;
+                }
+                heapSlots[at] = slot;
+                heapScores[at] = slotScore;
+            }
+        }
+
+        Hits hits(Segment index) {
+            Integer[] ranked = new Integer[heapSize];
+            for (int i = 0; i < heapSize; i++) {
+                ranked[i] = i;
+            }
+            Arrays.sort(ranked, (a, b) -> index.ranksBefore(heapSlots[a], heapScores[a], heapSlots[b], heapScores[b]) ? -1
+                    : index.ranksBefore(heapSlots[b], heapScores[b], heapSlots[a], heapScores[a]) ? 1 : 0);
+            List<String> ids = new ArrayList<>(heapSize);
+            for (Integer i : ranked) {
+                ids.add(index.ids[heapSlots[i]]);
+            }
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            for (int facet = 0; facet < FACETS.length; facet++) {
+                int[] counts = facetCounts[facet];
+                List<Integer> values = new ArrayList<>();
+                for (int value = 0; value < index.facets[facet].values.size(); value++) {
+                    if (counts[value] > 0) {
+                        values.add(value);
+                    }
+                }
+                List<String> names = index.facets[facet].values;
+                values.sort((a, b) -> counts[a] != counts[b] ? Integer.compare(counts[b], counts[a])
+                        : names.get(a).compareTo(names.get(b)));
+                Map<String, Integer> top = new LinkedHashMap<>();
+                for (Integer value : values.subList(0, Math.min(FACET_VALUES, values.size()))) {
+                    top.put(names.get(value), counts[value]);
+                }
+                facets.put(FACETS[facet], top);
+            }
+            return new Hits(ids, total, facets);
+        }
+
+        void reset(Segment index) {
+            for (int i = 0; i < touched.size; i++) {
+                score[touched.values[i]] = 0;
+                mark[touched.values[i]] = 0;
+            }
+            for (int facet = 0; facet < FACETS.length; facet++) {
+                Arrays.fill(facetCounts[facet], 0, index.facets[facet].values.size(), 0);
+            }
+            touched.size = 0;
+            terms.size = 0;
+            kinds.size = 0;
+            total = 0;
+            heapSize = 0;
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[2];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -1,50 +1,469 @@
 package com.supplychain.service.impl;
 
+import com.supplychain.events.CollectionVersions;
+import com.supplychain.events.InventoryEventPublisher;
+import com.supplychain.events.ItemChangeListener;
+import com.supplychain.model.ChangeSet;
+import com.supplychain.model.CursorPage;
 import com.supplychain.model.Item;
+import com.supplychain.model.ItemPatch;
+import com.supplychain.model.LocationStock;
+import com.supplychain.model.StockAdjustment;
+import com.supplychain.model.StockAdjustmentResult;
+import com.supplychain.model.StockMovement;
+import com.supplychain.model.StockTransfer;
+import com.supplychain.model.StockTransferResult;
 import com.supplychain.repository.ItemRepository;
+import com.supplychain.repository.StockMovementRepository;
+import com.supplychain.service.InsufficientStockException;
 import com.supplychain.service.ItemService;
+import com.supplychain.service.VersionConflictException;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 /**
  * Implementation of ItemService interface
+ *
+ * An item's quantity is its total over all locations. Changes that name a location are
+ * written there and to the total; changes to the total alone are settled onto the
+ * locations by {@link LocationStockWriter}, after the item listeners have seen the item,
+ * so views valuing location stock already know its price.
  */
 @Service
 public class ItemServiceImpl implements ItemService {
 
+    private static final String TRANSFER_REASON = "transfer";
+
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private List<ItemChangeListener> changeListeners;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private ItemSearchIndex searchIndex;
+
+    @Autowired
+    private CollectionVersions versions;
+
+    @Autowired
+    private InventoryEventPublisher eventPublisher;
+
+    @Autowired
+    private LocationStockWriter locationStock;
+
+    /**
+     * An adjustment applied at one location: the item's new total and the stock there.
+     */
+    private record LocatedAdjustment(Item item, LocationStock stock) {}
+
     @Override
     public List<Item> getAllItems() {
         return itemRepository.findAll();
     }
 
+    @Override
+    public CursorPage<Item> getItemsPage(String cursor, String category, String supplier, int limit) {
+        // Fetch one extra row to find out whether another page exists
+        List<Item> items = itemRepository.findPage(cursor, category, supplier, limit + 1);
+        if (items.size() <= limit) {
+            return new CursorPage<>(items, null);
+        }
+        List<Item> page = items.subList(0, limit);
+        return new CursorPage<>(page, page.get(limit - 1).getId());
+    }
+
+    @Override
+    public Stream<Item> streamItems(String category, String supplier) {
+        return itemRepository.streamAll(category, supplier);
+    }
+
+    @Override
+    public ChangeSet<Item> getChangesSince(String epoch, long sinceVersion) {
+        CollectionVersions.ChangedIds changed = versions.changedSince(CollectionVersions.ITEMS, epoch, sinceVersion);
+        // Nothing changed: answered without a query
+        List<Item> updated = changed.saved().isEmpty()
+                ? Collections.emptyList()
+                : itemRepository.findAllById(changed.saved());
+        long fromVersion = changed.resync() ? changed.version() : sinceVersion + 1;
+        return new ChangeSet<>(versions.getEpoch(), fromVersion, changed.version(), changed.resync(),
+                updated, changed.deleted());
+    }
+
     @Override
     public Optional<Item> getItemById(String id) {
-        return itemRepository.findById(id);
+        return itemCache.getById(id);
+    }
+
+    @Override
+    public Optional<Item> getItemBySku(String sku) {
+        return itemCache.getBySku(sku);
+    }
+
+    @Override
+    public Map<String, Object> searchItems(String query, String category, String supplier, String location,
+                                           String stock, int offset, int limit) {
+        return searchIndex.search(query, category, supplier, location, stock, offset, limit);
+    }
+
+    @Override
+    public Map<String, Object> getSearchStats() {
+        return searchIndex.stats();
+    }
+
+    @Override
+    public Map<String, Object> getCacheStats() {
+        return itemCache.stats();
     }
 
     @Override
     public Item saveItem(Item item) {
-        return itemRepository.save(item);
+        Item previous = itemRepository.replace(item);
+        notifySaved(item);
+        // The total is replaced, so what changes at the locations is the difference to the stored one
+        locationStock.settle(item, item.getQuantity() - (previous != null ? previous.getQuantity() : 0));
+        return item;
+    }
+
+    @Override
+    public Optional<Item> updateItem(String id, Item details) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("name", details.getName());
+        fields.put("sku", details.getSku());
+        fields.put("category", details.getCategory());
+        fields.put("quantity", details.getQuantity());
+        fields.put("minQuantity", details.getMinQuantity());
+        fields.put("price", details.getPrice());
+        fields.put("supplier", details.getSupplier());
+        fields.put("location", details.getLocation());
+        fields.put("updatedAt", LocalDateTime.now());
+        // The version is bumped by the same update, so concurrent writes can't both claim the next one
+        Item before = itemRepository.updateFields(id, null, fields);
+        if (before == null) {
+            return Optional.empty();
+        }
+        Item after = new Item();
+        BeanUtils.copyProperties(before, after);
+        PropertyAccessorFactory.forBeanPropertyAccess(after).setPropertyValues(fields);
+        after.setVersion(before.getVersion() + 1);
+        notifySaved(after);
+        // The total is replaced, so what changes at the locations is the difference to the stored one
+        locationStock.settle(after, after.getQuantity() - before.getQuantity());
+        eventPublisher.publishUpdated(before, after);
+        return Optional.of(after);
+    }
+
+    @Override
+    public Optional<Item> patchItem(String id, ItemPatch patch) {
+        Map<String, Object> fields = patch.fields();
+        fields.put("updatedAt", LocalDateTime.now());
+        Item before = itemRepository.updateFields(id, patch.getVersion(), fields);
+        if (before == null) {
+            // Only the failure path pays for a second query to tell the two cases apart
+            Optional<Item> current = itemRepository.findById(id);
+            if (current.isPresent()) {
+                throw new VersionConflictException(id, current.get().getVersion());
+            }
+            return Optional.empty();
+        }
+        // The written state follows from the old one; it is not read back
+        Item after = new Item();
+        BeanUtils.copyProperties(before, after);
+        PropertyAccessorFactory.forBeanPropertyAccess(after).setPropertyValues(fields);
+        after.setVersion(before.getVersion() + 1);
+        notifySaved(after);
+        eventPublisher.publishUpdated(before, after);
+        return Optional.of(after);
     }
 
     @Override
     public void deleteItem(String id) {
         itemRepository.deleteById(id);
+        // Before the item listeners, so views can still value the stock leaving each location
+        locationStock.removeItem(id);
+        changeListeners.forEach(listener -> listener.onItemDeleted(id));
+    }
+
+    @Override
+    public List<Item> getLowStockItems(int page, int size) {
+        return lowStockIndex.getLowStockItems(page, size);
+    }
+
+    @Override
+    public List<Item> getOutOfStockItems(int page, int size) {
+        return lowStockIndex.getOutOfStockItems(page, size);
+    }
+
+    @Override
+    public StockAdjustmentResult adjustStock(String id, StockAdjustment adjustment) {
+        Instant now = Instant.now();
+        String location = locationOf(adjustment);
+        if (adjustment.getDelta() != null && location != null) {
+            int delta = adjustment.getDelta();
+            LocatedAdjustment located = adjustAtLocation(id, location, delta);
+            if (located == null) {
+                return failedAdjustment(id);
+            }
+            stockMovementRepository.insert(new StockMovement(id, location, delta, located.stock().getQuantity(),
+                    adjustment.getReason(), now));
+            notifySaved(located.item());
+            return StockAdjustmentResult.applied(located.item());
+        }
+        if (adjustment.getDelta() != null) {
+            int delta = adjustment.getDelta();
+            Item updated = itemRepository.incrementQuantity(id, delta);
+            if (updated == null) {
+                return failedAdjustment(id);
+            }
+            stockMovementRepository.insert(
+                    new StockMovement(id, delta, updated.getQuantity(), adjustment.getReason(), now));
+            notifySaved(updated);
+            locationStock.settle(updated, delta);
+            return StockAdjustmentResult.applied(updated);
+        }
+        if (adjustment.getQuantity() == null || adjustment.getQuantity() < 0) {
+            return new StockAdjustmentResult(id, StockAdjustmentResult.INVALID);
+        }
+        int quantity = adjustment.getQuantity();
+        if (location != null) {
+            return replaceAtLocation(id, location, quantity, adjustment.getReason(), now);
+        }
+        Item previous = itemRepository.replaceQuantity(id, quantity);
+        if (previous == null) {
+            return new StockAdjustmentResult(id, StockAdjustmentResult.NOT_FOUND);
+        }
+        stockMovementRepository.insert(
+                new StockMovement(id, quantity - previous.getQuantity(), quantity, adjustment.getReason(), now));
+        int delta = quantity - previous.getQuantity();
+        previous.setQuantity(quantity);
+        previous.setVersion(previous.getVersion() + 1);
+        previous.setUpdatedAt(LocalDateTime.now());
+        notifySaved(previous);
+        locationStock.settle(previous, delta);
+        return StockAdjustmentResult.applied(previous);
+    }
+
+    @Override
+    public List<StockAdjustmentResult> adjustStock(List<StockAdjustment> adjustments) {
+        // Coalesce deltas per item and location so a hot SKU costs one atomic update per batch
+        Map<String, List<StockAdjustment>> byItem = new LinkedHashMap<>();
+        List<StockAdjustmentResult> results = new ArrayList<>();
+        for (StockAdjustment adjustment : adjustments) {
+            if (adjustment.getItemId() == null || adjustment.getDelta() == null) {
+                results.add(new StockAdjustmentResult(adjustment.getItemId(), StockAdjustmentResult.INVALID));
+                continue;
+            }
+            String key = LocationStock.id(adjustment.getItemId(), Objects.toString(locationOf(adjustment), ""));
+            byItem.computeIfAbsent(key, k -> new ArrayList<>()).add(adjustment);
+        }
+
+        Instant now = Instant.now();
+        List<StockMovement> movements = new ArrayList<>();
+        for (List<StockAdjustment> group : byItem.values()) {
+            String id = group.get(0).getItemId();
+            String location = locationOf(group.get(0));
+            int total = group.stream().mapToInt(StockAdjustment::getDelta).sum();
+            Item updated;
+            int quantityAfter;
+            if (location != null) {
+                LocatedAdjustment located = adjustAtLocation(id, location, total);
+                updated = located != null ? located.item() : null;
+                quantityAfter = located != null ? located.stock().getQuantity() : 0;
+            } else {
+                updated = itemRepository.incrementQuantity(id, total);
+                quantityAfter = updated != null ? updated.getQuantity() : 0;
+            }
+            if (updated == null) {
+                results.add(failedAdjustment(id));
+                continue;
+            }
+            // Quantities after each movement: at the location if there is one, of the total otherwise
+            int running = quantityAfter - total;
+            for (StockAdjustment adjustment : group) {
+                running += adjustment.getDelta();
+                movements.add(new StockMovement(id, location, adjustment.getDelta(), running, adjustment.getReason(), now));
+            }
+            notifySaved(updated);
+            if (location == null) {
+                locationStock.settle(updated, total);
+            }
+            results.add(StockAdjustmentResult.applied(updated));
+        }
+        if (!movements.isEmpty()) {
+            stockMovementRepository.insert(movements);
+        }
+        return results;
     }
 
     @Override
-    public List<Item> getLowStockItems(int threshold) {
-        // পরিবর্তিত মেথডটি এখানে কল করা হচ্ছে
-        return itemRepository.findByQuantityLessThanEqual(threshold);
+    public StockTransferResult transferStock(String id, StockTransfer transfer) {
+        String from = trimToNull(transfer.getFrom());
+        String to = trimToNull(transfer.getTo());
+        int quantity = transfer.getQuantity();
+        if (from == null || to == null || from.equals(to) || quantity <= 0) {
+            return new StockTransferResult(id, StockAdjustmentResult.INVALID);
+        }
+        // Taking from the source is the step that can fail, so it goes first
+        LocationStock source = locationStock.adjust(id, from, -quantity);
+        if (source == null) {
+            return new StockTransferResult(id, failedAdjustment(id).getStatus());
+        }
+        LocationStock destination;
+        try {
+            destination = locationStock.adjust(id, to, quantity);
+        } catch (RuntimeException e) {
+            locationStock.adjust(id, from, quantity);
+            throw e;
+        }
+        String reason = transfer.getReason() != null ? transfer.getReason() : TRANSFER_REASON;
+        Instant now = Instant.now();
+        stockMovementRepository.insert(List.of(
+                new StockMovement(id, from, -quantity, source.getQuantity(), reason, now),
+                new StockMovement(id, to, quantity, destination.getQuantity(), reason, now)));
+        StockTransferResult result = new StockTransferResult(id, StockAdjustmentResult.APPLIED);
+        result.setFrom(source);
+        result.setTo(destination);
+        return result;
     }
 
     @Override
-    public List<Item> getOutOfStockItems() {
-        return itemRepository.findByQuantity(0);
+    public List<StockMovement> getStockMovements(String itemId) {
+        return stockMovementRepository.findTop100ByItemIdOrderByTimestampDesc(itemId);
+    }
+
+    @Override
+    public List<Item> adjustStockBySku(Map<String, Integer> deltasBySku, String reason) {
+        // Sorted so concurrent multi-SKU operations always touch items in the same order
+        Map<String, Integer> deltas = new TreeMap<>();
+        deltasBySku.forEach((sku, delta) -> {
+            if (delta != null && delta != 0) {
+                deltas.put(sku, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // The cache resolves hot SKUs; any misses are loaded together in one query
+        Map<String, String> idsBySku = itemCache.getIdsBySku(deltas.keySet());
+        for (String sku : new ArrayList<>(deltas.keySet())) {
+            if (idsBySku.containsKey(sku)) {
+                continue;
+            }
+            if (deltas.get(sku) < 0) {
+                throw new InsufficientStockException(sku, deltas, "Unknown SKU: " + sku);
+            }
+            // Stock returned to an item that no longer exists has nowhere to go
+            deltas.remove(sku);
+        }
+
+        // Deductions go first: they are the only updates that can fail and need rolling back
+        List<String> skus = new ArrayList<>(deltas.keySet());
+        skus.sort((a, b) -> Boolean.compare(deltas.get(a) > 0, deltas.get(b) > 0));
+        List<Item> updated = new ArrayList<>();
+        for (String sku : skus) {
+            Item item = itemRepository.incrementQuantity(idsBySku.get(sku), deltas.get(sku));
+            if (item == null) {
+                for (Item applied : updated) {
+                    itemRepository.incrementQuantity(applied.getId(), -deltas.get(applied.getSku()));
+                }
+                throw new InsufficientStockException(sku, deltas, "Insufficient stock for SKU: " + sku);
+            }
+            updated.add(item);
+        }
+
+        Instant now = Instant.now();
+        List<StockMovement> movements = new ArrayList<>();
+        for (Item item : updated) {
+            movements.add(new StockMovement(item.getId(), deltas.get(item.getSku()), item.getQuantity(), reason, now));
+            notifySaved(item);
+            locationStock.settle(item, deltas.get(item.getSku()));
+        }
+        stockMovementRepository.insert(movements);
+        return updated;
+    }
+
+    /**
+     * Changes the stock at one location and the item's total together. The update that can
+     * fail goes first, and is undone if the second one fails.
+     * @return The item and the location's stock after the change, or null if it was not applied.
+     */
+    private LocatedAdjustment adjustAtLocation(String id, String location, int delta) {
+        if (delta < 0) {
+            LocationStock stock = locationStock.adjust(id, location, delta);
+            if (stock == null) {
+                return null;
+            }
+            Item item = itemRepository.incrementQuantity(id, delta);
+            if (item == null) {
+                locationStock.adjust(id, location, -delta);
+                return null;
+            }
+            return new LocatedAdjustment(item, stock);
+        }
+        Item item = itemRepository.incrementQuantity(id, delta);
+        if (item == null) {
+            return null;
+        }
+        return new LocatedAdjustment(item, locationStock.adjust(id, location, delta));
+    }
+
+    private StockAdjustmentResult replaceAtLocation(String id, String location, int quantity, String reason,
+                                                    Instant now) {
+        if (!itemRepository.existsById(id)) {
+            return new StockAdjustmentResult(id, StockAdjustmentResult.NOT_FOUND);
+        }
+        int before = locationStock.replace(id, location, quantity);
+        Item updated = itemRepository.incrementQuantity(id, quantity - before);
+        if (updated == null) {
+            // Relative, so stock moved there meanwhile is kept
+            locationStock.adjust(id, location, before - quantity);
+            return failedAdjustment(id);
+        }
+        stockMovementRepository.insert(new StockMovement(id, location, quantity - before, quantity, reason, now));
+        notifySaved(updated);
+        return StockAdjustmentResult.applied(updated);
+    }
+
+    private static String locationOf(StockAdjustment adjustment) {
+        return trimToNull(adjustment.getLocation());
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private void notifySaved(Item item) {
+        changeListeners.forEach(listener -> listener.onItemSaved(item));
+    }
+
+    private StockAdjustmentResult failedAdjustment(String id) {
+        // Only the failure path pays for a second query to tell the two cases apart
+        String status = itemRepository.existsById(id)
+                ? StockAdjustmentResult.INSUFFICIENT_STOCK
+                : StockAdjustmentResult.NOT_FOUND;
+        return new StockAdjustmentResult(id, status);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,212 @@
+package com.supplychain.service.impl;
+
+import com.supplychain.model.CursorPage;
+import com.supplychain.model.Item;
+import com.supplychain.model.LocationStock;
+import com.supplychain.model.StockTotals;
+import com.supplychain.repository.ItemRepository;
+import com.supplychain.repository.LocationStockRepository;
+import com.supplychain.service.LocationStockService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Stock per location, read from the location stock collection and the {@link LocationTotals} view.
+ *
+ * Reconciliation brings the locations back in line with the item totals: at startup it gives
+ * items that have no location stock yet (written before stock had locations) their total at
+ * their home location, and nightly (or on request) it settles any drift left by a write that
+ * failed halfway, and removes stock of items that no longer exist. It streams the location stock
+ * and the items once, and reads each item that differs again before settling it, so writes in
+ * flight during the scans are not mistaken for drift. The totals are rebuilt afterwards.
+ */
+@Service
+public class LocationStockServiceImpl implements LocationStockService {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationStockServiceImpl.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private LocationStockRepository stockRepository;
+
+    @Autowired
+    private LocationStockWriter locationStock;
+
+    @Autowired
+    private LocationTotals totals;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    private final ExecutorService reconcileExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "location-stock");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean reconcileRunning = new AtomicBoolean();
+
+    private volatile LocalDateTime lastReconcileAt;
+    private volatile long lastReconcileMillis;
+    private volatile long lastReconcileItems;
+    private volatile long lastReconcileSettled;
+    private volatile long lastReconcileRemoved;
+
+    @Override
+    public Optional<Map<String, Object>> getItemStock(String itemId) {
+        return itemCache.getById(itemId).map(item -> {
+            Map<String, Object> stock = new LinkedHashMap<>();
+            stock.put("itemId", item.getId());
+            stock.put("sku", item.getSku());
+            stock.put("home", LocationStock.homeOf(item));
+            stock.put("quantity", item.getQuantity());
+            stock.put("value", item.getQuantity() * item.getPrice());
+            stock.put("locations", stockRepository.findByItem(itemId));
+            return stock;
+        });
+    }
+
+    @Override
+    public List<StockTotals> getLocationTotals() {
+        return totals.getLocations();
+    }
+
+    @Override
+    public Optional<StockTotals> getLocationTotals(String location) {
+        return totals.getLocation(location);
+    }
+
+    @Override
+    public CursorPage<LocationStock> getLocationStock(String location, String cursor, int limit) {
+        // Fetch one extra row to find out whether another page exists
+        List<LocationStock> stocks = stockRepository.findPageByLocation(location, cursor, limit + 1);
+        if (stocks.size() <= limit) {
+            return new CursorPage<>(stocks, null);
+        }
+        List<LocationStock> page = stocks.subList(0, limit);
+        return new CursorPage<>(page, page.get(limit - 1).getId());
+    }
+
+    @Override
+    public List<StockTotals> getCategoryTotals() {
+        return totals.getCategories();
+    }
+
+    @Override
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>(totals.getStatus());
+        status.put("reconciling", reconcileRunning.get());
+        status.put("lastReconcileAt", lastReconcileAt);
+        status.put("lastReconcileMillis", lastReconcileMillis);
+        status.put("lastReconcileItems", lastReconcileItems);
+        status.put("lastReconcileSettled", lastReconcileSettled);
+        status.put("lastReconcileRemoved", lastReconcileRemoved);
+        return status;
+    }
+
+    /**
+     * Reconciles and builds the totals at startup, retrying while the database is unreachable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${inventory.views.rebuild-retry-ms:30000}",
+               initialDelayString = "${inventory.views.rebuild-retry-ms:30000}")
+    public void buildIfNeeded() {
+        if (!totals.isBuilt()) {
+            startReconcile();
+        }
+    }
+
+    @Scheduled(cron = "${inventory.locations.reconcile-cron:0 15 3 * * *}")
+    public void nightlyReconcile() {
+        startReconcile();
+    }
+
+    @Override
+    public boolean startReconcile() {
+        if (!reconcileRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        // Off the scheduler thread, which the other scheduled jobs share
+        reconcileExecutor.execute(() -> {
+            try {
+                reconcile();
+                totals.rebuild();
+            } catch (DataAccessException e) {
+                log.warn("Location stock not reconciled, database unavailable: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Location stock reconciliation failed", e);
+            } finally {
+                reconcileRunning.set(false);
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reconcileExecutor.shutdownNow();
+    }
+
+    private void reconcile() {
+        long started = System.nanoTime();
+        Map<String, Integer> held = new HashMap<>();
+        try (Stream<LocationStock> stocks = stockRepository.streamAll()) {
+            stocks.forEach(stock -> held.merge(stock.getItemId(), stock.getQuantity(), Integer::sum));
+        }
+        List<String> differing = new ArrayList<>();
+        long items = 0;
+        try (Stream<Item> all = itemRepository.streamAll(null, null)) {
+            for (Item item : (Iterable<Item>) all::iterator) {
+                items++;
+                Integer sum = held.remove(item.getId());
+                if ((sum != null ? sum : 0) != item.getQuantity()) {
+                    differing.add(item.getId());
+                }
+            }
+        }
+        // Settled after the scan rather than while its cursor is held open
+        long settled = 0;
+        for (String id : differing) {
+            Optional<Item> item = itemRepository.findById(id);
+            if (item.isPresent() && locationStock.settleToTotal(item.get()) != 0) {
+                settled++;
+            }
+        }
+        // What is left was held for items the scan did not see
+        long removed = 0;
+        for (String id : held.keySet()) {
+            if (!itemRepository.existsById(id)) {
+                locationStock.removeItem(id);
+                removed++;
+            }
+        }
+        lastReconcileAt = LocalDateTime.now();
+        lastReconcileMillis = (System.nanoTime() - started) / 1_000_000;
+        lastReconcileItems = items;
+        lastReconcileSettled = settled;
+        lastReconcileRemoved = removed;
+        if (settled > 0 || removed > 0) {
+            log.info("Location stock reconciled in {} ms: {} items settled, stock of {} deleted items removed",
+                    lastReconcileMillis, settled, removed);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.supplychain.service.impl;
+
+import com.supplychain.events.LocationStockChangeListener;
+import com.supplychain.model.Item;
+import com.supplychain.model.LocationStock;
+import com.supplychain.repository.LocationStockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes the stock held at each location and tells the location stock listeners.
+ *
+ * Writes that name a location change that location. Writes that only change an item's total
+ * (orders, adjustments without a location, edits and imports) are settled onto its locations
+ * afterwards: increases go to the item's home location, decreases are drawn from the home
+ * location first and then from the locations holding the most. Each location write is a single
+ * atomic update guarded like the item's own quantity, so concurrent writers never take the same
+ * units twice.
+ */
+@Component
+public class LocationStockWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationStockWriter.class);
+
+    // Re-reads of the locations when concurrent writers took the stock a decrease was going to draw
+    private static final int MAX_SETTLE_ATTEMPTS = 3;
+
+    @Autowired
+    private LocationStockRepository stockRepository;
+
+    @Autowired
+    private List<LocationStockChangeListener> listeners;
+
+    /**
+     * Adds to the stock of an item at one location.
+     * @return The stock as written, or null if a decrease found too little stock there.
+     */
+    public LocationStock adjust(String itemId, String location, int delta) {
+        LocationStock stock = stockRepository.increment(itemId, location, delta);
+        if (stock != null && delta != 0) {
+            notifyChanged(stock, delta);
+        }
+        return stock;
+    }
+
+    /**
+     * Sets the stock of an item at one location.
+     * @return The quantity there before.
+     */
+    public int replace(String itemId, String location, int quantity) {
+        LocationStock previous = stockRepository.replaceQuantity(itemId, location, quantity);
+        int before = previous != null ? previous.getQuantity() : 0;
+        if (quantity != before) {
+            notifyChanged(new LocationStock(itemId, location, quantity), quantity - before);
+        }
+        return before;
+    }
+
+    /**
+     * Settles a change already made to an item's total onto its locations.
+     * @param item The item as written, for its id and home location.
+     * @param delta The change made to its total.
+     */
+    public void settle(Item item, int delta) {
+        String home = LocationStock.homeOf(item);
+        // The common case, one location holding enough, costs a single update
+        if (delta == 0 || adjust(item.getId(), home, delta) != null) {
+            return;
+        }
+        int remaining = -delta;
+        for (int attempt = 0; attempt < MAX_SETTLE_ATTEMPTS && remaining > 0; attempt++) {
+            List<LocationStock> stocks = new ArrayList<>(stockRepository.findByItem(item.getId()));
+            stocks.sort(Comparator.comparing((LocationStock stock) -> !stock.getLocation().equals(home))
+                    .thenComparing(LocationStock::getQuantity, Comparator.reverseOrder()));
+            for (LocationStock stock : stocks) {
+                if (remaining == 0) {
+                    break;
+                }
+                int take = Math.min(stock.getQuantity(), remaining);
+                if (take > 0 && adjust(item.getId(), stock.getLocation(), -take) != null) {
+                    remaining -= take;
+                }
+            }
+        }
+        if (remaining > 0) {
+            // The locations held less than the total; reconciliation brings them back in line
+            log.warn("Locations of item {} were short of {} units when settling a change of {}",
+                    item.getId(), remaining, delta);
+        }
+    }
+
+    /**
+     * Settles the difference between an item's total and the sum of its locations.
+     * Used where the previous total is not known.
+     * @param item The item as last read.
+     * @return The difference that was settled.
+     */
+    public int settleToTotal(Item item) {
+        int held = 0;
+        for (LocationStock stock : stockRepository.findByItem(item.getId())) {
+            held += stock.getQuantity();
+        }
+        int difference = item.getQuantity() - held;
+        settle(item, difference);
+        return difference;
+    }
+
+    /**
+     * Deletes the stock of an item at all its locations.
+     */
+    public void removeItem(String itemId) {
+        List<LocationStock> stocks = stockRepository.findByItem(itemId);
+        stockRepository.deleteByItem(itemId);
+        for (LocationStock stock : stocks) {
+            if (stock.getQuantity() != 0) {
+                notifyChanged(new LocationStock(itemId, stock.getLocation(), 0), -stock.getQuantity());
+            }
+        }
+    }
+
+    private void notifyChanged(LocationStock stock, int delta) {
+        listeners.forEach(listener -> listener.onLocationStockChanged(stock, delta));
+    }
+}
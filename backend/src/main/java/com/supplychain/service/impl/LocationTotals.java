@@ -0,0 +1,266 @@
+package com.supplychain.service.impl;
+
+import com.supplychain.events.ItemChangeListener;
+import com.supplychain.events.LocationStockChangeListener;
+import com.supplychain.model.Item;
+import com.supplychain.model.LocationStock;
+import com.supplychain.model.StockTotals;
+import com.supplychain.repository.ItemRepository;
+import com.supplychain.repository.LocationStockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Stock units and value per location and per category, kept resident in memory and updated
+ * from every item and location stock write, so reading them never sums over SKUs.
+ *
+ * Each item only contributes a small entry (category, price and total); a location change is
+ * valued at the entry's price. When an item's price changes, the stock at its locations is
+ * revalued from one read of them. A rebuild streams the items and the location stock, and is
+ * only taken as exact if no write arrived while it ran; otherwise it is retried, and the
+ * incrementally maintained totals are kept meanwhile.
+ */
+@Component
+public class LocationTotals implements ItemChangeListener, LocationStockChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationTotals.class);
+
+    private static final int MAX_REBUILD_ATTEMPTS = 5;
+    private static final String UNCATEGORIZED = "uncategorized";
+    private static final Comparator<StockTotals> BY_KEY = Comparator.comparing(StockTotals::getKey);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private LocationStockRepository stockRepository;
+
+    private State state;
+    private long writeSequence;
+    private boolean exact;
+    private LocalDateTime lastRebuildAt;
+    private long lastRebuildMillis;
+
+    public synchronized boolean isBuilt() {
+        return state != null;
+    }
+
+    public synchronized List<StockTotals> getLocations() {
+        return state != null ? state.copy(state.byLocation) : new ArrayList<>();
+    }
+
+    public synchronized Optional<StockTotals> getLocation(String location) {
+        if (state == null) {
+            return Optional.empty();
+        }
+        Totals totals = state.byLocation.get(location);
+        return totals != null ? Optional.of(totals.toStockTotals(location)) : Optional.empty();
+    }
+
+    public synchronized List<StockTotals> getCategories() {
+        return state != null ? state.copy(state.byCategory) : new ArrayList<>();
+    }
+
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("built", state != null);
+        // False if writes kept arriving during every attempt of the last rebuild
+        status.put("exact", exact);
+        status.put("items", state != null ? state.items.size() : 0);
+        status.put("locations", state != null ? state.byLocation.size() : 0);
+        status.put("categories", state != null ? state.byCategory.size() : 0);
+        status.put("lastRebuildAt", lastRebuildAt);
+        status.put("lastRebuildMillis", lastRebuildMillis);
+        return status;
+    }
+
+    /**
+     * Rebuilds the totals from the items and the location stock.
+     * @return False if every attempt overlapped with writes.
+     */
+    public boolean rebuild() {
+        for (int attempt = 0; attempt < MAX_REBUILD_ATTEMPTS; attempt++) {
+            long started = System.nanoTime();
+            long sequence;
+            synchronized (this) {
+                sequence = writeSequence;
+            }
+            State rebuilt = new State();
+            try (Stream<Item> items = itemRepository.streamAll(null, null)) {
+                items.forEach(rebuilt::applyItem);
+            }
+            try (Stream<LocationStock> stocks = stockRepository.streamAll()) {
+                stocks.forEach(stock -> rebuilt.applyStock(stock.getItemId(), stock.getLocation(),
+                        stock.getQuantity(), stock.getQuantity()));
+            }
+            synchronized (this) {
+                boolean unchanged = writeSequence == sequence;
+                // The first build is kept either way: an approximate view beats none
+                if (unchanged || state == null) {
+                    state = rebuilt;
+                    exact = unchanged;
+                    lastRebuildAt = LocalDateTime.now();
+                    lastRebuildMillis = (System.nanoTime() - started) / 1_000_000;
+                }
+                if (unchanged) {
+                    return true;
+                }
+            }
+        }
+        log.warn("Location totals not rebuilt under concurrent writes, keeping the incremental ones");
+        return false;
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+        double priceChange;
+        synchronized (this) {
+            writeSequence++;
+            if (state == null) {
+                return;
+            }
+            Entry current = state.items.get(item.getId());
+            if (current != null && item.getVersion() < current.version) {
+                // Notified after a newer write to the same item
+                return;
+            }
+            Entry previous = state.applyItem(item);
+            priceChange = previous != null ? item.getPrice() - previous.price : 0;
+        }
+        if (priceChange == 0) {
+            return;
+        }
+        // Rare: stock already at the locations was valued at the old price
+        List<LocationStock> stocks = stockRepository.findByItem(item.getId());
+        synchronized (this) {
+            writeSequence++;
+            if (state != null) {
+                stocks.forEach(stock -> state.revalue(stock.getLocation(), stock.getQuantity(), priceChange));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onItemDeleted(String id) {
+        writeSequence++;
+        if (state != null) {
+            state.removeItem(id);
+        }
+    }
+
+    @Override
+    public synchronized void onLocationStockChanged(LocationStock stock, int delta) {
+        writeSequence++;
+        if (state != null) {
+            state.applyStock(stock.getItemId(), stock.getLocation(), stock.getQuantity(), delta);
+        }
+    }
+
+    /**
+     * Per-item values the totals are computed from.
+     */
+    private static final class Entry {
+        final String category;
+        final double price;
+        final int quantity;
+        final long version;
+
+        Entry(Item item) {
+            this.version = item.getVersion();
+            this.category = item.getCategory() != null ? item.getCategory() : UNCATEGORIZED;
+            this.price = item.getPrice();
+            this.quantity = item.getQuantity();
+        }
+    }
+
+    private static final class Totals {
+        long skus;
+        long quantity;
+        double value;
+
+        void add(long skus, long quantity, double value) {
+            this.skus += skus;
+            this.quantity += quantity;
+            this.value += value;
+        }
+
+        boolean isEmpty() {
+            return skus == 0 && quantity == 0;
+        }
+
+        StockTotals toStockTotals(String key) {
+            return new StockTotals(key, skus, quantity, value);
+        }
+    }
+
+    private static final class State {
+        final Map<String, Entry> items = new HashMap<>();
+        final Map<String, Totals> byLocation = new HashMap<>();
+        final Map<String, Totals> byCategory = new HashMap<>();
+
+        /**
+         * @return The item's previous entry, or null if it had none.
+         */
+        Entry applyItem(Item item) {
+            Entry entry = new Entry(item);
+            Entry previous = items.put(item.getId(), entry);
+            if (previous != null) {
+                addToCategory(previous, -1);
+            }
+            addToCategory(entry, 1);
+            return previous;
+        }
+
+        void removeItem(String id) {
+            Entry previous = items.remove(id);
+            if (previous != null) {
+                addToCategory(previous, -1);
+            }
+        }
+
+        void applyStock(String itemId, String location, int quantity, int delta) {
+            Entry entry = items.get(itemId);
+            double price = entry != null ? entry.price : 0;
+            int before = quantity - delta;
+            add(byLocation, location, (quantity > 0 ? 1 : 0) - (before > 0 ? 1 : 0), delta, delta * price);
+        }
+
+        void revalue(String location, int quantity, double priceChange) {
+            Totals totals = byLocation.get(location);
+            if (totals != null) {
+                totals.value += quantity * priceChange;
+            }
+        }
+
+        List<StockTotals> copy(Map<String, Totals> totals) {
+            List<StockTotals> copy = new ArrayList<>(totals.size());
+            totals.forEach((key, value) -> copy.add(value.toStockTotals(key)));
+            copy.sort(BY_KEY);
+            return copy;
+        }
+
+        private void addToCategory(Entry entry, int sign) {
+            add(byCategory, entry.category, sign * (entry.quantity > 0 ? 1 : 0), sign * entry.quantity,
+                    sign * entry.quantity * entry.price);
+        }
+
+        private static void add(Map<String, Totals> totals, String key, long skus, long quantity, double value) {
+            Totals existing = totals.computeIfAbsent(key, k -> new Totals());
+            existing.add(skus, quantity, value);
+            // Keys whose stock is all gone are dropped rather than listed with zeros
+            if (existing.isEmpty()) {
+                totals.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.supplychain.service.impl;
+
+import com.supplychain.events.InventoryEventPublisher;
+import com.supplychain.events.ItemChangeListener;
+import com.supplychain.model.Item;
+import com.supplychain.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of items at or below their own {@code minQuantity}, ordered by
+ * the margin {@code quantity - minQuantity} so the most critical items come first.
+ * Updated on every item write; only ids are kept in order, the items themselves
+ * are loaded by id for the requested page.
+ */
+@Component
+public class LowStockIndex implements ItemChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockIndex.class);
+
+    private static final Comparator<Key> MOST_CRITICAL_FIRST = Comparator
+            .comparingInt((Key key) -> key.margin)
+            .thenComparing(key -> key.id);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private InventoryEventPublisher eventPublisher;
+
+    private final Map<String, Key> keys = new HashMap<>();
+    private final TreeSet<Key> lowStock = new TreeSet<>(MOST_CRITICAL_FIRST);
+    private final TreeSet<Key> outOfStock = new TreeSet<>(MOST_CRITICAL_FIRST);
+    // Deletes seen before the first build finished, so the snapshot doesn't resurrect them
+    private final Set<String> deletedBeforeReady = new HashSet<>();
+    private boolean ready;
+
+    /**
+     * Items with {@code quantity <= minQuantity}, most critical first.
+     */
+    public List<Item> getLowStockItems(int page, int size) {
+        List<String> ids;
+        synchronized (this) {
+            if (!ready) {
+                return scan(item -> item.getQuantity() <= item.getMinQuantity(), page, size);
+            }
+            ids = pageOf(lowStock, page, size);
+        }
+        return load(ids);
+    }
+
+    /**
+     * Items with no stock left, the ones with the highest minimum quantity first.
+     */
+    public List<Item> getOutOfStockItems(int page, int size) {
+        List<String> ids;
+        synchronized (this) {
+            if (!ready) {
+                return scan(item -> item.getQuantity() <= 0, page, size);
+            }
+            ids = pageOf(outOfStock, page, size);
+        }
+        return load(ids);
+    }
+
+    /**
+     * Builds the index at startup, retrying while the database is unreachable.
+     * Until then reads fall back to scanning.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${inventory.views.rebuild-retry-ms:30000}",
+               initialDelayString = "${inventory.views.rebuild-retry-ms:30000}")
+    public void buildIfNeeded() {
+        synchronized (this) {
+            if (ready) {
+                return;
+            }
+        }
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Low-stock index not built, database unavailable: {}", e.getMessage());
+        }
+    }
+
+    public void rebuild() {
+        Map<String, Key> rebuilt = new HashMap<>();
+        try (Stream<Item> items = itemRepository.streamAll(null, null)) {
+            items.forEach(item -> rebuilt.put(item.getId(), new Key(item)));
+        }
+        synchronized (this) {
+            // Writes seen before the rebuild finished win unless the snapshot read a newer version
+            rebuilt.keySet().removeAll(deletedBeforeReady);
+            keys.forEach((id, seen) -> rebuilt.merge(id, seen,
+                    (snapshot, written) -> written.version >= snapshot.version ? written : snapshot));
+            deletedBeforeReady.clear();
+            keys.clear();
+            lowStock.clear();
+            outOfStock.clear();
+            rebuilt.values().forEach(this::insert);
+            ready = true;
+        }
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+        Key key = new Key(item);
+        Key previous;
+        boolean built;
+        synchronized (this) {
+            previous = keys.get(item.getId());
+            if (previous != null && key.version < previous.version) {
+                // Notified after a newer write to the same item
+                return;
+            }
+            remove(item.getId());
+            insert(key);
+            built = ready;
+        }
+        if (!built) {
+            // Until the first build the previous state of most items is unknown, not "not low"
+            return;
+        }
+        boolean wasLow = previous != null && previous.isLow();
+        if (wasLow != key.isLow() && (previous != null || key.isLow())) {
+            eventPublisher.publishLowStockCrossing(item, key.isLow());
+        }
+    }
+
+    @Override
+    public synchronized void onItemDeleted(String id) {
+        remove(id);
+        if (!ready) {
+            deletedBeforeReady.add(id);
+        }
+    }
+
+    private void insert(Key key) {
+        keys.put(key.id, key);
+        if (key.isLow()) {
+            lowStock.add(key);
+        }
+        if (key.quantity <= 0) {
+            outOfStock.add(key);
+        }
+    }
+
+    private Key remove(String id) {
+        Key previous = keys.remove(id);
+        if (previous != null) {
+            lowStock.remove(previous);
+            outOfStock.remove(previous);
+        }
+        return previous;
+    }
+
+    private static List<String> pageOf(TreeSet<Key> set, int page, int size) {
+        return set.stream()
+                .skip((long) page * size)
+                .limit(size)
+                .map(key -> key.id)
+                .collect(Collectors.toList());
+    }
+
+    private List<Item> load(List<String> ids) {
+        // One lookup on _id for the page, returned in index order
+        Map<String, Item> byId = new HashMap<>();
+        itemRepository.findAllById(ids).forEach(item -> byId.put(item.getId(), item));
+        List<Item> items = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Item item = byId.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private List<Item> scan(Predicate<Item> filter, int page, int size) {
+        try (Stream<Item> items = itemRepository.streamAll(null, null)) {
+            return items.filter(filter)
+                    .sorted(Comparator.comparing(Key::new, MOST_CRITICAL_FIRST))
+                    .skip((long) page * size)
+                    .limit(size)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static final class Key {
+        final String id;
+        final int margin;
+        final int quantity;
+        final long version;
+
+        Key(Item item) {
+            this.id = item.getId();
+            this.version = item.getVersion();
+            this.margin = item.getQuantity() - item.getMinQuantity();
+            this.quantity = item.getQuantity();
+        }
+
+        boolean isLow() {
+            return margin <= 0;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.supplychain.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the independent queries of one request at the same time, so the request takes as long
+ * as its slowest query rather than the sum of them. The queries of a call succeed or fail
+ * together: the first failure, or {@code queries.parallel.timeout-ms} passing, interrupts the
+ * queries still running, discards their results and is thrown to the caller.
+ *
+ * With virtual threads enabled ({@code spring.threads.virtual.enabled} on Java 21) every query
+ * runs on a virtual thread of its own. Otherwise they share {@code queries.parallel.pool-size}
+ * platform threads, and a query finding them all busy runs on the calling thread, so a
+ * saturated pool degrades to running the queries one after another.
+ */
+@Component
+public class ParallelQueries {
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${queries.parallel.timeout-ms:10000}")
+    private long timeoutMillis;
+
+    @Value("${queries.parallel.pool-size:32}")
+    private int poolSize;
+
+    private TaskExecutor executor;
+    private ThreadPoolTaskExecutor platformPool;
+
+    @PostConstruct
+    void init() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor virtualThreads = new SimpleAsyncTaskExecutor("query-");
+            virtualThreads.setVirtualThreads(true);
+            executor = virtualThreads;
+            return;
+        }
+        platformPool = new ThreadPoolTaskExecutor();
+        platformPool.setThreadNamePrefix("query-");
+        platformPool.setCorePoolSize(poolSize);
+        platformPool.setMaxPoolSize(poolSize);
+        platformPool.setQueueCapacity(0);
+        platformPool.setDaemon(true);
+        platformPool.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        platformPool.initialize();
+        executor = platformPool;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (platformPool != null) {
+            platformPool.shutdown();
+        }
+    }
+
+    /**
+     * Runs the queries concurrently and returns their results in the order of the queries.
+     * @throws QueryTimeoutException if they have not all completed within the timeout
+     */
+    public <T> List<T> invokeAll(List<Callable<T>> queries) {
+        if (queries.size() <= 1) {
+            // Nothing to overlap
+            List<T> results = new ArrayList<>(queries.size());
+            for (Callable<T> query : queries) {
+                results.add(call(query));
+            }
+            return results;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<T>, Integer> positions = new HashMap<>();
+        try {
+            for (int i = 0; i < queries.size(); i++) {
+                positions.put(completion.submit(queries.get(i)), i);
+            }
+            List<T> results = new ArrayList<>(Collections.nCopies(queries.size(), null));
+            for (int completed = 0; completed < queries.size(); completed++) {
+                Future<T> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new QueryTimeoutException(
+                            "Queries did not complete within " + timeoutMillis + " ms");
+                }
+                results.set(positions.get(done), done.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for queries", e);
+        } finally {
+            // Only the ones still queued or running are affected
+            positions.keySet().forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static <T> T call(Callable<T> query) {
+        try {
+            return query.call();
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+}
@@ -0,0 +1,170 @@
+package com.supplychain.service.impl;
+
+/**
+ * Mergeable quantile sketch with relative accuracy, using the bucketing of DDSketch.
+ *
+ * A positive value v is counted in bucket ceil(log(v) / log(gamma)) with
+ * gamma = (1 + a) / (1 - a), so every quantile is answered within a relative error of
+ * {@code a} of a value actually seen at that rank. Negative values are counted in a mirrored
+ * set of buckets, and values closer to zero than {@link #MIN_VALUE} in a zero bucket. Buckets
+ * are plain counters: two sketches merge by adding their counts, and a value is taken back by
+ * counting it with a negative weight, so a sketch can follow deliveries that are corrected or
+ * undone. Values are clamped to {@link #MAX_VALUE}, which bounds the buckets per side to
+ * log(MAX_VALUE / MIN_VALUE) / log(gamma), about 900 at 1% accuracy. Not thread safe.
+ */
+final class QuantileSketch {
+
+    static final double MIN_VALUE = 1e-2;
+    static final double MAX_VALUE = 1e6;
+
+    private final double gamma;
+    private final double logGamma;
+    private final Buckets positive = new Buckets();
+    private final Buckets negative = new Buckets();
+    private long zeroCount;
+    private long count;
+    private double sum;
+
+    QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("relative accuracy must be between 0 and 1");
+        }
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Counts a value {@code weight} times; a negative weight takes earlier counts back.
+     */
+    void add(double value, long weight) {
+        double clamped = Math.max(-MAX_VALUE, Math.min(value, MAX_VALUE));
+        if (clamped >= MIN_VALUE) {
+            positive.add(index(clamped), weight);
+        } else if (clamped <= -MIN_VALUE) {
+            negative.add(index(-clamped), weight);
+        } else {
+            zeroCount += weight;
+        }
+        count += weight;
+        sum += clamped * weight;
+    }
+
+    /**
+     * Adds the counts of another sketch with the same accuracy.
+     */
+    void merge(QuantileSketch other) {
+        if (other.gamma != gamma) {
+            throw new IllegalArgumentException("Sketches of different accuracy cannot be merged");
+        }
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+    }
+
+    long count() {
+        return count;
+    }
+
+    /**
+     * The mean of the values counted, or NaN if there are none.
+     */
+    double mean() {
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    /**
+     * The value at quantile {@code q} (0 to 1), or NaN if the sketch is empty.
+     */
+    double quantile(double q) {
+        if (count <= 0) {
+            return Double.NaN;
+        }
+        // Buckets left below zero by unmatched removals are skipped rather than failing the query
+        long total = negative.positiveTotal() + Math.max(zeroCount, 0) + positive.positiveTotal();
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(Math.max(0, Math.min(q, 1)) * (total - 1));
+        long seen = 0;
+        // Most negative first: the highest index of the mirrored buckets
+        for (int i = negative.counts.length - 1; i >= 0; i--) {
+            seen += Math.max(negative.counts[i], 0);
+            if (seen > rank) {
+                return -value(negative.offset + i);
+            }
+        }
+        seen += Math.max(zeroCount, 0);
+        if (seen > rank) {
+            return 0;
+        }
+        for (int i = 0; i < positive.counts.length; i++) {
+            seen += Math.max(positive.counts[i], 0);
+            if (seen > rank) {
+                return value(positive.offset + i);
+            }
+        }
+        return value(positive.offset + positive.counts.length - 1);
+    }
+
+    /**
+     * Number of buckets allocated, for sizing.
+     */
+    int buckets() {
+        return positive.counts.length + negative.counts.length + 1;
+    }
+
+    private int index(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / logGamma);
+    }
+
+    // The midpoint of the bucket in relative terms, so both of its bounds are within the accuracy
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    /**
+     * Counts of consecutive bucket indexes, grown to cover the indexes in use.
+     */
+    private static final class Buckets {
+        long[] counts = new long[0];
+        int offset;
+
+        void add(int index, long weight) {
+            if (counts.length == 0) {
+                counts = new long[8];
+                offset = index - 4;
+            } else if (index < offset || index >= offset + counts.length) {
+                grow(Math.min(index, offset), Math.max(index, offset + counts.length - 1));
+            }
+            counts[index - offset] += weight;
+        }
+
+        void merge(Buckets other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) {
+                    add(other.offset + i, other.counts[i]);
+                }
+            }
+        }
+
+        long positiveTotal() {
+            long total = 0;
+            for (long bucket : counts) {
+                total += Math.max(bucket, 0);
+            }
+            return total;
+        }
+
+        private void grow(int min, int max) {
+            // Some room on both sides, so a slowly widening range doesn't copy on every value
+            int margin = Math.max(4, (max - min + 1) / 4);
+            int newOffset = min - margin;
+            long[] grown = new long[max - min + 1 + 2 * margin];
+            System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+            counts = grown;
+            offset = newOffset;
+        }
+    }
+}
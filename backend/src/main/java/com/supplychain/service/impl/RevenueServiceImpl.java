@@ -0,0 +1,670 @@
+package com.supplychain.service.impl;
+
+import com.supplychain.events.OrderChangeListener;
+import com.supplychain.model.Item;
+import com.supplychain.model.Order;
+import com.supplychain.model.OrderItem;
+import com.supplychain.model.RevenueRollup;
+import com.supplychain.repository.ItemRepository;
+import com.supplychain.repository.OrderRepository;
+import com.supplychain.repository.RevenueRollupRepository;
+import com.supplychain.service.RevenueService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Revenue rollups: day, ISO week and month buckets of revenue, units and orders for the order
+ * total and per SKU, category and payment status, stored in {@code revenue_rollups}.
+ *
+ * Every order write increments the buckets it touches by the difference between the old and
+ * the new version, so a date range is answered from a handful of buckets: whole months, then
+ * whole weeks, then single days at the edges. A backfill rebuilds all buckets from the order
+ * history, scanning one month of orders per task in parallel. Writes during a backfill are held
+ * back and applied once it has written its buckets.
+ *
+ * The buckets are shared by all nodes, so only one of them writes them: the holder of a lease
+ * renewed in the database. It applies the order writes of every node, relayed over the event
+ * bus, which lets its hold-back cover them all. A node stops writing once half its lease has
+ * passed without a renewal, well before another node can take it over. Order writes that no
+ * node applied while the lease changed hands are recovered by a backfill on the new holder.
+ *
+ * Line revenue (price times quantity) is attributed to SKUs and to the category recorded on the
+ * line when the order was written, so a later update or delete takes it back from the same
+ * category even if the item was recategorized or deleted meanwhile; lines written before they
+ * recorded one use the SKU's current category. The order total and payment status use
+ * {@code totalAmount}. Cancelled and undated orders carry no revenue.
+ *
+ * If an increment fails, the buckets are marked stale and a backfill is started on the next
+ * scheduled check.
+ */
+@Service
+public class RevenueServiceImpl implements RevenueService, OrderChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RevenueServiceImpl.class);
+
+    private static final List<String> GRANULARITIES = List.of(RevenueRollup.DAY, RevenueRollup.WEEK, RevenueRollup.MONTH);
+    private static final Set<String> DIMENSIONS = Set.of(RevenueRollup.TOTAL, RevenueRollup.SKU,
+            RevenueRollup.CATEGORY, RevenueRollup.PAYMENT_STATUS);
+    private static final String ALL = "all";
+    private static final String UNKNOWN = "unknown";
+
+    @Autowired
+    private RevenueRollupRepository rollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private ParallelQueries parallelQueries;
+
+    @Value("${revenue.backfill-parallelism:0}")
+    private int parallelism;
+
+    @Value("${revenue.backfill-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${revenue.writer-lease-ms:30000}")
+    private long leaseMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    // Until when this node may write the buckets; 0 while another node holds the lease
+    private volatile long writerUntil;
+
+    private final ExecutorService backfillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "revenue-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+    // Order writes increment under the read lock; a backfill takes the write lock to start
+    // holding them back, so no increment lands after the scan read the buckets' orders
+    private final ReadWriteLock incrementGate = new ReentrantReadWriteLock();
+    private volatile boolean checkedAtStartup;
+    // Set when an increment failed, so the buckets are missing a write until the next backfill
+    private volatile boolean stale;
+
+    // Orders written during a backfill: the version before the first write and after the last
+    private Map<String, Order[]> pendingChanges;
+    // The version of each pending order the backfill's scan read, if it read one after the order became pending
+    private Map<String, Order> seenByBackfill;
+    private volatile LocalDateTime lastBackfillAt;
+    private volatile long lastBackfillMillis;
+    private volatile long lastBackfillOrders;
+    private volatile long lastBackfillBuckets;
+    private volatile String lastBackfillError;
+
+    @Override
+    public Map<String, Object> getRevenue(LocalDate from, LocalDate to, String interval, String dimension, String key) {
+        checkRange(from, to);
+        checkDimension(dimension);
+        if (!GRANULARITIES.contains(interval)) {
+            throw new IllegalArgumentException("interval must be one of " + GRANULARITIES);
+        }
+        String bucketKey = RevenueRollup.TOTAL.equals(dimension) ? ALL : key;
+        if (bucketKey == null) {
+            throw new IllegalArgumentException("key is required for dimension " + dimension);
+        }
+
+        // Each point is covered by whole months, weeks and days; all of them are read by id at once
+        List<List<String>> covers = new ArrayList<>();
+        Set<String> ids = new LinkedHashSet<>();
+        for (LocalDate start = periodStart(interval, from); !start.isAfter(to); start = nextPeriod(interval, start)) {
+            LocalDate pointTo = nextPeriod(interval, start).minusDays(1);
+            List<String> cover = cover(dimension, bucketKey, start.isBefore(from) ? from : start,
+                    pointTo.isAfter(to) ? to : pointTo);
+            covers.add(cover);
+            ids.addAll(cover);
+        }
+        Map<String, RevenueRollup> buckets = new HashMap<>();
+        rollupRepository.findAllById(ids).forEach(bucket -> buckets.put(bucket.getId(), bucket));
+
+        List<RevenueRollup> series = new ArrayList<>(covers.size());
+        RevenueRollup total = new RevenueRollup();
+        LocalDate start = periodStart(interval, from);
+        for (List<String> cover : covers) {
+            RevenueRollup sum = new RevenueRollup();
+            sum.setGranularity(interval);
+            sum.setPeriodStart(start.isBefore(from) ? from : start);
+            start = nextPeriod(interval, start);
+            for (String id : cover) {
+                RevenueRollup bucket = buckets.get(id);
+                if (bucket != null) {
+                    sum.add(bucket.getRevenue(), bucket.getUnits(), bucket.getOrders());
+                }
+            }
+            sum.setRevenue(roundCents(sum.getRevenue()));
+            total.add(sum.getRevenue(), sum.getUnits(), sum.getOrders());
+            series.add(sum);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("from", from);
+        response.put("to", to);
+        response.put("interval", interval);
+        response.put("dimension", dimension);
+        response.put("key", bucketKey);
+        response.put("revenue", roundCents(total.getRevenue()));
+        response.put("units", total.getUnits());
+        response.put("orders", total.getOrders());
+        response.put("series", series);
+        response.put("bucketsRead", buckets.size());
+        return response;
+    }
+
+    @Override
+    public List<RevenueRollup> getBreakdown(String dimension, LocalDate from, LocalDate to, int limit) {
+        checkRange(from, to);
+        checkDimension(dimension);
+        List<Callable<List<RevenueRollup>>> runs = new ArrayList<>();
+        coverPeriods(from, to).forEach((granularity, starts) -> {
+            // Days and weeks come in a run at each end of the range; read each run with one range query
+            int runStart = 0;
+            for (int i = 1; i <= starts.size(); i++) {
+                if (i < starts.size() && starts.get(i).equals(nextPeriod(granularity, starts.get(i - 1)))) {
+                    continue;
+                }
+                LocalDate first = starts.get(runStart);
+                LocalDate last = starts.get(i - 1);
+                runs.add(() -> rollupRepository.findBuckets(granularity, dimension, first, last));
+                runStart = i;
+            }
+        });
+        // The runs are independent range queries, so they are read at the same time
+        Map<String, RevenueRollup> byKey = new HashMap<>();
+        for (List<RevenueRollup> run : parallelQueries.invokeAll(runs)) {
+            for (RevenueRollup bucket : run) {
+                byKey.computeIfAbsent(bucket.getKey(), key -> {
+                    RevenueRollup sum = new RevenueRollup();
+                    sum.setDimension(dimension);
+                    sum.setKey(key);
+                    return sum;
+                }).add(bucket.getRevenue(), bucket.getUnits(), bucket.getOrders());
+            }
+        }
+        return byKey.values().stream()
+                .peek(sum -> sum.setRevenue(roundCents(sum.getRevenue())))
+                .sorted(Comparator.comparingDouble(RevenueRollup::getRevenue).reversed()
+                        .thenComparing(RevenueRollup::getKey))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<String, Object> getBackfillStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", backfillRunning.get());
+        status.put("lastBackfillAt", lastBackfillAt);
+        status.put("lastBackfillMillis", lastBackfillMillis);
+        status.put("lastBackfillOrders", lastBackfillOrders);
+        status.put("lastBackfillBuckets", lastBackfillBuckets);
+        status.put("lastBackfillError", lastBackfillError);
+        return status;
+    }
+
+    /**
+     * Takes the writer lease when it is free, or renews it while this node holds it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${revenue.writer-lease-renew-ms:10000}",
+               initialDelayString = "${revenue.writer-lease-renew-ms:10000}")
+    public void renewWriterLease() {
+        boolean wasWriter = isWriter();
+        long claimedAt = System.currentTimeMillis();
+        String previous;
+        try {
+            previous = rollupRepository.claimWriterLease(nodeId, Instant.ofEpochMilli(claimedAt + leaseMillis));
+        } catch (DataAccessException e) {
+            // Left to lapse; writerUntil stops the increments in time
+            log.warn("Revenue writer lease not renewed, database unavailable: {}", e.getMessage());
+            return;
+        }
+        if (previous == null) {
+            writerUntil = 0;
+            return;
+        }
+        // Unless no node held the lease before, some writes may have been applied by none
+        boolean takeover = !wasWriter && !(writerUntil == 0 && previous.equals(nodeId));
+        // Half the lease, so increments stop before the lease can have lapsed for the other nodes
+        writerUntil = claimedAt + leaseMillis / 2;
+        if (takeover) {
+            log.info("Revenue rollups now written by this node, taking over from {}", previous);
+            stale = true;
+        }
+        backfillIfNeeded();
+    }
+
+    private boolean isWriter() {
+        return System.currentTimeMillis() < writerUntil;
+    }
+
+    /**
+     * Backfills once at startup if there are orders but no buckets yet (the first deployment),
+     * retrying while the database is unreachable, and whenever an increment failed since.
+     * Only the node holding the writer lease does either.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${inventory.views.rebuild-retry-ms:30000}",
+               initialDelayString = "${inventory.views.rebuild-retry-ms:30000}")
+    public void backfillIfNeeded() {
+        if (!isWriter()) {
+            return;
+        }
+        if (stale) {
+            // Cleared first, so a failure during this backfill marks the buckets again
+            stale = false;
+            if (startBackfill()) {
+                return;
+            }
+            // A backfill already running may have scanned past the failed write
+            stale = true;
+        }
+        if (checkedAtStartup) {
+            return;
+        }
+        try {
+            if (rollupRepository.count() == 0 && orderRepository.count() > 0) {
+                startBackfill();
+            }
+            checkedAtStartup = true;
+        } catch (DataAccessException e) {
+            log.warn("Revenue rollups not checked, database unavailable: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean startBackfill() {
+        if (!isWriter() || !backfillRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        backfillExecutor.execute(() -> {
+            try {
+                backfill();
+            } finally {
+                backfillRunning.set(false);
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        backfillExecutor.shutdownNow();
+        if (writerUntil != 0) {
+            writerUntil = 0;
+            try {
+                rollupRepository.releaseWriterLease(nodeId);
+            } catch (DataAccessException e) {
+                log.warn("Revenue writer lease not released, it lapses on its own: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onOrderSaved(Order before, Order after) {
+        apply(after.getId(), before, after);
+    }
+
+    @Override
+    public void onOrderDeleted(Order before) {
+        apply(before.getId(), before, null);
+    }
+
+    @Override
+    public boolean appliesRemoteOrderWrites() {
+        // The buckets are shared; the lease holder increments them for every node's writes
+        return true;
+    }
+
+    private void apply(String id, Order before, Order after) {
+        if (!isWriter()) {
+            return;
+        }
+        incrementGate.readLock().lock();
+        try {
+            synchronized (this) {
+                if (pendingChanges != null) {
+                    pendingChanges.computeIfAbsent(id, key -> new Order[] {before, null})[1] = after;
+                    return;
+                }
+            }
+            increment(List.<Order[]>of(new Order[] {before, after}), this::categoryOf);
+        } catch (DataAccessException e) {
+            stale = true;
+            log.warn("Revenue rollups not updated for order {}, a backfill will correct them: {}", id, e.getMessage());
+        } finally {
+            incrementGate.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the bucket changes of a list of {before, after} order versions as one bulk increment.
+     */
+    private void increment(List<Order[]> changes, Function<String, String> categories) {
+        Map<String, RevenueRollup> deltas = new HashMap<>();
+        for (Order[] change : changes) {
+            contribute(change[0], -1, categories, deltas);
+            contribute(change[1], 1, categories, deltas);
+        }
+        // Status and payment updates that leave the figures unchanged cancel out here
+        deltas.values().removeIf(delta -> Math.abs(delta.getRevenue()) < 0.005
+                && delta.getUnits() == 0 && delta.getOrders() == 0);
+        rollupRepository.increment(deltas.values());
+    }
+
+    private void backfill() {
+        long started = System.currentTimeMillis();
+        String generation = Long.toString(started);
+        incrementGate.writeLock().lock();
+        try {
+            synchronized (this) {
+                pendingChanges = new LinkedHashMap<>();
+                seenByBackfill = new HashMap<>();
+            }
+        } finally {
+            incrementGate.writeLock().unlock();
+        }
+        boolean written = false;
+        try {
+            Map<String, String> categoryBySku = new HashMap<>();
+            try (Stream<Item> items = itemRepository.streamAll(null, null)) {
+                items.forEach(item -> {
+                    if (item.getSku() != null && item.getCategory() != null) {
+                        categoryBySku.put(item.getSku(), item.getCategory());
+                    }
+                });
+            }
+            LongAdder orders = new LongAdder();
+            Collection<RevenueRollup> buckets = scan(categoryBySku::get, orders);
+            List<RevenueRollup> batch = new ArrayList<>(batchSize);
+            for (RevenueRollup bucket : buckets) {
+                checkWriter();
+                bucket.setGeneration(generation);
+                bucket.setRevenue(roundCents(bucket.getRevenue()));
+                batch.add(bucket);
+                if (batch.size() >= batchSize) {
+                    rollupRepository.replaceAll(batch);
+                    batch.clear();
+                }
+            }
+            checkWriter();
+            rollupRepository.replaceAll(batch);
+            checkWriter();
+            rollupRepository.deleteOtherGenerations(generation);
+            written = true;
+
+            lastBackfillAt = LocalDateTime.now();
+            lastBackfillMillis = System.currentTimeMillis() - started;
+            lastBackfillOrders = orders.sum();
+            lastBackfillBuckets = buckets.size();
+            lastBackfillError = null;
+            log.info("Revenue rollups backfilled: {} buckets from {} orders in {} ms",
+                    lastBackfillBuckets, lastBackfillOrders, lastBackfillMillis);
+        } catch (RuntimeException e) {
+            lastBackfillError = e.getMessage();
+            if (e instanceof DataAccessException) {
+                // Retried on the next scheduled check
+                stale = true;
+            }
+            log.error("Revenue rollup backfill failed{}", written ? "" : "; buckets may be partly rebuilt, run it again", e);
+        } finally {
+            replayPendingChanges(written);
+        }
+    }
+
+    /**
+     * Scans the order history one month per task, in parallel, into complete buckets.
+     */
+    private Collection<RevenueRollup> scan(Function<String, String> categories, LongAdder orders) {
+        LocalDate earliest = orderRepository.findEarliestOrderDate();
+        LocalDate latest = orderRepository.findLatestOrderDate();
+        if (earliest == null) {
+            return List.of();
+        }
+        List<LocalDate> months = new ArrayList<>();
+        for (LocalDate month = earliest.withDayOfMonth(1); !month.isAfter(latest); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        Map<String, RevenueRollup> buckets = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try {
+            pool.submit(() -> months.parallelStream().forEach(month -> {
+                Map<String, RevenueRollup> local = new HashMap<>();
+                try (Stream<Order> slice = orderRepository.streamByOrderDate(month, month.plusMonths(1))) {
+                    slice.forEach(order -> {
+                        recordSeen(order);
+                        contribute(order, 1, categories, local);
+                        orders.increment();
+                    });
+                }
+                // Week buckets can straddle two months, so merge rather than put
+                local.values().forEach(bucket -> buckets.merge(bucket.getId(), bucket, (a, b) -> {
+                    a.add(b.getRevenue(), b.getUnits(), b.getOrders());
+                    return a;
+                }));
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning orders", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                    : new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return buckets.values();
+    }
+
+    /**
+     * Applies the writes held back during a backfill and goes back to incrementing directly.
+     * Increments commute, so writes arriving meanwhile can go straight to the buckets.
+     */
+    private void replayPendingChanges(boolean written) {
+        List<Order[]> changes = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<String, Order[]> change : pendingChanges.entrySet()) {
+                // If the buckets were rewritten they hold the version the scan read; orders it passed
+                // before they changed were read in their first pending version
+                Order seen = written ? seenByBackfill.get(change.getKey()) : null;
+                changes.add(new Order[] {seen != null ? seen : change.getValue()[0], change.getValue()[1]});
+            }
+            pendingChanges = null;
+            seenByBackfill = null;
+        }
+        if (!isWriter()) {
+            // The next holder backfills
+            return;
+        }
+        try {
+            increment(changes, this::categoryOf);
+        } catch (DataAccessException e) {
+            stale = true;
+            log.warn("Revenue rollups not updated for {} orders written during the backfill, another backfill will correct them: {}",
+                    changes.size(), e.getMessage());
+        }
+    }
+
+    private void checkWriter() {
+        if (!isWriter()) {
+            throw new IllegalStateException("Writer lease lost, the buckets are left to the next holder");
+        }
+    }
+
+    private synchronized void recordSeen(Order order) {
+        if (pendingChanges.containsKey(order.getId())) {
+            seenByBackfill.put(order.getId(), order);
+        }
+    }
+
+    /**
+     * Adds an order's figures ({@code sign} 1) or takes them back ({@code sign} -1) in every bucket it falls in.
+     */
+    private static void contribute(Order order, int sign, Function<String, String> categories,
+                                   Map<String, RevenueRollup> into) {
+        if (order == null || order.getOrderDate() == null || isCancelled(order)) {
+            return;
+        }
+        long units = 0;
+        Map<String, double[]> bySku = new HashMap<>();
+        Map<String, double[]> byCategory = new HashMap<>();
+        if (order.getItems() != null) {
+            for (OrderItem line : order.getItems()) {
+                units += line.getQuantity();
+                if (line.getSku() == null) {
+                    continue;
+                }
+                double revenue = line.getPrice() * line.getQuantity();
+                addLine(bySku, line.getSku(), revenue, line.getQuantity());
+                String category = line.getCategory() != null ? line.getCategory() : categories.apply(line.getSku());
+                if (category != null) {
+                    addLine(byCategory, category, revenue, line.getQuantity());
+                }
+            }
+        }
+        String paymentStatus = order.getPaymentStatus() != null ? order.getPaymentStatus() : UNKNOWN;
+        for (String granularity : GRANULARITIES) {
+            LocalDate start = periodStart(granularity, order.getOrderDate());
+            add(into, granularity, RevenueRollup.TOTAL, start, ALL, sign * order.getTotalAmount(), sign * units, sign);
+            add(into, granularity, RevenueRollup.PAYMENT_STATUS, start, paymentStatus,
+                    sign * order.getTotalAmount(), sign * units, sign);
+            bySku.forEach((sku, figures) -> add(into, granularity, RevenueRollup.SKU, start, sku,
+                    sign * figures[0], sign * (long) figures[1], sign));
+            byCategory.forEach((category, figures) -> add(into, granularity, RevenueRollup.CATEGORY, start, category,
+                    sign * figures[0], sign * (long) figures[1], sign));
+        }
+    }
+
+    private static void addLine(Map<String, double[]> lines, String key, double revenue, int quantity) {
+        double[] figures = lines.computeIfAbsent(key, k -> new double[2]);
+        figures[0] += revenue;
+        figures[1] += quantity;
+    }
+
+    private static void add(Map<String, RevenueRollup> into, String granularity, String dimension, LocalDate start,
+                            String key, double revenue, long units, long orders) {
+        into.computeIfAbsent(RevenueRollup.id(granularity, dimension, start, key),
+                id -> new RevenueRollup(granularity, dimension, start, key)).add(revenue, units, orders);
+    }
+
+    /**
+     * The ids of the fewest buckets that exactly cover a date range.
+     */
+    private static List<String> cover(String dimension, String key, LocalDate from, LocalDate to) {
+        List<String> ids = new ArrayList<>();
+        coverPeriods(from, to).forEach((granularity, starts) ->
+                starts.forEach(start -> ids.add(RevenueRollup.id(granularity, dimension, start, key))));
+        return ids;
+    }
+
+    /**
+     * Splits a date range into whole months, then whole ISO weeks, then single days.
+     * @return Period starts by granularity, each list in date order.
+     */
+    static Map<String, List<LocalDate>> coverPeriods(LocalDate from, LocalDate to) {
+        Map<String, List<LocalDate>> periods = new LinkedHashMap<>();
+        LocalDate day = from;
+        while (!day.isAfter(to)) {
+            LocalDate monthEnd = day.with(TemporalAdjusters.lastDayOfMonth());
+            LocalDate nextMonth = monthEnd.plusDays(1);
+            if (day.getDayOfMonth() == 1 && !monthEnd.isAfter(to)) {
+                periods.computeIfAbsent(RevenueRollup.MONTH, g -> new ArrayList<>()).add(day);
+                day = nextMonth;
+            } else if (day.getDayOfWeek() == DayOfWeek.MONDAY && !day.plusDays(6).isAfter(to)
+                    // Don't let a week swallow the start of a month that could be read whole
+                    && !(nextMonth.isBefore(day.plusDays(7)) && !nextMonth.with(TemporalAdjusters.lastDayOfMonth()).isAfter(to))) {
+                periods.computeIfAbsent(RevenueRollup.WEEK, g -> new ArrayList<>()).add(day);
+                day = day.plusDays(7);
+            } else {
+                periods.computeIfAbsent(RevenueRollup.DAY, g -> new ArrayList<>()).add(day);
+                day = day.plusDays(1);
+            }
+        }
+        return periods;
+    }
+
+    static LocalDate periodStart(String granularity, LocalDate date) {
+        switch (granularity) {
+            case RevenueRollup.DAY: return date;
+            case RevenueRollup.WEEK: return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case RevenueRollup.MONTH: return date.withDayOfMonth(1);
+            default: throw new IllegalArgumentException("Unknown granularity: " + granularity);
+        }
+    }
+
+    private static LocalDate nextPeriod(String granularity, LocalDate start) {
+        switch (granularity) {
+            case RevenueRollup.DAY: return start.plusDays(1);
+            case RevenueRollup.WEEK: return start.plusWeeks(1);
+            default: return start.plusMonths(1);
+        }
+    }
+
+    private String categoryOf(String sku) {
+        return itemCache.getBySku(sku).map(Item::getCategory).orElse(null);
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.YEARS.between(from, to) >= 20) {
+            throw new IllegalArgumentException("Date range is limited to 20 years");
+        }
+    }
+
+    private static void checkDimension(String dimension) {
+        if (!DIMENSIONS.contains(dimension)) {
+            throw new IllegalArgumentException("dimension must be one of " + DIMENSIONS);
+        }
+    }
+
+    private static boolean isCancelled(Order order) {
+        return "cancelled".equalsIgnoreCase(order.getStatus()) || "canceled".equalsIgnoreCase(order.getStatus());
+    }
+
+    private static double roundCents(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
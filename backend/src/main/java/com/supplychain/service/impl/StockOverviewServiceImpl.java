@@ -0,0 +1,264 @@
+package com.supplychain.service.impl;
+
+import com.supplychain.events.CollectionVersions;
+import com.supplychain.events.ItemChangeListener;
+import com.supplychain.model.Item;
+import com.supplychain.repository.ItemRepository;
+import com.supplychain.service.StockOverviewService;
+import org.springframework.beans.BeanUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Stock overview kept resident in memory and updated on every item write.
+ * Each item only contributes a small entry (value and stock flags); full items are
+ * kept just for the bounded set of most recently updated ones, so a read is O(1)
+ * apart from copying out the recent list and never touches the database.
+ */
+@Service
+public class StockOverviewServiceImpl implements StockOverviewService, ItemChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StockOverviewServiceImpl.class);
+
+    private static final int RECENT_SIZE = 5;
+    private static final int RECENT_CAPACITY = 32;
+
+    private static final Comparator<Item> NEWEST_FIRST = Comparator
+            .comparing(Item::getUpdatedAt, Comparator.reverseOrder())
+            .thenComparing(Item::getId);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CollectionVersions versions;
+
+    private State state;
+    // Changes seen while a rebuild is streaming the collection, replayed onto the new state
+    private List<Object> pendingChanges;
+
+    @Override
+    public Map<String, Object> getOverview() {
+        synchronized (this) {
+            if (state != null) {
+                return state.toOverview();
+            }
+        }
+        // Not built yet (startup still running): compute it the slow way once
+        State scratch = new State();
+        try (Stream<Item> items = itemRepository.streamAll(null, null)) {
+            items.forEach(scratch::apply);
+        }
+        return scratch.toOverview();
+    }
+
+    /**
+     * Builds the view at startup, retrying while the database is unreachable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${inventory.views.rebuild-retry-ms:30000}",
+               initialDelayString = "${inventory.views.rebuild-retry-ms:30000}")
+    public void buildIfNeeded() {
+        synchronized (this) {
+            if (state != null) {
+                return;
+            }
+        }
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Stock overview not built, database unavailable: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        State rebuilt = new State();
+        try (Stream<Item> items = itemRepository.streamAll(null, null)) {
+            items.forEach(rebuilt::apply);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            for (Object change : pendingChanges) {
+                if (change instanceof Item) {
+                    rebuilt.apply((Item) change);
+                } else {
+                    rebuilt.remove((String) change);
+                }
+            }
+            pendingChanges = null;
+            state = rebuilt;
+            versions.advance(CollectionVersions.STOCK_OVERVIEW);
+            if (state.recent.size() < RECENT_SIZE && state.entries.size() > state.recent.size()) {
+                state.refillRecent(itemRepository.findTop32ByUpdatedAtNotNullOrderByUpdatedAtDesc());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onItemSaved(Item item) {
+        if (pendingChanges != null) {
+            pendingChanges.add(item);
+        }
+        if (state != null) {
+            state.apply(item);
+        }
+        // Only once the change is in, so a poll never gets the new ETag with the old overview
+        versions.advance(CollectionVersions.STOCK_OVERVIEW);
+    }
+
+    @Override
+    public void onItemDeleted(String id) {
+        boolean refill;
+        synchronized (this) {
+            if (pendingChanges != null) {
+                pendingChanges.add(id);
+            }
+            if (state == null) {
+                // Reads compute the overview from the database meanwhile
+                versions.advance(CollectionVersions.STOCK_OVERVIEW);
+                return;
+            }
+            state.remove(id);
+            versions.advance(CollectionVersions.STOCK_OVERVIEW);
+            refill = state.recent.size() < RECENT_SIZE && state.entries.size() > state.recent.size();
+        }
+        if (refill) {
+            // Deletes can drain the recent set; top it up outside the lock
+            List<Item> newest = itemRepository.findTop32ByUpdatedAtNotNullOrderByUpdatedAtDesc();
+            synchronized (this) {
+                if (state != null) {
+                    state.refillRecent(newest);
+                    versions.advance(CollectionVersions.STOCK_OVERVIEW);
+                }
+            }
+        }
+    }
+
+    /**
+     * Per-item contribution to the overview totals.
+     */
+    private static final class Entry {
+        final double value;
+        final boolean lowStock;
+        final boolean outOfStock;
+        final long version;
+
+        Entry(Item item) {
+            this.version = item.getVersion();
+            this.value = item.getPrice() * item.getQuantity();
+            this.lowStock = item.getQuantity() <= item.getMinQuantity() && item.getQuantity() > 0;
+            this.outOfStock = item.getQuantity() <= 0;
+        }
+    }
+
+    private static final class State {
+        final Map<String, Entry> entries = new HashMap<>();
+        final Map<String, Item> recentById = new HashMap<>();
+        final TreeSet<Item> recent = new TreeSet<>(NEWEST_FIRST);
+        double totalValue;
+        long lowStockCount;
+        long outOfStockCount;
+
+        void apply(Item item) {
+            Entry previous = entries.get(item.getId());
+            if (previous != null && item.getVersion() < previous.version) {
+                // Notified after a newer write to the same item
+                return;
+            }
+            Entry entry = new Entry(item);
+            entries.put(item.getId(), entry);
+            if (previous != null) {
+                subtract(previous);
+            }
+            add(entry);
+            removeRecent(item.getId());
+            offerRecent(item);
+        }
+
+        void remove(String id) {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                subtract(previous);
+            }
+            removeRecent(id);
+        }
+
+        void refillRecent(List<Item> newest) {
+            for (Item item : newest) {
+                if (entries.containsKey(item.getId()) && !recentById.containsKey(item.getId())) {
+                    offerRecent(item);
+                }
+            }
+        }
+
+        Map<String, Object> toOverview() {
+            Map<String, Object> overview = new HashMap<>();
+            overview.put("totalProducts", entries.size());
+            overview.put("totalStockValue", totalValue);
+            overview.put("lowStockCount", lowStockCount);
+            overview.put("outOfStockCount", outOfStockCount);
+            overview.put("recentStock", recent.stream().limit(RECENT_SIZE).collect(Collectors.toList()));
+            return overview;
+        }
+
+        private void add(Entry entry) {
+            totalValue += entry.value;
+            lowStockCount += entry.lowStock ? 1 : 0;
+            outOfStockCount += entry.outOfStock ? 1 : 0;
+        }
+
+        private void subtract(Entry entry) {
+            totalValue -= entry.value;
+            lowStockCount -= entry.lowStock ? 1 : 0;
+            outOfStockCount -= entry.outOfStock ? 1 : 0;
+        }
+
+        private void offerRecent(Item item) {
+            LocalDateTime updatedAt = item.getUpdatedAt();
+            if (updatedAt == null) {
+                return;
+            }
+            if (recent.size() >= RECENT_CAPACITY && NEWEST_FIRST.compare(item, recent.last()) > 0) {
+                return;
+            }
+            // Keep a private copy so later changes to the caller's object can't reorder the set
+            Item copy = new Item();
+            BeanUtils.copyProperties(item, copy);
+            recent.add(copy);
+            recentById.put(copy.getId(), copy);
+            if (recent.size() > RECENT_CAPACITY) {
+                recentById.remove(recent.pollLast().getId());
+            }
+        }
+
+        private void removeRecent(String id) {
+            Item existing = recentById.remove(id);
+            if (existing != null) {
+                recent.remove(existing);
+            }
+        }
+    }
+}
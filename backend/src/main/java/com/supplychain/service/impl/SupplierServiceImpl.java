@@ -0,0 +1,551 @@
+package com.supplychain.service.impl;
+
+import com.supplychain.events.ItemChangeListener;
+import com.supplychain.events.OrderChangeListener;
+import com.supplychain.model.Item;
+import com.supplychain.model.Order;
+import com.supplychain.model.OrderItem;
+import com.supplychain.model.SupplierScorecard;
+import com.supplychain.repository.ItemRepository;
+import com.supplychain.repository.OrderRepository;
+import com.supplychain.service.SupplierService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Supplier scorecards, kept in memory and updated by every item and order write.
+ *
+ * Each supplier has one set of counters and two {@link QuantileSketch}es, lead time and
+ * delivery delay, per calendar month of the last {@code suppliers.history-months}. A scorecard
+ * merges the months of its window, so any window of whole months is answered without reading
+ * an order. An order write takes the old version of the order out of its months and adds the
+ * new one; that is how a status change moves an order from open to delivered or cancelled, and
+ * the sketches take the old values back by counting them with a negative weight. Stock totals
+ * follow the item writes.
+ *
+ * Order lines are attributed to the supplier their SKU has at the time of the write. A full
+ * rebuild from the items and the order history runs at startup and on
+ * {@code suppliers.rebuild-cron}; it also drops months that left the history and moves the
+ * orders of SKUs that changed supplier.
+ */
+@Service
+public class SupplierServiceImpl implements SupplierService, ItemChangeListener, OrderChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SupplierServiceImpl.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Value("${suppliers.history-months:24}")
+    private int historyMonths;
+
+    @Value("${suppliers.window-months:3}")
+    private int windowMonths;
+
+    @Value("${suppliers.sketch-accuracy:0.01}")
+    private double sketchAccuracy;
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "supplier-scorecards");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildRunning = new AtomicBoolean();
+
+    // Replaced as a whole by each rebuild; null until the first one completes
+    private volatile Scorecards scorecards;
+    // Orders written while a rebuild streams the history: the version before the first write and after the last
+    private Map<String, Order[]> pendingChanges;
+    // The version of each pending order that the rebuild's stream read, if it read one after the order became pending
+    private Map<String, Order> seenByRebuild;
+    // Items written while a rebuild runs, by id; null for a deleted item
+    private Map<String, Item> pendingItems;
+    private volatile LocalDateTime lastRebuildAt;
+    private volatile long lastRebuildMillis;
+    private volatile long lastRebuildOrders;
+
+    @Override
+    public Optional<SupplierScorecard> getScorecard(String supplier, YearMonth from, YearMonth to) {
+        YearMonth last = to != null ? to : YearMonth.now();
+        YearMonth first = from != null ? from : last.minusMonths(windowMonths - 1);
+        checkWindow(first, last);
+        Scorecards current = scorecards;
+        SupplierStats stats = current != null ? current.suppliers.get(supplier) : null;
+        return Optional.ofNullable(stats).map(s -> s.toScorecard(supplier, first, last));
+    }
+
+    @Override
+    public List<SupplierScorecard> getScorecards(YearMonth from, YearMonth to) {
+        YearMonth last = to != null ? to : YearMonth.now();
+        YearMonth first = from != null ? from : last.minusMonths(windowMonths - 1);
+        checkWindow(first, last);
+        Scorecards current = scorecards;
+        if (current == null) {
+            return List.of();
+        }
+        List<SupplierScorecard> result = new ArrayList<>(current.suppliers.size());
+        current.suppliers.forEach((supplier, stats) -> result.add(stats.toScorecard(supplier, first, last)));
+        result.sort(Comparator.comparingLong(SupplierScorecard::getOrderedUnits).reversed()
+                .thenComparing(SupplierScorecard::getSupplier));
+        return result;
+    }
+
+    private void checkWindow(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.MONTHS.between(from, to) >= historyMonths) {
+            throw new IllegalArgumentException("The window can span at most " + historyMonths + " months");
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStatus() {
+        Scorecards current = scorecards;
+        Map<String, Object> status = new HashMap<>();
+        status.put("ready", current != null);
+        status.put("rebuilding", rebuildRunning.get());
+        status.put("suppliers", current != null ? current.suppliers.size() : 0);
+        int months = 0;
+        long sketchBuckets = 0;
+        if (current != null) {
+            for (SupplierStats stats : current.suppliers.values()) {
+                synchronized (stats) {
+                    months += stats.months.size();
+                    for (Month month : stats.months.values()) {
+                        sketchBuckets += month.leadTime.buckets() + month.delay.buckets();
+                    }
+                }
+            }
+        }
+        status.put("months", months);
+        status.put("sketchBuckets", sketchBuckets);
+        status.put("lastRebuildAt", lastRebuildAt);
+        status.put("lastRebuildMillis", lastRebuildMillis);
+        status.put("lastRebuildOrders", lastRebuildOrders);
+        status.put("historyMonths", historyMonths);
+        status.put("windowMonths", windowMonths);
+        status.put("sketchAccuracy", sketchAccuracy);
+        return status;
+    }
+
+    /**
+     * Builds the scorecards at startup, retrying while the database is unreachable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${inventory.views.rebuild-retry-ms:30000}",
+               initialDelayString = "${inventory.views.rebuild-retry-ms:30000}")
+    public void buildIfNeeded() {
+        if (scorecards == null) {
+            startRebuild();
+        }
+    }
+
+    @Scheduled(cron = "${suppliers.rebuild-cron:0 45 2 * * *}")
+    public void nightlyRebuild() {
+        startRebuild();
+    }
+
+    @Override
+    public boolean startRebuild() {
+        if (!rebuildRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        // Off the scheduler thread, which the other scheduled jobs share
+        rebuildExecutor.execute(() -> {
+            try {
+                rebuild();
+            } catch (DataAccessException e) {
+                log.warn("Supplier scorecards not rebuilt, database unavailable: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Supplier scorecard rebuild failed", e);
+            } finally {
+                rebuildRunning.set(false);
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+        setItem(item.getId(), item);
+    }
+
+    @Override
+    public void onItemDeleted(String id) {
+        setItem(id, null);
+    }
+
+    private void setItem(String id, Item item) {
+        Scorecards current;
+        synchronized (this) {
+            if (pendingItems != null) {
+                pendingItems.put(id, item);
+            }
+            current = scorecards;
+        }
+        if (current != null) {
+            current.setItem(id, item);
+        }
+    }
+
+    @Override
+    public void onOrderSaved(Order before, Order after) {
+        apply(after.getId(), before, after);
+    }
+
+    @Override
+    public void onOrderDeleted(Order before) {
+        apply(before.getId(), before, null);
+    }
+
+    private void apply(String id, Order before, Order after) {
+        Scorecards current;
+        synchronized (this) {
+            if (pendingChanges != null) {
+                pendingChanges.computeIfAbsent(id, key -> new Order[] {before, null})[1] = after;
+            }
+            current = scorecards;
+        }
+        if (current != null) {
+            current.add(before, -1);
+            current.add(after, 1);
+        }
+    }
+
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        synchronized (this) {
+            pendingChanges = new LinkedHashMap<>();
+            seenByRebuild = new HashMap<>();
+            pendingItems = new HashMap<>();
+        }
+        try {
+            Scorecards rebuilt = new Scorecards();
+            try (Stream<Item> items = itemRepository.streamAll(null, null)) {
+                items.forEach(item -> rebuilt.setItem(item.getId(), item));
+            }
+            LocalDate firstDay = oldestMonth().atDay(1);
+            LongAdder orders = new LongAdder();
+            try (Stream<Order> stream = orderRepository.streamAll(null, null)) {
+                // Newest first, so the stream can stop at the first order placed before the history
+                stream.takeWhile(order -> order.getOrderDate() == null || !order.getOrderDate().isBefore(firstDay))
+                        .forEach(order -> {
+                            recordSeen(order);
+                            rebuilt.add(order, 1);
+                            orders.increment();
+                        });
+            }
+            synchronized (this) {
+                pendingItems.forEach(rebuilt::setItem);
+                for (Map.Entry<String, Order[]> change : pendingChanges.entrySet()) {
+                    // Orders the stream passed before they changed were read in their first pending version
+                    Order seen = seenByRebuild.get(change.getKey());
+                    rebuilt.add(seen != null ? seen : change.getValue()[0], -1);
+                    rebuilt.add(change.getValue()[1], 1);
+                }
+                scorecards = rebuilt;
+            }
+            lastRebuildAt = LocalDateTime.now();
+            lastRebuildMillis = System.currentTimeMillis() - started;
+            lastRebuildOrders = orders.sum();
+            log.info("Supplier scorecards built for {} suppliers from {} orders in {} ms",
+                    rebuilt.suppliers.size(), lastRebuildOrders, lastRebuildMillis);
+        } finally {
+            synchronized (this) {
+                pendingChanges = null;
+                seenByRebuild = null;
+                pendingItems = null;
+            }
+        }
+    }
+
+    private synchronized void recordSeen(Order order) {
+        if (pendingChanges.containsKey(order.getId())) {
+            seenByRebuild.put(order.getId(), order);
+        }
+    }
+
+    private YearMonth oldestMonth() {
+        return YearMonth.now().minusMonths(historyMonths - 1);
+    }
+
+    private static boolean isCancelled(Order order) {
+        return "cancelled".equalsIgnoreCase(order.getStatus()) || "canceled".equalsIgnoreCase(order.getStatus());
+    }
+
+    private static boolean isDelivered(Order order) {
+        return "delivered".equalsIgnoreCase(order.getStatus());
+    }
+
+    private static Double round(double value) {
+        return Double.isNaN(value) ? null : Math.round(value * 1000) / 1000.0;
+    }
+
+    private static Double ratio(long part, long whole) {
+        return whole > 0 ? round((double) part / whole) : null;
+    }
+
+    /**
+     * The stock one item adds to its supplier.
+     */
+    private record ItemStock(String supplier, int quantity, double value, boolean low) {
+    }
+
+    /**
+     * One generation of scorecards, from a full rebuild plus the writes since.
+     */
+    private final class Scorecards {
+        final Map<String, SupplierStats> suppliers = new ConcurrentHashMap<>();
+        final Map<String, String> supplierBySku = new ConcurrentHashMap<>();
+        final Map<String, ItemStock> stockByItem = new ConcurrentHashMap<>();
+
+        void setItem(String id, Item item) {
+            ItemStock stock = item != null && item.getSupplier() != null
+                    ? new ItemStock(item.getSupplier(), item.getQuantity(), item.getQuantity() * item.getPrice(),
+                            item.getQuantity() <= item.getMinQuantity())
+                    : null;
+            if (item != null && item.getSku() != null && item.getSupplier() != null) {
+                supplierBySku.put(item.getSku(), item.getSupplier());
+            }
+            ItemStock previous = stock != null ? stockByItem.put(id, stock) : stockByItem.remove(id);
+            if (previous != null) {
+                SupplierStats stats = suppliers.get(previous.supplier());
+                if (stats != null) {
+                    stats.addStock(previous, -1);
+                }
+            }
+            if (stock != null) {
+                suppliers.computeIfAbsent(stock.supplier(), key -> new SupplierStats()).addStock(stock, 1);
+            }
+        }
+
+        /**
+         * Adds ({@code sign} 1) or takes back ({@code sign} -1) an order's lines on its suppliers' months.
+         */
+        void add(Order order, int sign) {
+            if (order == null || order.getItems() == null || order.getOrderDate() == null) {
+                return;
+            }
+            // Units and value per supplier; an order with lines from several suppliers counts for each
+            Map<String, double[]> lines = new HashMap<>();
+            for (OrderItem line : order.getItems()) {
+                if (line.getSku() == null || line.getQuantity() <= 0) {
+                    continue;
+                }
+                String supplier = supplierOf(line.getSku());
+                if (supplier != null) {
+                    double[] totals = lines.computeIfAbsent(supplier, key -> new double[2]);
+                    totals[0] += line.getQuantity();
+                    totals[1] += line.getQuantity() * line.getPrice();
+                }
+            }
+            if (lines.isEmpty()) {
+                return;
+            }
+            OrderOutcome outcome = new OrderOutcome(order);
+            YearMonth oldest = oldestMonth();
+            lines.forEach((supplier, totals) -> {
+                SupplierStats stats = sign > 0
+                        ? suppliers.computeIfAbsent(supplier, key -> new SupplierStats())
+                        : suppliers.get(supplier);
+                if (stats != null) {
+                    stats.addOrder(outcome, (long) totals[0], totals[1], sign, oldest);
+                }
+            });
+        }
+
+        private String supplierOf(String sku) {
+            String supplier = supplierBySku.get(sku);
+            if (supplier == null) {
+                // A SKU first seen since the rebuild
+                supplier = itemCache.getBySku(sku).map(Item::getSupplier).orElse(null);
+                if (supplier != null) {
+                    supplierBySku.put(sku, supplier);
+                }
+            }
+            return supplier;
+        }
+    }
+
+    /**
+     * What an order contributes regardless of supplier: its months and its delivery figures.
+     */
+    private static final class OrderOutcome {
+        final YearMonth placed;
+        final YearMonth delivered;
+        final boolean cancelled;
+        final Long leadTime;
+        final Long delay;
+
+        OrderOutcome(Order order) {
+            placed = YearMonth.from(order.getOrderDate());
+            cancelled = isCancelled(order);
+            LocalDate deliveredDate = isDelivered(order) ? order.getDeliveredDate() : null;
+            // Delivered orders imported without a date still count as filled, in the month they were placed
+            delivered = isDelivered(order) ? YearMonth.from(deliveredDate != null ? deliveredDate : order.getOrderDate())
+                    : null;
+            leadTime = deliveredDate != null ? ChronoUnit.DAYS.between(order.getOrderDate(), deliveredDate) : null;
+            delay = deliveredDate != null && order.getExpectedDelivery() != null
+                    ? ChronoUnit.DAYS.between(order.getExpectedDelivery(), deliveredDate) : null;
+        }
+    }
+
+    /**
+     * The stock and the monthly order figures of one supplier.
+     */
+    private final class SupplierStats {
+        final Map<YearMonth, Month> months = new HashMap<>();
+        int items;
+        long stockUnits;
+        double stockValue;
+        int lowStockItems;
+
+        synchronized void addStock(ItemStock stock, int sign) {
+            items += sign;
+            stockUnits += (long) sign * stock.quantity();
+            stockValue += sign * stock.value();
+            lowStockItems += stock.low() ? sign : 0;
+        }
+
+        synchronized void addOrder(OrderOutcome outcome, long units, double value, int sign, YearMonth oldest) {
+            Month placed = month(outcome.placed, sign, oldest);
+            if (placed != null) {
+                placed.orders += sign;
+                placed.orderedUnits += sign * units;
+                placed.orderedValue += sign * value;
+                if (outcome.cancelled) {
+                    placed.cancelledOrders += sign;
+                    placed.cancelledUnits += sign * units;
+                }
+            }
+            Month delivered = outcome.delivered != null ? month(outcome.delivered, sign, oldest) : null;
+            if (delivered != null) {
+                delivered.deliveredOrders += sign;
+                delivered.deliveredUnits += sign * units;
+                if (outcome.leadTime != null) {
+                    delivered.leadTime.add(outcome.leadTime, sign);
+                }
+                if (outcome.delay != null) {
+                    delivered.delay.add(outcome.delay, sign);
+                    if (outcome.delay <= 0) {
+                        delivered.onTime += sign;
+                    } else {
+                        delivered.late += sign;
+                    }
+                }
+            }
+        }
+
+        // Months before the history are not added to; taking back from them is fine while they are kept
+        private Month month(YearMonth key, int sign, YearMonth oldest) {
+            if (sign > 0) {
+                return key.isBefore(oldest) ? null : months.computeIfAbsent(key, k -> new Month());
+            }
+            return months.get(key);
+        }
+
+        synchronized SupplierScorecard toScorecard(String supplier, YearMonth from, YearMonth to) {
+            Month total = new Month();
+            for (YearMonth key = from; !key.isAfter(to); key = key.plusMonths(1)) {
+                Month month = months.get(key);
+                if (month != null) {
+                    total.merge(month);
+                }
+            }
+            SupplierScorecard scorecard = new SupplierScorecard();
+            scorecard.setSupplier(supplier);
+            scorecard.setFrom(from);
+            scorecard.setTo(to);
+            scorecard.setItems(items);
+            scorecard.setStockUnits(stockUnits);
+            scorecard.setStockValue(round(stockValue));
+            scorecard.setLowStockItems(lowStockItems);
+            scorecard.setOrders(total.orders);
+            scorecard.setOrderedUnits(total.orderedUnits);
+            scorecard.setOrderedValue(round(total.orderedValue));
+            scorecard.setCancelledOrders(total.cancelledOrders);
+            scorecard.setCancelledUnits(total.cancelledUnits);
+            scorecard.setDeliveredOrders(total.deliveredOrders);
+            scorecard.setDeliveredUnits(total.deliveredUnits);
+            scorecard.setFillRate(ratio(total.deliveredUnits, total.deliveredUnits + total.cancelledUnits));
+            scorecard.setOnTimeDeliveries(total.onTime);
+            scorecard.setLateDeliveries(total.late);
+            scorecard.setOnTimeRate(ratio(total.onTime, total.onTime + total.late));
+            scorecard.setLeadTimeP50(round(total.leadTime.quantile(0.5)));
+            scorecard.setLeadTimeP95(round(total.leadTime.quantile(0.95)));
+            scorecard.setLeadTimeAverage(round(total.leadTime.mean()));
+            scorecard.setDelayP50(round(total.delay.quantile(0.5)));
+            scorecard.setDelayP95(round(total.delay.quantile(0.95)));
+            scorecard.setDelayAverage(round(total.delay.mean()));
+            return scorecard;
+        }
+    }
+
+    /**
+     * One supplier's figures for one calendar month.
+     */
+    private final class Month {
+        long orders;
+        long orderedUnits;
+        double orderedValue;
+        long cancelledOrders;
+        long cancelledUnits;
+        long deliveredOrders;
+        long deliveredUnits;
+        long onTime;
+        long late;
+        final QuantileSketch leadTime = new QuantileSketch(sketchAccuracy);
+        final QuantileSketch delay = new QuantileSketch(sketchAccuracy);
+
+        void merge(Month other) {
+            orders += other.orders;
+            orderedUnits += other.orderedUnits;
+            orderedValue += other.orderedValue;
+            cancelledOrders += other.cancelledOrders;
+            cancelledUnits += other.cancelledUnits;
+            deliveredOrders += other.deliveredOrders;
+            deliveredUnits += other.deliveredUnits;
+            onTime += other.onTime;
+            late += other.late;
+            leadTime.merge(other.leadTime);
+            delay.merge(other.delay);
+        }
+    }
+}
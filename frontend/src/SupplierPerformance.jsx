@@ -1,44 +1,44 @@
-import React from 'react';
+import React, { useEffect, useState } from 'react';
 import {
   Box, Paper, Typography, Grid, Card, CardContent, Table, TableHead,
-  TableRow, TableCell, TableBody, Chip, TableContainer, Avatar
+  TableRow, TableCell, TableBody, Chip, TableContainer, Avatar, Alert,
+  FormControl, InputLabel, Select, MenuItem
 } from '@mui/material';
 import ReactApexChart from 'react-apexcharts';
-import { Business, Assignment, StarBorder, Speed } from '@mui/icons-material';
+import { Business, Assignment, Inventory, Speed } from '@mui/icons-material';
 import { blue, green, amber, red } from '@mui/material/colors';
+import { getSupplierScorecards } from './services/supplierService';
 
-
-// Sample data (remains the same)
-const suppliers = [
-  { name: "ABC Supplies", totalOrders: 120, onTimeDeliveries: 110, lateDeliveries: 10, qualityScore: 95, status: "Excellent" },
-  { name: "Global Traders", totalOrders: 80, onTimeDeliveries: 60, lateDeliveries: 20, qualityScore: 82, status: "Good" },
-  { name: "QuickParts", totalOrders: 60, onTimeDeliveries: 45, lateDeliveries: 15, qualityScore: 75, status: "Average" },
-  { name: "SupplyPro", totalOrders: 40, onTimeDeliveries: 30, lateDeliveries: 10, qualityScore: 60, status: "Poor" },
+const windows = [
+  { months: 1, label: 'This Month' },
+  { months: 3, label: 'Last 3 Months' },
+  { months: 6, label: 'Last 6 Months' },
+  { months: 12, label: 'Last 12 Months' },
 ];
 
-// Chart data (remains the same)
-const chartOptions = {
-  chart: { type: "bar", toolbar: { show: false }, stacked: true },
-  plotOptions: { bar: { horizontal: false, columnWidth: "40%", borderRadius: 4 } },
-  dataLabels: { enabled: false },
-  xaxis: { categories: suppliers.map((s) => s.name), labels: { style: { colors: '#666' } } },
-  yaxis: { labels: { style: { colors: '#666' } } },
-  colors: [green[500], red[400]],
-  legend: { position: "top", horizontalAlign: 'right' },
-  tooltip: { y: { formatter: (val) => `${val} orders` } },
-  grid: { borderColor: '#f1f1f1' },
+// Months as the API expects them, e.g. 2024-03
+const monthParam = (date) => `${date.getFullYear()}-${String(date.getMonth() + 1).padStart(2, '0')}`;
+
+const percent = (rate) => (rate == null ? '–' : `${(rate * 100).toFixed(1)}%`);
+
+const days = (value) => (value == null ? '–' : `${value.toFixed(1)} d`);
+
+// Rated on the on-time rate; suppliers without dated deliveries in the window are not rated
+const rating = (s) => {
+  if (s.onTimeRate == null) return 'No data';
+  if (s.onTimeRate >= 0.95) return 'Excellent';
+  if (s.onTimeRate >= 0.85) return 'Good';
+  if (s.onTimeRate >= 0.7) return 'Average';
+  return 'Poor';
 };
-const chartSeries = [
-  { name: "On-Time Deliveries", data: suppliers.map((s) => s.onTimeDeliveries) },
-  { name: "Late Deliveries", data: suppliers.map((s) => s.lateDeliveries) },
-];
 
 const statusColor = (status) => {
   switch (status) {
     case "Excellent": return "success";
     case "Good": return "info";
     case "Average": return "warning";
-    default: return "error";
+    case "Poor": return "error";
+    default: return "default";
   }
 };
 
@@ -58,26 +58,70 @@ const SummaryCard = ({ title, value, icon, color }) => (
 
 
 const SupplierPerformance = () => {
+    const [windowMonths, setWindowMonths] = useState(3);
+    const [suppliers, setSuppliers] = useState([]);
+    const [error, setError] = useState(null);
+
+    useEffect(() => {
+        const now = new Date();
+        const from = new Date(now.getFullYear(), now.getMonth() - (windowMonths - 1), 1);
+        getSupplierScorecards({ from: monthParam(from), to: monthParam(now) })
+            .then((scorecards) => {
+                setSuppliers(scorecards);
+                setError(null);
+            })
+            .catch(() => setError('Could not load supplier scorecards.'));
+    }, [windowMonths]);
+
     const totalSuppliers = suppliers.length;
-    const totalOrders = suppliers.reduce((sum, s) => sum + s.totalOrders, 0);
+    const totalOrders = suppliers.reduce((sum, s) => sum + s.orders, 0);
     const totalOnTime = suppliers.reduce((sum, s) => sum + s.onTimeDeliveries, 0);
-    const avgQuality = (suppliers.reduce((sum, s) => sum + s.qualityScore, 0) / totalSuppliers).toFixed(1);
-    const onTimeRate = ((totalOnTime / totalOrders) * 100).toFixed(1);
+    const totalLate = suppliers.reduce((sum, s) => sum + s.lateDeliveries, 0);
+    const deliveredUnits = suppliers.reduce((sum, s) => sum + s.deliveredUnits, 0);
+    const cancelledUnits = suppliers.reduce((sum, s) => sum + s.cancelledUnits, 0);
+    const fillRate = deliveredUnits + cancelledUnits > 0 ? deliveredUnits / (deliveredUnits + cancelledUnits) : null;
+    const onTimeRate = totalOnTime + totalLate > 0 ? totalOnTime / (totalOnTime + totalLate) : null;
+
+    const chartOptions = {
+      chart: { type: "bar", toolbar: { show: false }, stacked: true },
+      plotOptions: { bar: { horizontal: false, columnWidth: "40%", borderRadius: 4 } },
+      dataLabels: { enabled: false },
+      xaxis: { categories: suppliers.map((s) => s.supplier), labels: { style: { colors: '#666' } } },
+      yaxis: { labels: { style: { colors: '#666' } } },
+      colors: [green[500], red[400]],
+      legend: { position: "top", horizontalAlign: 'right' },
+      tooltip: { y: { formatter: (val) => `${val} orders` } },
+      grid: { borderColor: '#f1f1f1' },
+    };
+    const chartSeries = [
+      { name: "On-Time Deliveries", data: suppliers.map((s) => s.onTimeDeliveries) },
+      { name: "Late Deliveries", data: suppliers.map((s) => s.lateDeliveries) },
+    ];
 
     return (
         // The only change is here: removed the `p` prop from this Box.
         <Box> 
             <Typography variant="h4" fontWeight="bold" mb={1}>Supplier Performance</Typography>
-            <Typography variant="body1" color="text.secondary" mb={4}>
-                Track and analyze the performance of your supply partners.
-            </Typography>
+            <Box sx={{ display: 'flex', justifyContent: 'space-between', alignItems: 'center', mb: 4 }}>
+                <Typography variant="body1" color="text.secondary">
+                    Track and analyze the performance of your supply partners.
+                </Typography>
+                <FormControl size="small" sx={{ minWidth: 180 }}>
+                    <InputLabel>Period</InputLabel>
+                    <Select value={windowMonths} label="Period" onChange={(e) => setWindowMonths(e.target.value)}>
+                        {windows.map((w) => <MenuItem key={w.months} value={w.months}>{w.label}</MenuItem>)}
+                    </Select>
+                </FormControl>
+            </Box>
+
+            {error && <Alert severity="error" sx={{ mb: 3 }}>{error}</Alert>}
 
             {/* Summary Cards */}
             <Grid container spacing={3} mb={4}>
                 <Grid item xs={12} sm={6} md={3}><SummaryCard title="Total Suppliers" value={totalSuppliers} icon={<Business />} color={blue[500]} /></Grid>
                 <Grid item xs={12} sm={6} md={3}><SummaryCard title="Total Orders" value={totalOrders} icon={<Assignment />} color={amber[500]} /></Grid>
-                <Grid item xs={12} sm={6} md={3}><SummaryCard title="Avg. Quality Score" value={`${avgQuality}%`} icon={<StarBorder />} color={red[500]} /></Grid>
-                <Grid item xs={12} sm={6} md={3}><SummaryCard title="On-Time Rate" value={`${onTimeRate}%`} icon={<Speed />} color={green[500]} /></Grid>
+                <Grid item xs={12} sm={6} md={3}><SummaryCard title="Fill Rate" value={percent(fillRate)} icon={<Inventory />} color={red[500]} /></Grid>
+                <Grid item xs={12} sm={6} md={3}><SummaryCard title="On-Time Rate" value={percent(onTimeRate)} icon={<Speed />} color={green[500]} /></Grid>
             </Grid>
 
             {/* Chart */}
@@ -101,20 +145,24 @@ const SupplierPerformance = () => {
                                 <TableCell>Total Orders</TableCell>
                                 <TableCell>On-Time</TableCell>
                                 <TableCell>Late</TableCell>
-                                <TableCell>Quality Score</TableCell>
+                                <TableCell>Fill Rate</TableCell>
+                                <TableCell>Lead Time p50 / p95</TableCell>
+                                <TableCell>Delay p95</TableCell>
                                 <TableCell>Status</TableCell>
                             </TableRow>
                         </TableHead>
                         <TableBody>
                             {suppliers.map((s) => (
-                                <TableRow key={s.name} sx={{ '&:last-child td, &:last-child th': { border: 0 } }}>
-                                    <TableCell component="th" scope="row">{s.name}</TableCell>
-                                    <TableCell>{s.totalOrders}</TableCell>
+                                <TableRow key={s.supplier} sx={{ '&:last-child td, &:last-child th': { border: 0 } }}>
+                                    <TableCell component="th" scope="row">{s.supplier}</TableCell>
+                                    <TableCell>{s.orders}</TableCell>
                                     <TableCell sx={{ color: green[600] }}>{s.onTimeDeliveries}</TableCell>
                                     <TableCell sx={{ color: red[600] }}>{s.lateDeliveries}</TableCell>
-                                    <TableCell>{s.qualityScore}%</TableCell>
+                                    <TableCell>{percent(s.fillRate)}</TableCell>
+                                    <TableCell>{days(s.leadTimeP50)} / {days(s.leadTimeP95)}</TableCell>
+                                    <TableCell>{days(s.delayP95)}</TableCell>
                                     <TableCell>
-                                        <Chip label={s.status} color={statusColor(s.status)} size="small" />
+                                        <Chip label={rating(s)} color={statusColor(rating(s))} size="small" />
                                     </TableCell>
                                 </TableRow>
                             ))}
@@ -19,14 +19,12 @@ import {
   TableContainer,
   TableHead,
   TableRow,
-  TextField,
   Slider,
-  Switch,
-  FormControlLabel,
 } from '@mui/material';
 import {
   TrendingUp,
   TrendingDown,
+  TrendingFlat,
   Analytics,
   Timeline,
   Warning,
@@ -35,92 +33,107 @@ import {
   Inventory,
 } from '@mui/icons-material';
 import ReactApexChart from 'react-apexcharts';
+import { getTopForecasts } from '../services/forecastService';
+
+const sumDaily = (series) =>
+  series.reduce((total, values) => values.map((value, i) => (total[i] || 0) + value), []);
+
+const round = (value) => Math.round(value * 10) / 10;
 
 const Forecasting = () => {
-  const [selectedPeriod, setSelectedPeriod] = useState('3months');
+  const [selectedPeriod, setSelectedPeriod] = useState('1month');
   const [confidenceLevel, setConfidenceLevel] = useState(85);
-  const [includeSeasonality, setIncludeSeasonality] = useState(true);
   const [forecastData, setForecastData] = useState(null);
+  const [error, setError] = useState(null);
 
+  // Forecasts are daily and precomputed up to 60 days ahead
   const periods = [
-    { value: '1month', label: '1 Month' },
-    { value: '3months', label: '3 Months' },
-    { value: '6months', label: '6 Months' },
-    { value: '1year', label: '1 Year' },
+    { value: '2weeks', label: '2 Weeks', days: 14 },
+    { value: '1month', label: '1 Month', days: 30 },
+    { value: '2months', label: '2 Months', days: 60 },
   ];
 
   useEffect(() => {
     generateForecast();
-  }, [selectedPeriod, confidenceLevel, includeSeasonality]);
+  }, [selectedPeriod, confidenceLevel]);
 
-  const generateForecast = () => {
-    // Mock forecast data - replace with actual API call
-    const mockForecast = {
-      historicalData: [120, 135, 142, 138, 156, 168, 175, 182, 190, 185, 200, 210],
-      forecastData: [220, 235, 250, 265, 280, 295, 310, 325, 340, 355, 370, 385],
-      confidenceUpper: [240, 255, 270, 285, 300, 315, 330, 345, 360, 375, 390, 405],
-      confidenceLower: [200, 215, 230, 245, 260, 275, 290, 305, 320, 335, 350, 365],
-      accuracy: 87.5,
-      trend: 'increasing',
-      seasonality: 'moderate',
-      recommendations: [
-        {
-          type: 'inventory',
-          priority: 'high',
-          message: 'Increase stock levels for Electronics category by 25%',
-          impact: 'High',
-          timeframe: '2 weeks',
-        },
-        {
-          type: 'supplier',
-          priority: 'medium',
-          message: 'Negotiate better terms with TechCorp Solutions',
-          impact: 'Medium',
-          timeframe: '1 month',
-        },
-        {
-          type: 'pricing',
-          priority: 'low',
-          message: 'Consider dynamic pricing for seasonal items',
-          impact: 'Low',
-          timeframe: '3 months',
-        },
-      ],
-      categoryForecasts: [
-        {
-          category: 'Electronics',
-          currentDemand: 150,
-          predictedDemand: 185,
-          growth: 23.3,
-          confidence: 89,
-        },
-        {
-          category: 'Clothing',
-          currentDemand: 120,
-          predictedDemand: 135,
-          growth: 12.5,
-          confidence: 76,
-        },
-        {
-          category: 'Home & Garden',
-          currentDemand: 90,
-          predictedDemand: 110,
-          growth: 22.2,
-          confidence: 82,
-        },
-        {
-          category: 'Sports',
-          currentDemand: 75,
-          predictedDemand: 95,
-          growth: 26.7,
-          confidence: 71,
-        },
+  const generateForecast = async () => {
+    const horizon = periods.find((period) => period.value === selectedPeriod).days;
+    try {
+      const categories = await getTopForecasts('category', horizon, confidenceLevel / 100, 100);
+      setError(null);
+      setForecastData(buildForecast(categories));
+    } catch (e) {
+      setError('Forecasts could not be loaded from the server.');
+    }
+  };
+
+  // Combines the per-category forecasts into the overall view
+  const buildForecast = (categories) => {
+    const forecastData = sumDaily(categories.map((c) => c.forecast)).map(round);
+    const historicalData = sumDaily(categories.map((c) => c.history)).map(round);
+    const totalForecast = categories.reduce((sum, c) => sum + c.totalForecast, 0);
+    const rated = categories.filter((c) => c.accuracy !== null && c.accuracy !== undefined);
+    const ratedTotal = rated.reduce((sum, c) => sum + c.totalForecast, 0);
+    const accuracy = ratedTotal > 0
+      ? rated.reduce((sum, c) => sum + c.accuracy * c.totalForecast, 0) / ratedTotal
+      : 0;
+    const first = forecastData[0] || 0;
+    const last = forecastData[forecastData.length - 1] || 0;
+    const startDate = categories.length > 0 ? new Date(`${categories[0].startDate}T00:00:00`) : new Date();
+
+    const categoryForecasts = categories.map((c) => {
+      const currentDemand = c.history.reduce((sum, value) => sum + value, 0);
+      return {
+        category: c.key,
+        currentDemand: round(currentDemand),
+        predictedDemand: round(c.totalForecast),
+        growth: currentDemand > 0 ? round(((c.totalForecast - currentDemand) / currentDemand) * 100) : 0,
+        confidence: c.accuracy !== null && c.accuracy !== undefined ? round(c.accuracy * 100) : 0,
+      };
+    });
+
+    const recommendations = categoryForecasts
+      .filter((c) => Math.abs(c.growth) >= 10)
+      .sort((a, b) => Math.abs(b.growth) - Math.abs(a.growth))
+      .slice(0, 5)
+      .map((c) => ({
+        type: 'inventory',
+        priority: Math.abs(c.growth) >= 25 ? 'high' : 'medium',
+        message: c.growth > 0
+          ? `Increase stock levels for ${c.category} by ${round(c.growth)}%`
+          : `Reduce replenishment for ${c.category} by ${round(-c.growth)}%`,
+        impact: Math.abs(c.growth) >= 25 ? 'High' : 'Medium',
+        timeframe: periods.find((period) => period.value === selectedPeriod).label,
+      }));
+
+    const dayLabel = (offset) => {
+      const date = new Date(startDate);
+      date.setDate(date.getDate() + offset);
+      return date.toLocaleDateString(undefined, { month: 'short', day: 'numeric' });
+    };
+
+    return {
+      labels: [
+        ...historicalData.map((_, i) => dayLabel(i - historicalData.length)),
+        ...forecastData.map((_, i) => dayLabel(i)),
       ],
+      historicalData,
+      forecastData,
+      confidenceUpper: sumDaily(categories.map((c) => c.upper)).map(round),
+      confidenceLower: sumDaily(categories.map((c) => c.lower)).map(round),
+      accuracy: round(accuracy * 100),
+      trend: Math.abs(last - first) <= 0.05 * first ? 'stable' : last > first ? 'increasing' : 'decreasing',
+      totalForecast: round(totalForecast),
+      recommendations,
+      categoryForecasts,
     };
-    setForecastData(mockForecast);
   };
 
   const getTrendIcon = (trend) => {
+    if (trend === 'stable') {
+      return <TrendingFlat color="info" />;
+    }
     return trend === 'increasing' ? <TrendingUp color="success" /> : <TrendingDown color="error" />;
   };
 
@@ -142,6 +155,10 @@ const Forecasting = () => {
     }
   };
 
+  if (error) {
+    return <Alert severity="error" sx={{ m: 3 }}>{error}</Alert>;
+  }
+
   if (!forecastData) {
     return <div>Loading...</div>;
   }
@@ -169,7 +186,8 @@ const Forecasting = () => {
       },
     },
     xaxis: {
-      categories: ['Jan', 'Feb', 'Mar', 'Apr', 'May', 'Jun', 'Jul', 'Aug', 'Sep', 'Oct', 'Nov', 'Dec'],
+      categories: forecastData.labels,
+      tickAmount: 12,
       labels: { style: { colors: '#666' } },
     },
     yaxis: {
@@ -185,22 +203,25 @@ const Forecasting = () => {
     },
   };
 
+  // History and forecast share one daily axis; each series is blank where the other one has data
+  const pastBlank = forecastData.historicalData.map(() => null);
+  const futureBlank = forecastData.forecastData.map(() => null);
   const chartSeries = [
     {
       name: 'Historical Demand',
-      data: forecastData.historicalData,
+      data: [...forecastData.historicalData, ...futureBlank],
     },
     {
       name: 'Forecasted Demand',
-      data: forecastData.forecastData,
+      data: [...pastBlank, ...forecastData.forecastData],
     },
     {
       name: 'Confidence Upper',
-      data: forecastData.confidenceUpper,
+      data: [...pastBlank, ...forecastData.confidenceUpper],
     },
     {
       name: 'Confidence Lower',
-      data: forecastData.confidenceLower,
+      data: [...pastBlank, ...forecastData.confidenceLower],
     },
   ];
 
@@ -216,7 +237,7 @@ const Forecasting = () => {
       {/* Controls */}
       <Paper sx={{ p: 3, mb: 3 }}>
         <Grid container spacing={3} alignItems="center">
-          <Grid item xs={12} sm={4}>
+          <Grid item xs={12} sm={6}>
             <FormControl fullWidth>
               <InputLabel>Forecast Period</InputLabel>
               <Select
@@ -232,7 +253,7 @@ const Forecasting = () => {
               </Select>
             </FormControl>
           </Grid>
-          <Grid item xs={12} sm={4}>
+          <Grid item xs={12} sm={6}>
             <Typography gutterBottom>Confidence Level: {confidenceLevel}%</Typography>
             <Slider
               value={confidenceLevel}
@@ -244,17 +265,6 @@ const Forecasting = () => {
               valueLabelDisplay="auto"
             />
           </Grid>
-          <Grid item xs={12} sm={4}>
-            <FormControlLabel
-              control={
-                <Switch
-                  checked={includeSeasonality}
-                  onChange={(e) => setIncludeSeasonality(e.target.checked)}
-                />
-              }
-              label="Include Seasonality"
-            />
-          </Grid>
         </Grid>
       </Paper>
 
@@ -291,10 +301,10 @@ const Forecasting = () => {
             <CardContent sx={{ textAlign: 'center' }}>
               <Timeline color="info" sx={{ fontSize: 40, mb: 1 }} />
               <Typography variant="h6" color="info" fontWeight="bold">
-                {forecastData.seasonality.charAt(0).toUpperCase() + forecastData.seasonality.slice(1)}
+                {forecastData.totalForecast}
               </Typography>
               <Typography variant="body2" color="textSecondary">
-                Seasonality
+                Forecast Demand (units)
               </Typography>
             </CardContent>
           </Card>
@@ -388,7 +398,7 @@ const Forecasting = () => {
         <Grid item xs={12} lg={4}>
           <Paper sx={{ p: 3 }}>
             <Typography variant="h6" gutterBottom fontWeight="bold">
-              AI Recommendations
+              Recommendations
             </Typography>
             <Box sx={{ mt: 2 }}>
               {forecastData.recommendations.map((rec, index) => (
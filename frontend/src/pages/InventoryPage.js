@@ -12,10 +12,15 @@ import {
 import ReactApexChart from 'react-apexcharts';
 import axios from 'axios';
 
+// The search API pages through the first 1000 hits
+const MAX_RESULTS = 1000;
+
 const InventoryPage = () => {
   const theme = useTheme();
   const [inventory, setInventory] = useState([]); // <-- API থেকে আসা আসল ডেটা এখানে থাকবে
-  const [filteredInventory, setFilteredInventory] = useState([]);
+  const [total, setTotal] = useState(0);
+  const [overview, setOverview] = useState({ totalProducts: 0, totalStockValue: 0, lowStockCount: 0, outOfStockCount: 0 });
+  const [categoryCounts, setCategoryCounts] = useState({});
   const [loading, setLoading] = useState(true);
   const [page, setPage] = useState(0);
   const [rowsPerPage, setRowsPerPage] = useState(10);
@@ -26,55 +31,64 @@ const InventoryPage = () => {
   const [editingItem, setEditingItem] = useState(null);
   const [snackbar, setSnackbar] = useState({ open: false, message: '', severity: 'success' });
 
-  // --- ডাটাবেস থেকে আসল ডেটা আনার ফাংশন ---
+  const withStatus = (item) => {
+    let status = 'in_stock';
+    if ((item.quantity || 0) === 0) {
+      status = 'out_of_stock';
+    } else if ((item.quantity || 0) <= (item.minQuantity || 0)) {
+      status = 'low_stock';
+    }
+    return { ...item, status };
+  };
+
+  // --- Totals and category counts for the whole catalog ---
+  const fetchOverview = useCallback(() => {
+    Promise.all([axios.get('/api/items/stock-overview'), axios.get('/api/items/search', { params: { limit: 1 } })])
+      .then(([overviewResponse, facetResponse]) => {
+        setOverview(overviewResponse.data);
+        setCategoryCounts(facetResponse.data.facets.category);
+      })
+      .catch(error => {
+        console.error("Error fetching inventory overview:", error);
+        setSnackbar({ open: true, message: 'Failed to load inventory data.', severity: 'error' });
+      });
+  }, []);
+
+  // --- Searching, filtering and paging happen on the server ---
   const fetchInventory = useCallback(() => {
-    setLoading(true);
-    axios.get('/api/items')
+    const params = { q: searchTerm, offset: page * rowsPerPage, limit: rowsPerPage };
+    if (selectedCategory !== 'all') params.category = selectedCategory;
+    if (selectedStatus !== 'all') params.stock = selectedStatus;
+    return axios.get('/api/items/search', { params })
       .then(response => {
-        const itemsWithStatus = response.data.map(item => {
-          let status = 'in_stock';
-          if ((item.quantity || 0) === 0) {
-            status = 'out_of_stock';
-          } else if ((item.quantity || 0) <= (item.minQuantity || 0)) {
-            status = 'low_stock';
-          }
-          return { ...item, status };
-        });
-        setInventory(itemsWithStatus);
+        setInventory(response.data.items.map(withStatus));
+        setTotal(response.data.total);
       })
       .catch(error => {
         console.error("Error fetching inventory data:", error);
         setSnackbar({ open: true, message: 'Failed to load inventory data.', severity: 'error' });
       })
       .finally(() => setLoading(false));
-  }, []);
+  }, [searchTerm, selectedCategory, selectedStatus, page, rowsPerPage]);
 
   useEffect(() => {
-    fetchInventory();
-  }, [fetchInventory]);
+    fetchOverview();
+  }, [fetchOverview]);
 
-  // --- ফিল্টারিং লজিক (অপরিবর্তিত) ---
-  const filterInventory = useCallback(() => {
-    let filtered = inventory;
-    if (searchTerm) {
-      filtered = filtered.filter(item =>
-        item.name?.toLowerCase().includes(searchTerm.toLowerCase()) ||
-        item.sku?.toLowerCase().includes(searchTerm.toLowerCase()) ||
-        item.supplier?.toLowerCase().includes(searchTerm.toLowerCase())
-      );
-    }
-    if (selectedCategory !== 'all') {
-      filtered = filtered.filter(item => item.category === selectedCategory);
-    }
-    if (selectedStatus !== 'all') {
-      filtered = filtered.filter(item => item.status === selectedStatus);
-    }
-    setFilteredInventory(filtered);
-  }, [searchTerm, selectedCategory, selectedStatus, inventory]);
+  useEffect(() => {
+    // Wait for a pause in typing before searching
+    const timer = setTimeout(fetchInventory, 250);
+    return () => clearTimeout(timer);
+  }, [fetchInventory]);
 
   useEffect(() => {
-    filterInventory();
-  }, [searchTerm, selectedCategory, selectedStatus, inventory, filterInventory]);
+    setPage(0);
+  }, [searchTerm, selectedCategory, selectedStatus]);
+
+  const refresh = () => {
+    fetchOverview();
+    fetchInventory();
+  };
 
   // --- স্ট্যাটাস চিপ (অপরিবর্তিত) ---
   const getStatusChip = (status) => {
@@ -103,7 +117,7 @@ const InventoryPage = () => {
       axios.delete(`/api/items/${id}`)
         .then(() => {
           setSnackbar({ open: true, message: 'Item deleted successfully', severity: 'success' });
-          fetchInventory(); // তালিকা রিফ্রেশ করবে
+          refresh(); // তালিকা রিফ্রেশ করবে
         })
         .catch(error => {
           console.error("Error deleting item:", error);
@@ -121,7 +135,7 @@ const InventoryPage = () => {
     request
       .then(() => {
         setSnackbar({ open: true, message: `Item ${editingItem ? 'updated' : 'added'} successfully`, severity: 'success' });
-        fetchInventory(); // তালিকা রিফ্রেশ করবে
+        refresh(); // তালিকা রিফ্রেশ করবে
       })
       .catch(error => {
         console.error("Error saving item:", error);
@@ -131,13 +145,13 @@ const InventoryPage = () => {
   };
 
   const stats = {
-    totalItems: inventory.length,
-    totalValue: inventory.reduce((sum, item) => sum + ((item.quantity || 0) * (item.price || 0)), 0),
-    lowStockItems: inventory.filter(item => item.status === 'low_stock').length,
-    outOfStockItems: inventory.filter(item => item.status === 'out_of_stock').length,
+    totalItems: overview.totalProducts,
+    totalValue: overview.totalStockValue,
+    lowStockItems: overview.lowStockCount,
+    outOfStockItems: overview.outOfStockCount,
   };
 
-  const categories = [...new Set(inventory.map(item => item.category).filter(Boolean))];
+  const categories = Object.keys(categoryCounts);
 
   const chartOptions = {
     chart: { type: 'donut', toolbar: { show: false } },
@@ -147,7 +161,7 @@ const InventoryPage = () => {
     dataLabels: { enabled: false },
     legend: { position: 'right' }
   };
-  const chartSeries = categories.map(category => inventory.filter(item => item.category === category).length);
+  const chartSeries = categories.map(category => categoryCounts[category]);
   
   if (loading) return <Typography sx={{ p: 3 }}>Loading inventory data...</Typography>;
 
@@ -188,7 +202,7 @@ const InventoryPage = () => {
                 <Table stickyHeader>
                     <TableHead><TableRow><TableCell>Item Name</TableCell><TableCell>SKU</TableCell><TableCell>Category</TableCell><TableCell>Quantity</TableCell><TableCell>Price</TableCell><TableCell>Status</TableCell><TableCell>Supplier</TableCell><TableCell>Location</TableCell><TableCell>Last Updated</TableCell><TableCell>Actions</TableCell></TableRow></TableHead>
                     <TableBody>
-                        {filteredInventory.slice(page * rowsPerPage, page * rowsPerPage + rowsPerPage).map((item) => (
+                        {inventory.map((item) => (
                             <TableRow key={item.id} hover>
                                 <TableCell><Typography variant="body2" fontWeight="bold">{item.name}</Typography></TableCell>
                                 <TableCell><Chip label={item.sku} size="small" variant="outlined" /></TableCell>
@@ -205,7 +219,7 @@ const InventoryPage = () => {
                     </TableBody>
                 </Table>
             </TableContainer>
-            <TablePagination rowsPerPageOptions={[5, 10, 25]} component="div" count={filteredInventory.length} rowsPerPage={rowsPerPage} page={page} onPageChange={(event, newPage) => setPage(newPage)} onRowsPerPageChange={(event) => { setRowsPerPage(parseInt(event.target.value, 10)); setPage(0); }} />
+            <TablePagination rowsPerPageOptions={[5, 10, 25]} component="div" count={Math.min(total, MAX_RESULTS)} rowsPerPage={rowsPerPage} page={page} onPageChange={(event, newPage) => setPage(newPage)} onRowsPerPageChange={(event) => { setRowsPerPage(parseInt(event.target.value, 10)); setPage(0); }} />
         </Paper>
 
         <InventoryDialog open={openDialog} onClose={() => setOpenDialog(false)} onSave={handleSaveItem} item={editingItem} categories={categories} />
@@ -14,32 +14,110 @@ import {
   TableHead,
   TableRow,
   Chip,
+  Alert,
 } from '@mui/material';
 import {
   TrendingUp,
   TrendingDown,
   AttachMoney,
   ShoppingCart,
-  People,
   Inventory,
 } from '@mui/icons-material';
 import ReactApexChart from 'react-apexcharts';
+import { getRevenue, getRevenueBreakdown } from '../services/revenueService';
 
+const isoDate = (date) => {
+  const pad = (value) => String(value).padStart(2, '0');
+  return `${date.getFullYear()}-${pad(date.getMonth() + 1)}-${pad(date.getDate())}`;
+};
+
+const daysBefore = (date, days) => {
+  const result = new Date(date);
+  result.setDate(result.getDate() - days);
+  return result;
+};
+
+const percentChange = (current, previous) =>
+  previous > 0 ? Math.round(((current - previous) / previous) * 1000) / 10 : 0;
+
+const formatMoney = (value) => `$${Math.round(value).toLocaleString()}`;
+
+const monthName = (periodStart) =>
+  new Date(`${periodStart}T00:00:00`).toLocaleDateString(undefined, { month: 'short', year: 'numeric' });
 
 const Revenue = () => {
   const theme = useTheme();
-  const [revenueData] = useState({
-    monthly: [31000, 40000, 28000, 51000, 42000, 109000, 95000, 87000, 120000, 98000, 110000, 125000],
-    categories: ['Electronics', 'Clothing', 'Food', 'Home & Garden', 'Sports'],
-    categoryRevenue: [45000, 32000, 28000, 22000, 18000],
-    topProducts: [
-      { name: 'Laptop Pro X1', revenue: 12500, growth: 15.2 },
-      { name: 'Wireless Headphones', revenue: 8900, growth: 8.7 },
-      { name: 'Smart Watch', revenue: 7200, growth: 22.1 },
-      { name: 'Gaming Mouse', revenue: 6800, growth: -3.2 },
-      { name: 'USB-C Cable', revenue: 5200, growth: 12.5 },
-    ],
-  });
+  const [revenueData, setRevenueData] = useState(null);
+  const [error, setError] = useState(null);
+
+  useEffect(() => {
+    loadRevenue();
+  }, []);
+
+  // Two years of months so the last twelve can be compared with the twelve before
+  const loadRevenue = async () => {
+    const today = new Date();
+    const from = new Date(today.getFullYear(), today.getMonth() - 23, 1);
+    const yearStart = new Date(today.getFullYear(), today.getMonth() - 11, 1);
+    try {
+      const [months, categories, products, previousProducts] = await Promise.all([
+        getRevenue({ from: isoDate(from), to: isoDate(today), interval: 'month' }),
+        getRevenueBreakdown({ dimension: 'category', from: isoDate(yearStart), to: isoDate(today), limit: 5 }),
+        getRevenueBreakdown({ dimension: 'sku', from: isoDate(daysBefore(today, 29)), to: isoDate(today), limit: 5 }),
+        getRevenueBreakdown({ dimension: 'sku', from: isoDate(daysBefore(today, 59)), to: isoDate(daysBefore(today, 30)), limit: 500 }),
+      ]);
+      setError(null);
+      setRevenueData(buildRevenue(months.series, categories, products, previousProducts));
+    } catch (e) {
+      setError('Revenue could not be loaded from the server.');
+    }
+  };
+
+  const buildRevenue = (series, categories, products, previousProducts) => {
+    const lastYear = series.slice(-12);
+    const yearBefore = series.slice(0, series.length - 12);
+    const sum = (points, field) => points.reduce((total, point) => total + point[field], 0);
+    const revenue = sum(lastYear, 'revenue');
+    const orders = sum(lastYear, 'orders');
+    const previousRevenue = sum(yearBefore, 'revenue');
+    const previousOrders = sum(yearBefore, 'orders');
+    const previousRevenueBySku = new Map(previousProducts.map((p) => [p.key, p.revenue]));
+    const byRevenue = [...lastYear].sort((a, b) => b.revenue - a.revenue);
+    const current = lastYear[lastYear.length - 1];
+    const previous = lastYear[lastYear.length - 2];
+
+    return {
+      monthly: lastYear.map((point) => point.revenue),
+      months: lastYear.map((point) => monthName(point.periodStart)),
+      categories: categories.map((c) => c.key),
+      categoryRevenue: categories.map((c) => c.revenue),
+      topProducts: products.map((p) => ({
+        name: p.key,
+        revenue: p.revenue,
+        growth: percentChange(p.revenue, previousRevenueBySku.get(p.key) || 0),
+      })),
+      revenue,
+      revenueChange: percentChange(revenue, previousRevenue),
+      monthlyGrowth: percentChange(current.revenue, previous.revenue),
+      averageOrderValue: orders > 0 ? revenue / orders : 0,
+      averageOrderValueChange: percentChange(
+        orders > 0 ? revenue / orders : 0,
+        previousOrders > 0 ? previousRevenue / previousOrders : 0,
+      ),
+      orders,
+      ordersChange: percentChange(orders, previousOrders),
+      best: byRevenue[0],
+      worst: byRevenue[byRevenue.length - 1],
+    };
+  };
+
+  if (error) {
+    return <Alert severity="error" sx={{ m: 3 }}>{error}</Alert>;
+  }
+
+  if (!revenueData) {
+    return <div>Loading...</div>;
+  }
 
 
   const monthlyChartOptions = {
@@ -64,7 +142,7 @@ const Revenue = () => {
       },
     },
     xaxis: {
-      categories: ['Jan', 'Feb', 'Mar', 'Apr', 'May', 'Jun', 'Jul', 'Aug', 'Sep', 'Oct', 'Nov', 'Dec'],
+      categories: revenueData.months,
       labels: { style: { colors: theme.palette.text.secondary } },
     },
     yaxis: {
@@ -118,39 +196,43 @@ const Revenue = () => {
 
   const categoryChartSeries = revenueData.categoryRevenue;
 
-  // Key Metrics
+  // Key Metrics over the last twelve months
   const metrics = [
     {
       title: 'Total Revenue',
-      value: '$1,234,567',
-      change: 23.5,
+      value: formatMoney(revenueData.revenue),
+      change: revenueData.revenueChange,
+      comparedTo: 'vs previous year',
       icon: <AttachMoney />,
       color: theme.palette.success.main,
     },
     {
       title: 'Monthly Growth',
-      value: '+15.3%',
-      change: 15.3,
+      value: `${revenueData.monthlyGrowth > 0 ? '+' : ''}${revenueData.monthlyGrowth}%`,
+      change: revenueData.monthlyGrowth,
+      comparedTo: 'vs last month',
       icon: <TrendingUp />,
       color: theme.palette.primary.main,
     },
     {
       title: 'Average Order Value',
-      value: '$156.78',
-      change: 8.7,
+      value: `$${revenueData.averageOrderValue.toFixed(2)}`,
+      change: revenueData.averageOrderValueChange,
+      comparedTo: 'vs previous year',
       icon: <ShoppingCart />,
       color: theme.palette.secondary.main,
     },
     {
-      title: 'Customer Lifetime Value',
-      value: '$2,450',
-      change: 12.1,
-      icon: <People />,
+      title: 'Orders',
+      value: revenueData.orders.toLocaleString(),
+      change: revenueData.ordersChange,
+      comparedTo: 'vs previous year',
+      icon: <Inventory />,
       color: theme.palette.warning.main,
     },
   ];
 
-  const StatCard = ({ title, value, change, icon, color }) => {
+  const StatCard = ({ title, value, change, comparedTo, icon, color }) => {
     const isPositive = change >= 0;
     
     return (
@@ -178,7 +260,7 @@ const Revenue = () => {
                   {Math.abs(change)}%
                 </Typography>
                 <Typography variant="body2" color="textSecondary" sx={{ ml: 0.5 }}>
-                  vs last month
+                  {comparedTo}
                 </Typography>
               </Box>
             </Box>
@@ -256,13 +338,13 @@ const Revenue = () => {
         <Grid item xs={12} lg={8}>
           <Paper sx={{ p: 3 }}>
             <Typography variant="h6" gutterBottom fontWeight="bold">
-              Top Performing Products
+              Top Products (Last 30 Days)
             </Typography>
             <TableContainer>
               <Table>
                 <TableHead>
                   <TableRow>
-                    <TableCell>Product Name</TableCell>
+                    <TableCell>SKU</TableCell>
                     <TableCell align="right">Revenue</TableCell>
                     <TableCell align="right">Growth</TableCell>
                     <TableCell align="center">Status</TableCell>
@@ -312,10 +394,10 @@ const Revenue = () => {
             </Typography>
             <Box sx={{ mt: 2 }}>
               {[
-                { label: 'Best Month', value: 'December', amount: '$125,000' },
-                { label: 'Worst Month', value: 'March', amount: '$28,000' },
-                { label: 'Average Monthly', value: 'Revenue', amount: '$82,880' },
-                { label: 'Growth Rate', value: 'Year over Year', amount: '+23.5%' },
+                { label: 'Best Month', value: monthName(revenueData.best.periodStart), amount: formatMoney(revenueData.best.revenue) },
+                { label: 'Worst Month', value: monthName(revenueData.worst.periodStart), amount: formatMoney(revenueData.worst.revenue) },
+                { label: 'Average Monthly', value: 'Revenue', amount: formatMoney(revenueData.revenue / revenueData.monthly.length) },
+                { label: 'Growth Rate', value: 'Year over Year', amount: `${revenueData.revenueChange > 0 ? '+' : ''}${revenueData.revenueChange}%` },
               ].map((insight, index) => (
                 <Box
                   key={index}
@@ -9,7 +9,7 @@ const LowStockAlerts = () => {
   const stompClient = useRef(null);
 
   const fetchData = () => {
-    axios.get("/api/items/low-stock?threshold=5")
+    axios.get("/api/items/low-stock")
       .then(res => setLowStockItems(res.data))
       .catch(() => setLowStockItems([]));
   };
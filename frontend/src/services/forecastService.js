@@ -0,0 +1,12 @@
+import api from './itemService';
+
+// API service functions for demand forecasts
+export const getTopForecasts = async (scope, horizon, confidence, limit) => {
+  try {
+    const response = await api.get('/forecast/top', { params: { scope, horizon, confidence, limit } });
+    return response.data;
+  } catch (error) {
+    console.error('Error fetching forecasts:', error);
+    throw error;
+  }
+};
@@ -0,0 +1,22 @@
+import api from './itemService';
+
+// API service functions for revenue rollups
+export const getRevenue = async (params) => {
+  try {
+    const response = await api.get('/revenue', { params });
+    return response.data;
+  } catch (error) {
+    console.error('Error fetching revenue:', error);
+    throw error;
+  }
+};
+
+export const getRevenueBreakdown = async (params) => {
+  try {
+    const response = await api.get('/revenue/breakdown', { params });
+    return response.data;
+  } catch (error) {
+    console.error('Error fetching revenue breakdown:', error);
+    throw error;
+  }
+};
@@ -0,0 +1,22 @@
+import api from './itemService';
+
+// API service functions for supplier scorecards
+export const getSupplierScorecards = async (params) => {
+  try {
+    const response = await api.get('/suppliers', { params });
+    return response.data;
+  } catch (error) {
+    console.error('Error fetching supplier scorecards:', error);
+    throw error;
+  }
+};
+
+export const getSupplierScorecard = async (name, params) => {
+  try {
+    const response = await api.get(`/suppliers/${encodeURIComponent(name)}/scorecard`, { params });
+    return response.data;
+  } catch (error) {
+    console.error('Error fetching supplier scorecard:', error);
+    throw error;
+  }
+};